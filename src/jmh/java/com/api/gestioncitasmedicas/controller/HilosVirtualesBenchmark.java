@@ -0,0 +1,176 @@
+package com.api.gestioncitasmedicas.controller;
+
+import com.api.gestioncitasmedicas.GestioncitasmedicasApplication;
+import com.api.gestioncitasmedicas.service.CitaService;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Carga sobre /api/citas contra el servidor real (Tomcat en un puerto libre) con H2 y una latencia
+// artificial en cada sentencia, como una BD que se puso lenta. Compara el pool de hilos de Tomcat
+// con spring.threads.virtual.enabled=true. Hay más clientes (64) que hilos de Tomcat (16) y más
+// conexiones (32) que hilos, así que con hilos de plataforma el cuello de botella son los hilos
+// bloqueados en JDBC; con hilos virtuales pasa a ser el pool de conexiones (y PermisosConexiones).
+// SampleTime da el p99 de cada petición y Throughput las peticiones por segundo. Clientes y
+// servidor comparten la máquina: con pocos núcleos ambos modos quedan limitados por CPU y la
+// comparación no dice nada
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class HilosVirtualesBenchmark {
+
+    @Param({"plataforma", "virtuales"})
+    private String hilos;
+
+    // Latencia agregada a cada sentencia SQL
+    @Param({"50"})
+    private long latenciaMs;
+
+    private ServletWebServerApplicationContext contexto;
+    private HttpClient cliente;
+    private String base;
+
+    private List<Map<String, Object>> asignaciones;
+    private long primerPaciente;
+    private int pacientes;
+    private LocalDate primerLunesLibre;
+    private final AtomicLong reservas = new AtomicLong();
+
+    @Setup
+    public void iniciar() {
+        LatenciaBD.milisegundos = latenciaMs;
+        contexto = (ServletWebServerApplicationContext) new SpringApplicationBuilder(
+                GestioncitasmedicasApplication.class, LatenciaBD.class)
+                .profiles("h2", "generador")
+                .logStartupInfo(false)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:carga_" + hilos + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.threads.virtual.enabled=" + hilos.equals("virtuales"),
+                        "--server.tomcat.threads.max=16",
+                        "--spring.datasource.hikari.maximum-pool-size=32",
+                        "--generador.especialidades=10",
+                        "--generador.medicos=50",
+                        "--generador.pacientes=2000",
+                        "--generador.citas=10000",
+                        "--logging.level.root=WARN");
+        base = "http://localhost:" + contexto.getWebServer().getPort();
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        // Una especialidad por médico, para que dos reservas nunca caigan en el mismo horario
+        asignaciones = jdbcTemplate.queryForList(
+                "SELECT id_medico, MIN(id_especialidad) AS id_especialidad FROM medico_especialidad GROUP BY id_medico");
+        primerPaciente = jdbcTemplate.queryForObject("SELECT MIN(id_paciente) FROM paciente", Long.class);
+        pacientes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM paciente", Integer.class);
+        primerLunesLibre = jdbcTemplate.queryForObject("SELECT MAX(fecha_cita) FROM cita", LocalDate.class)
+                .with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    // Página de citas de un médico (una consulta)
+    @Benchmark
+    public int leer() throws Exception {
+        long n = reservas.getAndIncrement();
+        Object medico = asignaciones.get((int) (n % asignaciones.size())).get("id_medico");
+        return enviar(HttpRequest.newBuilder(URI.create(base + "/api/citas?tamanio=20&medico=" + medico)).GET(), 200);
+    }
+
+    // Reserva en un horario siempre libre: cada invocación toma el siguiente (médico, día, hora)
+    // después de las citas generadas
+    @Benchmark
+    public int reservar() throws Exception {
+        long n = reservas.getAndIncrement();
+        Map<String, Object> asignacion = asignaciones.get((int) (n % asignaciones.size()));
+        long bloque = n / asignaciones.size();
+        String cuerpo = "{\"idPaciente\":" + (primerPaciente + n % pacientes)
+                + ",\"idMedico\":" + asignacion.get("id_medico")
+                + ",\"idEspecialidad\":" + asignacion.get("id_especialidad")
+                + ",\"fechaCita\":\"" + diaHabil(bloque / 8) + "\""
+                + ",\"horaCita\":\"" + CitaService.HORARIOS_VALIDOS.get((int) (bloque % 8)) + "\""
+                + ",\"motivoCita\":\"Carga\"}";
+        return enviar(HttpRequest.newBuilder(URI.create(base + "/api/citas"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo)), 201);
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    private int enviar(HttpRequest.Builder peticion, int esperado) throws Exception {
+        HttpResponse<String> respuesta = cliente.send(peticion.build(), HttpResponse.BodyHandlers.ofString());
+        if (respuesta.statusCode() != esperado) {
+            throw new IllegalStateException(respuesta.statusCode() + " " + respuesta.body());
+        }
+        return respuesta.body().length();
+    }
+
+    // Día hábil número indice a partir del primer lunes libre
+    private LocalDate diaHabil(long indice) {
+        return primerLunesLibre.plusWeeks(indice / 5).plusDays(indice % 5);
+    }
+
+    // Duerme antes de cada sentencia con la conexión tomada, como lo haría una BD lenta
+    @Configuration
+    static class LatenciaBD {
+
+        static volatile long milisegundos;
+
+        @Bean
+        static BeanPostProcessor latenciaDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                        // DelegatingDataSource para que ConfiguracionMetricas lo siga envolviendo
+                        return new DelegatingDataSource(ProxyDataSourceBuilder.create(dataSource)
+                                .listener(new QueryExecutionListener() {
+                                    @Override
+                                    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                        try {
+                                            Thread.sleep(milisegundos);
+                                        } catch (InterruptedException e) {
+                                            Thread.currentThread().interrupt();
+                                        }
+                                    }
+
+                                    @Override
+                                    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                                    }
+                                })
+                                .build());
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
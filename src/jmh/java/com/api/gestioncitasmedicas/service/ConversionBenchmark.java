@@ -0,0 +1,62 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.dto.CitaDTO;
+import com.api.gestioncitasmedicas.dto.MedicoDTO;
+import com.api.gestioncitasmedicas.dto.PacienteDTO;
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.repository.projection.CitaResumen;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+// Conversión a DTO de cita, médico y paciente, y validación de horario
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+
+    private DatosBenchmark datos;
+    private CitaResumen resumen;
+
+    // 16:00 es el último de HORARIOS_VALIDOS (peor caso de la búsqueda); 12:00 no está
+    private LocalTime horaValida = LocalTime.of(16, 0);
+    private LocalTime horaInvalida = LocalTime.of(12, 0);
+
+    @Setup
+    public void preparar() {
+        datos = new DatosBenchmark();
+        resumen = new CitaResumen(1L, datos.lunes, LocalTime.of(9, 0), "Consulta de rutina",
+                Cita.EstadoCita.PENDIENTE, 1L, "Juan", "Pérez", 1L, "Carlos", "Rodríguez", 1L, "Cardiología");
+    }
+
+    @Benchmark
+    public CitaDTO convertirCita() {
+        return CitaService.convertirADTO(resumen);
+    }
+
+    // findById en memoria + conversión (especialidades desde el índice y la caché)
+    @Benchmark
+    public MedicoDTO convertirMedico() {
+        return datos.medicoService.obtenerPorId(1L);
+    }
+
+    // findById y conteo de citas en memoria + conversión (incluye el cálculo de la edad)
+    @Benchmark
+    public PacienteDTO convertirPaciente() {
+        return datos.pacienteService.obtenerPorId(1L);
+    }
+
+    @Benchmark
+    public boolean esHorarioValido() {
+        return CitaService.esHorarioValido(horaValida);
+    }
+
+    @Benchmark
+    public boolean esHorarioInvalido() {
+        return CitaService.esHorarioValido(horaInvalida);
+    }
+}
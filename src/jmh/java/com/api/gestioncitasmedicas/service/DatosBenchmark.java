@@ -0,0 +1,109 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.entity.Medico;
+import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
+import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.index.FiltroCorreos;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
+import com.api.gestioncitasmedicas.index.IndiceOcupacion;
+import com.api.gestioncitasmedicas.index.PropiedadesIndiceOcupacion;
+import com.api.gestioncitasmedicas.index.IndicePacientes;
+import com.api.gestioncitasmedicas.repository.CitaRepository;
+import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.MedicoRepository;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import com.api.gestioncitasmedicas.repository.projection.DatosReserva;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.api.gestioncitasmedicas.service.RepositoriosEnMemoria.repositorio;
+
+// Un paciente, un médico con una especialidad y los servicios reales armados sobre
+// repositorios en memoria (sin Spring ni BD): lo que se mide es solo el código de la API
+final class DatosBenchmark {
+
+    final Paciente paciente = new Paciente();
+    final Medico medico = new Medico();
+    final Especialidad especialidad = new Especialidad();
+
+    // Próximo lunes: día hábil para las reservas
+    final LocalDate lunes;
+
+    final IndiceOcupacion indiceOcupacion;
+    final CitaService citaService;
+    final MedicoService medicoService;
+    final PacienteService pacienteService;
+
+    private final AtomicLong secuencia = new AtomicLong();
+
+    DatosBenchmark() {
+        paciente.setIdPaciente(1L);
+        paciente.setNombrePaciente("Juan");
+        paciente.setApellidoPaciente("Pérez");
+        paciente.setFechaNacimiento(LocalDate.of(1985, 3, 15));
+        paciente.setTelefonoPaciente("70001234");
+        paciente.setCorreoPaciente("juan.perez@email.com");
+
+        medico.setIdMedico(1L);
+        medico.setNombreMedico("Carlos");
+        medico.setApellidoMedico("Rodríguez");
+        medico.setTelefonoMedico("77001234");
+        medico.setCorreoMedico("carlos.rodriguez@hospital.com");
+
+        especialidad.setIdEspecialidad(1L);
+        especialidad.setNombreEspecialidad("Cardiología");
+
+        LocalDate fecha = LocalDate.now().plusDays(1);
+        while (fecha.getDayOfWeek() != DayOfWeek.MONDAY) {
+            fecha = fecha.plusDays(1);
+        }
+        lunes = fecha;
+
+        DatosReserva datosReserva = new DatosReserva(1L, "Juan", "Pérez", 1L, "Carlos", "Rodríguez");
+        CitaRepository citaRepository = repositorio(CitaRepository.class, Map.of(
+                "findDatosReserva", args -> Optional.of(datosReserva),
+                "findHorasOcupadas", args -> List.of(),
+                "countByPacienteIdPaciente", args -> 3L,
+                "save", args -> {
+                    Cita cita = (Cita) args[0];
+                    cita.setIdCita(secuencia.incrementAndGet());
+                    return cita;
+                }
+        ));
+        MedicoRepository medicoRepository = repositorio(MedicoRepository.class, Map.of(
+                "findById", args -> Optional.of(medico),
+                "getReferenceById", args -> medico
+        ));
+        PacienteRepository pacienteRepository = repositorio(PacienteRepository.class, Map.of(
+                "findById", args -> Optional.of(paciente),
+                "getReferenceById", args -> paciente
+        ));
+        EspecialidadRepository especialidadRepository = repositorio(EspecialidadRepository.class, Map.of(
+                "findAll", args -> List.of(especialidad)
+        ));
+        MedicoEspecialidadRepository medicoEspecialidadRepository = repositorio(MedicoEspecialidadRepository.class, Map.of(
+                "findAll", args -> List.of(new MedicoEspecialidad(1L, 1L, 1L, null))
+        ));
+
+        CacheEspecialidades cacheEspecialidades = new CacheEspecialidades(especialidadRepository);
+        IndiceMedicoEspecialidad indiceMedicoEspecialidad = new IndiceMedicoEspecialidad(medicoEspecialidadRepository);
+        FiltroCorreos filtroCorreos = new FiltroCorreos(medicoRepository, pacienteRepository);
+        indiceOcupacion = new IndiceOcupacion(citaRepository, new PropiedadesIndiceOcupacion());
+
+        citaService = new CitaService(citaRepository, medicoRepository, pacienteRepository, cacheEspecialidades,
+                indiceMedicoEspecialidad, indiceOcupacion, new BloqueosAgenda());
+        medicoService = new MedicoService(medicoRepository, medicoEspecialidadRepository, cacheEspecialidades,
+                indiceMedicoEspecialidad, citaRepository, filtroCorreos);
+        pacienteService = new PacienteService(pacienteRepository, citaRepository,
+                new IndicePacientes(pacienteRepository), filtroCorreos);
+    }
+}
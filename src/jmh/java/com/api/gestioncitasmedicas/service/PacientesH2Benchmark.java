@@ -0,0 +1,90 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.GestioncitasmedicasApplication;
+import com.api.gestioncitasmedicas.dto.PacienteDTO;
+import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.repository.CitaRepository;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import com.api.gestioncitasmedicas.repository.projection.ConteoPorId;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Lo que hace GET /api/pacientes (listado + conteo de citas + JSON) con Spring, JPA y H2, por la
+// ruta anterior (entidades Paciente fuera de una transacción) y por la actual (PacienteResumen en
+// una transacción de solo lectura). Se corre con -prof gc (ya incluido en el perfil jmh):
+// gc.alloc.rate.norm es lo que se asigna en el heap por petición
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PacientesH2Benchmark {
+
+    @Param({"1000"})
+    private int pacientes;
+
+    private ConfigurableApplicationContext contexto;
+    private PacienteService pacienteService;
+    private PacienteRepository pacienteRepository;
+    private CitaRepository citaRepository;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(GestioncitasmedicasApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("h2", "generador")
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:pacientes_" + pacientes + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--generador.especialidades=10",
+                        "--generador.medicos=50",
+                        "--generador.pacientes=" + pacientes,
+                        "--generador.citas=" + pacientes * 5,
+                        "--logging.level.root=WARN");
+        pacienteService = contexto.getBean(PacienteService.class);
+        pacienteRepository = contexto.getBean(PacienteRepository.class);
+        citaRepository = contexto.getBean(CitaRepository.class);
+        objectMapper = contexto.getBean(ObjectMapper.class);
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    // Ruta anterior: findAll() arma una entidad administrada por paciente
+    @Benchmark
+    public byte[] entidades() throws Exception {
+        List<Paciente> lista = pacienteRepository.findAll();
+        Map<Long, Long> citasPorPaciente = new HashMap<>();
+        for (ConteoPorId conteo : citaRepository.contarCitasPorPaciente()) {
+            citasPorPaciente.put(conteo.getId(), conteo.getCantidad());
+        }
+        List<PacienteDTO> dtos = new ArrayList<>(lista.size());
+        for (Paciente p : lista) {
+            dtos.add(new PacienteDTO(p.getIdPaciente(), p.getNombrePaciente(), p.getApellidoPaciente(),
+                    p.getFechaNacimiento(), Period.between(p.getFechaNacimiento(), LocalDate.now()).getYears(),
+                    p.getTelefonoPaciente(), p.getCorreoPaciente(),
+                    citasPorPaciente.getOrDefault(p.getIdPaciente(), 0L).intValue()));
+        }
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    // Ruta actual: PacienteService.obtenerTodos
+    @Benchmark
+    public byte[] proyecciones() throws Exception {
+        return objectMapper.writeValueAsBytes(pacienteService.obtenerTodos());
+    }
+}
@@ -0,0 +1,34 @@
+package com.api.gestioncitasmedicas.service;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+// Repositorios en memoria para los benchmarks: un proxy dinámico implementa solo los métodos
+// que usa cada escenario y falla con cualquier otro, así un cambio que agregue consultas a la
+// ruta medida se nota en vez de medirse contra un método vacío
+final class RepositoriosEnMemoria {
+
+    private RepositoriosEnMemoria() {
+    }
+
+    static <T> T repositorio(Class<T> tipo, Map<String, Function<Object[], Object>> metodos) {
+        return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+            Function<Object[], Object> implementacion = metodos.get(metodo.getName());
+            if (implementacion != null) {
+                return implementacion.apply(args);
+            }
+            switch (metodo.getName()) {
+                case "toString":
+                    return tipo.getSimpleName() + " en memoria";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(
+                            tipo.getSimpleName() + "." + metodo.getName() + " no está implementado en memoria");
+            }
+        }));
+    }
+}
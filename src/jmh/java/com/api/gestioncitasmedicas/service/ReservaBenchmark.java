@@ -0,0 +1,65 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.dto.CitaDTO;
+import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.exception.NegocioException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+// CitaService.crear sobre repositorios en memoria: reserva aceptada y los rechazos más comunes
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservaBenchmark {
+
+    private static final LocalTime HORA = LocalTime.of(9, 0);
+
+    private DatosBenchmark datos;
+    private CrearCitaDTO valida;
+    private CrearCitaDTO finDeSemana;
+    private CrearCitaDTO horarioOcupado;
+
+    @Setup
+    public void preparar() {
+        datos = new DatosBenchmark();
+        valida = new CrearCitaDTO(1L, 1L, 1L, datos.lunes, HORA, "Consulta de rutina");
+        finDeSemana = new CrearCitaDTO(1L, 1L, 1L, datos.lunes.plusDays(5), HORA, "Consulta de rutina");
+
+        LocalDate martes = datos.lunes.plusDays(1);
+        horarioOcupado = new CrearCitaDTO(1L, 1L, 1L, martes, HORA, "Consulta de rutina");
+        datos.indiceOcupacion.mascara(1L, martes); // Cargar el día para que ocupar() lo marque
+        datos.indiceOcupacion.ocupar(1L, martes, HORA);
+    }
+
+    // Reserva aceptada; se libera el horario para que la siguiente invocación también pase
+    @Benchmark
+    public CitaDTO crearAceptada() {
+        CitaDTO cita = datos.citaService.crear(valida);
+        datos.indiceOcupacion.liberar(1L, valida.getFechaCita(), HORA);
+        return cita;
+    }
+
+    @Benchmark
+    public Object crearRechazadaFinDeSemana() {
+        return rechazo(finDeSemana);
+    }
+
+    @Benchmark
+    public Object crearRechazadaHorarioOcupado() {
+        return rechazo(horarioOcupado);
+    }
+
+    private Object rechazo(CrearCitaDTO dto) {
+        try {
+            return datos.citaService.crear(dto);
+        } catch (NegocioException e) {
+            return e;
+        }
+    }
+}
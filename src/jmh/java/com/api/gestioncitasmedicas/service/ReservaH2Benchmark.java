@@ -0,0 +1,86 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.GestioncitasmedicasApplication;
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
+import com.api.gestioncitasmedicas.dto.CitaDTO;
+import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.entity.Medico;
+import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
+import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
+import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.MedicoRepository;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+// CitaService.crear + eliminar con el contexto de Spring completo sobre H2 en memoria (la misma
+// configuración que las pruebas): incluye JPA, las transacciones y el SQL real, a diferencia de
+// ReservaBenchmark que mide solo el código de la API
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservaH2Benchmark {
+
+    private ConfigurableApplicationContext contexto;
+    private CitaService citaService;
+    private CrearCitaDTO valida;
+
+    @Setup
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(GestioncitasmedicasApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        citaService = contexto.getBean(CitaService.class);
+
+        DatosBenchmark datos = new DatosBenchmark();
+        Paciente paciente = datos.paciente;
+        paciente.setIdPaciente(null);
+        paciente = contexto.getBean(PacienteRepository.class).save(paciente);
+        Medico medico = datos.medico;
+        medico.setIdMedico(null);
+        medico = contexto.getBean(MedicoRepository.class).save(medico);
+        Especialidad especialidad = datos.especialidad;
+        especialidad.setIdEspecialidad(null);
+        especialidad = contexto.getBean(EspecialidadRepository.class).save(especialidad);
+        contexto.getBean(MedicoEspecialidadRepository.class).save(
+                new MedicoEspecialidad(null, medico.getIdMedico(), especialidad.getIdEspecialidad(), null));
+
+        // Los índices se cargaron al arrancar, antes de estos datos
+        contexto.getBean(CacheEspecialidades.class).recargar();
+        contexto.getBean(IndiceMedicoEspecialidad.class).recargar();
+
+        valida = new CrearCitaDTO(paciente.getIdPaciente(), medico.getIdMedico(), especialidad.getIdEspecialidad(),
+                datos.lunes, LocalTime.of(9, 0), "Consulta de rutina");
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    // Reserva aceptada y eliminada, para que la siguiente invocación encuentre el horario libre
+    @Benchmark
+    public CitaDTO crearYEliminar() {
+        CitaDTO cita = citaService.crear(valida);
+        citaService.eliminar(cita.getIdCita());
+        return cita;
+    }
+}
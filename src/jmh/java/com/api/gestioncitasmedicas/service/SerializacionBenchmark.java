@@ -0,0 +1,49 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.dto.CitaDTO;
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.repository.projection.CitaResumen;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización JSON de una página de citas con la misma configuración de Jackson que usa Spring
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacionBenchmark {
+
+    // 50 = página por defecto, 200 = página máxima, 1000 = listado sin paginar
+    @Param({"50", "200", "1000"})
+    private int cantidad;
+
+    private ObjectMapper objectMapper;
+    private List<CitaDTO> citas;
+
+    @Setup
+    public void preparar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        citas = new ArrayList<>(cantidad);
+        LocalDate fecha = LocalDate.of(2030, 1, 7);
+        for (int i = 0; i < cantidad; i++) {
+            citas.add(CitaService.convertirADTO(new CitaResumen((long) i, fecha.plusDays(i / 8),
+                    CitaService.HORARIOS_VALIDOS.get(i % 8), "Consulta de rutina", Cita.EstadoCita.PENDIENTE,
+                    (long) i, "Paciente" + i, "Apellido" + i, 1L, "Carlos", "Rodríguez", 1L, "Cardiología")));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarCitas() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(citas);
+    }
+}
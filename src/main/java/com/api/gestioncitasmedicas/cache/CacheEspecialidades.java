@@ -0,0 +1,137 @@
+package com.api.gestioncitasmedicas.cache;
+
+import com.api.gestioncitasmedicas.dto.EstadisticasCacheDTO;
+import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caché en memoria de todas las especialidades (datos de referencia: pocas filas que casi no cambian).
+// Se carga al iniciar y se recarga completa cuando EspecialidadService crea, actualiza o elimina.
+// Las lecturas usan una instantánea inmutable, así que no necesitan bloqueo.
+// Las entidades devueltas son compartidas entre hilos: no deben modificarse
+@Component
+@RequiredArgsConstructor
+public class CacheEspecialidades {
+
+    private final EspecialidadRepository especialidadRepository;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder recargas = new LongAdder();
+
+    private volatile Instantanea instantanea;
+
+    // Contenido de la caché en un momento dado (se reemplaza completo en cada recarga)
+    private record Instantanea(Map<Long, Especialidad> porId,
+                               Map<String, Especialidad> porNombre,
+                               List<Especialidad> todas,
+                               LocalDateTime cargada) {
+    }
+
+    // Cargar al arrancar para que la primera petición no pague la consulta
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        recargar();
+    }
+
+    // Volver a leer todas las especialidades de la BD
+    public synchronized void recargar() {
+        List<Especialidad> todas = especialidadRepository.findAll().stream()
+                .sorted(Comparator.comparing(Especialidad::getIdEspecialidad))
+                .toList();
+
+        Map<Long, Especialidad> porId = new HashMap<>();
+        Map<String, Especialidad> porNombre = new HashMap<>();
+        for (Especialidad especialidad : todas) {
+            porId.put(especialidad.getIdEspecialidad(), especialidad);
+            porNombre.put(normalizar(especialidad.getNombreEspecialidad()), especialidad);
+        }
+
+        instantanea = new Instantanea(Map.copyOf(porId), Map.copyOf(porNombre), todas, LocalDateTime.now());
+        recargas.increment();
+    }
+
+    // Buscar por ID. Si no está (p. ej. la creó otra instancia de la API) se consulta la BD
+    // y, si existe, se recarga la caché
+    public Optional<Especialidad> buscarPorId(Long idEspecialidad) {
+        Especialidad especialidad = actual().porId().get(idEspecialidad);
+        if (especialidad != null) {
+            aciertos.increment();
+            return Optional.of(especialidad);
+        }
+
+        fallos.increment();
+        if (idEspecialidad == null || !especialidadRepository.existsById(idEspecialidad)) {
+            return Optional.empty();
+        }
+        recargar();
+        return Optional.ofNullable(actual().porId().get(idEspecialidad));
+    }
+
+    // Verificar si existe una especialidad con ese ID
+    public boolean existe(Long idEspecialidad) {
+        return buscarPorId(idEspecialidad).isPresent();
+    }
+
+    // Buscar por nombre sin distinguir mayúsculas (igual que la collation de MySQL)
+    public Optional<Especialidad> buscarPorNombre(String nombreEspecialidad) {
+        Especialidad especialidad = nombreEspecialidad != null
+                ? actual().porNombre().get(normalizar(nombreEspecialidad))
+                : null;
+        if (especialidad != null) {
+            aciertos.increment();
+        } else {
+            fallos.increment();
+        }
+        return Optional.ofNullable(especialidad);
+    }
+
+    // Todas las especialidades ordenadas por ID
+    public List<Especialidad> todas() {
+        aciertos.increment();
+        return actual().todas();
+    }
+
+    // Contadores para el endpoint de mantenimiento
+    public EstadisticasCacheDTO estadisticas() {
+        Instantanea actual = actual();
+        long totalAciertos = aciertos.sum();
+        long totalFallos = fallos.sum();
+        long consultas = totalAciertos + totalFallos;
+        return new EstadisticasCacheDTO(
+                "especialidades",
+                actual.porId().size(),
+                totalAciertos,
+                totalFallos,
+                recargas.sum(),
+                consultas > 0 ? (double) totalAciertos / consultas : 0.0,
+                actual.cargada()
+        );
+    }
+
+    // Si aún no se cargó (peticiones antes de ApplicationReadyEvent o pruebas) se carga aquí
+    private Instantanea actual() {
+        Instantanea actual = instantanea;
+        if (actual == null) {
+            recargar();
+            actual = instantanea;
+        }
+        return actual;
+    }
+
+    private static String normalizar(String nombre) {
+        return nombre.trim().toLowerCase(Locale.ROOT);
+    }
+}
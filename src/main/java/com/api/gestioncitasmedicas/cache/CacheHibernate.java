@@ -0,0 +1,62 @@
+package com.api.gestioncitasmedicas.cache;
+
+import com.api.gestioncitasmedicas.dto.EstadisticasCacheDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import java.util.ArrayList;
+import java.util.List;
+
+// Estado y vaciado de la caché de segundo nivel de Hibernate (ver ConfiguracionCacheHibernate)
+@Component
+@RequiredArgsConstructor
+public class CacheHibernate {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManagerHibernate;
+
+    // Aciertos, fallos y entradas de cada región; vacío si la caché está desactivada
+    public List<EstadisticasCacheDTO> estadisticas() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return List.of();
+        }
+
+        Statistics statistics = sessionFactory.getStatistics();
+        List<EstadisticasCacheDTO> estadisticas = new ArrayList<>();
+        for (String region : ConfiguracionCacheHibernate.REGIONES_ENTIDADES) {
+            estadisticas.add(aDTO(region, statistics.getDomainDataRegionStatistics(region)));
+        }
+        return estadisticas;
+    }
+
+    // Vaciar todas las regiones, para cuando médicos o especialidades se modifican directamente
+    // en la BD (Hibernate solo se entera de lo que se escribe por JPA)
+    public void vaciar() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Las regiones de Hibernate no se recargan completas: recargas y ultimaRecarga van en null
+    private EstadisticasCacheDTO aDTO(String region, CacheRegionStatistics estadisticas) {
+        long aciertos = estadisticas.getHitCount();
+        long fallos = estadisticas.getMissCount();
+        long consultas = aciertos + fallos;
+        return new EstadisticasCacheDTO(
+                "hibernate:" + region,
+                (int) cacheManagerHibernate.getCache(region).unwrap(Cache.class).estimatedSize(),
+                aciertos,
+                fallos,
+                null,
+                consultas > 0 ? (double) aciertos / consultas : 0.0,
+                null
+        );
+    }
+}
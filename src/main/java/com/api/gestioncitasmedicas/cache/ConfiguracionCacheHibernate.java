@@ -0,0 +1,73 @@
+package com.api.gestioncitasmedicas.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// Caché de segundo nivel de Hibernate para los datos de referencia que se leen en cada cita y casi
+// no cambian: Medico, Especialidad y MedicoEspecialidad. Sirve a las cargas por ID de las escrituras
+// (mover o cambiar de estado una cita, actualizar un médico); los listados y GET por ID usan
+// proyecciones y no pasan por ella. Sin caché de consultas: ninguna lectura repite la misma consulta
+// de entidades. Cada región es una caché de Caffeine (vía JCache) con tamaño máximo y TTL.
+// Hibernate invalida las entradas en cada escritura hecha por JPA; si se modifican esas tablas
+// directamente en la BD hay que vaciarla (CacheHibernate.vaciar)
+@Configuration
+@EnableConfigurationProperties(PropiedadesCacheHibernate.class)
+public class ConfiguracionCacheHibernate {
+
+    // Regiones de entidades (los mismos nombres que en las anotaciones @Cache)
+    public static final List<String> REGIONES_ENTIDADES = List.of("medico", "especialidad", "medico_especialidad");
+
+    // Un CacheManager propio por contexto: Hibernate lo cierra junto con el EntityManagerFactory, y
+    // con el compartido de Caffeine dos contextos (p. ej. en las pruebas, cada uno con su BD) se
+    // servirían las entidades entre sí
+    @Bean
+    public CacheManager cacheManagerHibernate(PropiedadesCacheHibernate propiedades) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("gestioncitasmedicas:hibernate-" + UUID.randomUUID()),
+                        ConfiguracionCacheHibernate.class.getClassLoader());
+        for (String region : REGIONES_ENTIDADES) {
+            cacheManager.createCache(region, configuracion(propiedades.getMaximoEntidades(), propiedades.getTtl()));
+        }
+        return cacheManager;
+    }
+
+    // Las propiedades spring.jpa.properties.hibernate.cache.* siguen pudiendo desactivarla
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager cacheManagerHibernate) {
+        return propiedades -> {
+            propiedades.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            propiedades.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            propiedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerHibernate);
+            // Una región sin configurar es un error, no una caché sin límites
+            propiedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Aciertos y fallos por región (GET /api/mantenimiento/cache y /actuator/prometheus),
+            // sin el resumen que Hibernate registra al cerrar cada sesión
+            propiedades.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, true);
+            propiedades.putIfAbsent(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    private static CaffeineConfiguration<Object, Object> configuracion(long maximo, Duration ttl) {
+        return new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(maximo))
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                // Hibernate ya guarda una copia desarmada de cada entidad: no hace falta otra por lectura
+                .setStoreByValue(false);
+    }
+}
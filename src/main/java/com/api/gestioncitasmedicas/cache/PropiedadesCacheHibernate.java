@@ -0,0 +1,18 @@
+package com.api.gestioncitasmedicas.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Tamaño y vigencia de la caché de segundo nivel de Hibernate (prefijo cache-hibernate.*)
+@Data
+@ConfigurationProperties(prefix = "cache-hibernate")
+public class PropiedadesCacheHibernate {
+
+    // Entradas como máximo en cada región de entidades; al llenarse se desalojan las menos usadas
+    private long maximoEntidades = 10_000;
+
+    // Vigencia de una entrada desde que se escribió (acota cuánto dura un cambio hecho fuera de la API)
+    private Duration ttl = Duration.ofMinutes(10);
+}
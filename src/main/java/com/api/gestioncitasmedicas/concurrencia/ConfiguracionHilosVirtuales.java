@@ -0,0 +1,55 @@
+package com.api.gestioncitasmedicas.concurrencia;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+// Con spring.threads.virtual.enabled=true Spring Boot atiende las peticiones (y las tareas
+// asíncronas, como las exportaciones) en hilos virtuales. Esta configuración solo se activa en
+// ese modo y pone PermisosConexiones delante del pool de conexiones
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@EnableConfigurationProperties(PropiedadesPermisosBD.class)
+public class ConfiguracionHilosVirtuales {
+
+    // Con prioridad alta para envolver el pool real, antes que el proxy de InspectorConsultas
+    @Bean
+    public static BeanPostProcessor permisosDataSource(ObjectProvider<PropiedadesPermisosBD> propiedades) {
+        return new PostProcesador(propiedades);
+    }
+
+    private record PostProcesador(ObjectProvider<PropiedadesPermisosBD> propiedades)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof PermisosConexiones)) {
+                PropiedadesPermisosBD config = propiedades.getObject();
+                int maximo = config.getMaximo() > 0 ? config.getMaximo() : tamanioPool(dataSource);
+                log.info("Hilos virtuales: como máximo {} conexiones tomadas a la vez en '{}'", maximo, beanName);
+                return new PermisosConexiones(dataSource, maximo, config.getEsperaMs());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        // Sin un pool de Hikari se usa su tamaño por defecto
+        private static int tamanioPool(DataSource dataSource) {
+            return dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.api.gestioncitasmedicas.concurrencia;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// DataSource que reparte un número fijo de permisos: cada getConnection() toma uno (en orden de
+// llegada) y lo devuelve al cerrar la conexión. Con hilos virtuales no hay un pool de Tomcat que
+// limite las peticiones simultáneas, y miles de hilos pidiendo conexión a la vez a Hikari compiten
+// todos por el mismo pool hasta que vence su connection-timeout. Aquí esperan en una cola justa
+// y el pool solo ve tantas peticiones como conexiones tiene
+public class PermisosConexiones extends DelegatingDataSource {
+
+    private final Semaphore permisos;
+    private final int maximo;
+    private final long esperaMs;
+
+    public PermisosConexiones(DataSource destino, int maximo, long esperaMs) {
+        super(destino);
+        this.permisos = new Semaphore(maximo, true);
+        this.maximo = maximo;
+        this.esperaMs = esperaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        tomarPermiso();
+        try {
+            return liberarAlCerrar(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        tomarPermiso();
+        try {
+            return liberarAlCerrar(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    public int getMaximo() {
+        return maximo;
+    }
+
+    // Permisos libres en este momento
+    public int disponibles() {
+        return permisos.availablePermits();
+    }
+
+    // Hilos esperando un permiso (aproximado)
+    public int enEspera() {
+        return permisos.getQueueLength();
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    private void tomarPermiso() throws SQLException {
+        try {
+            if (!permisos.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("No se obtuvo una conexión en " + esperaMs
+                        + " ms (" + maximo + " tomadas, " + enEspera() + " en espera)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido mientras esperaba una conexión", e);
+        }
+    }
+
+    // El permiso se devuelve una sola vez aunque close() se llame varias veces
+    private Connection liberarAlCerrar(Connection conexion) {
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    switch (metodo.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (cerrada.compareAndSet(false, true)) {
+                                try {
+                                    return invocar(conexion, metodo, args);
+                                } finally {
+                                    permisos.release();
+                                }
+                            }
+                            return null;
+                        default:
+                            return invocar(conexion, metodo, args);
+                    }
+                });
+    }
+
+    private static Object invocar(Connection conexion, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(conexion, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.api.gestioncitasmedicas.concurrencia;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Límite de conexiones tomadas a la vez cuando las peticiones corren en hilos virtuales
+// (prefijo permisos-bd.*)
+@Data
+@ConfigurationProperties(prefix = "permisos-bd")
+public class PropiedadesPermisosBD {
+
+    // Conexiones que pueden estar tomadas a la vez; 0 = el tamaño del pool de Hikari
+    private int maximo = 0;
+
+    // Espera máxima por un permiso antes de fallar la petición
+    private long esperaMs = 30_000;
+}
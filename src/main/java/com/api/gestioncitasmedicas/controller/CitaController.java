@@ -4,13 +4,22 @@ import com.api.gestioncitasmedicas.dto.ActualizarCitaDTO;
 import com.api.gestioncitasmedicas.dto.CambiarEstadoCitaDTO;
 import com.api.gestioncitasmedicas.dto.CitaDTO;
 import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.dto.HorarioDisponibleDTO;
+import com.api.gestioncitasmedicas.dto.PaginaDTO;
+import com.api.gestioncitasmedicas.dto.ResultadoLoteDTO;
+import com.api.gestioncitasmedicas.service.CitaExportService;
+import com.api.gestioncitasmedicas.service.CitaLoteService;
 import com.api.gestioncitasmedicas.service.CitaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -19,19 +28,60 @@ import java.util.List;
 public class CitaController {
 
     private final CitaService citaService;
+    private final CitaLoteService citaLoteService;
+    private final CitaExportService citaExportService;
 
-    // GET /api/citas - Listar todas las citas
+    // GET /api/citas - Listar citas (paginado, 50 por defecto y 200 como máximo)
     // GET /api/citas?medico=1 - Filtrar por médico
     // GET /api/citas?paciente=1 - Filtrar por paciente
     // GET /api/citas?estado=PENDIENTE - Filtrar por estado
+    // GET /api/citas?desde=2025-11-01&hasta=2025-11-30 - Filtrar por rango de fechas
+    // Los filtros se pueden combinar. Siguiente página: GET /api/citas?...&cursor={siguienteCursor}
     @GetMapping
-    public ResponseEntity<List<CitaDTO>> listarOFiltrar(
+    public ResponseEntity<PaginaDTO<CitaDTO>> listarOFiltrar(
             @RequestParam(required = false) Long medico,
             @RequestParam(required = false) Long paciente,
-            @RequestParam(required = false) String estado) {
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanio) {
 
-        List<CitaDTO> citas = citaService.filtrar(medico, paciente, estado);
-        return ResponseEntity.ok(citas);
+        PaginaDTO<CitaDTO> pagina = citaService.filtrar(medico, paciente, estado, desde, hasta, cursor, tamanio);
+        return ResponseEntity.ok(pagina);
+    }
+
+    // GET /api/citas/export?formato=csv&desde=2025-10-01&hasta=2025-10-31
+    // Exporta todas las citas del rango (ndjson por defecto o csv) escribiéndolas en la respuesta
+    // a medida que se leen de la base de datos, sin paginar ni cargarlas en memoria
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+
+        // Los errores de parámetros se reportan antes de empezar a escribir
+        CitaExportService.Formato tipo = CitaExportService.Formato.desde(formato);
+        citaExportService.validarRango(desde, hasta);
+
+        StreamingResponseBody cuerpo = salida -> citaExportService.exportar(tipo, desde, hasta, salida);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, tipo.getTipoContenido())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"citas." + tipo.getExtension() + "\"")
+                .body(cuerpo);
+    }
+
+    // GET /api/citas/disponibilidad?especialidad=1&desde=2025-11-24&hasta=2025-11-28&limite=10
+    // Primeros horarios libres (médico, fecha, hora) de una especialidad
+    @GetMapping("/disponibilidad")
+    public ResponseEntity<List<HorarioDisponibleDTO>> disponibilidad(
+            @RequestParam Long especialidad,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Integer limite) {
+
+        List<HorarioDisponibleDTO> horarios = citaService.buscarDisponibilidad(especialidad, desde, hasta, limite);
+        return ResponseEntity.ok(horarios);
     }
 
     // GET /api/citas/{id} - Obtener una cita por ID
@@ -48,6 +98,13 @@ public class CitaController {
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevaCita);
     }
 
+    // POST /api/citas/lote - Crear muchas citas a la vez (resultado por cada elemento)
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoLoteDTO> crearLote(@RequestBody List<CrearCitaDTO> citas) {
+        ResultadoLoteDTO resultado = citaLoteService.crearLote(citas);
+        return ResponseEntity.ok(resultado);
+    }
+
     // PUT /api/citas/{id} - Actualizar cita
     @PutMapping("/{id}")
     public ResponseEntity<CitaDTO> actualizar(
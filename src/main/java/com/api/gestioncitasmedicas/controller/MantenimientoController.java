@@ -0,0 +1,92 @@
+package com.api.gestioncitasmedicas.controller;
+
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
+import com.api.gestioncitasmedicas.cache.CacheHibernate;
+import com.api.gestioncitasmedicas.dto.EstadisticasCacheDTO;
+import com.api.gestioncitasmedicas.dto.EstadisticasFiltroDTO;
+import com.api.gestioncitasmedicas.dto.InformeConsultasDTO;
+import com.api.gestioncitasmedicas.index.FiltroCorreos;
+import com.api.gestioncitasmedicas.index.IndiceOcupacion;
+import com.api.gestioncitasmedicas.metricas.InspectorConsultas;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Endpoints operativos: estado de las cachés e índices en memoria y de las consultas a la BD
+@RestController
+@RequestMapping("/api/mantenimiento")
+@RequiredArgsConstructor
+public class MantenimientoController {
+
+    private final CacheEspecialidades cacheEspecialidades;
+    private final CacheHibernate cacheHibernate;
+    private final FiltroCorreos filtroCorreos;
+    private final IndiceOcupacion indiceOcupacion;
+    private final InspectorConsultas inspectorConsultas;
+
+    // GET /api/mantenimiento/cache - Aciertos, fallos y recargas de las cachés (incluidos el índice
+    // de ocupación de horarios y las regiones de la caché de segundo nivel de Hibernate)
+    @GetMapping("/cache")
+    public ResponseEntity<List<EstadisticasCacheDTO>> estadisticasCache() {
+        List<EstadisticasCacheDTO> estadisticas = new ArrayList<>();
+        estadisticas.add(cacheEspecialidades.estadisticas());
+        estadisticas.add(indiceOcupacion.estadisticas());
+        estadisticas.addAll(cacheHibernate.estadisticas());
+        return ResponseEntity.ok(estadisticas);
+    }
+
+    // POST /api/mantenimiento/cache/especialidades/recargar - Forzar la recarga desde la BD
+    @PostMapping("/cache/especialidades/recargar")
+    public ResponseEntity<EstadisticasCacheDTO> recargarEspecialidades() {
+        cacheEspecialidades.recargar();
+        return ResponseEntity.ok(cacheEspecialidades.estadisticas());
+    }
+
+    // POST /api/mantenimiento/cache/ocupacion/recargar - Descartar la ocupación en memoria para que
+    // cada día se vuelva a leer de la BD (después de cambiar citas directamente en la BD)
+    @PostMapping("/cache/ocupacion/recargar")
+    public ResponseEntity<EstadisticasCacheDTO> recargarOcupacion() {
+        indiceOcupacion.limpiar();
+        return ResponseEntity.ok(indiceOcupacion.estadisticas());
+    }
+
+    // POST /api/mantenimiento/cache/hibernate/vaciar - Descartar la caché de segundo nivel (después
+    // de modificar médicos o especialidades directamente en la BD)
+    @PostMapping("/cache/hibernate/vaciar")
+    public ResponseEntity<List<EstadisticasCacheDTO>> vaciarCacheHibernate() {
+        cacheHibernate.vaciar();
+        return ResponseEntity.ok(cacheHibernate.estadisticas());
+    }
+
+    // GET /api/mantenimiento/filtros - Consultas evitadas y falsos positivos de los filtros de correos
+    @GetMapping("/filtros")
+    public ResponseEntity<List<EstadisticasFiltroDTO>> estadisticasFiltros() {
+        return ResponseEntity.ok(filtroCorreos.estadisticas());
+    }
+
+    // POST /api/mantenimiento/filtros/correos/recargar - Reconstruir los filtros desde la BD
+    // (quita los correos eliminados o cambiados y redimensiona para los registros actuales)
+    @PostMapping("/filtros/correos/recargar")
+    public ResponseEntity<List<EstadisticasFiltroDTO>> recargarFiltrosCorreos() {
+        for (FiltroCorreos.Tabla tabla : FiltroCorreos.Tabla.values()) {
+            filtroCorreos.recargar(tabla);
+        }
+        return ResponseEntity.ok(filtroCorreos.estadisticas());
+    }
+
+    // GET /api/mantenimiento/consultas - Sentencias por método, consultas lentas y posibles N+1
+    @GetMapping("/consultas")
+    public ResponseEntity<InformeConsultasDTO> informeConsultas() {
+        return ResponseEntity.ok(inspectorConsultas.informe());
+    }
+
+    // DELETE /api/mantenimiento/consultas - Empezar a medir desde cero (por ejemplo, antes de una prueba de carga)
+    @DeleteMapping("/consultas")
+    public ResponseEntity<Void> limpiarInformeConsultas() {
+        inspectorConsultas.limpiar();
+        return ResponseEntity.noContent().build();
+    }
+}
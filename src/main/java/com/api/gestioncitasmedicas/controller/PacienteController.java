@@ -2,14 +2,22 @@ package com.api.gestioncitasmedicas.controller;
 
 import com.api.gestioncitasmedicas.dto.ActualizarPacienteDTO;
 import com.api.gestioncitasmedicas.dto.CrearPacienteDTO;
+import com.api.gestioncitasmedicas.dto.DuplicadoPacienteDTO;
 import com.api.gestioncitasmedicas.dto.PacienteDTO;
+import com.api.gestioncitasmedicas.dto.PaginaDTO;
+import com.api.gestioncitasmedicas.dto.ResultadoImportacionDTO;
+import com.api.gestioncitasmedicas.service.PacienteImportService;
 import com.api.gestioncitasmedicas.service.PacienteService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,6 +26,7 @@ import java.util.List;
 public class PacienteController {
 
     private final PacienteService pacienteService;
+    private final PacienteImportService pacienteImportService;
 
     // GET /api/pacientes - Listar todos
     @GetMapping
@@ -33,20 +42,52 @@ public class PacienteController {
         return ResponseEntity.ok(paciente);
     }
 
-    // GET /api/pacientes/buscar?termino=Juan - Buscar por nombre o apellido
+    // GET /api/pacientes/buscar?termino=Juan - Buscar por nombre o apellido (sin distinguir tildes)
+    // GET /api/pacientes/buscar?termino=Ernandes&fuzzy=true - Tolerando errores de tipeo y variantes
+    // Resultados de mejor a peor coincidencia, 50 por página; siguiente: ...&cursor={siguienteCursor}
     @GetMapping("/buscar")
-    public ResponseEntity<List<PacienteDTO>> buscar(@RequestParam String termino) {
-        List<PacienteDTO> pacientes = pacienteService.buscarPorNombre(termino);
+    public ResponseEntity<PaginaDTO<PacienteDTO>> buscar(
+            @RequestParam String termino,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanio) {
+        PaginaDTO<PacienteDTO> pacientes = pacienteService.buscarPorNombre(termino, fuzzy, cursor, tamanio);
         return ResponseEntity.ok(pacientes);
     }
 
     // POST /api/pacientes - Crear nuevo paciente
+    // Se rechaza si se parece a un paciente existente; ?forzar=true lo registra de todas formas
     @PostMapping
-    public ResponseEntity<PacienteDTO> crear(@Valid @RequestBody CrearPacienteDTO dto) {
-        PacienteDTO nuevoPaciente = pacienteService.crear(dto);
+    public ResponseEntity<PacienteDTO> crear(
+            @Valid @RequestBody CrearPacienteDTO dto,
+            @RequestParam(defaultValue = "false") boolean forzar) {
+        PacienteDTO nuevoPaciente = pacienteService.crear(dto, forzar);
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevoPaciente);
     }
 
+    // POST /api/pacientes/duplicados - Posibles duplicados de un paciente antes de registrarlo
+    // (mismos campos que POST /api/pacientes; se usan nombre, apellido, fecha de nacimiento y teléfono)
+    @PostMapping("/duplicados")
+    public ResponseEntity<List<DuplicadoPacienteDTO>> buscarDuplicados(@RequestBody CrearPacienteDTO dto) {
+        return ResponseEntity.ok(pacienteService.buscarDuplicados(dto));
+    }
+
+    // POST /api/pacientes/import - Importar pacientes desde un CSV (multipart, campo "archivo")
+    // Encabezado: nombre_paciente,apellido_paciente,fecha_nacimiento,telefono_paciente,correo_paciente
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ResultadoImportacionDTO> importar(@RequestParam("archivo") MultipartFile archivo)
+            throws IOException {
+        try (InputStream entrada = archivo.getInputStream()) {
+            return ResponseEntity.ok(pacienteImportService.importar(entrada));
+        }
+    }
+
+    // POST /api/pacientes/import - Mismo formato, enviando el CSV directo en el cuerpo (Content-Type: text/csv)
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ResultadoImportacionDTO> importarCuerpo(InputStream cuerpo) {
+        return ResponseEntity.ok(pacienteImportService.importar(cuerpo));
+    }
+
     // PUT /api/pacientes/{id} - Actualizar paciente
     @PutMapping("/{id}")
     public ResponseEntity<PacienteDTO> actualizar(
@@ -0,0 +1,20 @@
+package com.api.gestioncitasmedicas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicadoPacienteDTO {
+    private Long idPaciente;
+    private String nombrePaciente;
+    private String apellidoPaciente;
+    private LocalDate fechaNacimiento;
+    private String telefonoPaciente;
+    private String correoPaciente;
+    private Double similitud; // Entre 0 y 1: qué tan probable es que sea la misma persona
+}
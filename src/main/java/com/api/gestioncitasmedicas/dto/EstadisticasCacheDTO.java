@@ -0,0 +1,20 @@
+package com.api.gestioncitasmedicas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasCacheDTO {
+    private String nombre;
+    private Integer entradas;
+    private Long aciertos;
+    private Long fallos;             // Consultas que no se resolvieron en memoria
+    private Long recargas;           // null en las regiones de Hibernate (no se recargan completas)
+    private Double tasaAciertos;     // aciertos / (aciertos + fallos)
+    private LocalDateTime ultimaRecarga;
+}
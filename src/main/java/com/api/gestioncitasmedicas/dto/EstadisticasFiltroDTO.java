@@ -0,0 +1,25 @@
+package com.api.gestioncitasmedicas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasFiltroDTO {
+    private String nombre;
+    private Long elementos;
+    private Long capacidad;
+    private Long bits;
+    private Integer funcionesHash;
+    private Double tasaFalsosPositivosEstimada;  // Según elementos, bits y funciones hash
+    private Long consultas;
+    private Long descartados;                    // Seguro que no existían: no se consultó la BD
+    private Long verificadosEnBD;                // Posibles coincidencias que se consultaron en la BD
+    private Long falsosPositivos;                // Verificados que la BD no encontró
+    private Double tasaFalsosPositivosObservada; // falsosPositivos / (falsosPositivos + descartados)
+    private LocalDateTime ultimaRecarga;
+}
@@ -0,0 +1,19 @@
+package com.api.gestioncitasmedicas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HorarioDisponibleDTO {
+    private Long idMedico;
+    private String nombreMedico; // "Dr. Nombre Apellido"
+    private Long idEspecialidad;
+    private LocalDate fechaCita;
+    private LocalTime horaCita;
+}
@@ -0,0 +1,56 @@
+package com.api.gestioncitasmedicas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InformeConsultasDTO {
+    private Long umbralLentaMs;
+    private Integer umbralRepeticiones;
+
+    // Sentencias por método que las ejecutó, de mayor a menor tiempo total
+    private List<OrigenDTO> origenes;
+
+    // Las más recientes primero
+    private List<ConsultaLentaDTO> lentas;
+    private List<SospechaNMasUnoDTO> sospechasNMasUno;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrigenDTO {
+        private String origen;           // Clase.método (por ejemplo MedicoService.convertirADTO)
+        private Long sentencias;
+        private Long tiempoTotalMs;
+        private Long tiempoMaximoMs;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ConsultaLentaDTO {
+        private LocalDateTime fecha;
+        private String origen;
+        private Long tiempoMs;
+        private String sql;
+        private String parametros;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SospechaNMasUnoDTO {
+        private String uri;              // Patrón del endpoint (o el nombre dado a iniciar/terminar)
+        private String origen;
+        private String sql;              // Forma de la sentencia, con los literales reemplazados por ?
+        private Integer repeticiones;    // Máximo de veces que se repitió en una petición
+        private Long peticiones;         // Peticiones en las que se detectó
+        private LocalDateTime ultimaVez;
+    }
+}
@@ -0,0 +1,17 @@
+package com.api.gestioncitasmedicas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    private List<T> contenido;
+    private Integer tamanio;          // Tamaño de página aplicado
+    private Boolean hayMas;           // Si existen más resultados después de esta página
+    private String siguienteCursor;   // Token para pedir la siguiente página (null si no hay más)
+}
@@ -0,0 +1,29 @@
+package com.api.gestioncitasmedicas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacionDTO {
+    private Integer total;        // Filas de datos leídas (sin contar el encabezado)
+    private Integer importados;
+    private Integer rechazados;
+
+    // Solo las filas rechazadas (hasta un máximo; el resto se cuenta en erroresOmitidos)
+    private List<ErrorFilaDTO> errores;
+    private Integer erroresOmitidos;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorFilaDTO {
+        private Long linea;       // Línea del archivo donde empieza la fila (el encabezado es la 1)
+        private String correo;    // Para ubicar la fila rápidamente, si venía
+        private String error;
+    }
+}
@@ -0,0 +1,30 @@
+package com.api.gestioncitasmedicas.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+    private Integer total;
+    private Integer creadas;
+    private Integer rechazadas;
+
+    // Un resultado por cada elemento del lote, en el mismo orden en que se enviaron
+    private List<ItemDTO> resultados;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemDTO {
+        private Integer indice;   // Posición dentro del lote (desde 0)
+        private Boolean creada;
+        private Long idCita;      // Solo si se creó
+        private String codigo;    // Solo si se rechazó: el mismo CodigoError que daría POST /api/citas
+        private String error;     // Solo si se rechazó
+    }
+}
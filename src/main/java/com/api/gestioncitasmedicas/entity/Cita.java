@@ -10,7 +10,13 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "cita")
+@Table(name = "cita", uniqueConstraints = {
+        // Un médico no puede tener dos citas activas en el mismo horario.
+        // slot_activo es NULL en las citas canceladas y los NULL no chocan en un índice único,
+        // así una cita cancelada libera su horario
+        @UniqueConstraint(name = "uk_cita_horario_activo",
+                columnNames = {"id_medico", "fecha_cita", "hora_cita", "slot_activo"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +40,10 @@ public class Cita {
     @Column(name = "estado_cita", nullable = false)
     private EstadoCita estadoCita;
 
+    // TRUE mientras la cita ocupa su horario, NULL cuando está cancelada (se calcula solo)
+    @Column(name = "slot_activo")
+    private Boolean slotActivo;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -62,11 +72,13 @@ public class Cita {
         if (estadoCita == null) {
             estadoCita = EstadoCita.PENDIENTE;
         }
+        slotActivo = estadoCita != EstadoCita.CANCELADA ? Boolean.TRUE : null;
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        slotActivo = estadoCita != EstadoCita.CANCELADA ? Boolean.TRUE : null;
     }
 
     // Enum simple para los estados de la cita
@@ -4,12 +4,15 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Table(name = "especialidad")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "especialidad")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
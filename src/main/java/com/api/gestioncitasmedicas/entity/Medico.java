@@ -4,12 +4,17 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "medico")
+@Table(name = "medico", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_correo_medico", columnNames = "correo_medico")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "medico")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,7 +34,7 @@ public class Medico {
     @Column(name = "telefono_medico", nullable = false, length = 15)
     private String telefonoMedico;
 
-    @Column(name = "correo_medico", nullable = false, unique = true, length = 100)
+    @Column(name = "correo_medico", nullable = false, length = 100)
     private String correoMedico;
 
     @Column(name = "created_at", updatable = false)
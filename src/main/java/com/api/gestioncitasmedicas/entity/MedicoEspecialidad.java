@@ -4,11 +4,14 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "medico_especialidad")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "medico_especialidad")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "paciente")
+@Table(name = "paciente", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_correo_paciente", columnNames = "correo_paciente")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,7 +35,7 @@ public class Paciente {
     @Column(name = "telefono_paciente", nullable = false, length = 15)
     private String telefonoPaciente;
 
-    @Column(name = "correo_paciente", nullable = false, unique = true, length = 100)
+    @Column(name = "correo_paciente", nullable = false, length = 100)
     private String correoPaciente;
 
     @Column(name = "created_at", updatable = false)
@@ -0,0 +1,32 @@
+package com.api.gestioncitasmedicas.exception;
+
+// Códigos estables de los errores de negocio (campo "code" de la respuesta). Los clientes deben
+// decidir por el código y no por el texto del mensaje, que puede cambiar
+public enum CodigoError {
+
+    // 404
+    PACIENTE_NO_ENCONTRADO,
+    MEDICO_NO_ENCONTRADO,
+    ESPECIALIDAD_NO_ENCONTRADA,
+    CITA_NO_ENCONTRADA,
+    RELACION_NO_ENCONTRADA,
+
+    // 409
+    CORREO_DUPLICADO,
+    NOMBRE_DUPLICADO,
+    POSIBLE_PACIENTE_DUPLICADO,
+    ESPECIALIDAD_YA_ASIGNADA,
+    HORARIO_OCUPADO,
+    TIENE_REGISTROS_ASOCIADOS,
+    INTEGRIDAD_DATOS, // Restricción de la BD que ningún servicio tradujo a un código más específico
+
+    // 422
+    DIA_NO_HABIL,
+    HORARIO_INVALIDO,
+    MEDICO_SIN_ESPECIALIDAD,
+    CITA_NO_MODIFICABLE,
+    TRANSICION_INVALIDA,
+
+    // 400
+    PARAMETRO_INVALIDO
+}
@@ -0,0 +1,21 @@
+package com.api.gestioncitasmedicas.exception;
+
+import org.springframework.http.HttpStatus;
+
+// La operación choca con datos existentes: duplicados, horario tomado o registros asociados (409)
+public class ConflictoException extends NegocioException {
+
+    public ConflictoException(CodigoError codigo, String mensaje) {
+        super(codigo, mensaje);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.CONFLICT;
+    }
+
+    @Override
+    public String getTipo() {
+        return "Conflicto";
+    }
+}
@@ -1,5 +1,6 @@
 package com.api.gestioncitasmedicas.exception;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -13,7 +14,28 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-    // Maneja RuntimeException (todas tus excepciones de negocio)
+    // Maneja las excepciones de negocio tipadas: estado HTTP según el tipo y código estable
+    @ExceptionHandler(NegocioException.class)
+    public ResponseEntity<Map<String, Object>> handleNegocioException(NegocioException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", ex.getStatus().value());
+        errorResponse.put("error", ex.getTipo());
+        errorResponse.put("code", ex.getCodigo().name());
+        errorResponse.put("message", ex.getMessage());
+
+        return ResponseEntity.status(ex.getStatus()).body(errorResponse);
+    }
+
+    // Posible paciente duplicado: la respuesta de negocio más la lista de candidatos
+    @ExceptionHandler(PacienteDuplicadoException.class)
+    public ResponseEntity<Map<String, Object>> handlePacienteDuplicado(PacienteDuplicadoException ex) {
+        ResponseEntity<Map<String, Object>> respuesta = handleNegocioException(ex);
+        respuesta.getBody().put("candidatos", ex.getCandidatos());
+        return respuesta;
+    }
+
+    // Maneja cualquier otra RuntimeException (errores de negocio aún sin tipo)
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex) {
         Map<String, Object> errorResponse = new HashMap<>();
@@ -25,6 +47,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    // Maneja las violaciones de integridad de la BD que el servicio no tradujo a un error de negocio
+    // (el horario tomado por otra instancia ya llega como HORARIO_OCUPADO desde CitaService)
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, Object>> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.CONFLICT.value());
+        errorResponse.put("error", "Conflicto");
+        errorResponse.put("code", CodigoError.INTEGRIDAD_DATOS.name());
+        errorResponse.put("message",
+                "La operación viola una restricción de la base de datos (valor duplicado, referencia a un " +
+                        "registro inexistente o campo obligatorio vacío). Revise los datos enviados.");
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     // Maneja errores de validación (@Valid, @NotNull, etc.)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationException(
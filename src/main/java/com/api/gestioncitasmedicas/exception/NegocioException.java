@@ -0,0 +1,33 @@
+package com.api.gestioncitasmedicas.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Base de las excepciones de negocio: cada subclase fija el estado HTTP y cada instancia lleva
+// un código estable. No llenan el stack trace (son rechazos esperados, no fallas), así que
+// lanzarlas es barato aun con miles de rechazos por segundo; las de mensaje fijo pueden
+// crearse una sola vez y reutilizarse
+public abstract class NegocioException extends RuntimeException {
+
+    private final CodigoError codigo;
+
+    protected NegocioException(CodigoError codigo, String mensaje) {
+        super(mensaje, null, false, false);
+        this.codigo = codigo;
+    }
+
+    // Con la causa original (por ejemplo, el IOException de un archivo que no se pudo leer)
+    protected NegocioException(CodigoError codigo, String mensaje, Throwable causa) {
+        super(mensaje, causa, false, false);
+        this.codigo = codigo;
+    }
+
+    public CodigoError getCodigo() {
+        return codigo;
+    }
+
+    // Estado HTTP de la respuesta
+    public abstract HttpStatus getStatus();
+
+    // Texto del campo "error" de la respuesta
+    public abstract String getTipo();
+}
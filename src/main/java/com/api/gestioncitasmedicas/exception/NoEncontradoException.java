@@ -0,0 +1,21 @@
+package com.api.gestioncitasmedicas.exception;
+
+import org.springframework.http.HttpStatus;
+
+// El recurso pedido no existe (404)
+public class NoEncontradoException extends NegocioException {
+
+    public NoEncontradoException(CodigoError codigo, String mensaje) {
+        super(codigo, mensaje);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.NOT_FOUND;
+    }
+
+    @Override
+    public String getTipo() {
+        return "No encontrado";
+    }
+}
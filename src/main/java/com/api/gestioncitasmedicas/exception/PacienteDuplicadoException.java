@@ -0,0 +1,22 @@
+package com.api.gestioncitasmedicas.exception;
+
+import com.api.gestioncitasmedicas.dto.DuplicadoPacienteDTO;
+
+import java.util.List;
+
+// El paciente a registrar se parece a otros ya registrados (409). Lleva los candidatos para que
+// el cliente los muestre sin otra llamada a /api/pacientes/duplicados
+public class PacienteDuplicadoException extends ConflictoException {
+
+    private final List<DuplicadoPacienteDTO> candidatos;
+
+    public PacienteDuplicadoException(List<DuplicadoPacienteDTO> candidatos) {
+        super(CodigoError.POSIBLE_PACIENTE_DUPLICADO,
+                "Posible paciente duplicado. Si es una persona distinta, vuelva a enviar con forzar=true");
+        this.candidatos = List.copyOf(candidatos);
+    }
+
+    public List<DuplicadoPacienteDTO> getCandidatos() {
+        return candidatos;
+    }
+}
@@ -0,0 +1,21 @@
+package com.api.gestioncitasmedicas.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Los datos son válidos pero una regla de negocio no permite la operación (422)
+public class ReglaNegocioException extends NegocioException {
+
+    public ReglaNegocioException(CodigoError codigo, String mensaje) {
+        super(codigo, mensaje);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.UNPROCESSABLE_ENTITY;
+    }
+
+    @Override
+    public String getTipo() {
+        return "Regla de negocio";
+    }
+}
@@ -0,0 +1,25 @@
+package com.api.gestioncitasmedicas.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Parámetros de la solicitud mal formados o fuera de rango (400)
+public class SolicitudInvalidaException extends NegocioException {
+
+    public SolicitudInvalidaException(CodigoError codigo, String mensaje) {
+        super(codigo, mensaje);
+    }
+
+    public SolicitudInvalidaException(CodigoError codigo, String mensaje, Throwable causa) {
+        super(codigo, mensaje, causa);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.BAD_REQUEST;
+    }
+
+    @Override
+    public String getTipo() {
+        return "Solicitud inválida";
+    }
+}
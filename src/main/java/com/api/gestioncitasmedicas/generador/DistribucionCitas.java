@@ -0,0 +1,198 @@
+package com.api.gestioncitasmedicas.generador;
+
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.service.CitaService;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Reparto determinista (por semilla) de las citas generadas: más demanda los lunes y por la
+// mañana, un grupo de médicos populares con la agenda casi llena, pacientes frecuentes y una
+// mezcla de estados según la cita ya pasó o no. Nunca repite médico + fecha + horario
+// (lo prohíbe uk_cita_horario_activo): la ocupación se lleva en una máscara de 8 bits por
+// médico y día, igual que IndiceOcupacion
+final class DistribucionCitas {
+
+    // Ocupación promedio de las agendas: define cuántos días hábiles abarcan las citas
+    static final double OCUPACION_MAXIMA = 0.7;
+
+    // El 10 % de los médicos recibe el 40 % de la demanda; el 20 % de los pacientes, la mitad de las citas
+    static final double FRACCION_MEDICOS_POPULARES = 0.10;
+    static final double DEMANDA_MEDICOS_POPULARES = 0.40;
+    static final double FRACCION_PACIENTES_FRECUENTES = 0.20;
+    static final double DEMANDA_PACIENTES_FRECUENTES = 0.50;
+
+    // Demanda relativa de lunes a viernes y de cada horario (en el orden de HORARIOS_VALIDOS)
+    static final double[] PESO_DIA = {1.30, 1.15, 1.00, 0.95, 0.75};
+    static final double[] PESO_HORARIO = {1.20, 1.35, 1.30, 1.10, 0.80, 0.90, 0.80, 0.65};
+
+    // Estados de las citas pasadas y futuras, con su probabilidad acumulada
+    private static final Cita.EstadoCita[] ESTADOS_PASADO = {
+            Cita.EstadoCita.COMPLETADA, Cita.EstadoCita.CANCELADA, Cita.EstadoCita.CONFIRMADA};
+    private static final double[] ACUMULADO_PASADO = {0.75, 0.95, 1.0};
+    private static final Cita.EstadoCita[] ESTADOS_FUTURO = {
+            Cita.EstadoCita.PENDIENTE, Cita.EstadoCita.CONFIRMADA, Cita.EstadoCita.CANCELADA};
+    private static final double[] ACUMULADO_FUTURO = {0.55, 0.90, 1.0};
+
+    // Intentos con un médico elegido por demanda antes de pasar a uno cualquiera, y en total
+    private static final int INTENTOS_POR_DEMANDA = 3;
+    private static final int INTENTOS = 20;
+
+    private static final int DIA_LLENO = 0xFF;
+
+    // Cita generada: médico y paciente como posición (0..n-1), no como ID
+    record CitaGenerada(int medico, int paciente, LocalDate fecha, LocalTime hora, Cita.EstadoCita estado) {
+    }
+
+    private final SplittableRandom random;
+    private final int medicos;
+    private final int pacientes;
+    private final LocalDate[] dias;
+    private final int diasPasado;
+    private final double[] acumuladoDias;
+    private final byte[] ocupacion;
+
+    DistribucionCitas(long semilla, int medicos, int pacientes, long citas, LocalDate referencia,
+                      double proporcionPasado) {
+        if (medicos <= 0 || pacientes <= 0) {
+            throw new IllegalArgumentException("Se necesita al menos un médico y un paciente para generar citas");
+        }
+        this.random = new SplittableRandom(semilla);
+        this.medicos = medicos;
+        this.pacientes = pacientes;
+
+        int diasHabiles = (int) Math.max(1, Math.ceil(
+                citas / (medicos * (double) CitaService.HORARIOS_VALIDOS.size() * OCUPACION_MAXIMA)));
+        this.diasPasado = (int) Math.round(diasHabiles * proporcionPasado);
+        this.dias = diasHabiles(referencia, diasPasado, diasHabiles - diasPasado);
+        if ((long) medicos * dias.length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Demasiadas citas para " + medicos + " médicos");
+        }
+        this.ocupacion = new byte[medicos * dias.length];
+
+        this.acumuladoDias = new double[dias.length];
+        double total = 0;
+        for (int i = 0; i < dias.length; i++) {
+            total += PESO_DIA[dias[i].getDayOfWeek().getValue() - 1];
+            acumuladoDias[i] = total;
+        }
+    }
+
+    // Días hábiles que abarcan las citas, de la más antigua a la más lejana
+    LocalDate[] dias() {
+        return dias.clone();
+    }
+
+    // Siguiente cita en un horario libre
+    CitaGenerada siguiente() {
+        for (int intento = 0; intento < INTENTOS; intento++) {
+            int medico = intento < INTENTOS_POR_DEMANDA
+                    ? elegirSesgado(medicos, FRACCION_MEDICOS_POPULARES, DEMANDA_MEDICOS_POPULARES)
+                    : random.nextInt(medicos);
+            int dia = elegirDia();
+            int horario = elegirHorarioLibre(medico * dias.length + dia);
+            if (horario >= 0) {
+                return crear(medico, dia, horario);
+            }
+        }
+
+        // Agendas muy llenas: el primer día con lugar desde una posición al azar. Siempre hay,
+        // porque la capacidad total supera las citas pedidas
+        int inicio = random.nextInt(ocupacion.length);
+        for (int i = 0; i < ocupacion.length; i++) {
+            int posicion = (inicio + i) % ocupacion.length;
+            int horario = elegirHorarioLibre(posicion);
+            if (horario >= 0) {
+                return crear(posicion / dias.length, posicion % dias.length, horario);
+            }
+        }
+        throw new IllegalStateException("No quedan horarios libres para generar más citas");
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    private CitaGenerada crear(int medico, int dia, int horario) {
+        ocupacion[medico * dias.length + dia] |= (byte) (1 << horario);
+        int paciente = elegirSesgado(pacientes, FRACCION_PACIENTES_FRECUENTES, DEMANDA_PACIENTES_FRECUENTES);
+        Cita.EstadoCita estado = dia < diasPasado
+                ? elegir(ESTADOS_PASADO, ACUMULADO_PASADO)
+                : elegir(ESTADOS_FUTURO, ACUMULADO_FUTURO);
+        return new CitaGenerada(medico, paciente, dias[dia], CitaService.HORARIOS_VALIDOS.get(horario), estado);
+    }
+
+    // Con probabilidad "demanda" uno de los primeros fraccion * n; si no, cualquiera
+    private int elegirSesgado(int n, double fraccion, double demanda) {
+        int populares = Math.max(1, (int) (n * fraccion));
+        return random.nextDouble() < demanda ? random.nextInt(populares) : random.nextInt(n);
+    }
+
+    private int elegirDia() {
+        double valor = random.nextDouble() * acumuladoDias[acumuladoDias.length - 1];
+        int posicion = Arrays.binarySearch(acumuladoDias, valor);
+        return Math.min(posicion >= 0 ? posicion : -posicion - 1, dias.length - 1);
+    }
+
+    // Horario libre del médico y día según PESO_HORARIO, o -1 si el día está lleno
+    private int elegirHorarioLibre(int posicion) {
+        int mascara = ocupacion[posicion] & DIA_LLENO;
+        if (mascara == DIA_LLENO) {
+            return -1;
+        }
+        double total = 0;
+        for (int horario = 0; horario < PESO_HORARIO.length; horario++) {
+            if ((mascara & (1 << horario)) == 0) {
+                total += PESO_HORARIO[horario];
+            }
+        }
+        double valor = random.nextDouble() * total;
+        int ultimoLibre = -1;
+        for (int horario = 0; horario < PESO_HORARIO.length; horario++) {
+            if ((mascara & (1 << horario)) == 0) {
+                ultimoLibre = horario;
+                valor -= PESO_HORARIO[horario];
+                if (valor < 0) {
+                    return horario;
+                }
+            }
+        }
+        return ultimoLibre; // Redondeo en el último libre
+    }
+
+    private Cita.EstadoCita elegir(Cita.EstadoCita[] estados, double[] acumulado) {
+        double valor = random.nextDouble();
+        for (int i = 0; i < estados.length - 1; i++) {
+            if (valor < acumulado[i]) {
+                return estados[i];
+            }
+        }
+        return estados[estados.length - 1];
+    }
+
+    // "pasado" días hábiles antes de la referencia y "futuro" después (la referencia no se usa)
+    private static LocalDate[] diasHabiles(LocalDate referencia, int pasado, int futuro) {
+        List<LocalDate> anteriores = new ArrayList<>(pasado);
+        for (LocalDate fecha = referencia.minusDays(1); anteriores.size() < pasado; fecha = fecha.minusDays(1)) {
+            if (esHabil(fecha)) {
+                anteriores.add(fecha);
+            }
+        }
+        Collections.reverse(anteriores);
+        List<LocalDate> todos = new ArrayList<>(anteriores);
+        for (LocalDate fecha = referencia.plusDays(1); todos.size() < pasado + futuro; fecha = fecha.plusDays(1)) {
+            if (esHabil(fecha)) {
+                todos.add(fecha);
+            }
+        }
+        return todos.toArray(new LocalDate[0]);
+    }
+
+    private static boolean esHabil(LocalDate fecha) {
+        return fecha.getDayOfWeek() != DayOfWeek.SATURDAY && fecha.getDayOfWeek() != DayOfWeek.SUNDAY;
+    }
+}
@@ -0,0 +1,259 @@
+package com.api.gestioncitasmedicas.generador;
+
+import com.api.gestioncitasmedicas.entity.Cita;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+// Generador de datos sintéticos para pruebas de volumen (perfil "generador").
+// Al arrancar inserta especialidades, médicos (con 1 o 2 especialidades), pacientes y citas
+// con INSERT multi-fila, antes de que se carguen los índices en memoria, y la aplicación
+// sigue levantada sobre esos datos. Es determinista: la misma semilla y fecha de referencia
+// producen los mismos datos. Si ya hay datos de esa semilla no vuelve a insertarlos
+@Slf4j
+@Component
+@Profile("generador")
+@EnableConfigurationProperties(PropiedadesGenerador.class)
+@RequiredArgsConstructor
+public class GeneradorDatos implements ApplicationRunner {
+
+    private static final String[] ESPECIALIDADES = {
+            "Cardiología", "Pediatría", "Dermatología", "Traumatología", "Ginecología", "Oftalmología",
+            "Neurología", "Psiquiatría", "Medicina General", "Odontología", "Endocrinología",
+            "Gastroenterología", "Neumología", "Urología", "Otorrinolaringología", "Nefrología",
+            "Reumatología", "Oncología", "Medicina Interna", "Nutrición"
+    };
+    private static final String[] NOMBRES = {
+            "Juan", "María", "José", "Ana", "Carlos", "Laura", "Luis", "Carmen", "Jorge", "Sofía",
+            "Miguel", "Lucía", "Roberto", "Patricia", "Fernando", "Gabriela", "Ricardo", "Andrea",
+            "Mario", "Daniela", "Óscar", "Valeria", "Héctor", "Claudia", "Raúl", "Mónica", "Andrés",
+            "Verónica", "Francisco", "Beatriz", "Manuel", "Rosa", "Javier", "Elena", "Diego", "Silvia",
+            "Ramón", "Adriana", "Sergio", "Natalia"
+    };
+    private static final String[] APELLIDOS = {
+            "Hernández", "García", "Martínez", "López", "González", "Rodríguez", "Pérez", "Ramírez",
+            "Flores", "Rivera", "Cruz", "Morales", "Reyes", "Gómez", "Díaz", "Torres", "Vásquez",
+            "Castillo", "Mejía", "Romero", "Aguilar", "Ortiz", "Chávez", "Ramos", "Mendoza", "Alvarado",
+            "Guzmán", "Portillo", "Navarro", "Molina", "Escobar", "Campos", "Sánchez", "Velásquez",
+            "Orellana", "Argueta", "Menjívar", "Ayala", "Cáceres", "Zelaya"
+    };
+    private static final String[] MOTIVOS = {
+            "Consulta de rutina", "Control de seguimiento", "Dolor persistente", "Revisión de exámenes",
+            "Primera consulta", "Chequeo preventivo", "Control de tratamiento", "Malestar general",
+            "Renovación de receta", "Evaluación de síntomas"
+    };
+
+    // Probabilidad de que un médico tenga una segunda especialidad
+    private static final double SEGUNDA_ESPECIALIDAD = 0.25;
+
+    private static final int FILAS_POR_AVISO = 1_000_000;
+
+    private final PropiedadesGenerador propiedades;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        generar();
+    }
+
+    // Insertar todos los datos; devuelve false si los de esta semilla ya estaban
+    public boolean generar() {
+        long semilla = propiedades.getSemilla();
+        Integer existentes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM medico WHERE correo_medico LIKE ?", Integer.class, "%" + dominio());
+        if (existentes != null && existentes > 0) {
+            log.info("Ya hay datos generados con la semilla {}; no se vuelven a insertar", semilla);
+            return false;
+        }
+
+        LocalDate referencia = propiedades.getFechaReferencia() != null
+                ? propiedades.getFechaReferencia() : LocalDate.now();
+        Timestamp creacion = Timestamp.valueOf(referencia.atStartOfDay());
+        log.info("Generando {} especialidades, {} médicos, {} pacientes y {} citas (semilla {}, referencia {})",
+                propiedades.getEspecialidades(), propiedades.getMedicos(), propiedades.getPacientes(),
+                propiedades.getCitas(), semilla, referencia);
+
+        long[] especialidades = generarEspecialidades(creacion);
+        long[] medicos = generarMedicos(creacion);
+        long[][] especialidadesPorMedico = generarMedicoEspecialidad(medicos, especialidades, creacion);
+        long[] pacientes = generarPacientes(creacion);
+        generarCitas(medicos, especialidadesPorMedico, pacientes, referencia, creacion);
+
+        // Los INSERT por JDBC no pasan por Hibernate: las entidades que tuviera la caché de
+        // segundo nivel ya no reflejan la BD
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        return true;
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Reutiliza las especialidades que ya existen con el mismo nombre (el nombre es único)
+    private long[] generarEspecialidades(Timestamp creacion) {
+        Map<String, Long> existentes = especialidadesPorNombre();
+
+        List<String> nombres = new ArrayList<>();
+        for (int i = 0; i < propiedades.getEspecialidades(); i++) {
+            nombres.add(i < ESPECIALIDADES.length
+                    ? ESPECIALIDADES[i]
+                    : ESPECIALIDADES[i % ESPECIALIDADES.length] + " " + (i / ESPECIALIDADES.length + 1));
+        }
+        List<Object[]> nuevas = nombres.stream()
+                .filter(nombre -> !existentes.containsKey(nombre))
+                .map(nombre -> new Object[]{nombre, "Especialidad generada", creacion, creacion})
+                .toList();
+        Iterator<Object[]> filas = nuevas.iterator();
+        insertar("especialidad", List.of("nombre_especialidad", "descripcion", "created_at", "updated_at"),
+                nuevas.size(), filas::next);
+
+        Map<String, Long> ids = especialidadesPorNombre();
+        return nombres.stream().mapToLong(ids::get).toArray();
+    }
+
+    private long[] generarMedicos(Timestamp creacion) {
+        SplittableRandom random = new SplittableRandom(propiedades.getSemilla() + 1);
+        long anterior = maximoId("id_medico", "medico");
+        int[] contador = {0};
+        insertar("medico", List.of("nombre_medico", "apellido_medico", "telefono_medico", "correo_medico",
+                        "created_at", "updated_at"),
+                propiedades.getMedicos(), () -> new Object[]{
+                        elegir(random, NOMBRES), elegir(random, APELLIDOS), telefono(random, '2'),
+                        "medico" + contador[0]++ + dominio(), creacion, creacion});
+        return idsDespuesDe("id_medico", "medico", anterior);
+    }
+
+    // Cada médico tiene una especialidad principal y a veces una segunda
+    private long[][] generarMedicoEspecialidad(long[] medicos, long[] especialidades, Timestamp creacion) {
+        SplittableRandom random = new SplittableRandom(propiedades.getSemilla() + 2);
+        long[][] asignadas = new long[medicos.length][];
+        List<Object[]> filas = new ArrayList<>();
+        for (int i = 0; i < medicos.length; i++) {
+            int principal = random.nextInt(especialidades.length);
+            int segunda = random.nextInt(especialidades.length);
+            boolean tieneSegunda = especialidades.length > 1 && segunda != principal
+                    && random.nextDouble() < SEGUNDA_ESPECIALIDAD;
+            asignadas[i] = tieneSegunda
+                    ? new long[]{especialidades[principal], especialidades[segunda]}
+                    : new long[]{especialidades[principal]};
+            for (long especialidad : asignadas[i]) {
+                filas.add(new Object[]{medicos[i], especialidad, creacion});
+            }
+        }
+        Iterator<Object[]> pendientes = filas.iterator();
+        insertar("medico_especialidad", List.of("id_medico", "id_especialidad", "fecha_asignacion"),
+                filas.size(), pendientes::next);
+        return asignadas;
+    }
+
+    private long[] generarPacientes(Timestamp creacion) {
+        SplittableRandom random = new SplittableRandom(propiedades.getSemilla() + 3);
+        long anterior = maximoId("id_paciente", "paciente");
+        int[] contador = {0};
+        insertar("paciente", List.of("nombre_paciente", "apellido_paciente", "fecha_nacimiento",
+                        "telefono_paciente", "correo_paciente", "created_at", "updated_at"),
+                propiedades.getPacientes(), () -> new Object[]{
+                        elegir(random, NOMBRES),
+                        elegir(random, APELLIDOS) + " " + elegir(random, APELLIDOS),
+                        Date.valueOf(LocalDate.of(1940, 1, 1).plusDays(random.nextInt(80 * 365))),
+                        telefono(random, random.nextBoolean() ? '7' : '6'),
+                        "paciente" + contador[0]++ + dominio(), creacion, creacion});
+        return idsDespuesDe("id_paciente", "paciente", anterior);
+    }
+
+    private void generarCitas(long[] medicos, long[][] especialidadesPorMedico, long[] pacientes,
+                              LocalDate referencia, Timestamp creacion) {
+        DistribucionCitas distribucion = new DistribucionCitas(propiedades.getSemilla() + 4, medicos.length,
+                pacientes.length, propiedades.getCitas(), referencia, propiedades.getProporcionPasado());
+        SplittableRandom random = new SplittableRandom(propiedades.getSemilla() + 5);
+        insertar("cita", List.of("fecha_cita", "hora_cita", "motivo_cita", "estado_cita", "id_paciente",
+                        "id_medico", "id_especialidad", "slot_activo", "created_at", "updated_at"),
+                propiedades.getCitas(), () -> {
+                    DistribucionCitas.CitaGenerada cita = distribucion.siguiente();
+                    long[] especialidades = especialidadesPorMedico[cita.medico()];
+                    return new Object[]{
+                            Date.valueOf(cita.fecha()), Time.valueOf(cita.hora()), elegir(random, MOTIVOS),
+                            cita.estado().name(), pacientes[cita.paciente()], medicos[cita.medico()],
+                            especialidades[random.nextInt(especialidades.length)],
+                            cita.estado() != Cita.EstadoCita.CANCELADA ? Boolean.TRUE : null,
+                            creacion, creacion};
+                });
+    }
+
+    // Insertar "cantidad" filas pedidas a "fila", una transacción por cada filasPorTransaccion
+    private void insertar(String tabla, List<String> columnas, long cantidad, Supplier<Object[]> fila) {
+        InsercionMultiFila insercion = new InsercionMultiFila(tabla, columnas, propiedades.getFilasPorInsert());
+        long inicio = System.nanoTime();
+        long insertadas = 0;
+        while (insertadas < cantidad) {
+            int tamanio = (int) Math.min(propiedades.getFilasPorTransaccion(), cantidad - insertadas);
+            List<Object[]> bloque = new ArrayList<>(tamanio);
+            for (int i = 0; i < tamanio; i++) {
+                bloque.add(fila.get());
+            }
+            transactionTemplate.executeWithoutResult(estado -> jdbcTemplate.execute(
+                    (ConnectionCallback<Integer>) conexion -> insercion.insertar(conexion, bloque)));
+            long antes = insertadas;
+            insertadas += tamanio;
+            if (insertadas / FILAS_POR_AVISO > antes / FILAS_POR_AVISO) {
+                log.info("{}: {} de {} filas", tabla, insertadas, cantidad);
+            }
+        }
+        long milis = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+        log.info("{}: {} filas en {} ms ({} filas/s)", tabla, cantidad, milis, cantidad * 1000 / milis);
+    }
+
+    private Map<String, Long> especialidadesPorNombre() {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id_especialidad, nombre_especialidad FROM especialidad",
+                (RowCallbackHandler) rs -> ids.put(rs.getString(2), rs.getLong(1)));
+        return ids;
+    }
+
+    private long maximoId(String columna, String tabla) {
+        Long maximo = jdbcTemplate.queryForObject("SELECT MAX(" + columna + ") FROM " + tabla, Long.class);
+        return maximo != null ? maximo : 0L;
+    }
+
+    // IDs generados por las filas recién insertadas, en el orden de inserción
+    private long[] idsDespuesDe(String columna, String tabla, long anterior) {
+        return jdbcTemplate.queryForList("SELECT " + columna + " FROM " + tabla + " WHERE " + columna + " > ? ORDER BY "
+                        + columna, Long.class, anterior)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Los correos llevan la semilla, así se reconocen los datos de una generación anterior
+    private String dominio() {
+        return "@s" + propiedades.getSemilla() + ".generado.test";
+    }
+
+    private static String elegir(SplittableRandom random, String[] valores) {
+        return valores[random.nextInt(valores.length)];
+    }
+
+    private static String telefono(SplittableRandom random, char primero) {
+        return primero + String.format("%07d", random.nextInt(10_000_000));
+    }
+}
@@ -0,0 +1,67 @@
+package com.api.gestioncitasmedicas.generador;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+// INSERT con varias filas por sentencia: INSERT INTO t (a, b) VALUES (?, ?), (?, ?), ...
+// (válido en MySQL y en H2). Un viaje a la BD inserta filasPorInsert filas
+final class InsercionMultiFila {
+
+    private final String tabla;
+    private final String columnas;
+    private final int cantidadColumnas;
+    private final int filasPorInsert;
+
+    InsercionMultiFila(String tabla, List<String> columnas, int filasPorInsert) {
+        this.tabla = tabla;
+        this.columnas = String.join(", ", columnas);
+        this.cantidadColumnas = columnas.size();
+        this.filasPorInsert = filasPorInsert;
+    }
+
+    // Insertar las filas (cada una con un valor por columna) y devolver cuántas se insertaron
+    int insertar(Connection conexion, List<Object[]> filas) throws SQLException {
+        int completas = filas.size() / filasPorInsert * filasPorInsert;
+        if (completas > 0) {
+            try (PreparedStatement ps = conexion.prepareStatement(sql(filasPorInsert))) {
+                for (int inicio = 0; inicio < completas; inicio += filasPorInsert) {
+                    asignar(ps, filas.subList(inicio, inicio + filasPorInsert));
+                    ps.executeUpdate();
+                }
+            }
+        }
+        if (completas < filas.size()) {
+            try (PreparedStatement ps = conexion.prepareStatement(sql(filas.size() - completas))) {
+                asignar(ps, filas.subList(completas, filas.size()));
+                ps.executeUpdate();
+            }
+        }
+        return filas.size();
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    private String sql(int cantidadFilas) {
+        String fila = "(" + "?, ".repeat(cantidadColumnas - 1) + "?)";
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tabla)
+                .append(" (").append(columnas).append(") VALUES ");
+        for (int i = 0; i < cantidadFilas; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(fila);
+        }
+        return sql.toString();
+    }
+
+    private void asignar(PreparedStatement ps, List<Object[]> filas) throws SQLException {
+        int parametro = 1;
+        for (Object[] fila : filas) {
+            for (Object valor : fila) {
+                ps.setObject(parametro++, valor);
+            }
+        }
+    }
+}
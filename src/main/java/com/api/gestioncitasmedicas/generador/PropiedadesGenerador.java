@@ -0,0 +1,31 @@
+package com.api.gestioncitasmedicas.generador;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.LocalDate;
+
+// Volúmenes y parámetros del generador de datos (perfil "generador", prefijo generador.*)
+@Data
+@ConfigurationProperties(prefix = "generador")
+public class PropiedadesGenerador {
+
+    // Misma semilla + misma fecha de referencia = mismos datos
+    private long semilla = 42;
+
+    private int especialidades = 15;
+    private int medicos = 200;
+    private int pacientes = 10_000;
+    private long citas = 100_000;
+
+    // Las citas se reparten alrededor de esta fecha (por defecto hoy): antes quedan atendidas
+    // o canceladas, después pendientes o confirmadas
+    private LocalDate fechaReferencia;
+
+    // Parte de las citas anteriores a la fecha de referencia
+    private double proporcionPasado = 0.8;
+
+    // Filas por INSERT multi-fila y filas por transacción
+    private int filasPorInsert = 100;
+    private int filasPorTransaccion = 5_000;
+}
@@ -0,0 +1,109 @@
+package com.api.gestioncitasmedicas.index;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+// Árbol BK (Burkhard-Keller) sobre la distancia de Levenshtein: encuentra todas las palabras
+// a distancia ≤ d de la consultada sin compararla contra todo el vocabulario. Cada hijo cuelga
+// de su padre según la distancia entre ambos, y por la desigualdad triangular solo hace falta
+// bajar por los hijos con distancia en [dist - d, dist + d]
+final class ArbolBK {
+
+    private static final class Nodo {
+        private final String palabra;
+        private final Map<Integer, Nodo> hijos = new HashMap<>(4);
+
+        private Nodo(String palabra) {
+            this.palabra = palabra;
+        }
+    }
+
+    private Nodo raiz;
+    private int tamanio;
+
+    // Agregar una palabra (false si ya estaba)
+    boolean agregar(String palabra) {
+        if (raiz == null) {
+            raiz = new Nodo(palabra);
+            tamanio++;
+            return true;
+        }
+        Nodo actual = raiz;
+        while (true) {
+            int distancia = distancia(actual.palabra, palabra, Integer.MAX_VALUE);
+            if (distancia == 0) {
+                return false;
+            }
+            Nodo hijo = actual.hijos.get(distancia);
+            if (hijo == null) {
+                actual.hijos.put(distancia, new Nodo(palabra));
+                tamanio++;
+                return true;
+            }
+            actual = hijo;
+        }
+    }
+
+    // Entregar cada palabra a distancia ≤ maxima junto con su distancia
+    void buscar(String palabra, int maxima, ObjIntConsumer<String> coincidencia) {
+        if (raiz == null) {
+            return;
+        }
+        Deque<Nodo> pendientes = new ArrayDeque<>();
+        pendientes.push(raiz);
+        while (!pendientes.isEmpty()) {
+            Nodo nodo = pendientes.pop();
+            // Sin cota: la distancia exacta decide por qué hijos seguir
+            int distancia = distancia(nodo.palabra, palabra, Integer.MAX_VALUE);
+            if (distancia <= maxima) {
+                coincidencia.accept(nodo.palabra, distancia);
+            }
+            for (int d = Math.max(1, distancia - maxima); d <= distancia + maxima; d++) {
+                Nodo hijo = nodo.hijos.get(d);
+                if (hijo != null) {
+                    pendientes.push(hijo);
+                }
+            }
+        }
+    }
+
+    void limpiar() {
+        raiz = null;
+        tamanio = 0;
+    }
+
+    int tamanio() {
+        return tamanio;
+    }
+
+    // Distancia de Levenshtein; deja de calcular y devuelve maxima + 1 cuando ya la supera
+    static int distancia(String a, String b, int maxima) {
+        if (Math.abs(a.length() - b.length()) > maxima) {
+            return maxima + 1;
+        }
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > maxima) {
+                return maxima + 1;
+            }
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        return anterior[b.length()];
+    }
+}
@@ -0,0 +1,79 @@
+package com.api.gestioncitasmedicas.index;
+
+// Clave fonética para nombres en español: dos grafías que suenan igual producen la misma
+// clave (Hernández / Ernandes, Vásquez / Vazquez / Basques, González / Gonsales, Yolanda / Llolanda).
+// Recibe una palabra ya normalizada por TextoBusqueda (minúsculas y sin tildes)
+final class ClaveFonetica {
+
+    private ClaveFonetica() {
+    }
+
+    static String de(String palabra) {
+        StringBuilder clave = new StringBuilder(palabra.length());
+        int largo = palabra.length();
+        for (int i = 0; i < largo; i++) {
+            char c = palabra.charAt(i);
+            char siguiente = i + 1 < largo ? palabra.charAt(i + 1) : 0;
+            char despues = i + 2 < largo ? palabra.charAt(i + 2) : 0;
+            switch (c) {
+                case 'h' -> {
+                    // Muda (la "ch" se resuelve en la 'c')
+                }
+                case 'c' -> {
+                    if (siguiente == 'h') {
+                        agregar(clave, 'C');
+                        i++;
+                    } else if (siguiente == 'e' || siguiente == 'i') {
+                        agregar(clave, 's');
+                    } else {
+                        agregar(clave, 'k');
+                    }
+                }
+                case 'q' -> {
+                    agregar(clave, 'k');
+                    if (siguiente == 'u') {
+                        i++;
+                    }
+                }
+                case 'g' -> {
+                    if (siguiente == 'e' || siguiente == 'i') {
+                        agregar(clave, 'j');
+                    } else {
+                        agregar(clave, 'g');
+                        if (siguiente == 'u' && (despues == 'e' || despues == 'i')) {
+                            i++; // "gue", "gui": la u no suena
+                        }
+                    }
+                }
+                case 'z' -> agregar(clave, 's');
+                case 'v', 'w' -> agregar(clave, 'b');
+                case 'x' -> {
+                    agregar(clave, 'k');
+                    agregar(clave, 's');
+                }
+                case 'l' -> {
+                    if (siguiente == 'l') {
+                        agregar(clave, 'y');
+                        i++;
+                    } else {
+                        agregar(clave, 'l');
+                    }
+                }
+                case 'y' -> agregar(clave, esVocal(siguiente) ? 'y' : 'i');
+                default -> agregar(clave, c);
+            }
+        }
+        return clave.toString();
+    }
+
+    // Las letras dobles suenan como una sola (Mattos / Matos)
+    private static void agregar(StringBuilder clave, char c) {
+        if (clave.isEmpty() || clave.charAt(clave.length() - 1) != c) {
+            clave.append(c);
+        }
+    }
+
+    private static boolean esVocal(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
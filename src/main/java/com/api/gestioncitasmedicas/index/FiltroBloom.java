@@ -0,0 +1,99 @@
+package com.api.gestioncitasmedicas.index;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtro de Bloom de tamaño fijo: responde "seguro que no está" o "puede estar".
+// Se dimensiona para una capacidad y una tasa de falsos positivos; si se agregan más
+// elementos que la capacidad la tasa sube (por eso se puede reconstruir más grande).
+// Agregar y consultar no bloquean: los bits se marcan con operaciones atómicas
+final class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int funcionesHash;
+    private final long capacidad;
+    private final AtomicLong elementos = new AtomicLong();
+
+    FiltroBloom(long capacidad, double tasaFalsosPositivos) {
+        this.capacidad = Math.max(capacidad, 1);
+        // m = -n ln(p) / ln(2)^2 y k = m/n ln(2)
+        long m = (long) Math.ceil(-this.capacidad * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        this.cantidadBits = Math.max(64, (m + 63) / 64 * 64);
+        this.funcionesHash = Math.max(1, (int) Math.round((double) cantidadBits / this.capacidad * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (cantidadBits / 64));
+    }
+
+    void agregar(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean nuevo = false;
+        for (int i = 0; i < funcionesHash; i++) {
+            long bit = posicion(h1, h2, i);
+            long mascara = 1L << (bit & 63);
+            long anterior = bits.getAndAccumulate((int) (bit >>> 6), mascara, (a, b) -> a | b);
+            nuevo |= (anterior & mascara) == 0;
+        }
+        if (nuevo) {
+            elementos.incrementAndGet();
+        }
+    }
+
+    boolean puedeContener(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcionesHash; i++) {
+            long bit = posicion(h1, h2, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Tasa de falsos positivos esperada con los elementos actuales: (1 - e^(-kn/m))^k
+    double tasaFalsosPositivosEstimada() {
+        return Math.pow(1 - Math.exp(-(double) funcionesHash * elementos.get() / cantidadBits), funcionesHash);
+    }
+
+    // Elementos distintos agregados (aproximado: uno que comparte todos sus bits no suma)
+    long elementos() {
+        return elementos.get();
+    }
+
+    long capacidad() {
+        return capacidad;
+    }
+
+    long cantidadBits() {
+        return cantidadBits;
+    }
+
+    int funcionesHash() {
+        return funcionesHash;
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Doble hashing (Kirsch-Mitzenmacher): las k posiciones salen de dos hashes de 32 bits
+    private long posicion(int h1, int h2, int i) {
+        return Math.floorMod(h1 + (long) i * h2, cantidadBits);
+    }
+
+    // FNV-1a de 64 bits con la mezcla final de MurmurHash3 para repartir mejor los bits
+    private static long hash(String valor) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            hash ^= valor.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
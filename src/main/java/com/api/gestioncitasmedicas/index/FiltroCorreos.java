@@ -0,0 +1,187 @@
+package com.api.gestioncitasmedicas.index;
+
+import com.api.gestioncitasmedicas.dto.EstadisticasFiltroDTO;
+import com.api.gestioncitasmedicas.repository.MedicoRepository;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Filtros de Bloom de los correos registrados de médicos y pacientes. Antes de consultar
+// existsByCorreo... se pregunta al filtro: si el correo seguro no existe se evita la consulta
+// y solo las posibles coincidencias van a la BD. Un filtro no permite quitar elementos, así que
+// los correos cambiados o eliminados quedan como falsos positivos hasta la próxima recarga.
+// Mientras no se haya cargado (o durante una recarga fallida) todo se verifica en la BD
+@Component
+public class FiltroCorreos {
+
+    public enum Tabla {
+        MEDICO, PACIENTE
+    }
+
+    // Tasa de falsos positivos para la que se dimensiona cada filtro
+    static final double TASA_FALSOS_POSITIVOS = 0.01;
+
+    // Capacidad mínima, y margen de crecimiento sobre los correos existentes al cargar
+    static final long CAPACIDAD_MINIMA = 10_000;
+    static final int FACTOR_CRECIMIENTO = 2;
+
+    private final Map<Tabla, Filtro> filtros = new EnumMap<>(Tabla.class);
+
+    public FiltroCorreos(MedicoRepository medicoRepository, PacienteRepository pacienteRepository) {
+        filtros.put(Tabla.MEDICO, new Filtro("correos-medico", medicoRepository::findAllCorreos));
+        filtros.put(Tabla.PACIENTE, new Filtro("correos-paciente", pacienteRepository::findAllCorreos));
+    }
+
+    // Cargar al arrancar; hasta entonces todas las verificaciones van a la BD
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        for (Tabla tabla : Tabla.values()) {
+            recargar(tabla);
+        }
+    }
+
+    // Reconstruir el filtro desde la BD (dimensionado para los correos actuales)
+    public void recargar(Tabla tabla) {
+        filtros.get(tabla).recargar();
+    }
+
+    // Verificar si el correo ya está registrado, consultando la BD solo si el filtro no lo descarta
+    public boolean existe(Tabla tabla, String correo, Predicate<String> consultaBD) {
+        if (!puedeExistir(tabla, correo)) {
+            return false;
+        }
+        boolean existe = consultaBD.test(correo);
+        registrarVerificacion(tabla, existe);
+        return existe;
+    }
+
+    // false = seguro que no está registrado; true = hay que verificarlo en la BD
+    public boolean puedeExistir(Tabla tabla, String correo) {
+        return filtros.get(tabla).puedeExistir(normalizar(correo));
+    }
+
+    // Resultado de la BD para un correo que el filtro no descartó (para medir falsos positivos)
+    public void registrarVerificacion(Tabla tabla, boolean existia) {
+        filtros.get(tabla).registrarVerificacion(existia);
+    }
+
+    // Registrar un correo guardado (se agrega de inmediato: si la transacción se revierte
+    // solo queda un falso positivo, que la BD resuelve)
+    public void agregar(Tabla tabla, String correo) {
+        filtros.get(tabla).agregar(normalizar(correo));
+    }
+
+    // Contadores para el endpoint de mantenimiento
+    public List<EstadisticasFiltroDTO> estadisticas() {
+        return filtros.values().stream().map(Filtro::estadisticas).toList();
+    }
+
+    // La unicidad de correo en la BD no distingue mayúsculas
+    private static String normalizar(String correo) {
+        return correo == null ? "" : correo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Filtro {
+
+        private final String nombre;
+        private final Supplier<List<String>> cargarCorreos;
+
+        private volatile FiltroBloom actual;
+        private volatile Queue<String> pendientes;
+        private volatile LocalDateTime ultimaRecarga;
+
+        private final LongAdder consultas = new LongAdder();
+        private final LongAdder descartados = new LongAdder();
+        private final LongAdder verificados = new LongAdder();
+        private final LongAdder falsosPositivos = new LongAdder();
+
+        private Filtro(String nombre, Supplier<List<String>> cargarCorreos) {
+            this.nombre = nombre;
+            this.cargarCorreos = cargarCorreos;
+        }
+
+        // Los correos guardados mientras se lee la tabla quedan en pendientes y se pasan al filtro
+        // nuevo después de publicarlo; agregar() anota en pendientes antes de leer el filtro actual,
+        // así ningún correo queda fuera de ambos
+        private synchronized void recargar() {
+            Queue<String> recibidos = new ConcurrentLinkedQueue<>();
+            pendientes = recibidos;
+            try {
+                List<String> correos = cargarCorreos.get();
+                FiltroBloom nuevo = new FiltroBloom(
+                        Math.max(CAPACIDAD_MINIMA, (long) correos.size() * FACTOR_CRECIMIENTO), TASA_FALSOS_POSITIVOS);
+                for (String correo : correos) {
+                    nuevo.agregar(normalizar(correo));
+                }
+                actual = nuevo;
+                for (String correo : recibidos) {
+                    nuevo.agregar(correo);
+                }
+                ultimaRecarga = LocalDateTime.now();
+            } finally {
+                pendientes = null;
+            }
+        }
+
+        private boolean puedeExistir(String correo) {
+            consultas.increment();
+            FiltroBloom filtro = actual;
+            if (filtro != null && !filtro.puedeContener(correo)) {
+                descartados.increment();
+                return false;
+            }
+            return true;
+        }
+
+        private void registrarVerificacion(boolean existia) {
+            verificados.increment();
+            if (!existia && actual != null) {
+                falsosPositivos.increment();
+            }
+        }
+
+        private void agregar(String correo) {
+            Queue<String> recibidos = pendientes;
+            if (recibidos != null) {
+                recibidos.add(correo);
+            }
+            FiltroBloom filtro = actual;
+            if (filtro != null) {
+                filtro.agregar(correo);
+            }
+        }
+
+        private EstadisticasFiltroDTO estadisticas() {
+            FiltroBloom filtro = actual;
+            long totalDescartados = descartados.sum();
+            long totalFalsos = falsosPositivos.sum();
+            long negativos = totalDescartados + totalFalsos;
+            return new EstadisticasFiltroDTO(
+                    nombre,
+                    filtro != null ? filtro.elementos() : 0L,
+                    filtro != null ? filtro.capacidad() : 0L,
+                    filtro != null ? filtro.cantidadBits() : 0L,
+                    filtro != null ? filtro.funcionesHash() : 0,
+                    filtro != null ? filtro.tasaFalsosPositivosEstimada() : 0.0,
+                    consultas.sum(),
+                    totalDescartados,
+                    verificados.sum(),
+                    totalFalsos,
+                    negativos > 0 ? (double) totalFalsos / negativos : 0.0,
+                    ultimaRecarga
+            );
+        }
+    }
+}
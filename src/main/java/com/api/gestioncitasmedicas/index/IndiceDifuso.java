@@ -0,0 +1,142 @@
+package com.api.gestioncitasmedicas.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice tolerante a errores de tipeo y a variantes de escritura: cada palabra distinta de los
+// nombres está en un árbol BK (errores de hasta 1 o 2 letras según el largo) y agrupada por su
+// clave fonética (Hernández / Ernandes). Cada palabra apunta a la lista de IDs que la usan.
+// Las palabras que se quedan sin IDs permanecen en el árbol (quitar de un árbol BK obliga a
+// reconstruirlo); no aparecen en los resultados y desaparecen al recargar
+final class IndiceDifuso {
+
+    private final ArbolBK arbol = new ArbolBK();
+    private final Map<String, ListaEnteros> idsPorPalabra = new HashMap<>();
+    private final Map<String, Set<String>> palabrasPorClave = new HashMap<>();
+    private final Map<Integer, String[]> palabrasPorId = new HashMap<>();
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+    // Indexar (o reemplazar) el texto de un ID
+    void agregar(int id, String texto) {
+        String[] palabras = Arrays.stream(TextoBusqueda.palabras(TextoBusqueda.normalizar(texto)))
+                .distinct()
+                .toArray(String[]::new);
+        candado.writeLock().lock();
+        try {
+            String[] anteriores = palabrasPorId.put(id, palabras);
+            if (anteriores != null) {
+                quitarPalabras(id, anteriores);
+            }
+            for (String palabra : palabras) {
+                idsPorPalabra.computeIfAbsent(palabra, k -> new ListaEnteros()).agregar(id);
+                if (arbol.agregar(palabra)) {
+                    palabrasPorClave.computeIfAbsent(ClaveFonetica.de(palabra), k -> new HashSet<>()).add(palabra);
+                }
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // Sacar un ID del índice
+    void quitar(int id) {
+        candado.writeLock().lock();
+        try {
+            String[] anteriores = palabrasPorId.remove(id);
+            if (anteriores != null) {
+                quitarPalabras(id, anteriores);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    void limpiar() {
+        candado.writeLock().lock();
+        try {
+            arbol.limpiar();
+            idsPorPalabra.clear();
+            palabrasPorClave.clear();
+            palabrasPorId.clear();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // IDs que tienen, para cada palabra del término, una palabra parecida (por distancia de
+    // edición o por sonido), de menor a mayor distancia total y luego por ID
+    int[] buscar(String termino) {
+        String[] palabras = TextoBusqueda.palabras(TextoBusqueda.normalizar(termino));
+        if (palabras.length == 0) {
+            return new int[0];
+        }
+
+        candado.readLock().lock();
+        try {
+            Map<Integer, Integer> distanciaPorId = null;
+            for (String palabra : palabras) {
+                Map<Integer, Integer> coincidencias = coincidencias(palabra);
+                if (distanciaPorId == null) {
+                    distanciaPorId = coincidencias;
+                } else {
+                    distanciaPorId.keySet().retainAll(coincidencias.keySet());
+                    distanciaPorId.replaceAll((id, distancia) -> distancia + coincidencias.get(id));
+                }
+                if (distanciaPorId.isEmpty()) {
+                    return new int[0];
+                }
+            }
+            return distanciaPorId.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                    .mapToInt(Map.Entry::getKey)
+                    .toArray();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // Errores tolerados según el largo: ninguno hasta 3 letras, 1 hasta 5 y 2 desde 6
+    static int distanciaMaxima(String palabra) {
+        if (palabra.length() <= 3) {
+            return 0;
+        }
+        return palabra.length() <= 5 ? 1 : 2;
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Menor distancia de cada ID a una palabra del término. Una palabra que solo coincide por
+    // sonido cuenta con la distancia máxima tolerada, para quedar detrás de las más parecidas
+    private Map<Integer, Integer> coincidencias(String palabra) {
+        Map<String, Integer> parecidas = new HashMap<>();
+        int maxima = distanciaMaxima(palabra);
+        arbol.buscar(palabra, maxima, (candidata, distancia) -> parecidas.merge(candidata, distancia, Math::min));
+        for (String candidata : palabrasPorClave.getOrDefault(ClaveFonetica.de(palabra), Set.of())) {
+            parecidas.merge(candidata, Math.max(maxima, 1), Math::min);
+        }
+
+        Map<Integer, Integer> distanciaPorId = new HashMap<>();
+        parecidas.forEach((candidata, distancia) -> {
+            ListaEnteros ids = idsPorPalabra.get(candidata);
+            if (ids != null) {
+                for (int i = 0; i < ids.tamanio(); i++) {
+                    distanciaPorId.merge(ids.get(i), distancia, Math::min);
+                }
+            }
+        });
+        return distanciaPorId;
+    }
+
+    private void quitarPalabras(int id, String[] palabras) {
+        for (String palabra : palabras) {
+            ListaEnteros ids = idsPorPalabra.get(palabra);
+            if (ids != null && ids.quitar(id) && ids.tamanio() == 0) {
+                idsPorPalabra.remove(palabra);
+            }
+        }
+    }
+}
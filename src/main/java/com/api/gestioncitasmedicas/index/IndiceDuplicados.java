@@ -0,0 +1,142 @@
+package com.api.gestioncitasmedicas.index;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice de bloqueo para detectar pacientes casi duplicados. Los pacientes se agrupan en
+// bloques por fecha de nacimiento + clave fonética del primer apellido, así que comparar un
+// registro nuevo solo revisa los pocos pacientes de su bloque y no toda la tabla.
+// Dentro del bloque se puntúa nombre, apellido y teléfono
+final class IndiceDuplicados {
+
+    // Peso de cada campo en la similitud (la fecha de nacimiento ya coincide por el bloque)
+    private static final double PESO_NOMBRE = 0.45;
+    private static final double PESO_APELLIDO = 0.35;
+    private static final double PESO_TELEFONO = 0.20;
+
+    // Similitud de dos textos que suenan igual aunque se escriban distinto
+    private static final double SIMILITUD_FONETICA = 0.95;
+
+    record Candidato(int id, double similitud) {
+    }
+
+    private record Registro(int id, String nombre, String apellido, String telefono, String bloque) {
+    }
+
+    private final Map<String, List<Registro>> bloques = new HashMap<>();
+    private final Map<Integer, Registro> registros = new HashMap<>();
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+    // Indexar (o reemplazar) los datos de un ID
+    void agregar(int id, String nombre, String apellido, LocalDate fechaNacimiento, String telefono) {
+        String apellidoNormalizado = TextoBusqueda.normalizar(apellido);
+        Registro registro = new Registro(id, TextoBusqueda.normalizar(nombre), apellidoNormalizado,
+                soloDigitos(telefono), bloque(apellidoNormalizado, fechaNacimiento));
+        candado.writeLock().lock();
+        try {
+            Registro anterior = registros.put(id, registro);
+            if (anterior != null) {
+                quitarDeBloque(anterior);
+            }
+            bloques.computeIfAbsent(registro.bloque(), k -> new ArrayList<>(2)).add(registro);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // Sacar un ID del índice
+    void quitar(int id) {
+        candado.writeLock().lock();
+        try {
+            Registro anterior = registros.remove(id);
+            if (anterior != null) {
+                quitarDeBloque(anterior);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    void limpiar() {
+        candado.writeLock().lock();
+        try {
+            bloques.clear();
+            registros.clear();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // Pacientes del mismo bloque con similitud ≥ minima, del más al menos parecido
+    List<Candidato> buscar(String nombre, String apellido, LocalDate fechaNacimiento, String telefono, double minima) {
+        String nombreNormalizado = TextoBusqueda.normalizar(nombre);
+        String apellidoNormalizado = TextoBusqueda.normalizar(apellido);
+        String telefonoDigitos = soloDigitos(telefono);
+        String bloque = bloque(apellidoNormalizado, fechaNacimiento);
+
+        List<Candidato> candidatos = new ArrayList<>();
+        candado.readLock().lock();
+        try {
+            for (Registro registro : bloques.getOrDefault(bloque, List.of())) {
+                double similitud = PESO_NOMBRE * similitud(nombreNormalizado, registro.nombre())
+                        + PESO_APELLIDO * similitud(apellidoNormalizado, registro.apellido())
+                        + PESO_TELEFONO * (!telefonoDigitos.isEmpty() && telefonoDigitos.equals(registro.telefono()) ? 1 : 0);
+                if (similitud >= minima) {
+                    candidatos.add(new Candidato(registro.id(), Math.round(similitud * 1000) / 1000.0));
+                }
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+        candidatos.sort(Comparator.comparingDouble(Candidato::similitud).reversed()
+                .thenComparingInt(Candidato::id));
+        return candidatos;
+    }
+
+    // Similitud entre 0 y 1 de dos textos normalizados: 1 - distancia de edición / largo mayor,
+    // o SIMILITUD_FONETICA si suenan igual y eso es más alto
+    static double similitud(String a, String b) {
+        if (a.equals(b)) {
+            return 1;
+        }
+        int largo = Math.max(a.length(), b.length());
+        double porEdicion = 1 - (double) ArbolBK.distancia(a, b, largo) / largo;
+        return Math.max(porEdicion, claveFonetica(a).equals(claveFonetica(b)) ? SIMILITUD_FONETICA : 0);
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Fecha de nacimiento + clave fonética del primer apellido
+    private static String bloque(String apellidoNormalizado, LocalDate fechaNacimiento) {
+        String[] palabras = TextoBusqueda.palabras(apellidoNormalizado);
+        String primerApellido = palabras.length > 0 ? ClaveFonetica.de(palabras[0]) : "";
+        return fechaNacimiento + "|" + primerApellido;
+    }
+
+    private static String claveFonetica(String normalizado) {
+        StringBuilder clave = new StringBuilder();
+        for (String palabra : TextoBusqueda.palabras(normalizado)) {
+            clave.append(ClaveFonetica.de(palabra)).append(' ');
+        }
+        return clave.toString();
+    }
+
+    private static String soloDigitos(String telefono) {
+        return telefono == null ? "" : telefono.replaceAll("\\D", "");
+    }
+
+    private void quitarDeBloque(Registro registro) {
+        List<Registro> bloque = bloques.get(registro.bloque());
+        if (bloque != null) {
+            bloque.remove(registro);
+            if (bloque.isEmpty()) {
+                bloques.remove(registro.bloque());
+            }
+        }
+    }
+}
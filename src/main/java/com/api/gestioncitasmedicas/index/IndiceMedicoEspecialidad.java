@@ -0,0 +1,167 @@
+package com.api.gestioncitasmedicas.index;
+
+import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
+import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Índice en memoria de la tabla medico_especialidad en ambos sentidos:
+// médico → IDs de especialidades y especialidad → IDs de médicos.
+// Se carga completo una sola vez (la tabla es pequeña) y después se mantiene desde
+// MedicoEspecialidadService (asignar/desasignar) y MedicoService (eliminar médico).
+// Los cambios dentro de una transacción se aplican al confirmarse, para no publicar
+// relaciones que después se revierten. Una recarga arma mapas nuevos y los publica de una
+// sola vez, así las lecturas concurrentes nunca ven el índice a medio llenar
+@Component
+@RequiredArgsConstructor
+public class IndiceMedicoEspecialidad {
+
+    private final MedicoEspecialidadRepository medicoEspecialidadRepository;
+
+    private volatile Instantanea instantanea;
+
+    // Los dos sentidos del índice (se reemplazan juntos en cada recarga; entre recargas los
+    // cambios incrementales se aplican sobre estos mismos mapas)
+    private record Instantanea(Map<Long, Set<Long>> especialidadesPorMedico,
+                               Map<Long, Set<Long>> medicosPorEspecialidad) {
+    }
+
+    // Cargar al arrancar para que la primera petición no pague la consulta
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        recargar();
+    }
+
+    // Volver a leer toda la tabla medico_especialidad (arma un índice nuevo y lo publica de una vez)
+    public synchronized void recargar() {
+        List<MedicoEspecialidad> relaciones = medicoEspecialidadRepository.findAll();
+        Instantanea nueva = new Instantanea(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        for (MedicoEspecialidad relacion : relaciones) {
+            enlazar(nueva, relacion.getIdMedico(), relacion.getIdEspecialidad());
+        }
+        instantanea = nueva;
+    }
+
+    // Verificar si el médico tiene la especialidad (reemplaza existsByIdMedicoAndIdEspecialidad)
+    public boolean tieneEspecialidad(Long idMedico, Long idEspecialidad) {
+        return especialidadesDe(idMedico).contains(idEspecialidad);
+    }
+
+    // IDs de las especialidades de un médico (ordenados)
+    public List<Long> especialidadesDe(Long idMedico) {
+        return ordenados(actual().especialidadesPorMedico().get(idMedico));
+    }
+
+    // IDs de los médicos que tienen una especialidad (ordenados)
+    public List<Long> medicosDe(Long idEspecialidad) {
+        return ordenados(actual().medicosPorEspecialidad().get(idEspecialidad));
+    }
+
+    // Registrar una relación nueva (al confirmarse la transacción en curso, si hay una)
+    public void agregar(Long idMedico, Long idEspecialidad) {
+        alConfirmar(() -> enlazar(idMedico, idEspecialidad));
+    }
+
+    // Quitar una relación
+    public void quitar(Long idMedico, Long idEspecialidad) {
+        alConfirmar(() -> desenlazar(idMedico, idEspecialidad));
+    }
+
+    // Quitar todas las relaciones de un médico eliminado
+    public void quitarMedico(Long idMedico) {
+        alConfirmar(() -> desenlazarMedico(idMedico));
+    }
+
+    // Cantidad de relaciones en memoria
+    public int tamanio() {
+        return actual().especialidadesPorMedico().values().stream().mapToInt(Set::size).sum();
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Índice vigente; la primera lectura lo carga si todavía no se precargó
+    private Instantanea actual() {
+        Instantanea actual = instantanea;
+        if (actual == null) {
+            synchronized (this) {
+                if (instantanea == null) {
+                    recargar();
+                }
+                actual = instantanea;
+            }
+        }
+        return actual;
+    }
+
+    // Las escrituras se serializan (entre sí y con las recargas) y siempre tocan el índice
+    // vigente; las lecturas no se bloquean
+    private synchronized void enlazar(Long idMedico, Long idEspecialidad) {
+        enlazar(instantanea, idMedico, idEspecialidad);
+    }
+
+    private static void enlazar(Instantanea indice, Long idMedico, Long idEspecialidad) {
+        indice.especialidadesPorMedico().computeIfAbsent(idMedico, k -> ConcurrentHashMap.newKeySet()).add(idEspecialidad);
+        indice.medicosPorEspecialidad().computeIfAbsent(idEspecialidad, k -> ConcurrentHashMap.newKeySet()).add(idMedico);
+    }
+
+    private synchronized void desenlazar(Long idMedico, Long idEspecialidad) {
+        Instantanea indice = instantanea;
+        Set<Long> especialidades = indice.especialidadesPorMedico().get(idMedico);
+        if (especialidades != null) {
+            especialidades.remove(idEspecialidad);
+            if (especialidades.isEmpty()) {
+                indice.especialidadesPorMedico().remove(idMedico);
+            }
+        }
+        Set<Long> medicos = indice.medicosPorEspecialidad().get(idEspecialidad);
+        if (medicos != null) {
+            medicos.remove(idMedico);
+            if (medicos.isEmpty()) {
+                indice.medicosPorEspecialidad().remove(idEspecialidad);
+            }
+        }
+    }
+
+    private synchronized void desenlazarMedico(Long idMedico) {
+        Set<Long> especialidades = instantanea.especialidadesPorMedico().get(idMedico);
+        if (especialidades != null) {
+            for (Long idEspecialidad : List.copyOf(especialidades)) {
+                desenlazar(idMedico, idEspecialidad);
+            }
+        }
+    }
+
+    // Aplicar el cambio después del commit si hay una transacción activa; si no, de inmediato
+    private void alConfirmar(Runnable cambio) {
+        if (instantanea == null) {
+            return; // Se leerá de la BD (ya con el cambio) cuando se consulte por primera vez
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    private static List<Long> ordenados(Set<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return ids.stream().sorted().toList();
+    }
+}
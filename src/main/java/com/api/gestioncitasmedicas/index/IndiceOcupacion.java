@@ -0,0 +1,146 @@
+package com.api.gestioncitasmedicas.index;
+
+import com.api.gestioncitasmedicas.dto.EstadisticasCacheDTO;
+import com.api.gestioncitasmedicas.repository.CitaRepository;
+import com.api.gestioncitasmedicas.service.CitaService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// Índice en memoria de ocupación de horarios por (médico, fecha).
+// Como solo existen 8 horarios válidos por día, la ocupación de un día completo
+// cabe en un byte: el bit i indica si el horario HORARIOS_VALIDOS[i] está tomado.
+// Cada día se carga de forma perezosa desde la tabla cita la primera vez que se consulta
+// y luego se mantiene sincronizado desde CitaService (crear, actualizar, cancelar, eliminar).
+// Solo ve los cambios de esta instancia: cada día vence un tiempo después de leerse de la BD
+// (indice-ocupacion.ttl), así lo que cambie otra instancia o se modifique directamente en la
+// BD se ve a más tardar al vencer. Los días pasados no se guardan y la cantidad de días
+// está acotada (indice-ocupacion.maximo-dias)
+@Component
+@EnableConfigurationProperties(PropiedadesIndiceOcupacion.class)
+public class IndiceOcupacion {
+
+    private final CitaRepository citaRepository;
+
+    // Clave: idMedico y día (epochDay) empaquetados en un long
+    private final Cache<Long, Byte> ocupacion;
+
+    private final LongAdder recargas = new LongAdder();
+    private volatile LocalDateTime ultimaRecarga = LocalDateTime.now();
+
+    @Autowired
+    public IndiceOcupacion(CitaRepository citaRepository, PropiedadesIndiceOcupacion propiedades) {
+        this(citaRepository, propiedades, Ticker.systemTicker());
+    }
+
+    // Con un reloj propio (pruebas del vencimiento)
+    IndiceOcupacion(CitaRepository citaRepository, PropiedadesIndiceOcupacion propiedades, Ticker reloj) {
+        this.citaRepository = citaRepository;
+        // La vigencia cuenta desde la lectura de la BD: ocupar y liberar no la renuevan, porque solo
+        // reflejan los cambios de esta instancia
+        this.ocupacion = Caffeine.newBuilder()
+                .maximumSize(propiedades.getMaximoDias())
+                .expireAfter(Expiry.<Long, Byte>creating((clave, mascara) -> propiedades.getTtl()))
+                .ticker(reloj)
+                .recordStats()
+                .build();
+    }
+
+    // Verificar si un horario del médico ya está ocupado en esa fecha
+    public boolean estaOcupado(Long idMedico, LocalDate fecha, LocalTime hora) {
+        int posicion = posicion(hora);
+        if (posicion < 0) {
+            return false;
+        }
+        return (mascara(idMedico, fecha) & (1 << posicion)) != 0;
+    }
+
+    // Obtener la máscara completa de ocupación del día (cargándola si hace falta)
+    public int mascara(Long idMedico, LocalDate fecha) {
+        // Un día pasado ya no recibe reservas: se lee de la BD sin ocupar lugar en el índice
+        if (fecha.isBefore(LocalDate.now())) {
+            return cargar(idMedico, fecha) & 0xFF;
+        }
+        return ocupacion.get(clave(idMedico, fecha), k -> cargar(idMedico, fecha)) & 0xFF;
+    }
+
+    // Marcar un horario como ocupado (después de guardar la cita)
+    public void ocupar(Long idMedico, LocalDate fecha, LocalTime hora) {
+        int posicion = posicion(hora);
+        if (posicion < 0) {
+            return;
+        }
+        // Si el día aún no está cargado no hace falta tocarlo: se leerá de la BD cuando se consulte
+        ocupacion.asMap().computeIfPresent(clave(idMedico, fecha), (k, actual) -> (byte) (actual | (1 << posicion)));
+    }
+
+    // Liberar un horario (cita cancelada, eliminada o movida a otro horario)
+    public void liberar(Long idMedico, LocalDate fecha, LocalTime hora) {
+        int posicion = posicion(hora);
+        if (posicion < 0) {
+            return;
+        }
+        ocupacion.asMap().computeIfPresent(clave(idMedico, fecha), (k, actual) -> (byte) (actual & ~(1 << posicion)));
+    }
+
+    // Olvidar todo lo cargado para que cada día se vuelva a leer de la BD (por ejemplo, si la tabla
+    // se modificó por fuera de la API: POST /api/mantenimiento/cache/ocupacion/recargar)
+    public void limpiar() {
+        ocupacion.invalidateAll();
+        recargas.increment();
+        ultimaRecarga = LocalDateTime.now();
+    }
+
+    // Cantidad de días (médico, fecha) cargados en memoria
+    public int diasCargados() {
+        ocupacion.cleanUp();
+        return (int) ocupacion.estimatedSize();
+    }
+
+    // Aciertos (días ya en memoria), fallos (días leídos de la BD) y vaciados del índice
+    public EstadisticasCacheDTO estadisticas() {
+        CacheStats stats = ocupacion.stats();
+        return new EstadisticasCacheDTO(
+                "ocupacion",
+                diasCargados(),
+                stats.hitCount(),
+                stats.missCount(),
+                recargas.sum(),
+                stats.requestCount() > 0 ? stats.hitRate() : 0.0,
+                ultimaRecarga
+        );
+    }
+
+    // Posición del horario dentro de HORARIOS_VALIDOS (-1 si no es un horario válido)
+    public static int posicion(LocalTime hora) {
+        return CitaService.HORARIOS_VALIDOS.indexOf(hora);
+    }
+
+    // Cargar la ocupación de un día desde la BD (una sola consulta por médico y fecha)
+    private Byte cargar(Long idMedico, LocalDate fecha) {
+        List<LocalTime> horas = citaRepository.findHorasOcupadas(idMedico, fecha);
+        int mascara = 0;
+        for (LocalTime hora : horas) {
+            int posicion = posicion(hora);
+            if (posicion >= 0) {
+                mascara |= 1 << posicion;
+            }
+        }
+        return (byte) mascara;
+    }
+
+    private static long clave(Long idMedico, LocalDate fecha) {
+        return (idMedico << 24) | (fecha.toEpochDay() & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,157 @@
+package com.api.gestioncitasmedicas.index;
+
+import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import com.api.gestioncitasmedicas.repository.projection.DatosBusquedaPaciente;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+// Índice en memoria de nombre y apellido de los pacientes para GET /api/pacientes/buscar.
+// Reemplaza el LIKE '%termino%' (que no puede usar idx_nombre_paciente y recorre toda la tabla)
+// por un índice de trigramas sin tildes ni mayúsculas, y agrega una búsqueda aproximada
+// (errores de tipeo y variantes como Hernández / Ernandes) y la detección de posibles duplicados
+// al registrar. Se carga por bloques al arrancar y se mantiene desde PacienteService (crear,
+// actualizar, eliminar) y PacienteImportService
+@Component
+@RequiredArgsConstructor
+public class IndicePacientes {
+
+    // Pacientes leídos por consulta al cargar
+    static final int TAMANIO_BLOQUE = 10_000;
+
+    // Paciente existente parecido a uno que se quiere registrar (similitud entre 0 y 1)
+    public record Candidato(Long idPaciente, double similitud) {
+    }
+
+    private final PacienteRepository pacienteRepository;
+
+    private final IndiceTrigramas trigramas = new IndiceTrigramas();
+    private final IndiceDifuso difuso = new IndiceDifuso();
+    private final IndiceDuplicados duplicados = new IndiceDuplicados();
+    private volatile boolean cargado;
+    private long ultimoIdCargado;
+
+    // Cargar al arrancar para que la primera búsqueda no pague la carga
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        recargar();
+    }
+
+    // Volver a leer todos los pacientes
+    public synchronized void recargar() {
+        trigramas.limpiar();
+        difuso.limpiar();
+        duplicados.limpiar();
+        ultimoIdCargado = 0;
+        cargarNuevos();
+        cargado = true;
+    }
+
+    // Leer solo los pacientes con ID mayor al último cargado (después de una importación masiva)
+    public synchronized void cargarNuevos() {
+        List<DatosBusquedaPaciente> bloque;
+        do {
+            bloque = pacienteRepository.findDatosBusquedaDespuesDe(ultimoIdCargado, PageRequest.of(0, TAMANIO_BLOQUE));
+            for (DatosBusquedaPaciente paciente : bloque) {
+                indexar(paciente.getIdPaciente(), paciente.getNombrePaciente(), paciente.getApellidoPaciente(),
+                        paciente.getFechaNacimiento(), paciente.getTelefonoPaciente());
+                ultimoIdCargado = Math.max(ultimoIdCargado, paciente.getIdPaciente());
+            }
+        } while (bloque.size() == TAMANIO_BLOQUE);
+    }
+
+    // IDs de los pacientes cuyo nombre o apellido contiene todas las palabras del término,
+    // ordenados de mejor a peor coincidencia
+    public List<Long> buscar(String termino) {
+        asegurarCargado();
+        return Arrays.stream(trigramas.buscar(termino)).mapToObj(id -> (long) id).toList();
+    }
+
+    // IDs de los pacientes con una palabra parecida a cada palabra del término (por errores de
+    // tipeo o por sonido), de la coincidencia más cercana a la más lejana
+    public List<Long> buscarAproximado(String termino) {
+        asegurarCargado();
+        return Arrays.stream(difuso.buscar(termino)).mapToObj(id -> (long) id).toList();
+    }
+
+    // Pacientes registrados con la misma fecha de nacimiento y un primer apellido que suena igual,
+    // con similitud ≥ minima, del más al menos parecido (sin consultar la BD)
+    public List<Candidato> buscarDuplicados(String nombre, String apellido, LocalDate fechaNacimiento,
+                                            String telefono, double minima) {
+        asegurarCargado();
+        return duplicados.buscar(nombre, apellido, fechaNacimiento, telefono, minima).stream()
+                .map(c -> new Candidato((long) c.id(), c.similitud()))
+                .toList();
+    }
+
+    // Registrar un paciente nuevo o con datos modificados
+    public void agregar(Paciente paciente) {
+        Long idPaciente = paciente.getIdPaciente();
+        String nombre = paciente.getNombrePaciente();
+        String apellido = paciente.getApellidoPaciente();
+        LocalDate fechaNacimiento = paciente.getFechaNacimiento();
+        String telefono = paciente.getTelefonoPaciente();
+        alConfirmar(() -> indexar(idPaciente, nombre, apellido, fechaNacimiento, telefono));
+    }
+
+    // Quitar un paciente eliminado
+    public void quitar(Long idPaciente) {
+        alConfirmar(() -> {
+            trigramas.quitar(Math.toIntExact(idPaciente));
+            difuso.quitar(Math.toIntExact(idPaciente));
+            duplicados.quitar(Math.toIntExact(idPaciente));
+        });
+    }
+
+    // Cantidad de pacientes en el índice
+    public int tamanio() {
+        asegurarCargado();
+        return trigramas.tamanio();
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    private void asegurarCargado() {
+        if (!cargado) {
+            synchronized (this) {
+                if (!cargado) {
+                    recargar();
+                }
+            }
+        }
+    }
+
+    private void indexar(Long idPaciente, String nombre, String apellido, LocalDate fechaNacimiento, String telefono) {
+        int id = Math.toIntExact(idPaciente);
+        String texto = nombre + " " + apellido;
+        trigramas.agregar(id, texto);
+        difuso.agregar(id, texto);
+        duplicados.agregar(id, nombre, apellido, fechaNacimiento, telefono);
+    }
+
+    // Aplicar el cambio después del commit si hay una transacción activa; si no, de inmediato
+    private void alConfirmar(Runnable cambio) {
+        if (!cargado) {
+            return; // Se leerá de la BD (ya con el cambio) cuando se consulte por primera vez
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+}
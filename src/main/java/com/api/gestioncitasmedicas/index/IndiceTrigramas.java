@@ -0,0 +1,184 @@
+package com.api.gestioncitasmedicas.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido de trigramas para búsqueda por subcadena (lo que hace LIKE '%termino%',
+// pero sin recorrer la tabla). Cada texto se normaliza (minúsculas, sin tildes ni signos) y
+// cada trigrama de cada palabra apunta a la lista ordenada de IDs que lo contienen.
+// Buscar intersecta las listas de los trigramas del término y verifica los candidatos contra
+// el texto guardado, porque compartir trigramas no garantiza contener la subcadena
+final class IndiceTrigramas {
+
+    private final Map<Integer, ListaEnteros> listas = new HashMap<>();
+    private final Map<Integer, String> textos = new HashMap<>();
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+    // Indexar (o reemplazar) el texto de un ID
+    void agregar(int id, String texto) {
+        String normalizado = TextoBusqueda.normalizar(texto);
+        candado.writeLock().lock();
+        try {
+            String anterior = textos.put(id, normalizado);
+            if (anterior != null) {
+                quitarTrigramas(id, anterior);
+            }
+            for (int trigrama : trigramas(normalizado)) {
+                listas.computeIfAbsent(trigrama, k -> new ListaEnteros()).agregar(id);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // Sacar un ID del índice
+    void quitar(int id) {
+        candado.writeLock().lock();
+        try {
+            String anterior = textos.remove(id);
+            if (anterior != null) {
+                quitarTrigramas(id, anterior);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    void limpiar() {
+        candado.writeLock().lock();
+        try {
+            listas.clear();
+            textos.clear();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    int tamanio() {
+        candado.readLock().lock();
+        try {
+            return textos.size();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // IDs cuyo texto contiene todas las palabras del término, de mejor a peor coincidencia:
+    // palabra completa antes que prefijo y prefijo antes que subcadena; a igual puntaje,
+    // el texto más corto y luego el ID menor
+    int[] buscar(String termino) {
+        String[] palabras = TextoBusqueda.palabras(TextoBusqueda.normalizar(termino));
+        if (palabras.length == 0) {
+            return new int[0];
+        }
+
+        candado.readLock().lock();
+        try {
+            List<int[]> coincidencias = new ArrayList<>();
+            for (int id : candidatos(palabras)) {
+                String texto = textos.get(id);
+                int puntaje = puntaje(texto, palabras);
+                if (puntaje > 0) {
+                    coincidencias.add(new int[]{id, puntaje, texto.length()});
+                }
+            }
+            coincidencias.sort(Comparator.<int[]>comparingInt(c -> -c[1])
+                    .thenComparingInt(c -> c[2])
+                    .thenComparingInt(c -> c[0]));
+            return coincidencias.stream().mapToInt(c -> c[0]).toArray();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Intersección de las listas de todos los trigramas; si ninguna palabra tiene 3 letras
+    // no hay trigramas que consultar y se revisan todos los textos
+    private int[] candidatos(String[] palabras) {
+        List<ListaEnteros> requeridas = new ArrayList<>();
+        for (String palabra : palabras) {
+            for (int trigrama : trigramas(palabra)) {
+                ListaEnteros lista = listas.get(trigrama);
+                if (lista == null) {
+                    return new int[0];
+                }
+                requeridas.add(lista);
+            }
+        }
+        if (requeridas.isEmpty()) {
+            return textos.keySet().stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Empezar por la lista más corta: las demás solo se consultan con búsqueda binaria
+        requeridas.sort(Comparator.comparingInt(ListaEnteros::tamanio));
+        ListaEnteros menor = requeridas.get(0);
+        int[] resultado = new int[menor.tamanio()];
+        int cantidad = 0;
+        siguiente:
+        for (int i = 0; i < menor.tamanio(); i++) {
+            int id = menor.get(i);
+            for (int j = 1; j < requeridas.size(); j++) {
+                if (!requeridas.get(j).contiene(id)) {
+                    continue siguiente;
+                }
+            }
+            resultado[cantidad++] = id;
+        }
+        return Arrays.copyOf(resultado, cantidad);
+    }
+
+    // 3 por palabra completa, 2 por prefijo y 1 por subcadena; 0 si alguna palabra no aparece
+    private static int puntaje(String texto, String[] palabras) {
+        String[] palabrasTexto = TextoBusqueda.palabras(texto);
+        int total = 0;
+        for (String palabra : palabras) {
+            int mejor = 0;
+            for (String candidata : palabrasTexto) {
+                if (candidata.equals(palabra)) {
+                    mejor = 3;
+                    break;
+                } else if (candidata.startsWith(palabra)) {
+                    mejor = Math.max(mejor, 2);
+                } else if (mejor == 0 && candidata.contains(palabra)) {
+                    mejor = 1;
+                }
+            }
+            if (mejor == 0) {
+                return 0;
+            }
+            total += mejor;
+        }
+        return total;
+    }
+
+    private void quitarTrigramas(int id, String texto) {
+        for (int trigrama : trigramas(texto)) {
+            ListaEnteros lista = listas.get(trigrama);
+            if (lista != null && lista.quitar(id) && lista.tamanio() == 0) {
+                listas.remove(trigrama);
+            }
+        }
+    }
+
+    // Trigramas de cada palabra empaquetados en un int (10 bits por carácter). Dos trigramas
+    // distintos fuera del alfabeto latino pueden compartir clave: solo agrega candidatos,
+    // que luego se descartan al verificar el texto
+    private static int[] trigramas(String texto) {
+        int[] claves = new int[texto.length()];
+        int cantidad = 0;
+        for (String palabra : TextoBusqueda.palabras(texto)) {
+            for (int i = 0; i + 3 <= palabra.length(); i++) {
+                claves[cantidad++] = ((palabra.charAt(i) & 0x3FF) << 20)
+                        | ((palabra.charAt(i + 1) & 0x3FF) << 10)
+                        | (palabra.charAt(i + 2) & 0x3FF);
+            }
+        }
+        return Arrays.stream(claves, 0, cantidad).distinct().toArray();
+    }
+}
@@ -0,0 +1,55 @@
+package com.api.gestioncitasmedicas.index;
+
+import java.util.Arrays;
+
+// Lista ordenada y sin repetidos de enteros primitivos (posting list del índice de trigramas).
+// Los IDs nuevos casi siempre son mayores que los existentes, así que agregar suele ser
+// un simple append; quitar desplaza el resto del arreglo
+final class ListaEnteros {
+
+    private int[] valores = new int[4];
+    private int tamanio;
+
+    int tamanio() {
+        return tamanio;
+    }
+
+    int get(int posicion) {
+        return valores[posicion];
+    }
+
+    boolean contiene(int valor) {
+        return Arrays.binarySearch(valores, 0, tamanio, valor) >= 0;
+    }
+
+    void agregar(int valor) {
+        if (tamanio > 0 && valores[tamanio - 1] >= valor) {
+            int posicion = Arrays.binarySearch(valores, 0, tamanio, valor);
+            if (posicion >= 0) {
+                return;
+            }
+            insertarEn(-posicion - 1, valor);
+            return;
+        }
+        insertarEn(tamanio, valor);
+    }
+
+    boolean quitar(int valor) {
+        int posicion = Arrays.binarySearch(valores, 0, tamanio, valor);
+        if (posicion < 0) {
+            return false;
+        }
+        System.arraycopy(valores, posicion + 1, valores, posicion, tamanio - posicion - 1);
+        tamanio--;
+        return true;
+    }
+
+    private void insertarEn(int posicion, int valor) {
+        if (tamanio == valores.length) {
+            valores = Arrays.copyOf(valores, valores.length + (valores.length >> 1) + 1);
+        }
+        System.arraycopy(valores, posicion, valores, posicion + 1, tamanio - posicion);
+        valores[posicion] = valor;
+        tamanio++;
+    }
+}
@@ -0,0 +1,19 @@
+package com.api.gestioncitasmedicas.index;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Tamaño y vigencia del índice de ocupación de horarios (prefijo indice-ocupacion.*)
+@Data
+@ConfigurationProperties(prefix = "indice-ocupacion")
+public class PropiedadesIndiceOcupacion {
+
+    // Días (médico, fecha) en memoria como máximo; al llenarse se desalojan los menos usados
+    private long maximoDias = 100_000;
+
+    // Vigencia de un día desde que se leyó de la BD: acota cuánto tarda en verse una cita
+    // cancelada, eliminada o creada por otra instancia o directamente en la BD
+    private Duration ttl = Duration.ofMinutes(5);
+}
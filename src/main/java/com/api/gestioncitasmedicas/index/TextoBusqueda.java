@@ -0,0 +1,29 @@
+package com.api.gestioncitasmedicas.index;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Normalización común de los índices de búsqueda de pacientes
+final class TextoBusqueda {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextoBusqueda() {
+    }
+
+    // Minúsculas, sin tildes ni diéresis (la ñ queda como n) y cualquier signo como un espacio
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NO_ALFANUMERICO.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Palabras de un texto ya normalizado
+    static String[] palabras(String normalizado) {
+        return normalizado.isEmpty() ? new String[0] : normalizado.split(" +");
+    }
+}
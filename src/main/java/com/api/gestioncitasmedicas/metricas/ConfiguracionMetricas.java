@@ -0,0 +1,47 @@
+package com.api.gestioncitasmedicas.metricas;
+
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+// Envuelve el DataSource con datasource-proxy para que InspectorConsultas vea cada sentencia,
+// y registra las métricas en todos los endpoints /api/**
+@Configuration
+@RequiredArgsConstructor
+public class ConfiguracionMetricas implements WebMvcConfigurer {
+
+    private final MetricasPeticiones metricasPeticiones;
+
+    @Bean
+    public static BeanPostProcessor inspeccionDataSource(ObjectProvider<InspectorConsultas> inspectorConsultas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    InspectorConsultas inspector = inspectorConsultas.getObject();
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(inspector);
+                    if (inspector.isContarFilas()) {
+                        builder.proxyResultSet().methodListener(inspector);
+                    }
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(metricasPeticiones).addPathPatterns("/api/**");
+    }
+}
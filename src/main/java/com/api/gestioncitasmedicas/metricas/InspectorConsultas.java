@@ -0,0 +1,289 @@
+package com.api.gestioncitasmedicas.metricas;
+
+import com.api.gestioncitasmedicas.dto.InformeConsultasDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Inspección de todas las sentencias JDBC (Hibernate, JdbcTemplate y cursores), a través de
+// datasource-proxy. Cada sentencia se atribuye al método de servicio que la ejecutó; las que
+// superan el umbral se registran como lentas con sus parámetros, y las que se repiten con la
+// misma forma dentro de una petición (la misma SQL con otros parámetros) se marcan como
+// posible N+1. Con inspeccion-consultas.contar-filas también cuenta las filas leídas.
+// Reemplaza a show-sql + BasicBinder TRACE, que registraban todo sin decir de dónde venía
+@Slf4j
+@Component
+@EnableConfigurationProperties(PropiedadesInspeccion.class)
+@RequiredArgsConstructor
+public class InspectorConsultas implements QueryExecutionListener, MethodExecutionListener {
+
+    // Atributo de la petición HTTP con su Resumen (lo deja MetricasPeticiones al terminar)
+    public static final String ATRIBUTO_RESUMEN = InspectorConsultas.class.getName() + ".resumen";
+
+    // Sentencias ejecutadas y filas leídas en una petición (filas = 0 si no se cuentan)
+    public record Resumen(int sentencias, long filas) {
+    }
+
+    private static final String PAQUETE = "com.api.gestioncitasmedicas.";
+    private static final String PAQUETE_SERVICIOS = PAQUETE + "service.";
+
+    // Literales que no cuentan para la forma de una sentencia (en las preparadas ya son ?)
+    private static final Pattern TEXTOS = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMEROS = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern LISTAS = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private static final StackWalker PILA = StackWalker.getInstance();
+
+    private final PropiedadesInspeccion propiedades;
+
+    private final ThreadLocal<Peticion> actual = new ThreadLocal<>();
+    private final Map<String, Origen> origenes = new ConcurrentHashMap<>();
+    private final Deque<InformeConsultasDTO.ConsultaLentaDTO> lentas = new ArrayDeque<>();
+    private final Map<String, InformeConsultasDTO.SospechaNMasUnoDTO> sospechas = new HashMap<>();
+
+    // Empezar a agrupar las sentencias del hilo actual como una petición
+    public void iniciar() {
+        actual.set(new Peticion());
+    }
+
+    // Cerrar la petición del hilo actual: registra las sentencias repetidas como posible N+1
+    // y devuelve cuántas sentencias y filas hubo (0 si no se había iniciado)
+    public Resumen terminar(String uri) {
+        Peticion peticion = actual.get();
+        actual.remove();
+        if (peticion == null) {
+            return new Resumen(0, 0);
+        }
+        peticion.repeticiones.forEach((forma, repeticion) -> {
+            if (repeticion.veces >= propiedades.getUmbralRepeticiones()) {
+                registrarSospecha(uri, forma, repeticion);
+            }
+        });
+        return new Resumen(peticion.sentencias, peticion.filas);
+    }
+
+    // Descartar la petición del hilo actual sin revisarla
+    public void descartar() {
+        actual.remove();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        long tiempoMs = execInfo.getElapsedTime();
+        String origen = origen();
+
+        origenes.computeIfAbsent(origen, k -> new Origen()).registrar(tiempoMs);
+
+        Peticion peticion = actual.get();
+        if (peticion != null) {
+            peticion.sentencias++;
+            peticion.repeticiones.computeIfAbsent(forma(sql), k -> new Repeticion(origen)).veces++;
+        }
+
+        if (tiempoMs >= propiedades.getUmbralLentaMs()) {
+            String parametros = parametros(queryInfoList);
+            log.warn("Consulta lenta ({} ms) en {}: {} | parámetros: {}", tiempoMs, origen, sql, parametros);
+            synchronized (lentas) {
+                lentas.addFirst(new InformeConsultasDTO.ConsultaLentaDTO(
+                        LocalDateTime.now(), origen, tiempoMs, sql, parametros));
+                while (lentas.size() > propiedades.getMaximoHallazgos()) {
+                    lentas.removeLast();
+                }
+            }
+        }
+    }
+
+    public boolean isContarFilas() {
+        return propiedades.isContarFilas();
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    // Con contar-filas, cada ResultSet.next() que devuelve true es una fila leída
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && Boolean.TRUE.equals(executionContext.getResult())
+                && executionContext.getMethod().getName().equals("next")) {
+            Peticion peticion = actual.get();
+            if (peticion != null) {
+                peticion.filas++;
+            }
+        }
+    }
+
+    // Todo lo registrado desde el arranque (o desde limpiar())
+    public InformeConsultasDTO informe() {
+        List<InformeConsultasDTO.OrigenDTO> porOrigen = origenes.entrySet().stream()
+                .map(e -> e.getValue().aDTO(e.getKey()))
+                .sorted(Comparator.comparing(InformeConsultasDTO.OrigenDTO::getTiempoTotalMs).reversed()
+                        .thenComparing(InformeConsultasDTO.OrigenDTO::getSentencias, Comparator.reverseOrder()))
+                .toList();
+        List<InformeConsultasDTO.ConsultaLentaDTO> recientes;
+        synchronized (lentas) {
+            recientes = new ArrayList<>(lentas);
+        }
+        return new InformeConsultasDTO(propiedades.getUmbralLentaMs(), propiedades.getUmbralRepeticiones(),
+                porOrigen, recientes, sospechasNMasUno());
+    }
+
+    // Para las pruebas: falla si se detectó algún posible N+1
+    public void verificarSinNMasUno() {
+        List<InformeConsultasDTO.SospechaNMasUnoDTO> detectadas = sospechasNMasUno();
+        if (!detectadas.isEmpty()) {
+            throw new IllegalStateException("Posibles N+1: " + detectadas.stream()
+                    .map(s -> s.getUri() + " -> " + s.getOrigen() + " repitió " + s.getRepeticiones()
+                            + " veces: " + s.getSql())
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    public void limpiar() {
+        origenes.clear();
+        synchronized (lentas) {
+            lentas.clear();
+        }
+        synchronized (sospechas) {
+            sospechas.clear();
+        }
+    }
+
+    // Misma sentencia sin literales ni largo de las listas IN: WHERE id = 5 y WHERE id = 7 tienen la misma forma
+    static String forma(String sql) {
+        String forma = TEXTOS.matcher(sql).replaceAll("?");
+        forma = NUMEROS.matcher(forma).replaceAll("?");
+        forma = LISTAS.matcher(forma).replaceAll("(?)");
+        return ESPACIOS.matcher(forma).replaceAll(" ").trim();
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Primer método de un servicio en la pila; si no hay (índices, generador, pruebas), el
+    // primer método de la aplicación. Los proxies de Spring y las lambdas se muestran con el
+    // nombre del método original
+    private static String origen() {
+        List<StackWalker.StackFrame> propios = PILA.walk(pila -> pila
+                .filter(f -> f.getClassName().startsWith(PAQUETE))
+                .filter(f -> !f.getClassName().equals(InspectorConsultas.class.getName()))
+                .filter(f -> !f.getClassName().contains("$$"))
+                .limit(20)
+                .toList());
+        StackWalker.StackFrame elegido = propios.stream()
+                .filter(f -> f.getClassName().startsWith(PAQUETE_SERVICIOS))
+                .findFirst()
+                .orElse(propios.isEmpty() ? null : propios.get(0));
+        if (elegido == null) {
+            return "desconocido";
+        }
+        String clase = elegido.getClassName().substring(elegido.getClassName().lastIndexOf('.') + 1);
+        String metodo = elegido.getMethodName();
+        if (metodo.startsWith("lambda$")) {
+            metodo = metodo.substring("lambda$".length(), metodo.indexOf('$', "lambda$".length()));
+        }
+        return clase + "." + metodo;
+    }
+
+    // Parámetros del primer conjunto (en los lotes, también cuántos conjuntos más hubo)
+    private static String parametros(List<QueryInfo> queryInfoList) {
+        for (QueryInfo query : queryInfoList) {
+            List<List<ParameterSetOperation>> conjuntos = query.getParametersList();
+            if (!conjuntos.isEmpty()) {
+                String primero = conjuntos.get(0).stream()
+                        .map(operacion -> String.valueOf(operacion.getArgs()[1]))
+                        .collect(Collectors.joining(", ", "[", "]"));
+                return conjuntos.size() > 1 ? primero + " (+" + (conjuntos.size() - 1) + " en el lote)" : primero;
+            }
+        }
+        return "[]";
+    }
+
+    private void registrarSospecha(String uri, String forma, Repeticion repeticion) {
+        log.warn("Posible N+1 en {}: {} repitió {} veces: {}", uri, repeticion.origen, repeticion.veces, forma);
+        synchronized (sospechas) {
+            InformeConsultasDTO.SospechaNMasUnoDTO sospecha = sospechas.get(uri + "|" + forma);
+            if (sospecha == null) {
+                if (sospechas.size() >= propiedades.getMaximoHallazgos()) {
+                    return;
+                }
+                sospecha = new InformeConsultasDTO.SospechaNMasUnoDTO(uri, repeticion.origen, forma, 0, 0L, null);
+                sospechas.put(uri + "|" + forma, sospecha);
+            }
+            sospecha.setRepeticiones(Math.max(sospecha.getRepeticiones(), repeticion.veces));
+            sospecha.setPeticiones(sospecha.getPeticiones() + 1);
+            sospecha.setUltimaVez(LocalDateTime.now());
+        }
+    }
+
+    private List<InformeConsultasDTO.SospechaNMasUnoDTO> sospechasNMasUno() {
+        synchronized (sospechas) {
+            return sospechas.values().stream()
+                    .map(s -> new InformeConsultasDTO.SospechaNMasUnoDTO(s.getUri(), s.getOrigen(), s.getSql(),
+                            s.getRepeticiones(), s.getPeticiones(), s.getUltimaVez()))
+                    .sorted(Comparator.comparing(InformeConsultasDTO.SospechaNMasUnoDTO::getUltimaVez).reversed())
+                    .toList();
+        }
+    }
+
+    // Sentencias de una petición en curso (solo la usa su hilo)
+    private static final class Peticion {
+        private int sentencias;
+        private long filas;
+        private final Map<String, Repeticion> repeticiones = new HashMap<>();
+    }
+
+    private static final class Repeticion {
+        private final String origen;
+        private int veces;
+
+        private Repeticion(String origen) {
+            this.origen = origen;
+        }
+    }
+
+    // Acumulado por método desde el arranque
+    private static final class Origen {
+        private final LongAdder sentencias = new LongAdder();
+        private final LongAdder tiempoTotal = new LongAdder();
+        private final AtomicLong tiempoMaximo = new AtomicLong();
+
+        private void registrar(long tiempoMs) {
+            sentencias.increment();
+            tiempoTotal.add(tiempoMs);
+            tiempoMaximo.accumulateAndGet(tiempoMs, Math::max);
+        }
+
+        private InformeConsultasDTO.OrigenDTO aDTO(String origen) {
+            return new InformeConsultasDTO.OrigenDTO(origen, sentencias.sum(), tiempoTotal.sum(), tiempoMaximo.get());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.api.gestioncitasmedicas.metricas;
+
+import com.api.gestioncitasmedicas.exception.NegocioException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Métricas por endpoint que complementan http.server.requests (latencia y throughput, de
+// Spring Boot): sentencias SQL por petición (http.server.requests.sql, contadas por
+// InspectorConsultas, que además busca N+1 en cada petición) y errores por tipo de
+// excepción y código de negocio (http.server.requests.errors). Los endpoints se agrupan por
+// el patrón de la ruta (/api/citas/{id}), no por la URL, para no crear una serie por ID
+@Component
+@RequiredArgsConstructor
+public class MetricasPeticiones implements AsyncHandlerInterceptor {
+
+    private final InspectorConsultas inspectorConsultas;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        inspectorConsultas.iniciar();
+        return true;
+    }
+
+    // Las exportaciones asíncronas liberan el hilo aquí: se descarta el conteo para que no
+    // pase a la siguiente petición que atienda el mismo hilo
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        inspectorConsultas.descartar();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        String uri = uri(request);
+        InspectorConsultas.Resumen resumen = inspectorConsultas.terminar(request.getMethod() + " " + uri);
+        request.setAttribute(InspectorConsultas.ATRIBUTO_RESUMEN, resumen);
+        Tags tags = Tags.of(
+                "method", request.getMethod(),
+                "uri", uri,
+                "status", String.valueOf(response.getStatus()));
+
+        DistributionSummary.builder("http.server.requests.sql")
+                .description("Sentencias SQL ejecutadas por petición")
+                .baseUnit("statements")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(resumen.sentencias());
+
+        // Las excepciones que resuelve GlobalExceptionHandler llegan como atributo de la petición
+        Throwable error = ex != null ? ex : (Throwable) request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        if (error != null) {
+            Counter.builder("http.server.requests.errors")
+                    .description("Peticiones terminadas con una excepción, por tipo")
+                    .tags(tags)
+                    .tag("exception", error.getClass().getSimpleName())
+                    .tag("code", error instanceof NegocioException negocio ? negocio.getCodigo().name() : "none")
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    private static String uri(HttpServletRequest request) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return patron != null ? patron.toString() : "UNKNOWN";
+    }
+}
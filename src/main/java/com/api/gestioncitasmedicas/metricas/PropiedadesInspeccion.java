@@ -0,0 +1,24 @@
+package com.api.gestioncitasmedicas.metricas;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Umbrales de la inspección de consultas (prefijo inspeccion-consultas.*)
+@Data
+@ConfigurationProperties(prefix = "inspeccion-consultas")
+public class PropiedadesInspeccion {
+
+    // Sentencias que tardan esto o más se registran como lentas, con sus parámetros
+    private long umbralLentaMs = 200;
+
+    // Veces que una misma sentencia (sin contar los parámetros) puede repetirse en una petición
+    // antes de marcarla como posible N+1
+    private int umbralRepeticiones = 10;
+
+    // Contar las filas leídas de cada ResultSet por petición. Envuelve cada ResultSet en un
+    // proxy, así que es para las pruebas y el diagnóstico, no para producción
+    private boolean contarFilas = false;
+
+    // Consultas lentas recientes y sospechas de N+1 que se conservan para el endpoint
+    private int maximoHallazgos = 100;
+}
@@ -0,0 +1,70 @@
+package com.api.gestioncitasmedicas.repository;
+
+import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.entity.Cita;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Escritura masiva de citas con JDBC batching.
+// Cita usa GenerationType.IDENTITY, lo que desactiva el batching de inserts de Hibernate,
+// por eso las cargas masivas pasan por aquí
+@Repository
+@RequiredArgsConstructor
+public class CitaJdbcRepository {
+
+    // Cantidad de filas por cada executeBatch
+    private static final int TAMANIO_BATCH = 500;
+
+    private static final String INSERT_CITA =
+            "INSERT INTO cita (fecha_cita, hora_cita, motivo_cita, estado_cita, id_paciente, id_medico, " +
+                    "id_especialidad, slot_activo, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Insertar citas PENDIENTES en lotes y devolver los IDs generados (en el mismo orden)
+    public List<Long> insertarPendientes(List<CrearCitaDTO> citas) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) conexion -> {
+            List<Long> ids = new ArrayList<>(citas.size());
+            Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+
+            try (PreparedStatement ps = conexion.prepareStatement(INSERT_CITA, Statement.RETURN_GENERATED_KEYS)) {
+                for (int inicio = 0; inicio < citas.size(); inicio += TAMANIO_BATCH) {
+                    int fin = Math.min(inicio + TAMANIO_BATCH, citas.size());
+                    for (CrearCitaDTO dto : citas.subList(inicio, fin)) {
+                        ps.setDate(1, Date.valueOf(dto.getFechaCita()));
+                        ps.setTime(2, Time.valueOf(dto.getHoraCita()));
+                        ps.setString(3, dto.getMotivoCita());
+                        ps.setString(4, Cita.EstadoCita.PENDIENTE.name());
+                        ps.setLong(5, dto.getIdPaciente());
+                        ps.setLong(6, dto.getIdMedico());
+                        ps.setLong(7, dto.getIdEspecialidad());
+                        ps.setBoolean(8, true); // Una cita PENDIENTE ocupa su horario
+                        ps.setTimestamp(9, ahora);
+                        ps.setTimestamp(10, ahora);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    try (ResultSet claves = ps.getGeneratedKeys()) {
+                        while (claves.next()) {
+                            ids.add(claves.getLong(1));
+                        }
+                    }
+                }
+            }
+            return ids;
+        });
+    }
+}
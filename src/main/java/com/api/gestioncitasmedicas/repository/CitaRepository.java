@@ -1,18 +1,63 @@
 package com.api.gestioncitasmedicas.repository;
 
 import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.repository.projection.CitaResumen;
+import com.api.gestioncitasmedicas.repository.projection.ConteoPorId;
+import com.api.gestioncitasmedicas.repository.projection.DatosReserva;
+import com.api.gestioncitasmedicas.repository.projection.HorarioOcupado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CitaRepository extends JpaRepository<Cita, Long> {
+public interface CitaRepository extends JpaRepository<Cita, Long>, CitaRepositoryCustom {
+
+    // Columnas de CitaResumen: la cita junto con paciente, médico y especialidad en una sola fila
+    String SELECT_RESUMEN = "SELECT new com.api.gestioncitasmedicas.repository.projection.CitaResumen(" +
+            "c.idCita, c.fechaCita, c.horaCita, c.motivoCita, c.estadoCita, " +
+            "p.idPaciente, p.nombrePaciente, p.apellidoPaciente, " +
+            "m.idMedico, m.nombreMedico, m.apellidoMedico, " +
+            "e.idEspecialidad, e.nombreEspecialidad) " +
+            "FROM Cita c JOIN c.paciente p JOIN c.medico m JOIN c.especialidad e ";
+
+    // Una cita ya unida con sus datos relacionados (un solo SELECT)
+    @Query(SELECT_RESUMEN + "WHERE c.idCita = :idCita")
+    Optional<CitaResumen> findResumenById(@Param("idCita") Long idCita);
+
+    // Recorre las citas de un rango (fechas opcionales) con un cursor de solo avance para la exportación.
+    // El fetch size hace que el driver traiga las filas por bloques (en MySQL requiere useCursorFetch=true);
+    // debe consumirse dentro de una transacción y cerrarse al terminar
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_RESUMEN + "WHERE (:desde IS NULL OR c.fechaCita >= :desde) " +
+            "AND (:hasta IS NULL OR c.fechaCita <= :hasta) " +
+            "ORDER BY c.fechaCita, c.horaCita, c.idCita")
+    Stream<CitaResumen> streamResumen(
+            @Param("desde") LocalDate desde,
+            @Param("hasta") LocalDate hasta
+    );
+
+    // Paciente y médico de una reserva en una sola consulta (por llave primaria ambos)
+    @Query("SELECT new com.api.gestioncitasmedicas.repository.projection.DatosReserva(" +
+            "p.idPaciente, p.nombrePaciente, p.apellidoPaciente, m.idMedico, m.nombreMedico, m.apellidoMedico) " +
+            "FROM Paciente p LEFT JOIN Medico m ON m.idMedico = :idMedico WHERE p.idPaciente = :idPaciente")
+    Optional<DatosReserva> findDatosReserva(
+            @Param("idPaciente") Long idPaciente,
+            @Param("idMedico") Long idMedico
+    );
 
     // Buscar citas por paciente
     List<Cita> findByPacienteIdPaciente(Long idPaciente);
@@ -36,6 +81,24 @@ public interface CitaRepository extends JpaRepository<Cita, Long> {
             @Param("hora") LocalTime hora
     );
 
+    // Horas ocupadas (no canceladas) de un médico en un día, para cargar el índice de ocupación
+    @Query("SELECT c.horaCita FROM Cita c WHERE c.medico.idMedico = :idMedico " +
+            "AND c.fechaCita = :fecha AND c.estadoCita != 'CANCELADA'")
+    List<LocalTime> findHorasOcupadas(
+            @Param("idMedico") Long idMedico,
+            @Param("fecha") LocalDate fecha
+    );
+
+    // Horarios ocupados de varios médicos en un rango de fechas (usa idx_medico_fecha)
+    @Query("SELECT c.medico.idMedico AS idMedico, c.fechaCita AS fechaCita, c.horaCita AS horaCita " +
+            "FROM Cita c WHERE c.medico.idMedico IN :idsMedicos " +
+            "AND c.fechaCita BETWEEN :desde AND :hasta AND c.estadoCita != 'CANCELADA'")
+    List<HorarioOcupado> findHorariosOcupados(
+            @Param("idsMedicos") Collection<Long> idsMedicos,
+            @Param("desde") LocalDate desde,
+            @Param("hasta") LocalDate hasta
+    );
+
     // Buscar citas en un rango de fechas
     List<Cita> findByFechaCitaBetween(LocalDate fechaInicio, LocalDate fechaFin);
 
@@ -44,4 +107,14 @@ public interface CitaRepository extends JpaRepository<Cita, Long> {
 
     // Contar citas de un paciente (para validación al eliminar paciente)
     long countByPacienteIdPaciente(Long idPaciente);
+
+    // Cantidad de citas de cada paciente en una sola consulta (para listados)
+    @Query("SELECT c.paciente.idPaciente AS id, COUNT(c) AS cantidad FROM Cita c " +
+            "GROUP BY c.paciente.idPaciente")
+    List<ConteoPorId> contarCitasPorPaciente();
+
+    // Cantidad de citas de un grupo de pacientes (para resultados de búsqueda)
+    @Query("SELECT c.paciente.idPaciente AS id, COUNT(c) AS cantidad FROM Cita c " +
+            "WHERE c.paciente.idPaciente IN :idsPacientes GROUP BY c.paciente.idPaciente")
+    List<ConteoPorId> contarCitasPorPaciente(@Param("idsPacientes") Collection<Long> idsPacientes);
 }
\ No newline at end of file
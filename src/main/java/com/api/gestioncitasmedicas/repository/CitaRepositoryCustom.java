@@ -0,0 +1,17 @@
+package com.api.gestioncitasmedicas.repository;
+
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.repository.projection.CitaResumen;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Consultas de citas que se arman dinámicamente (implementadas en CitaRepositoryImpl)
+public interface CitaRepositoryCustom {
+
+    // Una página de citas con cualquier combinación de filtros (los null se ignoran),
+    // ordenada por (fecha_cita, hora_cita, id_cita) y empezando después del cursor.
+    // Devuelve filas ya unidas con paciente, médico y especialidad (una sola sentencia)
+    List<CitaResumen> buscarPagina(Long idMedico, Long idPaciente, Cita.EstadoCita estado,
+                                   LocalDate desde, LocalDate hasta, CursorCita cursor, int limite);
+}
@@ -0,0 +1,82 @@
+package com.api.gestioncitasmedicas.repository;
+
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.entity.Medico;
+import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.repository.projection.CitaResumen;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Implementación de CitaRepositoryCustom con Criteria API (Spring Data la combina con CitaRepository)
+public class CitaRepositoryImpl implements CitaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CitaResumen> buscarPagina(Long idMedico, Long idPaciente, Cita.EstadoCita estado,
+                                   LocalDate desde, LocalDate hasta, CursorCita cursor, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CitaResumen> query = cb.createQuery(CitaResumen.class);
+        Root<Cita> cita = query.from(Cita.class);
+        Join<Cita, Paciente> paciente = cita.join("paciente");
+        Join<Cita, Medico> medico = cita.join("medico");
+        Join<Cita, Especialidad> especialidad = cita.join("especialidad");
+
+        Path<LocalDate> fecha = cita.get("fechaCita");
+        Path<LocalTime> hora = cita.get("horaCita");
+        Path<Long> id = cita.get("idCita");
+
+        // Solo se agregan los filtros que vienen
+        List<Predicate> filtros = new ArrayList<>();
+        if (idMedico != null) {
+            filtros.add(cb.equal(medico.get("idMedico"), idMedico));
+        }
+        if (idPaciente != null) {
+            filtros.add(cb.equal(paciente.get("idPaciente"), idPaciente));
+        }
+        if (estado != null) {
+            filtros.add(cb.equal(cita.get("estadoCita"), estado));
+        }
+        if (desde != null) {
+            filtros.add(cb.greaterThanOrEqualTo(fecha, desde));
+        }
+        if (hasta != null) {
+            filtros.add(cb.lessThanOrEqualTo(fecha, hasta));
+        }
+
+        // Keyset: (fecha, hora, id) > (cursor.fecha, cursor.hora, cursor.id)
+        if (cursor != null) {
+            filtros.add(cb.or(
+                    cb.greaterThan(fecha, cursor.fecha()),
+                    cb.and(cb.equal(fecha, cursor.fecha()), cb.greaterThan(hora, cursor.hora())),
+                    cb.and(cb.equal(fecha, cursor.fecha()), cb.equal(hora, cursor.hora()), cb.greaterThan(id, cursor.id()))
+            ));
+        }
+
+        // Las columnas de paciente, médico y especialidad vienen en la misma fila (sin N+1)
+        query.select(cb.construct(CitaResumen.class,
+                        id, fecha, hora, cita.get("motivoCita"), cita.get("estadoCita"),
+                        paciente.get("idPaciente"), paciente.get("nombrePaciente"), paciente.get("apellidoPaciente"),
+                        medico.get("idMedico"), medico.get("nombreMedico"), medico.get("apellidoMedico"),
+                        especialidad.get("idEspecialidad"), especialidad.get("nombreEspecialidad")))
+                .where(filtros.toArray(new Predicate[0]))
+                .orderBy(cb.asc(fecha), cb.asc(hora), cb.asc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+}
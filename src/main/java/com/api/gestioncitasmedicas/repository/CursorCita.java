@@ -0,0 +1,31 @@
+package com.api.gestioncitasmedicas.repository;
+
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.SolicitudInvalidaException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+// Posición dentro del listado de citas ordenado por (fecha_cita, hora_cita, id_cita).
+// Se entrega al cliente como un token opaco para pedir la página siguiente (paginación keyset)
+public record CursorCita(LocalDate fecha, LocalTime hora, Long id) {
+
+    // Convertir el cursor en un token seguro para URL
+    public String codificar() {
+        String valor = fecha + "|" + hora + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Leer un token generado por codificar()
+    public static CursorCita decodificar(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\|");
+            return new CursorCita(LocalDate.parse(partes[0]), LocalTime.parse(partes[1]), Long.parseLong(partes[2]));
+        } catch (RuntimeException e) {
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "Cursor de paginación inválido");
+        }
+    }
+}
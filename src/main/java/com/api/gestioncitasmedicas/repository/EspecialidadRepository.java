@@ -2,8 +2,12 @@ package com.api.gestioncitasmedicas.repository;
 
 import com.api.gestioncitasmedicas.entity.Especialidad;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +18,8 @@ public interface EspecialidadRepository extends JpaRepository<Especialidad, Long
 
     // Verificar si existe por nombre
     boolean existsByNombreEspecialidad(String nombreEspecialidad);
+
+    // De una lista de IDs, cuáles existen (validación por lote con un solo IN)
+    @Query("SELECT e.idEspecialidad FROM Especialidad e WHERE e.idEspecialidad IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
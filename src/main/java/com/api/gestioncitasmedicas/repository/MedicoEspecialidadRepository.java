@@ -1,7 +1,9 @@
 package com.api.gestioncitasmedicas.repository;
 
 import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
+import com.api.gestioncitasmedicas.repository.projection.ConteoPorId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,14 @@ public interface MedicoEspecialidadRepository extends JpaRepository<MedicoEspeci
     // Obtener todos los médicos de una especialidad
     List<MedicoEspecialidad> findByIdEspecialidad(Long idEspecialidad);
 
+    // Contar los médicos de una especialidad
+    long countByIdEspecialidad(Long idEspecialidad);
+
+    // Cantidad de médicos de cada especialidad en una sola consulta (para listados)
+    @Query("SELECT me.idEspecialidad AS id, COUNT(me) AS cantidad FROM MedicoEspecialidad me " +
+            "GROUP BY me.idEspecialidad")
+    List<ConteoPorId> contarMedicosPorEspecialidad();
+
     // Eliminar todas las especialidades de un médico (para cuando se elimina el médico)
     @Transactional
     void deleteAllByIdMedico(Long idMedico);
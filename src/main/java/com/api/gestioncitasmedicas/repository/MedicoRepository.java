@@ -1,17 +1,31 @@
 package com.api.gestioncitasmedicas.repository;
 
 import com.api.gestioncitasmedicas.entity.Medico;
+import com.api.gestioncitasmedicas.repository.projection.MedicoResumen;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MedicoRepository extends JpaRepository<Medico, Long> {
 
+    // Columnas de MedicoResumen (lecturas sin entidades administradas)
+    String SELECT_RESUMEN = "SELECT new com.api.gestioncitasmedicas.repository.projection.MedicoResumen(" +
+            "m.idMedico, m.nombreMedico, m.apellidoMedico, m.telefonoMedico, m.correoMedico) FROM Medico m ";
+
+    // Todos los médicos, en orden de ID
+    @Query(SELECT_RESUMEN + "ORDER BY m.idMedico")
+    List<MedicoResumen> findAllResumen();
+
+    // Un médico por ID
+    @Query(SELECT_RESUMEN + "WHERE m.idMedico = :idMedico")
+    Optional<MedicoResumen> findResumenById(@Param("idMedico") Long idMedico);
+
     // Buscar por correo
     Optional<Medico> findByCorreoMedico(String correoMedico);
 
@@ -21,4 +35,12 @@ public interface MedicoRepository extends JpaRepository<Medico, Long> {
     // Buscar médicos por especialidad
     @Query("SELECT m FROM Medico m JOIN m.especialidades e WHERE e.idEspecialidad = :idEspecialidad")
     List<Medico> findByEspecialidadId(@Param("idEspecialidad") Long idEspecialidad);
-}
\ No newline at end of file
+
+    // De una lista de IDs, cuáles existen (validación por lote con un solo IN)
+    @Query("SELECT m.idMedico FROM Medico m WHERE m.idMedico IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    // Todos los correos registrados (para construir el filtro de correos)
+    @Query("SELECT m.correoMedico FROM Medico m")
+    List<String> findAllCorreos();
+}
@@ -0,0 +1,57 @@
+package com.api.gestioncitasmedicas.repository;
+
+import com.api.gestioncitasmedicas.dto.CrearPacienteDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Escritura masiva de pacientes con JDBC batching.
+// Paciente usa GenerationType.IDENTITY, lo que desactiva el batching de inserts de Hibernate,
+// por eso la importación de registros de clínicas pasa por aquí
+@Repository
+@RequiredArgsConstructor
+public class PacienteJdbcRepository {
+
+    // Cantidad de filas por cada executeBatch
+    private static final int TAMANIO_BATCH = 500;
+
+    private static final String INSERT_PACIENTE =
+            "INSERT INTO paciente (nombre_paciente, apellido_paciente, fecha_nacimiento, telefono_paciente, " +
+                    "correo_paciente, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Insertar pacientes en lotes y devolver cuántas filas se insertaron
+    public int insertar(List<CrearPacienteDTO> pacientes) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) conexion -> {
+            Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+            int insertados = 0;
+
+            try (PreparedStatement ps = conexion.prepareStatement(INSERT_PACIENTE)) {
+                for (int inicio = 0; inicio < pacientes.size(); inicio += TAMANIO_BATCH) {
+                    int fin = Math.min(inicio + TAMANIO_BATCH, pacientes.size());
+                    for (CrearPacienteDTO dto : pacientes.subList(inicio, fin)) {
+                        ps.setString(1, dto.getNombrePaciente());
+                        ps.setString(2, dto.getApellidoPaciente());
+                        ps.setDate(3, Date.valueOf(dto.getFechaNacimiento()));
+                        ps.setString(4, dto.getTelefonoPaciente());
+                        ps.setString(5, dto.getCorreoPaciente());
+                        ps.setTimestamp(6, ahora);
+                        ps.setTimestamp(7, ahora);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    insertados += fin - inicio;
+                }
+            }
+            return insertados;
+        });
+    }
+}
@@ -1,14 +1,38 @@
 package com.api.gestioncitasmedicas.repository;
 
 import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.repository.projection.DatosBusquedaPaciente;
+import com.api.gestioncitasmedicas.repository.projection.PacienteResumen;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PacienteRepository extends JpaRepository<Paciente, Long> {
 
+    // Columnas de PacienteResumen (lecturas sin entidades administradas)
+    String SELECT_RESUMEN = "SELECT new com.api.gestioncitasmedicas.repository.projection.PacienteResumen(" +
+            "p.idPaciente, p.nombrePaciente, p.apellidoPaciente, p.fechaNacimiento, " +
+            "p.telefonoPaciente, p.correoPaciente) FROM Paciente p ";
+
+    // Todos los pacientes, en orden de ID
+    @Query(SELECT_RESUMEN + "ORDER BY p.idPaciente")
+    List<PacienteResumen> findAllResumen();
+
+    // Un paciente por ID
+    @Query(SELECT_RESUMEN + "WHERE p.idPaciente = :idPaciente")
+    Optional<PacienteResumen> findResumenById(@Param("idPaciente") Long idPaciente);
+
+    // Varios pacientes por ID (en cualquier orden)
+    @Query(SELECT_RESUMEN + "WHERE p.idPaciente IN :ids")
+    List<PacienteResumen> findResumenByIds(@Param("ids") Collection<Long> ids);
+
     // Buscar por nombre o apellido (búsqueda parcial, case insensitive)
     List<Paciente> findByNombrePacienteContainingIgnoreCaseOrApellidoPacienteContainingIgnoreCase(
             String nombre, String apellido
@@ -16,4 +40,23 @@ public interface PacienteRepository extends JpaRepository<Paciente, Long> {
 
     // Verificar si existe un paciente con ese correo
     boolean existsByCorreoPaciente(String correoPaciente);
-}
\ No newline at end of file
+
+    // De una lista de IDs, cuáles existen (validación por lote con un solo IN)
+    @Query("SELECT p.idPaciente FROM Paciente p WHERE p.idPaciente IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    // De una lista de correos, cuáles ya están registrados (validación por lote con un solo IN)
+    @Query("SELECT p.correoPaciente FROM Paciente p WHERE p.correoPaciente IN :correos")
+    List<String> findCorreosExistentes(@Param("correos") Collection<String> correos);
+
+    // Datos de búsqueda de los pacientes con ID mayor a idDesde, en orden de ID (carga por bloques de los índices)
+    @Query("SELECT p.idPaciente AS idPaciente, p.nombrePaciente AS nombrePaciente, " +
+            "p.apellidoPaciente AS apellidoPaciente, p.fechaNacimiento AS fechaNacimiento, " +
+            "p.telefonoPaciente AS telefonoPaciente FROM Paciente p " +
+            "WHERE p.idPaciente > :idDesde ORDER BY p.idPaciente")
+    List<DatosBusquedaPaciente> findDatosBusquedaDespuesDe(@Param("idDesde") Long idDesde, Pageable pagina);
+
+    // Todos los correos registrados (para construir el filtro de correos)
+    @Query("SELECT p.correoPaciente FROM Paciente p")
+    List<String> findAllCorreos();
+}
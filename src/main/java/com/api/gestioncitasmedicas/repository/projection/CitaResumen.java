@@ -0,0 +1,25 @@
+package com.api.gestioncitasmedicas.repository.projection;
+
+import com.api.gestioncitasmedicas.entity.Cita;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Fila plana de una cita con los datos de paciente, médico y especialidad ya resueltos.
+// Se arma con un solo SELECT con JOIN (constructor JPQL), sin cargar entidades ni asociaciones LAZY
+public record CitaResumen(
+        Long idCita,
+        LocalDate fechaCita,
+        LocalTime horaCita,
+        String motivoCita,
+        Cita.EstadoCita estadoCita,
+        Long idPaciente,
+        String nombrePaciente,
+        String apellidoPaciente,
+        Long idMedico,
+        String nombreMedico,
+        String apellidoMedico,
+        Long idEspecialidad,
+        String nombreEspecialidad
+) {
+}
@@ -0,0 +1,7 @@
+package com.api.gestioncitasmedicas.repository.projection;
+
+// Proyección de un conteo agrupado (GROUP BY): el ID agrupado y cuántas filas tiene
+public interface ConteoPorId {
+    Long getId();
+    Long getCantidad();
+}
@@ -0,0 +1,12 @@
+package com.api.gestioncitasmedicas.repository.projection;
+
+import java.time.LocalDate;
+
+// Proyección mínima de un paciente para construir los índices de búsqueda y de duplicados
+public interface DatosBusquedaPaciente {
+    Long getIdPaciente();
+    String getNombrePaciente();
+    String getApellidoPaciente();
+    LocalDate getFechaNacimiento();
+    String getTelefonoPaciente();
+}
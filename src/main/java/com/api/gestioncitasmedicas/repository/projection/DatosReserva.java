@@ -0,0 +1,14 @@
+package com.api.gestioncitasmedicas.repository.projection;
+
+// Paciente y médico de una reserva en una sola fila (constructor JPQL): confirma que ambos
+// existen y trae los nombres para la respuesta. Sin fila: el paciente no existe;
+// con idMedico nulo: el médico no existe
+public record DatosReserva(
+        Long idPaciente,
+        String nombrePaciente,
+        String apellidoPaciente,
+        Long idMedico,
+        String nombreMedico,
+        String apellidoMedico
+) {
+}
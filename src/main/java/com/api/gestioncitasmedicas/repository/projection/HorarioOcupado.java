@@ -0,0 +1,11 @@
+package com.api.gestioncitasmedicas.repository.projection;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Proyección mínima de una cita: solo lo necesario para saber qué horario ocupa
+public interface HorarioOcupado {
+    Long getIdMedico();
+    LocalDate getFechaCita();
+    LocalTime getHoraCita();
+}
@@ -0,0 +1,12 @@
+package com.api.gestioncitasmedicas.repository.projection;
+
+// Columnas de un médico para las lecturas (constructor JPQL); las especialidades se resuelven
+// en memoria con IndiceMedicoEspecialidad y CacheEspecialidades
+public record MedicoResumen(
+        Long idMedico,
+        String nombreMedico,
+        String apellidoMedico,
+        String telefonoMedico,
+        String correoMedico
+) {
+}
@@ -0,0 +1,15 @@
+package com.api.gestioncitasmedicas.repository.projection;
+
+import java.time.LocalDate;
+
+// Columnas de un paciente para las lecturas (constructor JPQL): sin entidad administrada ni
+// copia para dirty-checking, solo los campos que van en la respuesta
+public record PacienteResumen(
+        Long idPaciente,
+        String nombrePaciente,
+        String apellidoPaciente,
+        LocalDate fechaNacimiento,
+        String telefonoPaciente,
+        String correoPaciente
+) {
+}
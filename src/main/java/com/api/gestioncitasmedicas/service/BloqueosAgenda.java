@@ -0,0 +1,76 @@
+package com.api.gestioncitasmedicas.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Bloqueos por franjas (lock striping) para reservar horarios sin condiciones de carrera.
+// Cada (médico, fecha) cae en una de las franjas: solo se serializan las reservas del mismo
+// médico en el mismo día (y las pocas que compartan franja por colisión), las demás corren en paralelo.
+// Protege una sola instancia de la API; entre instancias la garantía la da la llave única uk_cita_horario_activo.
+@Component
+public class BloqueosAgenda {
+
+    // Potencia de 2 para poder calcular la franja con una máscara
+    private static final int FRANJAS = 256;
+
+    private final ReentrantLock[] bloqueos = new ReentrantLock[FRANJAS];
+
+    public BloqueosAgenda() {
+        for (int i = 0; i < FRANJAS; i++) {
+            bloqueos[i] = new ReentrantLock();
+        }
+    }
+
+    // Ejecutar una acción con exclusión mutua sobre la agenda del médico en esa fecha
+    public <T> T ejecutar(Long idMedico, LocalDate fecha, Supplier<T> accion) {
+        ReentrantLock bloqueo = bloqueos[franja(idMedico, fecha)];
+        bloqueo.lock();
+        try {
+            return accion.get();
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    // Ejecutar una acción reteniendo las agendas de varios (médico, fecha) a la vez (cargas por lote).
+    // Las franjas se toman siempre en orden ascendente para evitar interbloqueos
+    public <T> T ejecutarVarios(Collection<Agenda> agendas, Supplier<T> accion) {
+        TreeSet<Integer> franjas = new TreeSet<>();
+        for (Agenda agenda : agendas) {
+            franjas.add(franja(agenda.idMedico(), agenda.fecha()));
+        }
+
+        List<ReentrantLock> tomados = new ArrayList<>(franjas.size());
+        try {
+            for (Integer franja : franjas) {
+                bloqueos[franja].lock();
+                tomados.add(bloqueos[franja]);
+            }
+            return accion.get();
+        } finally {
+            for (int i = tomados.size() - 1; i >= 0; i--) {
+                tomados.get(i).unlock();
+            }
+        }
+    }
+
+    // Franja que le corresponde a un (médico, fecha)
+    static int franja(Long idMedico, LocalDate fecha) {
+        long h = idMedico * 0x9E3779B97F4A7C15L + fecha.toEpochDay();
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & (FRANJAS - 1);
+    }
+
+    // Agenda de un médico en un día
+    public record Agenda(Long idMedico, LocalDate fecha) {
+    }
+}
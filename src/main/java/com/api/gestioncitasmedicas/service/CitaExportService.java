@@ -0,0 +1,158 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.SolicitudInvalidaException;
+import com.api.gestioncitasmedicas.repository.CitaRepository;
+import com.api.gestioncitasmedicas.repository.projection.CitaResumen;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Exportación masiva de citas (reportes). Las filas se leen con un cursor de base de datos y se
+// escriben directo a la respuesta una por una: la memoria no depende de cuántas citas se exporten
+@Service
+@RequiredArgsConstructor
+public class CitaExportService {
+
+    private static final String ENCABEZADO_CSV =
+            "id_cita,fecha_cita,hora_cita,estado_cita,motivo_cita,id_paciente,paciente," +
+            "id_medico,medico,id_especialidad,especialidad";
+
+    private final CitaRepository citaRepository;
+    private final ObjectMapper objectMapper;
+
+    // Formatos soportados por GET /api/citas/export
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String tipoContenido;
+        private final String extension;
+
+        Formato(String tipoContenido, String extension) {
+            this.tipoContenido = tipoContenido;
+            this.extension = extension;
+        }
+
+        public String getTipoContenido() {
+            return tipoContenido;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        // Interpretar el parámetro formato (NDJSON por defecto)
+        public static Formato desde(String formato) {
+            if (formato == null || formato.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(formato.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO,
+                        "Formato de exportación inválido: " + formato + " (use ndjson o csv)");
+            }
+        }
+    }
+
+    // Validar el rango antes de empezar a escribir la respuesta
+    public void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde != null && hasta != null && hasta.isBefore(desde)) {
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO,
+                    "La fecha 'hasta' no puede ser anterior a la fecha 'desde'");
+        }
+    }
+
+    // Escribir todas las citas del rango en la salida. La transacción mantiene abierto el cursor
+    // mientras dura la escritura; el Stream se cierra siempre para liberar el ResultSet
+    @Transactional(readOnly = true)
+    public void exportar(Formato formato, LocalDate desde, LocalDate hasta, OutputStream salida) throws IOException {
+        try (Stream<CitaResumen> citas = citaRepository.streamResumen(desde, hasta)) {
+            if (formato == Formato.CSV) {
+                escribirCsv(citas.iterator(), salida);
+            } else {
+                escribirNdjson(citas.iterator(), salida);
+            }
+        }
+    }
+
+    // Un objeto JSON por línea, con la misma forma que CitaDTO
+    private void escribirNdjson(Iterator<CitaResumen> citas, OutputStream salida) throws IOException {
+        // Sin AUTO_CLOSE_TARGET: cerrar el SequenceWriter no debe cerrar la respuesta HTTP
+        try (SequenceWriter escritor = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(salida)) {
+            while (citas.hasNext()) {
+                escritor.write(CitaService.convertirADTO(citas.next()));
+                if (!citas.hasNext()) {
+                    escritor.flush();
+                    salida.write('\n');
+                }
+            }
+        }
+        salida.flush();
+    }
+
+    private void escribirCsv(Iterator<CitaResumen> citas, OutputStream salida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+        escritor.write(ENCABEZADO_CSV);
+        escritor.write("\r\n");
+        while (citas.hasNext()) {
+            CitaResumen cita = citas.next();
+            escritor.write(String.valueOf(cita.idCita()));
+            escritor.write(',');
+            escritor.write(cita.fechaCita().toString());
+            escritor.write(',');
+            escritor.write(cita.horaCita().toString());
+            escritor.write(',');
+            escritor.write(cita.estadoCita().name());
+            escritor.write(',');
+            escritor.write(campoCsv(cita.motivoCita()));
+            escritor.write(',');
+            escritor.write(String.valueOf(cita.idPaciente()));
+            escritor.write(',');
+            escritor.write(campoCsv(cita.nombrePaciente() + " " + cita.apellidoPaciente()));
+            escritor.write(',');
+            escritor.write(String.valueOf(cita.idMedico()));
+            escritor.write(',');
+            escritor.write(campoCsv("Dr. " + cita.nombreMedico() + " " + cita.apellidoMedico()));
+            escritor.write(',');
+            escritor.write(String.valueOf(cita.idEspecialidad()));
+            escritor.write(',');
+            escritor.write(campoCsv(cita.nombreEspecialidad()));
+            escritor.write("\r\n");
+        }
+        escritor.flush();
+    }
+
+    // Escapar un campo de texto según RFC 4180 (comillas si trae coma, comillas o saltos de línea)
+    static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        boolean requiereComillas = false;
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                requiereComillas = true;
+                break;
+            }
+        }
+        return requiereComillas ? "\"" + valor.replace("\"", "\"\"") + "\"" : valor;
+    }
+}
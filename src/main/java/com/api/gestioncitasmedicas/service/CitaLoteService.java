@@ -0,0 +1,280 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.dto.ResultadoLoteDTO;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.NegocioException;
+import com.api.gestioncitasmedicas.exception.SolicitudInvalidaException;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
+import com.api.gestioncitasmedicas.index.IndiceOcupacion;
+import com.api.gestioncitasmedicas.repository.CitaJdbcRepository;
+import com.api.gestioncitasmedicas.repository.CitaRepository;
+import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.MedicoRepository;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import com.api.gestioncitasmedicas.repository.projection.HorarioOcupado;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Creación de citas por lote (jornadas de vacunación, chequeos escolares, etc.).
+// Aplica las mismas reglas que CitaService.crear, pero validando todo el lote junto:
+// un IN por tabla para las existencias y, por cada tramo de agendas, una consulta de rango
+// para los horarios ocupados y un INSERT con JDBC batching para las filas válidas
+@Service
+@RequiredArgsConstructor
+public class CitaLoteService {
+
+    // Máximo de citas aceptadas en un solo lote
+    static final int MAXIMO_LOTE = 5000;
+
+    // Agendas (médico, fecha) que se bloquean e insertan juntas: acota cuántas franjas de
+    // BloqueosAgenda retiene un lote grande mientras las reservas individuales esperan
+    static final int AGENDAS_POR_TRAMO = 16;
+
+    // Intentos de INSERT por tramo cuando la llave del horario rechaza el batch
+    private static final int MAXIMO_INTENTOS = 3;
+
+    private final CitaRepository citaRepository;
+    private final CitaJdbcRepository citaJdbcRepository;
+    private final PacienteRepository pacienteRepository;
+    private final MedicoRepository medicoRepository;
+    private final EspecialidadRepository especialidadRepository;
+    private final IndiceMedicoEspecialidad indiceMedicoEspecialidad;
+    private final IndiceOcupacion indiceOcupacion;
+    private final BloqueosAgenda bloqueosAgenda;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    // Crear un lote de citas y devolver el resultado de cada elemento
+    public ResultadoLoteDTO crearLote(List<CrearCitaDTO> citas) {
+        if (citas == null || citas.isEmpty()) {
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "El lote no contiene citas");
+        }
+        if (citas.size() > MAXIMO_LOTE) {
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO,
+                    "El lote no puede tener más de " + MAXIMO_LOTE + " citas");
+        }
+
+        Rechazo[] rechazos = new Rechazo[citas.size()];
+        Long[] idsCreados = new Long[citas.size()];
+
+        // PASO 1: validaciones que no tocan la BD (anotaciones del DTO, día hábil y horario)
+        List<Integer> pendientes = new ArrayList<>();
+        for (int i = 0; i < citas.size(); i++) {
+            rechazos[i] = validarSinBD(citas.get(i));
+            if (rechazos[i] == null) {
+                pendientes.add(i);
+            }
+        }
+
+        // PASO 2: existencia de pacientes, médicos, especialidades y relaciones (un IN por tabla)
+        if (!pendientes.isEmpty()) {
+            pendientes = validarExistencias(citas, pendientes, rechazos);
+        }
+
+        // PASO 3: conflictos de horario contra la BD y dentro del mismo lote, e inserción,
+        // por tramos de agendas ordenadas por fecha: cada tramo toma solo sus franjas y las suelta al terminar
+        Map<BloqueosAgenda.Agenda, List<Integer>> porAgenda = new TreeMap<>(
+                Comparator.comparing(BloqueosAgenda.Agenda::fecha).thenComparing(BloqueosAgenda.Agenda::idMedico));
+        for (Integer i : pendientes) {
+            CrearCitaDTO dto = citas.get(i);
+            porAgenda.computeIfAbsent(new BloqueosAgenda.Agenda(dto.getIdMedico(), dto.getFechaCita()),
+                    agenda -> new ArrayList<>()).add(i);
+        }
+        List<BloqueosAgenda.Agenda> agendas = new ArrayList<>(porAgenda.keySet());
+        for (int inicio = 0; inicio < agendas.size(); inicio += AGENDAS_POR_TRAMO) {
+            List<BloqueosAgenda.Agenda> tramo = agendas.subList(inicio, Math.min(inicio + AGENDAS_POR_TRAMO, agendas.size()));
+            List<Integer> candidatas = new ArrayList<>();
+            for (BloqueosAgenda.Agenda agenda : tramo) {
+                candidatas.addAll(porAgenda.get(agenda));
+            }
+            bloqueosAgenda.ejecutarVarios(tramo, () -> {
+                insertarSinConflictos(citas, candidatas, rechazos, idsCreados);
+                return null;
+            });
+        }
+
+        List<ResultadoLoteDTO.ItemDTO> resultados = new ArrayList<>(citas.size());
+        int creadas = 0;
+        for (int i = 0; i < citas.size(); i++) {
+            boolean creada = idsCreados[i] != null;
+            if (creada) {
+                creadas++;
+            }
+            resultados.add(creada
+                    ? new ResultadoLoteDTO.ItemDTO(i, true, idsCreados[i], null, null)
+                    : new ResultadoLoteDTO.ItemDTO(i, false, null, rechazos[i].codigo().name(), rechazos[i].mensaje()));
+        }
+        return new ResultadoLoteDTO(citas.size(), creadas, citas.size() - creadas, resultados);
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Motivo por el que se rechazó un elemento: el mismo código que tendría la reserva individual
+    private record Rechazo(CodigoError codigo, String mensaje) {
+
+        Rechazo(NegocioException ex) {
+            this(ex.getCodigo(), ex.getMessage());
+        }
+    }
+
+    // Validaciones puras de un elemento; devuelve el rechazo o null si pasa
+    private Rechazo validarSinBD(CrearCitaDTO dto) {
+        if (dto == null) {
+            return new Rechazo(CodigoError.PARAMETRO_INVALIDO, "El elemento del lote está vacío");
+        }
+
+        Set<ConstraintViolation<CrearCitaDTO>> violaciones = validator.validate(dto);
+        if (!violaciones.isEmpty()) {
+            return new Rechazo(CodigoError.PARAMETRO_INVALIDO, violaciones.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        if (!CitaService.esDiaHabil(dto.getFechaCita())) {
+            return new Rechazo(CitaService.DIA_NO_HABIL);
+        }
+        if (!CitaService.esHorarioValido(dto.getHoraCita())) {
+            return new Rechazo(CitaService.HORARIO_INVALIDO);
+        }
+        return null;
+    }
+
+    // Verificar existencias con una consulta por tabla (las relaciones se leen del índice en memoria); devuelve los índices que siguen siendo válidos
+    private List<Integer> validarExistencias(List<CrearCitaDTO> citas, List<Integer> pendientes, Rechazo[] rechazos) {
+        Set<Long> idsPacientes = new HashSet<>();
+        Set<Long> idsMedicos = new HashSet<>();
+        Set<Long> idsEspecialidades = new HashSet<>();
+        for (Integer i : pendientes) {
+            idsPacientes.add(citas.get(i).getIdPaciente());
+            idsMedicos.add(citas.get(i).getIdMedico());
+            idsEspecialidades.add(citas.get(i).getIdEspecialidad());
+        }
+
+        Set<Long> pacientes = new HashSet<>(pacienteRepository.findIdsExistentes(idsPacientes));
+        Set<Long> medicos = new HashSet<>(medicoRepository.findIdsExistentes(idsMedicos));
+        Set<Long> especialidades = new HashSet<>(especialidadRepository.findIdsExistentes(idsEspecialidades));
+
+        List<Integer> validas = new ArrayList<>();
+        for (Integer i : pendientes) {
+            CrearCitaDTO dto = citas.get(i);
+            if (!pacientes.contains(dto.getIdPaciente())) {
+                rechazos[i] = new Rechazo(CodigoError.PACIENTE_NO_ENCONTRADO, "Paciente no encontrado con ID: " + dto.getIdPaciente());
+            } else if (!medicos.contains(dto.getIdMedico())) {
+                rechazos[i] = new Rechazo(CodigoError.MEDICO_NO_ENCONTRADO, "Médico no encontrado con ID: " + dto.getIdMedico());
+            } else if (!especialidades.contains(dto.getIdEspecialidad())) {
+                rechazos[i] = new Rechazo(CodigoError.ESPECIALIDAD_NO_ENCONTRADA, "Especialidad no encontrada con ID: " + dto.getIdEspecialidad());
+            } else if (!indiceMedicoEspecialidad.tieneEspecialidad(dto.getIdMedico(), dto.getIdEspecialidad())) {
+                rechazos[i] = new Rechazo(CodigoError.MEDICO_SIN_ESPECIALIDAD, "El médico con ID " + dto.getIdMedico() +
+                        " no tiene la especialidad con ID " + dto.getIdEspecialidad());
+            } else {
+                validas.add(i);
+            }
+        }
+        return validas;
+    }
+
+    // Detectar conflictos de horario e insertar las filas restantes (se llama con las agendas bloqueadas).
+    // Los bloqueos solo protegen esta instancia: si otra instancia de la API o una escritura directa en la BD
+    // toma un horario entre la consulta de rango y el INSERT, la llave única revierte el batch completo;
+    // entonces se releen los ocupados, los elementos que perdieron su horario quedan como HORARIO_OCUPADO
+    // y se reintenta con el resto
+    private void insertarSinConflictos(List<CrearCitaDTO> citas, List<Integer> candidatas,
+                                       Rechazo[] rechazos, Long[] idsCreados) {
+        List<Integer> porInsertar = candidatas;
+        for (int intento = 1; ; intento++) {
+            List<Integer> aInsertar = descartarConflictos(citas, porInsertar, rechazos);
+            if (aInsertar.isEmpty()) {
+                return;
+            }
+
+            List<CrearCitaDTO> filas = aInsertar.stream().map(citas::get).collect(Collectors.toList());
+            List<Long> ids;
+            try {
+                ids = transactionTemplate.execute(estado -> citaJdbcRepository.insertarPendientes(filas));
+            } catch (DataIntegrityViolationException e) {
+                if (!CitaService.violaLlaveDeHorario(e)) {
+                    throw e;
+                }
+                if (intento == MAXIMO_INTENTOS) {
+                    // Los horarios siguen cambiando bajo el lote: se rechaza el resto en lugar de insistir
+                    for (Integer i : aInsertar) {
+                        rechazos[i] = new Rechazo(CodigoError.HORARIO_OCUPADO,
+                                "La agenda del médico cambió mientras se procesaba el lote. Por favor, intente de nuevo.");
+                    }
+                    return;
+                }
+                porInsertar = aInsertar;
+                continue;
+            }
+
+            // Ya confirmadas en la BD: marcar los horarios en el índice de ocupación
+            for (int j = 0; j < aInsertar.size(); j++) {
+                CrearCitaDTO dto = filas.get(j);
+                idsCreados[aInsertar.get(j)] = ids.get(j);
+                indiceOcupacion.ocupar(dto.getIdMedico(), dto.getFechaCita(), dto.getHoraCita());
+            }
+            return;
+        }
+    }
+
+    // Rechazar los elementos cuyo horario ya está ocupado en la BD o repetido dentro del lote; devuelve los que quedan
+    private List<Integer> descartarConflictos(List<CrearCitaDTO> citas, List<Integer> candidatas, Rechazo[] rechazos) {
+        Set<Long> idsMedicos = new HashSet<>();
+        LocalDate desde = null;
+        LocalDate hasta = null;
+        for (Integer i : candidatas) {
+            CrearCitaDTO dto = citas.get(i);
+            idsMedicos.add(dto.getIdMedico());
+            desde = desde == null || dto.getFechaCita().isBefore(desde) ? dto.getFechaCita() : desde;
+            hasta = hasta == null || dto.getFechaCita().isAfter(hasta) ? dto.getFechaCita() : hasta;
+        }
+
+        // Una sola consulta de rango para todos los horarios ya ocupados
+        Set<String> ocupados = new HashSet<>();
+        for (HorarioOcupado horario : citaRepository.findHorariosOcupados(idsMedicos, desde, hasta)) {
+            ocupados.add(claveHorario(horario.getIdMedico(), horario.getFechaCita(), horario.getHoraCita()));
+        }
+
+        Map<String, Integer> reservadosEnLote = new HashMap<>();
+        List<Integer> aInsertar = new ArrayList<>();
+        for (Integer i : candidatas) {
+            CrearCitaDTO dto = citas.get(i);
+            String clave = claveHorario(dto.getIdMedico(), dto.getFechaCita(), dto.getHoraCita());
+            if (ocupados.contains(clave)) {
+                rechazos[i] = new Rechazo(CodigoError.HORARIO_OCUPADO, "El médico ya tiene una cita agendada el " +
+                        dto.getFechaCita() + " a las " + dto.getHoraCita() + ". Por favor, elija otro horario.");
+                continue;
+            }
+            Integer previa = reservadosEnLote.putIfAbsent(clave, i);
+            if (previa != null) {
+                rechazos[i] = new Rechazo(CodigoError.HORARIO_OCUPADO,
+                        "El horario ya fue solicitado por el elemento " + previa + " del mismo lote");
+                continue;
+            }
+            aInsertar.add(i);
+        }
+        return aInsertar;
+    }
+
+    private static String claveHorario(Long idMedico, LocalDate fecha, LocalTime hora) {
+        return idMedico + "|" + fecha + "|" + hora;
+    }
+}
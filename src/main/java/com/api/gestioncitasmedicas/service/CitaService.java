@@ -1,25 +1,42 @@
 package com.api.gestioncitasmedicas.service;
 
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
 import com.api.gestioncitasmedicas.dto.ActualizarCitaDTO;
 import com.api.gestioncitasmedicas.dto.CitaDTO;
 import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.dto.HorarioDisponibleDTO;
+import com.api.gestioncitasmedicas.dto.PaginaDTO;
 import com.api.gestioncitasmedicas.entity.Cita;
 import com.api.gestioncitasmedicas.entity.Especialidad;
 import com.api.gestioncitasmedicas.entity.Medico;
-import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.ConflictoException;
+import com.api.gestioncitasmedicas.exception.NoEncontradoException;
+import com.api.gestioncitasmedicas.exception.ReglaNegocioException;
+import com.api.gestioncitasmedicas.exception.SolicitudInvalidaException;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
+import com.api.gestioncitasmedicas.index.IndiceOcupacion;
 import com.api.gestioncitasmedicas.repository.CitaRepository;
-import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
-import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.CursorCita;
+import com.api.gestioncitasmedicas.repository.projection.CitaResumen;
+import com.api.gestioncitasmedicas.repository.projection.DatosReserva;
 import com.api.gestioncitasmedicas.repository.MedicoRepository;
 import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import com.api.gestioncitasmedicas.repository.projection.HorarioOcupado;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.Arrays;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,11 +46,13 @@ public class CitaService {
     private final CitaRepository citaRepository;
     private final MedicoRepository medicoRepository;
     private final PacienteRepository pacienteRepository;
-    private final EspecialidadRepository especialidadRepository;
-    private final MedicoEspecialidadRepository medicoEspecialidadRepository;
+    private final CacheEspecialidades cacheEspecialidades;
+    private final IndiceMedicoEspecialidad indiceMedicoEspecialidad;
+    private final IndiceOcupacion indiceOcupacion;
+    private final BloqueosAgenda bloqueosAgenda;
 
-    // Horarios válidos (8 slots por día)
-    private static final List<LocalTime> HORARIOS_VALIDOS = Arrays.asList(
+    // Horarios válidos (8 slots por día). El orden define el bit de cada horario en IndiceOcupacion
+    public static final List<LocalTime> HORARIOS_VALIDOS = List.of(
             LocalTime.of(8, 0),   // 08:00
             LocalTime.of(9, 0),   // 09:00
             LocalTime.of(10, 0),  // 10:00
@@ -44,122 +63,253 @@ public class CitaService {
             LocalTime.of(16, 0)   // 16:00
     );
 
-    // Listar todas las citas
-    public List<CitaDTO> obtenerTodas() {
-        return citaRepository.findAll().stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
-    }
+    // Rechazos frecuentes de reservas, con mensaje fijo: se crean una sola vez (sin stack trace)
+    // y se reutilizan, así una ola de reservas rechazadas no arma objetos ni textos por cada una.
+    // CitaLoteService usa los mismos mensajes para los elementos rechazados del lote
+    static final ReglaNegocioException DIA_NO_HABIL = new ReglaNegocioException(CodigoError.DIA_NO_HABIL,
+            "No se pueden agendar citas los fines de semana (sábado o domingo)");
+    static final ReglaNegocioException HORARIO_INVALIDO = new ReglaNegocioException(CodigoError.HORARIO_INVALIDO,
+            "Horario no válido. Los horarios disponibles son: 08:00, 09:00, 10:00, 11:00, 13:00, 14:00, 15:00, 16:00. " +
+                    "No hay citas de 12:00 a 13:00 (hora de almuerzo).");
+    private static final ConflictoException HORARIO_OCUPADO = new ConflictoException(CodigoError.HORARIO_OCUPADO,
+            "El médico ya tiene una cita agendada en ese horario. Por favor, elija otro horario.");
+
+    // Llave única que impide dos citas activas del mismo médico en el mismo horario. El nombre que
+    // reporta el driver varía (H2: PUBLIC.UK_CITA_HORARIO_ACTIVO_INDEX_1, MySQL: cita.uk_cita_horario_activo)
+    private static final String LLAVE_HORARIO = "uk_cita_horario_activo";
+
+    // Tamaño de página por defecto y máximo del listado de citas
+    private static final int TAMANIO_PAGINA_POR_DEFECTO = 50;
+    private static final int TAMANIO_PAGINA_MAXIMO = 200;
+
+    // Límites de la búsqueda de horarios disponibles
+    private static final int LIMITE_DISPONIBILIDAD_POR_DEFECTO = 20;
+    private static final int LIMITE_DISPONIBILIDAD_MAXIMO = 200;
+    private static final int DIAS_DISPONIBILIDAD_POR_DEFECTO = 30;
+    private static final int DIAS_DISPONIBILIDAD_MAXIMO = 90;
 
     // Obtener una cita por ID
+    @Transactional(readOnly = true)
     public CitaDTO obtenerPorId(Long id) {
-        Cita cita = citaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Cita no encontrada con ID: " + id));
+        CitaResumen cita = citaRepository.findResumenById(id)
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.CITA_NO_ENCONTRADA, "Cita no encontrada con ID: " + id));
         return convertirADTO(cita);
     }
 
-    // Filtrar citas por médico, paciente o estado
-    public List<CitaDTO> filtrar(Long idMedico, Long idPaciente, String estado) {
-        List<Cita> citas;
-
-        if (idMedico != null) {
-            citas = citaRepository.findByMedicoIdMedico(idMedico);
-        } else if (idPaciente != null) {
-            citas = citaRepository.findByPacienteIdPaciente(idPaciente);
-        } else if (estado != null) {
-            Cita.EstadoCita estadoCita = Cita.EstadoCita.valueOf(estado.toUpperCase());
-            citas = citaRepository.findByEstadoCita(estadoCita);
-        } else {
-            citas = citaRepository.findAll();
+    // Filtrar citas combinando médico, paciente, estado y rango de fechas (todos opcionales).
+    // Devuelve una página ordenada por fecha, hora e ID; para la siguiente se envía el cursor recibido
+    @Transactional(readOnly = true)
+    public PaginaDTO<CitaDTO> filtrar(Long idMedico, Long idPaciente, String estado,
+                                      LocalDate desde, LocalDate hasta, String cursor, Integer tamanio) {
+        Cita.EstadoCita estadoCita = null;
+        if (estado != null && !estado.isBlank()) {
+            try {
+                estadoCita = Cita.EstadoCita.valueOf(estado.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "Estado inválido: " + estado);
+            }
+        }
+        if (desde != null && hasta != null && hasta.isBefore(desde)) {
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "La fecha 'hasta' no puede ser anterior a la fecha 'desde'");
         }
 
-        return citas.stream()
-                .map(this::convertirADTO)
+        int tamanioPagina = tamanio != null && tamanio > 0
+                ? Math.min(tamanio, TAMANIO_PAGINA_MAXIMO)
+                : TAMANIO_PAGINA_POR_DEFECTO;
+        CursorCita posicion = cursor != null && !cursor.isBlank() ? CursorCita.decodificar(cursor) : null;
+
+        // Se pide un registro extra solo para saber si hay otra página
+        List<CitaResumen> citas = citaRepository.buscarPagina(
+                idMedico, idPaciente, estadoCita, desde, hasta, posicion, tamanioPagina + 1
+        );
+
+        boolean hayMas = citas.size() > tamanioPagina;
+        if (hayMas) {
+            citas = citas.subList(0, tamanioPagina);
+        }
+
+        String siguienteCursor = null;
+        if (hayMas) {
+            CitaResumen ultima = citas.get(citas.size() - 1);
+            siguienteCursor = new CursorCita(ultima.fechaCita(), ultima.horaCita(), ultima.idCita()).codificar();
+        }
+
+        List<CitaDTO> contenido = citas.stream()
+                .map(CitaService::convertirADTO)
                 .collect(Collectors.toList());
+        return new PaginaDTO<>(contenido, tamanioPagina, hayMas, siguienteCursor);
     }
 
-    // Crear una nueva cita (CON TODAS LAS VALIDACIONES)
-    public CitaDTO crear(CrearCitaDTO dto) {
-        // VALIDACIÓN 1: Verificar que el paciente existe
-        Paciente paciente = pacienteRepository.findById(dto.getIdPaciente())
-                .orElseThrow(() -> new RuntimeException("Paciente no encontrado con ID: " + dto.getIdPaciente()));
+    // Buscar los primeros horarios libres de una especialidad entre dos fechas.
+    // Se hace una sola consulta de rango sobre cita y el cruce con los médicos se resuelve en memoria
+    @Transactional(readOnly = true)
+    public List<HorarioDisponibleDTO> buscarDisponibilidad(Long idEspecialidad, LocalDate desde,
+                                                           LocalDate hasta, Integer limite) {
+        LocalDate hoy = LocalDate.now();
+        LocalDate inicio = desde != null ? desde : hoy;
+        if (inicio.isBefore(hoy)) {
+            inicio = hoy;
+        }
+        LocalDate fin = hasta != null ? hasta : inicio.plusDays(DIAS_DISPONIBILIDAD_POR_DEFECTO);
+        if (fin.isBefore(inicio)) {
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "La fecha 'hasta' no puede ser anterior a la fecha 'desde'");
+        }
+        if (ChronoUnit.DAYS.between(inicio, fin) > DIAS_DISPONIBILIDAD_MAXIMO) {
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "El rango de búsqueda no puede superar " + DIAS_DISPONIBILIDAD_MAXIMO + " días");
+        }
+        int maximo = limite != null && limite > 0
+                ? Math.min(limite, LIMITE_DISPONIBILIDAD_MAXIMO)
+                : LIMITE_DISPONIBILIDAD_POR_DEFECTO;
 
-        // VALIDACIÓN 2: Verificar que el médico existe
-        Medico medico = medicoRepository.findById(dto.getIdMedico())
-                .orElseThrow(() -> new RuntimeException("Médico no encontrado con ID: " + dto.getIdMedico()));
+        if (!cacheEspecialidades.existe(idEspecialidad)) {
+            throw new NoEncontradoException(CodigoError.ESPECIALIDAD_NO_ENCONTRADA, "Especialidad no encontrada con ID: " + idEspecialidad);
+        }
 
-        // VALIDACIÓN 3: Verificar que la especialidad existe
-        Especialidad especialidad = especialidadRepository.findById(dto.getIdEspecialidad())
-                .orElseThrow(() -> new RuntimeException("Especialidad no encontrada con ID: " + dto.getIdEspecialidad()));
+        // Médicos que tienen la especialidad (ordenados por ID para un resultado estable)
+        List<Long> idsMedicos = indiceMedicoEspecialidad.medicosDe(idEspecialidad);
+        if (idsMedicos.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        // VALIDACIÓN 4: Verificar que el médico tiene esa especialidad
-        boolean medicoTieneEspecialidad = medicoEspecialidadRepository.existsByIdMedicoAndIdEspecialidad(
-                dto.getIdMedico(), dto.getIdEspecialidad()
-        );
-        if (!medicoTieneEspecialidad) {
-            throw new RuntimeException(
-                    "El médico " + medico.getNombreMedico() + " " + medico.getApellidoMedico() +
-                            " no tiene la especialidad de " + especialidad.getNombreEspecialidad()
-            );
+        // Una sola consulta de rango: máscara de horarios ocupados por (fecha, médico)
+        Map<LocalDate, Map<Long, Integer>> ocupados = new HashMap<>();
+        for (HorarioOcupado horario : citaRepository.findHorariosOcupados(idsMedicos, inicio, fin)) {
+            int posicion = HORARIOS_VALIDOS.indexOf(horario.getHoraCita());
+            if (posicion >= 0) {
+                ocupados.computeIfAbsent(horario.getFechaCita(), f -> new HashMap<>())
+                        .merge(horario.getIdMedico(), 1 << posicion, (a, b) -> a | b);
+            }
+        }
+
+        Map<Long, Medico> medicos = medicoRepository.findAllById(idsMedicos).stream()
+                .collect(Collectors.toMap(Medico::getIdMedico, Function.identity()));
+        LocalTime ahora = LocalTime.now();
+
+        // Recorrer en orden cronológico: fecha, hora y luego médico
+        List<HorarioDisponibleDTO> disponibles = new ArrayList<>();
+        for (LocalDate fecha = inicio; !fecha.isAfter(fin); fecha = fecha.plusDays(1)) {
+            if (!esDiaHabil(fecha)) {
+                continue;
+            }
+            Map<Long, Integer> ocupadosDelDia = ocupados.getOrDefault(fecha, Map.of());
+            for (int posicion = 0; posicion < HORARIOS_VALIDOS.size(); posicion++) {
+                LocalTime hora = HORARIOS_VALIDOS.get(posicion);
+                if (fecha.equals(hoy) && !hora.isAfter(ahora)) {
+                    continue; // Horario de hoy que ya pasó
+                }
+                for (Long idMedico : idsMedicos) {
+                    Medico medico = medicos.get(idMedico);
+                    if (medico == null || (ocupadosDelDia.getOrDefault(idMedico, 0) & (1 << posicion)) != 0) {
+                        continue;
+                    }
+                    disponibles.add(new HorarioDisponibleDTO(
+                            idMedico,
+                            "Dr. " + medico.getNombreMedico() + " " + medico.getApellidoMedico(),
+                            idEspecialidad,
+                            fecha,
+                            hora
+                    ));
+                    if (disponibles.size() >= maximo) {
+                        return disponibles;
+                    }
+                }
+            }
         }
+        return disponibles;
+    }
 
-        // VALIDACIÓN 5: Verificar que la fecha sea día hábil (lunes a viernes)
+    // Crear una nueva cita. Las validaciones van de la más barata a la más cara, así una reserva
+    // rechazada por fecha, horario o especialidad no hace ninguna consulta, y una válida hace un
+    // solo SELECT (paciente y médico) antes del INSERT
+    public CitaDTO crear(CrearCitaDTO dto) {
+        // PASO 1 (sin BD): la fecha es día hábil (lunes a viernes)
         if (!esDiaHabil(dto.getFechaCita())) {
-            throw new RuntimeException("No se pueden agendar citas los fines de semana (sábado o domingo)");
+            throw DIA_NO_HABIL;
         }
 
-        // VALIDACIÓN 6: Verificar que la hora sea válida
+        // PASO 1 (sin BD): la hora es uno de los horarios válidos
         if (!esHorarioValido(dto.getHoraCita())) {
-            throw new RuntimeException(
-                    "Horario no válido. Los horarios disponibles son: 08:00, 09:00, 10:00, 11:00, 13:00, 14:00, 15:00, 16:00. " +
-                            "No hay citas de 12:00 a 13:00 (hora de almuerzo)."
-            );
+            throw HORARIO_INVALIDO;
         }
 
-        // VALIDACIÓN 7: Verificar que el médico esté disponible (no tenga otra cita a esa hora)
-        boolean medicoDisponible = citaRepository.findByMedicoAndFechaAndHora(
-                dto.getIdMedico(), dto.getFechaCita(), dto.getHoraCita()
-        ).isEmpty();
+        // PASO 2 (en memoria): la especialidad existe en la caché
+        Especialidad especialidad = cacheEspecialidades.buscarPorId(dto.getIdEspecialidad())
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.ESPECIALIDAD_NO_ENCONTRADA, "Especialidad no encontrada con ID: " + dto.getIdEspecialidad()));
+
+        // PASO 3 (una consulta): el paciente y el médico existen; también trae sus nombres para la respuesta
+        DatosReserva datos = citaRepository.findDatosReserva(dto.getIdPaciente(), dto.getIdMedico())
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.PACIENTE_NO_ENCONTRADO, "Paciente no encontrado con ID: " + dto.getIdPaciente()));
+        if (datos.idMedico() == null) {
+            throw new NoEncontradoException(CodigoError.MEDICO_NO_ENCONTRADO, "Médico no encontrado con ID: " + dto.getIdMedico());
+        }
 
-        if (!medicoDisponible) {
-            throw new RuntimeException(
-                    "El médico ya tiene una cita agendada el " + dto.getFechaCita() +
-                            " a las " + dto.getHoraCita() + ". Por favor, elija otro horario."
+        // PASO 4 (en memoria): el médico tiene esa especialidad
+        if (!indiceMedicoEspecialidad.tieneEspecialidad(dto.getIdMedico(), dto.getIdEspecialidad())) {
+            throw new ReglaNegocioException(CodigoError.MEDICO_SIN_ESPECIALIDAD,
+                    "El médico " + datos.nombreMedico() + " " + datos.apellidoMedico() +
+                            " no tiene la especialidad de " + especialidad.getNombreEspecialidad()
             );
         }
 
-        // Si todas las validaciones pasan, crear la cita
-        Cita cita = new Cita();
-        cita.setPaciente(paciente);
-        cita.setMedico(medico);
-        cita.setEspecialidad(especialidad);
-        cita.setFechaCita(dto.getFechaCita());
-        cita.setHoraCita(dto.getHoraCita());
-        cita.setMotivoCita(dto.getMotivoCita());
-        cita.setEstadoCita(Cita.EstadoCita.PENDIENTE); // Por defecto es PENDIENTE
-
-        Cita guardada = citaRepository.save(cita);
-        return convertirADTO(guardada);
+        // PASO 5: la verificación de disponibilidad y el guardado van bajo el bloqueo de la agenda del médico
+        // en ese día, para que dos reservas simultáneas del mismo horario no pasen ambas la validación
+        Cita guardada = bloqueosAgenda.ejecutar(dto.getIdMedico(), dto.getFechaCita(), () -> {
+            // El médico está disponible (índice de ocupación; el día se lee de la BD solo la primera vez)
+            boolean medicoDisponible = !indiceOcupacion.estaOcupado(
+                    dto.getIdMedico(), dto.getFechaCita(), dto.getHoraCita()
+            );
+
+            if (!medicoDisponible) {
+                throw HORARIO_OCUPADO;
+            }
+
+            // Si todas las validaciones pasan, crear la cita. Paciente y médico van como referencias
+            // (proxies sin cargar): el INSERT solo necesita sus IDs, ya verificados en el paso 3
+            Cita cita = new Cita();
+            cita.setPaciente(pacienteRepository.getReferenceById(dto.getIdPaciente()));
+            cita.setMedico(medicoRepository.getReferenceById(dto.getIdMedico()));
+            cita.setEspecialidad(especialidad);
+            cita.setFechaCita(dto.getFechaCita());
+            cita.setHoraCita(dto.getHoraCita());
+            cita.setMotivoCita(dto.getMotivoCita());
+            cita.setEstadoCita(Cita.EstadoCita.PENDIENTE); // Por defecto es PENDIENTE
+
+            // Si otra instancia de la API ganó el horario, la llave única uk_cita_horario_activo
+            // rechaza el INSERT y se responde HORARIO_OCUPADO
+            Cita nueva = guardarReserva(cita);
+            indiceOcupacion.ocupar(dto.getIdMedico(), dto.getFechaCita(), dto.getHoraCita());
+            return nueva;
+        });
+        return convertirADTO(new CitaResumen(
+                guardada.getIdCita(), guardada.getFechaCita(), guardada.getHoraCita(),
+                guardada.getMotivoCita(), guardada.getEstadoCita(),
+                datos.idPaciente(), datos.nombrePaciente(), datos.apellidoPaciente(),
+                datos.idMedico(), datos.nombreMedico(), datos.apellidoMedico(),
+                especialidad.getIdEspecialidad(), especialidad.getNombreEspecialidad()
+        ));
     }
 
     // Actualizar una cita
     public CitaDTO actualizar(Long id, ActualizarCitaDTO dto) {
         Cita cita = citaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Cita no encontrada con ID: " + id));
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.CITA_NO_ENCONTRADA, "Cita no encontrada con ID: " + id));
 
         // Solo se puede actualizar si NO está completada o cancelada
         if (cita.getEstadoCita() == Cita.EstadoCita.COMPLETADA ||
                 cita.getEstadoCita() == Cita.EstadoCita.CANCELADA) {
-            throw new RuntimeException(
+            throw new ReglaNegocioException(CodigoError.CITA_NO_MODIFICABLE,
                     "No se puede actualizar una cita que ya está " + cita.getEstadoCita()
             );
         }
 
+        LocalDate fechaAnterior = cita.getFechaCita();
+        LocalTime horaAnterior = cita.getHoraCita();
+
         // Actualizar solo los campos que vienen
         if (dto.getFechaCita() != null) {
             // Validar día hábil
             if (!esDiaHabil(dto.getFechaCita())) {
-                throw new RuntimeException("No se pueden agendar citas los fines de semana");
+                throw DIA_NO_HABIL;
             }
             cita.setFechaCita(dto.getFechaCita());
         }
@@ -167,20 +317,8 @@ public class CitaService {
         if (dto.getHoraCita() != null) {
             // Validar horario válido
             if (!esHorarioValido(dto.getHoraCita())) {
-                throw new RuntimeException("Horario no válido");
+                throw HORARIO_INVALIDO;
             }
-
-            // Validar disponibilidad del médico
-            boolean medicoDisponible = citaRepository.findByMedicoAndFechaAndHora(
-                    cita.getMedico().getIdMedico(),
-                    dto.getFechaCita() != null ? dto.getFechaCita() : cita.getFechaCita(),
-                    dto.getHoraCita()
-            ).isEmpty();
-
-            if (!medicoDisponible) {
-                throw new RuntimeException("El médico ya tiene una cita a esa hora");
-            }
-
             cita.setHoraCita(dto.getHoraCita());
         }
 
@@ -188,14 +326,30 @@ public class CitaService {
             cita.setMotivoCita(dto.getMotivoCita());
         }
 
-        Cita actualizada = citaRepository.save(cita);
+        Long idMedico = cita.getMedico().getIdMedico();
+        boolean cambioHorario = !cita.getFechaCita().equals(fechaAnterior) || !cita.getHoraCita().equals(horaAnterior);
+        if (!cambioHorario) {
+            return convertirADTO(citaRepository.save(cita));
+        }
+
+        // Si la cita se mueve a otro día u hora, validar disponibilidad y guardar bajo el bloqueo del nuevo día
+        Cita actualizada = bloqueosAgenda.ejecutar(idMedico, cita.getFechaCita(), () -> {
+            if (indiceOcupacion.estaOcupado(idMedico, cita.getFechaCita(), cita.getHoraCita())) {
+                throw HORARIO_OCUPADO;
+            }
+
+            Cita guardada = guardarReserva(cita);
+            indiceOcupacion.liberar(idMedico, fechaAnterior, horaAnterior);
+            indiceOcupacion.ocupar(idMedico, guardada.getFechaCita(), guardada.getHoraCita());
+            return guardada;
+        });
         return convertirADTO(actualizada);
     }
 
     // Cambiar el estado de una cita
     public CitaDTO cambiarEstado(Long id, String nuevoEstado) {
         Cita cita = citaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Cita no encontrada con ID: " + id));
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.CITA_NO_ENCONTRADA, "Cita no encontrada con ID: " + id));
 
         Cita.EstadoCita estadoActual = cita.getEstadoCita();
         Cita.EstadoCita estadoNuevo;
@@ -203,44 +357,53 @@ public class CitaService {
         try {
             estadoNuevo = Cita.EstadoCita.valueOf(nuevoEstado.toUpperCase());
         } catch (IllegalArgumentException e) {
-            throw new RuntimeException("Estado inválido: " + nuevoEstado);
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "Estado inválido: " + nuevoEstado);
         }
 
         // Validar transiciones válidas
         if (!esTransicionValida(estadoActual, estadoNuevo)) {
-            throw new RuntimeException(
+            throw new ReglaNegocioException(CodigoError.TRANSICION_INVALIDA,
                     "No se puede cambiar el estado de " + estadoActual + " a " + estadoNuevo
             );
         }
 
         cita.setEstadoCita(estadoNuevo);
         Cita actualizada = citaRepository.save(cita);
+
+        // Una cita cancelada libera su horario
+        if (estadoNuevo == Cita.EstadoCita.CANCELADA) {
+            indiceOcupacion.liberar(cita.getMedico().getIdMedico(), cita.getFechaCita(), cita.getHoraCita());
+        }
         return convertirADTO(actualizada);
     }
 
     // Eliminar una cita (solo si está cancelada o pendiente)
     public void eliminar(Long id) {
         Cita cita = citaRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Cita no encontrada con ID: " + id));
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.CITA_NO_ENCONTRADA, "Cita no encontrada con ID: " + id));
 
         // Solo se puede eliminar si está PENDIENTE o CANCELADA
         if (cita.getEstadoCita() == Cita.EstadoCita.COMPLETADA) {
-            throw new RuntimeException("No se puede eliminar una cita que ya fue completada");
+            throw new ReglaNegocioException(CodigoError.CITA_NO_MODIFICABLE, "No se puede eliminar una cita que ya fue completada");
         }
 
         citaRepository.delete(cita);
+
+        if (cita.getEstadoCita() != Cita.EstadoCita.CANCELADA) {
+            indiceOcupacion.liberar(cita.getMedico().getIdMedico(), cita.getFechaCita(), cita.getHoraCita());
+        }
     }
 
     // ========== MÉTODOS PRIVADOS DE VALIDACIÓN ==========
 
     // Verificar si es día hábil (lunes a viernes)
-    private boolean esDiaHabil(LocalDate fecha) {
+    static boolean esDiaHabil(LocalDate fecha) {
         DayOfWeek dia = fecha.getDayOfWeek();
         return dia != DayOfWeek.SATURDAY && dia != DayOfWeek.SUNDAY;
     }
 
     // Verificar si el horario es válido
-    private boolean esHorarioValido(LocalTime hora) {
+    static boolean esHorarioValido(LocalTime hora) {
         return HORARIOS_VALIDOS.contains(hora);
     }
 
@@ -259,6 +422,24 @@ public class CitaService {
         }
     }
 
+    // Guardar una cita que ocupa un horario: si la llave del horario la rechaza (otra instancia de la
+    // API lo reservó primero) es un HORARIO_OCUPADO; cualquier otra violación de integridad sigue su curso
+    private Cita guardarReserva(Cita cita) {
+        try {
+            return citaRepository.save(cita);
+        } catch (DataIntegrityViolationException e) {
+            if (violaLlaveDeHorario(e)) {
+                throw HORARIO_OCUPADO;
+            }
+            throw e;
+        }
+    }
+
+    // Verificar si la violación de integridad viene de la llave única del horario (por JPA o por JDBC)
+    static boolean violaLlaveDeHorario(DataIntegrityViolationException e) {
+        return LlavesUnicas.viola(e, LLAVE_HORARIO);
+    }
+
     // Convertir Entity a DTO
     private CitaDTO convertirADTO(Cita cita) {
         CitaDTO dto = new CitaDTO();
@@ -292,4 +473,20 @@ public class CitaService {
 
         return dto;
     }
-}
\ No newline at end of file
+
+    // Convertir una fila de CitaResumen a DTO (lecturas: no toca asociaciones LAZY)
+    static CitaDTO convertirADTO(CitaResumen cita) {
+        return new CitaDTO(
+                cita.idCita(),
+                cita.fechaCita(),
+                cita.horaCita(),
+                cita.motivoCita(),
+                cita.estadoCita().toString(),
+                new CitaDTO.PacienteInfoDTO(cita.idPaciente(),
+                        cita.nombrePaciente() + " " + cita.apellidoPaciente()),
+                new CitaDTO.MedicoInfoDTO(cita.idMedico(),
+                        "Dr. " + cita.nombreMedico() + " " + cita.apellidoMedico()),
+                new CitaDTO.EspecialidadInfoDTO(cita.idEspecialidad(), cita.nombreEspecialidad())
+        );
+    }
+}
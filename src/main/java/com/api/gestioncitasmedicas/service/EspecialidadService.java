@@ -1,15 +1,23 @@
 package com.api.gestioncitasmedicas.service;
 
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
 import com.api.gestioncitasmedicas.dto.ActualizarEspecialidadDTO;
 import com.api.gestioncitasmedicas.dto.CrearEspecialidadDTO;
 import com.api.gestioncitasmedicas.dto.EspecialidadDTO;
 import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.ConflictoException;
+import com.api.gestioncitasmedicas.exception.NoEncontradoException;
 import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
 import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.projection.ConteoPorId;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,26 +26,33 @@ public class EspecialidadService {
 
     private final EspecialidadRepository especialidadRepository;
     private final MedicoEspecialidadRepository medicoEspecialidadRepository;
+    private final CacheEspecialidades cacheEspecialidades;
 
-    // Listar todas las especialidades
+    // Listar todas las especialidades (desde la caché; los médicos se cuentan con un solo GROUP BY)
+    @Transactional(readOnly = true)
     public List<EspecialidadDTO> obtenerTodas() {
-        return especialidadRepository.findAll().stream()
-                .map(this::convertirADTO)
+        Map<Long, Long> medicosPorEspecialidad = new HashMap<>();
+        for (ConteoPorId conteo : medicoEspecialidadRepository.contarMedicosPorEspecialidad()) {
+            medicosPorEspecialidad.put(conteo.getId(), conteo.getCantidad());
+        }
+        return cacheEspecialidades.todas().stream()
+                .map(e -> convertirADTO(e, medicosPorEspecialidad.getOrDefault(e.getIdEspecialidad(), 0L)))
                 .collect(Collectors.toList());
     }
 
     // Obtener una especialidad por ID
+    @Transactional(readOnly = true)
     public EspecialidadDTO obtenerPorId(Long id) {
-        Especialidad especialidad = especialidadRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Especialidad no encontrada con ID: " + id));
-        return convertirADTO(especialidad);
+        Especialidad especialidad = cacheEspecialidades.buscarPorId(id)
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.ESPECIALIDAD_NO_ENCONTRADA, "Especialidad no encontrada con ID: " + id));
+        return convertirADTO(especialidad, medicoEspecialidadRepository.countByIdEspecialidad(id));
     }
 
     // Crear una nueva especialidad
     public EspecialidadDTO crear(CrearEspecialidadDTO dto) {
         // Validar que no exista una especialidad con el mismo nombre
-        if (especialidadRepository.existsByNombreEspecialidad(dto.getNombreEspecialidad())) {
-            throw new RuntimeException("Ya existe una especialidad con el nombre: " + dto.getNombreEspecialidad());
+        if (cacheEspecialidades.buscarPorNombre(dto.getNombreEspecialidad()).isPresent()) {
+            throw new ConflictoException(CodigoError.NOMBRE_DUPLICADO, "Ya existe una especialidad con el nombre: " + dto.getNombreEspecialidad());
         }
 
         Especialidad especialidad = new Especialidad();
@@ -45,20 +60,23 @@ public class EspecialidadService {
         especialidad.setDescripcion(dto.getDescripcion());
 
         Especialidad guardada = especialidadRepository.save(especialidad);
-        return convertirADTO(guardada);
+        cacheEspecialidades.recargar();
+        return convertirADTO(guardada, 0L); // Una especialidad nueva todavía no tiene médicos
     }
 
     // Actualizar una especialidad
     public EspecialidadDTO actualizar(Long id, ActualizarEspecialidadDTO dto) {
         Especialidad especialidad = especialidadRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Especialidad no encontrada con ID: " + id));
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.ESPECIALIDAD_NO_ENCONTRADA, "Especialidad no encontrada con ID: " + id));
 
         // Actualizar solo los campos que vienen (no nulos)
         if (dto.getNombreEspecialidad() != null && !dto.getNombreEspecialidad().isEmpty()) {
             // Validar que el nuevo nombre no esté en uso por otra especialidad
-            if (especialidadRepository.existsByNombreEspecialidad(dto.getNombreEspecialidad()) &&
-                    !especialidad.getNombreEspecialidad().equals(dto.getNombreEspecialidad())) {
-                throw new RuntimeException("Ya existe una especialidad con el nombre: " + dto.getNombreEspecialidad());
+            boolean nombreEnUso = cacheEspecialidades.buscarPorNombre(dto.getNombreEspecialidad())
+                    .filter(otra -> !otra.getIdEspecialidad().equals(id))
+                    .isPresent();
+            if (nombreEnUso) {
+                throw new ConflictoException(CodigoError.NOMBRE_DUPLICADO, "Ya existe una especialidad con el nombre: " + dto.getNombreEspecialidad());
             }
             especialidad.setNombreEspecialidad(dto.getNombreEspecialidad());
         }
@@ -68,37 +86,36 @@ public class EspecialidadService {
         }
 
         Especialidad actualizada = especialidadRepository.save(especialidad);
-        return convertirADTO(actualizada);
+        cacheEspecialidades.recargar();
+        return convertirADTO(actualizada, medicoEspecialidadRepository.countByIdEspecialidad(id));
     }
 
     // Eliminar una especialidad
     public void eliminar(Long id) {
         Especialidad especialidad = especialidadRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Especialidad no encontrada con ID: " + id));
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.ESPECIALIDAD_NO_ENCONTRADA, "Especialidad no encontrada con ID: " + id));
 
         // Verificar que no tenga médicos asociados
-        long medicosAsociados = medicoEspecialidadRepository.findByIdEspecialidad(id).size();
+        long medicosAsociados = medicoEspecialidadRepository.countByIdEspecialidad(id);
         if (medicosAsociados > 0) {
-            throw new RuntimeException(
+            throw new ConflictoException(CodigoError.TIENE_REGISTROS_ASOCIADOS,
                     "No se puede eliminar la especialidad porque tiene " + medicosAsociados + " médicos asociados"
             );
         }
 
         especialidadRepository.delete(especialidad);
+        cacheEspecialidades.recargar();
     }
 
     // Método privado: convertir Entity a DTO
-    private EspecialidadDTO convertirADTO(Especialidad especialidad) {
+    private EspecialidadDTO convertirADTO(Especialidad especialidad, long cantidadMedicos) {
         EspecialidadDTO dto = new EspecialidadDTO();
         dto.setIdEspecialidad(especialidad.getIdEspecialidad());
         dto.setNombreEspecialidad(especialidad.getNombreEspecialidad());
         dto.setDescripcion(especialidad.getDescripcion());
 
-        // Calcular cantidad de médicos
-        int cantidadMedicos = medicoEspecialidadRepository
-                .findByIdEspecialidad(especialidad.getIdEspecialidad())
-                .size();
-        dto.setCantidadMedicos(cantidadMedicos);
+        // Cantidad de médicos (ya contada por quien llama)
+        dto.setCantidadMedicos((int) cantidadMedicos);
 
         return dto;
     }
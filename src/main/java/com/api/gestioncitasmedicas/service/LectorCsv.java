@@ -0,0 +1,92 @@
+package com.api.gestioncitasmedicas.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lector CSV incremental (RFC 4180): devuelve una fila a la vez sin cargar el archivo completo.
+// Soporta campos entre comillas con comas, comillas dobles ("") y saltos de línea dentro
+class LectorCsv {
+
+    private final Reader entrada;
+    private final char separador;
+    private long lineaActual = 1;
+    private long lineaFila;
+    private int siguiente = -2; // Carácter leído por adelantado (-2 = ninguno)
+
+    LectorCsv(Reader entrada, char separador) {
+        this.entrada = entrada;
+        this.separador = separador;
+    }
+
+    // Línea del archivo donde empezó la última fila devuelta
+    long getLineaFila() {
+        return lineaFila;
+    }
+
+    // Siguiente fila del archivo o null al llegar al final
+    List<String> leerFila() throws IOException {
+        int c = leer();
+        if (c == -1) {
+            return null;
+        }
+        lineaFila = lineaActual;
+
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+
+        while (true) {
+            if (entreComillas) {
+                if (c == -1) {
+                    throw new IOException("Comillas sin cerrar en la fila que empieza en la línea " + lineaFila);
+                }
+                if (c == '"') {
+                    int d = leer();
+                    if (d == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        c = d;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineaActual++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.length() == 0) {
+                entreComillas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int d = leer();
+                    if (d != '\n') {
+                        siguiente = d;
+                    }
+                }
+                if (c != -1) {
+                    lineaActual++;
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append((char) c);
+            }
+            c = leer();
+        }
+    }
+
+    private int leer() throws IOException {
+        if (siguiente != -2) {
+            int c = siguiente;
+            siguiente = -2;
+            return c;
+        }
+        return entrada.read();
+    }
+}
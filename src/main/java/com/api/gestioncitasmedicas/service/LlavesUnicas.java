@@ -0,0 +1,29 @@
+package com.api.gestioncitasmedicas.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+// Reconocer qué llave única rechazó una escritura, para responder con el código de negocio
+// (CORREO_DUPLICADO, HORARIO_OCUPADO) en lugar del INTEGRIDAD_DATOS genérico.
+// Por JPA, Hibernate trae el nombre de la restricción; por JDBC directo (cargas por lote) solo lo trae
+// el mensaje del driver. En ambos casos el nombre varía según la BD, así que se busca como texto
+final class LlavesUnicas {
+
+    private LlavesUnicas() {
+    }
+
+    // Verificar si la violación de integridad menciona la llave
+    static boolean viola(DataIntegrityViolationException e, String llave) {
+        if (e.getCause() instanceof ConstraintViolationException violacion) {
+            return menciona(violacion.getConstraintName(), llave);
+        }
+        return e.getCause() instanceof SQLException sql && menciona(sql.getMessage(), llave);
+    }
+
+    private static boolean menciona(String texto, String llave) {
+        return texto != null && texto.toLowerCase(Locale.ROOT).contains(llave);
+    }
+}
@@ -2,6 +2,10 @@ package com.api.gestioncitasmedicas.service;
 
 import com.api.gestioncitasmedicas.dto.AsignarEspecialidadDTO;
 import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.ConflictoException;
+import com.api.gestioncitasmedicas.exception.NoEncontradoException;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
 import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
 import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
 import com.api.gestioncitasmedicas.repository.MedicoRepository;
@@ -16,24 +20,25 @@ public class MedicoEspecialidadService {
     private final MedicoRepository medicoRepository;
     private final EspecialidadRepository especialidadRepository;
     private final MedicoEspecialidadRepository medicoEspecialidadRepository;
+    private final IndiceMedicoEspecialidad indiceMedicoEspecialidad;
 
     // Asignar una especialidad a un médico
     @Transactional
     public void asignarEspecialidadAMedico(AsignarEspecialidadDTO dto) {
         // Validar que el médico exista
         if (!medicoRepository.existsById(dto.getIdMedico())) {
-            throw new RuntimeException("Médico no encontrado con ID: " + dto.getIdMedico());
+            throw new NoEncontradoException(CodigoError.MEDICO_NO_ENCONTRADO, "Médico no encontrado con ID: " + dto.getIdMedico());
         }
 
         // Validar que la especialidad exista
         if (!especialidadRepository.existsById(dto.getIdEspecialidad())) {
-            throw new RuntimeException("Especialidad no encontrada con ID: " + dto.getIdEspecialidad());
+            throw new NoEncontradoException(CodigoError.ESPECIALIDAD_NO_ENCONTRADA, "Especialidad no encontrada con ID: " + dto.getIdEspecialidad());
         }
 
         // Validar que la relación no exista ya
         if (medicoEspecialidadRepository.existsByIdMedicoAndIdEspecialidad(
                 dto.getIdMedico(), dto.getIdEspecialidad())) {
-            throw new RuntimeException("El médico ya tiene asignada esta especialidad");
+            throw new ConflictoException(CodigoError.ESPECIALIDAD_YA_ASIGNADA, "El médico ya tiene asignada esta especialidad");
         }
 
         // Crear la relación
@@ -42,6 +47,7 @@ public class MedicoEspecialidadService {
         relacion.setIdEspecialidad(dto.getIdEspecialidad());
 
         medicoEspecialidadRepository.save(relacion);
+        indiceMedicoEspecialidad.agregar(dto.getIdMedico(), dto.getIdEspecialidad());
     }
 
     // Desasignar una especialidad de un médico
@@ -49,9 +55,10 @@ public class MedicoEspecialidadService {
     public void desasignarEspecialidadDeMedico(Long idMedico, Long idEspecialidad) {
         // Validar que la relación exista
         if (!medicoEspecialidadRepository.existsByIdMedicoAndIdEspecialidad(idMedico, idEspecialidad)) {
-            throw new RuntimeException("La relación médico-especialidad no existe");
+            throw new NoEncontradoException(CodigoError.RELACION_NO_ENCONTRADA, "La relación médico-especialidad no existe");
         }
 
         medicoEspecialidadRepository.deleteByIdMedicoAndIdEspecialidad(idMedico, idEspecialidad);
+        indiceMedicoEspecialidad.quitar(idMedico, idEspecialidad);
     }
 }
\ No newline at end of file
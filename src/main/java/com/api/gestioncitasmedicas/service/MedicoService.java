@@ -1,17 +1,24 @@
 package com.api.gestioncitasmedicas.service;
 
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
 import com.api.gestioncitasmedicas.dto.ActualizarMedicoDTO;
 import com.api.gestioncitasmedicas.dto.CrearMedicoDTO;
 import com.api.gestioncitasmedicas.dto.MedicoDTO;
 import com.api.gestioncitasmedicas.entity.Especialidad;
 import com.api.gestioncitasmedicas.entity.Medico;
-import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.ConflictoException;
+import com.api.gestioncitasmedicas.exception.NoEncontradoException;
+import com.api.gestioncitasmedicas.index.FiltroCorreos;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
 import com.api.gestioncitasmedicas.repository.CitaRepository;
 import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
 import com.api.gestioncitasmedicas.repository.MedicoRepository;
-import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.projection.MedicoResumen;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,28 +29,35 @@ public class MedicoService {
 
     private final MedicoRepository medicoRepository;
     private final MedicoEspecialidadRepository medicoEspecialidadRepository;
-    private final EspecialidadRepository especialidadRepository;
+    private final CacheEspecialidades cacheEspecialidades;
+    private final IndiceMedicoEspecialidad indiceMedicoEspecialidad;
     private final CitaRepository citaRepository;
+    private final FiltroCorreos filtroCorreos;
 
-    // Listar todos los médicos
+    // Llave única del correo, buscada por la columna (ver PacienteService.LLAVE_CORREO)
+    private static final String LLAVE_CORREO = "correo_medico";
+
+    // Listar todos los médicos (transacción de solo lectura y MedicoResumen en lugar de entidades)
+    @Transactional(readOnly = true)
     public List<MedicoDTO> obtenerTodos() {
-        return medicoRepository.findAll().stream()
+        return medicoRepository.findAllResumen().stream()
                 .map(this::convertirADTO)
                 .collect(Collectors.toList());
     }
 
     // Obtener un médico por ID
+    @Transactional(readOnly = true)
     public MedicoDTO obtenerPorId(Long id) {
-        Medico medico = medicoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Médico no encontrado con ID: " + id));
+        MedicoResumen medico = medicoRepository.findResumenById(id)
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.MEDICO_NO_ENCONTRADO, "Médico no encontrado con ID: " + id));
         return convertirADTO(medico);
     }
 
     // Crear un nuevo médico
     public MedicoDTO crear(CrearMedicoDTO dto) {
-        // Validar que el correo no esté duplicado
-        if (medicoRepository.existsByCorreoMedico(dto.getCorreoMedico())) {
-            throw new RuntimeException("Ya existe un médico con el correo: " + dto.getCorreoMedico());
+        // Validar que el correo no esté duplicado (el filtro evita la consulta si seguro no existe)
+        if (filtroCorreos.existe(FiltroCorreos.Tabla.MEDICO, dto.getCorreoMedico(), medicoRepository::existsByCorreoMedico)) {
+            throw new ConflictoException(CodigoError.CORREO_DUPLICADO, "Ya existe un médico con el correo: " + dto.getCorreoMedico());
         }
 
         Medico medico = new Medico();
@@ -52,14 +66,15 @@ public class MedicoService {
         medico.setTelefonoMedico(dto.getTelefonoMedico());
         medico.setCorreoMedico(dto.getCorreoMedico());
 
-        Medico guardado = medicoRepository.save(medico);
+        Medico guardado = guardar(medico);
+        filtroCorreos.agregar(FiltroCorreos.Tabla.MEDICO, guardado.getCorreoMedico());
         return convertirADTO(guardado);
     }
 
     // Actualizar un médico
     public MedicoDTO actualizar(Long id, ActualizarMedicoDTO dto) {
         Medico medico = medicoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Médico no encontrado con ID: " + id));
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.MEDICO_NO_ENCONTRADO, "Médico no encontrado con ID: " + id));
 
         // Actualizar solo los campos que vienen (no nulos)
         if (dto.getNombreMedico() != null && !dto.getNombreMedico().isEmpty()) {
@@ -75,27 +90,28 @@ public class MedicoService {
         }
 
         if (dto.getCorreoMedico() != null && !dto.getCorreoMedico().isEmpty()) {
-            // Validar que el nuevo correo no esté en uso por OTRO médico
-            if (medicoRepository.existsByCorreoMedico(dto.getCorreoMedico()) &&
-                    !medico.getCorreoMedico().equals(dto.getCorreoMedico())) {
-                throw new RuntimeException("Ya existe un médico con el correo: " + dto.getCorreoMedico());
+            // Validar que el nuevo correo no esté en uso por OTRO médico (solo si cambió)
+            if (!medico.getCorreoMedico().equals(dto.getCorreoMedico()) &&
+                    filtroCorreos.existe(FiltroCorreos.Tabla.MEDICO, dto.getCorreoMedico(), medicoRepository::existsByCorreoMedico)) {
+                throw new ConflictoException(CodigoError.CORREO_DUPLICADO, "Ya existe un médico con el correo: " + dto.getCorreoMedico());
             }
             medico.setCorreoMedico(dto.getCorreoMedico());
         }
 
-        Medico actualizado = medicoRepository.save(medico);
+        Medico actualizado = guardar(medico);
+        filtroCorreos.agregar(FiltroCorreos.Tabla.MEDICO, actualizado.getCorreoMedico());
         return convertirADTO(actualizado);
     }
 
     // Eliminar un médico
     public void eliminar(Long id) {
         Medico medico = medicoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Médico no encontrado con ID: " + id));
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.MEDICO_NO_ENCONTRADO, "Médico no encontrado con ID: " + id));
 
         // Verificar que no tenga citas asociadas
         long citasAsociadas = citaRepository.countByMedicoIdMedico(id);
         if (citasAsociadas > 0) {
-            throw new RuntimeException(
+            throw new ConflictoException(CodigoError.TIENE_REGISTROS_ASOCIADOS,
                     "No se puede eliminar el médico porque tiene " + citasAsociadas + " citas asociadas"
             );
         }
@@ -105,41 +121,61 @@ public class MedicoService {
 
         // Ahora sí eliminar el médico
         medicoRepository.delete(medico);
+        indiceMedicoEspecialidad.quitarMedico(id);
     }
 
     // Obtener especialidades de un médico
+    @Transactional(readOnly = true)
     public List<String> obtenerEspecialidadesDeMedico(Long idMedico) {
         // Verificar que el médico existe
         if (!medicoRepository.existsById(idMedico)) {
-            throw new RuntimeException("Médico no encontrado con ID: " + idMedico);
+            throw new NoEncontradoException(CodigoError.MEDICO_NO_ENCONTRADO, "Médico no encontrado con ID: " + idMedico);
         }
 
-        List<MedicoEspecialidad> relaciones = medicoEspecialidadRepository.findByIdMedico(idMedico);
+        return nombresEspecialidades(idMedico);
+    }
 
-        return relaciones.stream()
-                .map(relacion -> {
-                    Especialidad especialidad = especialidadRepository.findById(relacion.getIdEspecialidad())
-                            .orElse(null);
-                    return especialidad != null ? especialidad.getNombreEspecialidad() : null;
-                })
+    // Nombres de las especialidades de un médico, resueltos en memoria (índice + caché)
+    private List<String> nombresEspecialidades(Long idMedico) {
+        return indiceMedicoEspecialidad.especialidadesDe(idMedico).stream()
+                .map(idEspecialidad -> cacheEspecialidades.buscarPorId(idEspecialidad)
+                        .map(Especialidad::getNombreEspecialidad)
+                        .orElse(null))
                 .filter(nombre -> nombre != null)
                 .collect(Collectors.toList());
     }
 
-    // Método privado: convertir Entity a DTO
+    // Guardar un médico; un correo repetido que el filtro desactualizado dejó pasar lo rechaza la llave
+    // única y se responde CORREO_DUPLICADO (igual que en PacienteService)
+    private Medico guardar(Medico medico) {
+        try {
+            return medicoRepository.save(medico);
+        } catch (DataIntegrityViolationException e) {
+            if (LlavesUnicas.viola(e, LLAVE_CORREO)) {
+                filtroCorreos.agregar(FiltroCorreos.Tabla.MEDICO, medico.getCorreoMedico());
+                throw new ConflictoException(CodigoError.CORREO_DUPLICADO, "Ya existe un médico con el correo: " + medico.getCorreoMedico());
+            }
+            throw e;
+        }
+    }
+
+    // Método privado: convertir Entity a DTO (escrituras; misma conversión que las lecturas)
     private MedicoDTO convertirADTO(Medico medico) {
-        MedicoDTO dto = new MedicoDTO();
-        dto.setIdMedico(medico.getIdMedico());
-        dto.setNombreMedico(medico.getNombreMedico());
-        dto.setApellidoMedico(medico.getApellidoMedico());
-        dto.setTelefonoMedico(medico.getTelefonoMedico());
-        dto.setCorreoMedico(medico.getCorreoMedico());
-
-        // Obtener las especialidades del médico
-        List<String> especialidades = obtenerEspecialidadesDeMedico(medico.getIdMedico());
-        dto.setEspecialidades(especialidades);
-        dto.setCantidadEspecialidades(especialidades.size());
-
-        return dto;
+        return convertirADTO(new MedicoResumen(medico.getIdMedico(), medico.getNombreMedico(),
+                medico.getApellidoMedico(), medico.getTelefonoMedico(), medico.getCorreoMedico()));
+    }
+
+    // Método privado: convertir una fila de MedicoResumen a DTO (las especialidades salen del índice en memoria)
+    private MedicoDTO convertirADTO(MedicoResumen medico) {
+        List<String> especialidades = nombresEspecialidades(medico.idMedico());
+        return new MedicoDTO(
+                medico.idMedico(),
+                medico.nombreMedico(),
+                medico.apellidoMedico(),
+                medico.telefonoMedico(),
+                medico.correoMedico(),
+                especialidades,
+                especialidades.size()
+        );
     }
 }
\ No newline at end of file
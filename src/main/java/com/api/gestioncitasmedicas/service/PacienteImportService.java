@@ -0,0 +1,254 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.dto.CrearPacienteDTO;
+import com.api.gestioncitasmedicas.dto.ResultadoImportacionDTO;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.SolicitudInvalidaException;
+import com.api.gestioncitasmedicas.index.FiltroCorreos;
+import com.api.gestioncitasmedicas.index.IndicePacientes;
+import com.api.gestioncitasmedicas.repository.PacienteJdbcRepository;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Importación masiva de pacientes desde CSV (alta de clínicas con registros grandes).
+// El archivo se lee fila por fila; las filas válidas se acumulan en bloques y cada bloque
+// hace un solo IN para los correos ya registrados y un INSERT con JDBC batching
+@Service
+@RequiredArgsConstructor
+public class PacienteImportService {
+
+    // Filas por bloque (una consulta de correos y una transacción por bloque)
+    static final int TAMANIO_BLOQUE = 1000;
+
+    // Máximo de errores detallados en la respuesta
+    static final int MAXIMO_ERRORES = 1000;
+
+    // Encabezados aceptados (en minúsculas y sin "_" ni espacios) y el campo al que corresponden
+    private static final Map<String, Integer> COLUMNAS = Map.of(
+            "nombrepaciente", 0, "nombre", 0,
+            "apellidopaciente", 1, "apellido", 1,
+            "fechanacimiento", 2,
+            "telefonopaciente", 3, "telefono", 3,
+            "correopaciente", 4, "correo", 4
+    );
+    private static final String[] NOMBRES_COLUMNAS = {
+            "nombre_paciente", "apellido_paciente", "fecha_nacimiento", "telefono_paciente", "correo_paciente"
+    };
+
+    private final PacienteRepository pacienteRepository;
+    private final PacienteJdbcRepository pacienteJdbcRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final IndicePacientes indicePacientes;
+    private final FiltroCorreos filtroCorreos;
+
+    // Importar todas las filas del CSV (UTF-8, separado por comas, con encabezado)
+    public ResultadoImportacionDTO importar(InputStream archivo) {
+        try (Reader entrada = new BufferedReader(new InputStreamReader(archivo, StandardCharsets.UTF_8), 64 * 1024)) {
+            LectorCsv lector = new LectorCsv(entrada, ',');
+            List<String> encabezado = lector.leerFila();
+            if (encabezado == null) {
+                throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "El archivo CSV está vacío");
+            }
+            int[] posiciones = ubicarColumnas(encabezado);
+
+            Importacion importacion = new Importacion();
+            List<Fila> bloque = new ArrayList<>(TAMANIO_BLOQUE);
+            List<String> campos;
+            while ((campos = lector.leerFila()) != null) {
+                if (campos.size() == 1 && campos.get(0).isBlank()) {
+                    continue; // Líneas vacías
+                }
+                importacion.total++;
+                long linea = lector.getLineaFila();
+                CrearPacienteDTO dto = new CrearPacienteDTO();
+
+                String error = leerFila(campos, posiciones, dto);
+                if (error == null) {
+                    error = validarSinBD(dto);
+                }
+                if (error == null) {
+                    // Correo repetido dentro del mismo archivo (se queda la primera aparición)
+                    Long primera = importacion.correosVistos.putIfAbsent(normalizarCorreo(dto.getCorreoPaciente()), linea);
+                    if (primera != null) {
+                        error = "El correo está repetido en el archivo (línea " + primera + ")";
+                    }
+                }
+
+                if (error != null) {
+                    importacion.rechazar(linea, dto.getCorreoPaciente(), error);
+                    continue;
+                }
+                bloque.add(new Fila(linea, dto));
+                if (bloque.size() == TAMANIO_BLOQUE) {
+                    procesarBloque(bloque, importacion);
+                    bloque.clear();
+                }
+            }
+            procesarBloque(bloque, importacion);
+            if (importacion.importados > 0) {
+                indicePacientes.cargarNuevos();
+            }
+
+            return new ResultadoImportacionDTO(importacion.total, importacion.importados,
+                    importacion.total - importacion.importados, importacion.errores, importacion.erroresOmitidos);
+        } catch (IOException e) {
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "No se pudo leer el archivo CSV", e);
+        }
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Ubicar cada columna requerida en el encabezado (acepta nombre_paciente, nombrePaciente o nombre)
+    private int[] ubicarColumnas(List<String> encabezado) {
+        int[] posiciones = {-1, -1, -1, -1, -1};
+        for (int i = 0; i < encabezado.size(); i++) {
+            String nombre = encabezado.get(i).replace("\uFEFF", "").replace("_", "").replace(" ", "")
+                    .trim().toLowerCase(Locale.ROOT);
+            Integer campo = COLUMNAS.get(nombre);
+            if (campo != null && posiciones[campo] == -1) {
+                posiciones[campo] = i;
+            }
+        }
+        for (int campo = 0; campo < posiciones.length; campo++) {
+            if (posiciones[campo] == -1) {
+                throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO,
+                        "Falta la columna obligatoria '" + NOMBRES_COLUMNAS[campo] + "' en el encabezado");
+            }
+        }
+        return posiciones;
+    }
+
+    // Copiar los campos de la fila al DTO; devuelve el error de formato o null
+    private String leerFila(List<String> campos, int[] posiciones, CrearPacienteDTO dto) {
+        dto.setNombrePaciente(campo(campos, posiciones[0]));
+        dto.setApellidoPaciente(campo(campos, posiciones[1]));
+        dto.setTelefonoPaciente(campo(campos, posiciones[3]));
+        dto.setCorreoPaciente(campo(campos, posiciones[4]));
+
+        String fecha = campo(campos, posiciones[2]);
+        if (fecha != null && !fecha.isEmpty()) {
+            try {
+                dto.setFechaNacimiento(LocalDate.parse(fecha));
+            } catch (DateTimeParseException e) {
+                return "Fecha de nacimiento inválida: " + fecha + " (use el formato AAAA-MM-DD)";
+            }
+        }
+        return null;
+    }
+
+    private static String campo(List<String> campos, int posicion) {
+        return posicion < campos.size() ? campos.get(posicion).trim() : null;
+    }
+
+    // Las mismas reglas de CrearPacienteDTO que aplica POST /api/pacientes
+    private String validarSinBD(CrearPacienteDTO dto) {
+        Set<ConstraintViolation<CrearPacienteDTO>> violaciones = validator.validate(dto);
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return violaciones.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // Descartar los correos ya registrados (un solo IN, solo con los que el filtro de correos
+    // no descarta) e insertar el resto en una transacción
+    private void procesarBloque(List<Fila> bloque, Importacion importacion) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+
+        Set<String> correos = bloque.stream()
+                .map(f -> f.dto().getCorreoPaciente())
+                .filter(correo -> filtroCorreos.puedeExistir(FiltroCorreos.Tabla.PACIENTE, correo))
+                .collect(Collectors.toSet());
+        Set<String> existentes = new HashSet<>();
+        if (!correos.isEmpty()) {
+            for (String correo : pacienteRepository.findCorreosExistentes(correos)) {
+                existentes.add(normalizarCorreo(correo));
+            }
+            for (String correo : correos) {
+                filtroCorreos.registrarVerificacion(FiltroCorreos.Tabla.PACIENTE,
+                        existentes.contains(normalizarCorreo(correo)));
+            }
+        }
+
+        List<Fila> nuevas = new ArrayList<>(bloque.size());
+        for (Fila fila : bloque) {
+            if (existentes.contains(normalizarCorreo(fila.dto().getCorreoPaciente()))) {
+                importacion.rechazar(fila.linea(), fila.dto().getCorreoPaciente(),
+                        "Ya existe un paciente con el correo: " + fila.dto().getCorreoPaciente());
+            } else {
+                nuevas.add(fila);
+            }
+        }
+        if (nuevas.isEmpty()) {
+            return;
+        }
+
+        List<CrearPacienteDTO> filas = nuevas.stream().map(Fila::dto).collect(Collectors.toList());
+        try {
+            Integer insertados = transactionTemplate.execute(estado -> pacienteJdbcRepository.insertar(filas));
+            importacion.importados += insertados != null ? insertados : 0;
+            for (CrearPacienteDTO fila : filas) {
+                filtroCorreos.agregar(FiltroCorreos.Tabla.PACIENTE, fila.getCorreoPaciente());
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Otro proceso registró alguno de estos correos entre la consulta y el INSERT:
+            // el bloque completo se revierte y se reporta para reintentarlo
+            for (Fila fila : nuevas) {
+                importacion.rechazar(fila.linea(), fila.dto().getCorreoPaciente(),
+                        "No se pudo insertar el bloque por un correo registrado durante la importación; reintente");
+            }
+        }
+    }
+
+    private static String normalizarCorreo(String correo) {
+        return correo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Fila válida en espera de su bloque
+    private record Fila(long linea, CrearPacienteDTO dto) {
+    }
+
+    // Estado acumulado de una importación
+    private static class Importacion {
+        private int total;
+        private int importados;
+        private int erroresOmitidos;
+        private final List<ResultadoImportacionDTO.ErrorFilaDTO> errores = new ArrayList<>();
+        private final Map<String, Long> correosVistos = new HashMap<>();
+
+        private void rechazar(long linea, String correo, String error) {
+            if (errores.size() < MAXIMO_ERRORES) {
+                errores.add(new ResultadoImportacionDTO.ErrorFilaDTO(linea, correo, error));
+            } else {
+                erroresOmitidos++;
+            }
+        }
+    }
+}
@@ -2,16 +2,33 @@ package com.api.gestioncitasmedicas.service;
 
 import com.api.gestioncitasmedicas.dto.ActualizarPacienteDTO;
 import com.api.gestioncitasmedicas.dto.CrearPacienteDTO;
+import com.api.gestioncitasmedicas.dto.DuplicadoPacienteDTO;
 import com.api.gestioncitasmedicas.dto.PacienteDTO;
+import com.api.gestioncitasmedicas.dto.PaginaDTO;
 import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.ConflictoException;
+import com.api.gestioncitasmedicas.exception.NoEncontradoException;
+import com.api.gestioncitasmedicas.exception.PacienteDuplicadoException;
+import com.api.gestioncitasmedicas.exception.SolicitudInvalidaException;
+import com.api.gestioncitasmedicas.index.FiltroCorreos;
+import com.api.gestioncitasmedicas.index.IndicePacientes;
 import com.api.gestioncitasmedicas.repository.CitaRepository;
 import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import com.api.gestioncitasmedicas.repository.projection.ConteoPorId;
+import com.api.gestioncitasmedicas.repository.projection.PacienteResumen;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,36 +37,100 @@ public class PacienteService {
 
     private final PacienteRepository pacienteRepository;
     private final CitaRepository citaRepository;
+    private final IndicePacientes indicePacientes;
+    private final FiltroCorreos filtroCorreos;
 
-    // Listar todos los pacientes
+    // Llave única del correo. Se busca por la columna: así coincide tanto uk_correo_paciente como el
+    // nombre que MySQL le dio a la llave en las bases creadas antes de nombrarla (correo_paciente)
+    private static final String LLAVE_CORREO = "correo_paciente";
+
+    private static final int TAMANIO_PAGINA_POR_DEFECTO = 50;
+    private static final int TAMANIO_PAGINA_MAXIMO = 200;
+
+    // Similitud desde la cual un paciente existente se considera posible duplicado
+    static final double SIMILITUD_DUPLICADO = 0.75;
+
+    // Listar todos los pacientes (las citas de todos se cuentan con un solo GROUP BY). Como todas
+    // las lecturas, corre en una transacción de solo lectura (sin flush) y consulta PacienteResumen:
+    // Hibernate no arma entidades ni guarda copias para dirty-checking de lo que solo se muestra
+    @Transactional(readOnly = true)
     public List<PacienteDTO> obtenerTodos() {
-        return pacienteRepository.findAll().stream()
-                .map(this::convertirADTO)
+        List<PacienteResumen> pacientes = pacienteRepository.findAllResumen();
+        if (pacientes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Long> citasPorPaciente = aMapa(citaRepository.contarCitasPorPaciente());
+        return pacientes.stream()
+                .map(p -> convertirADTO(p, citasPorPaciente.getOrDefault(p.idPaciente(), 0L)))
                 .collect(Collectors.toList());
     }
 
     // Obtener un paciente por ID
+    @Transactional(readOnly = true)
     public PacienteDTO obtenerPorId(Long id) {
-        Paciente paciente = pacienteRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Paciente no encontrado con ID: " + id));
-        return convertirADTO(paciente);
+        PacienteResumen paciente = pacienteRepository.findResumenById(id)
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.PACIENTE_NO_ENCONTRADO, "Paciente no encontrado con ID: " + id));
+        return convertirADTO(paciente, citaRepository.countByPacienteIdPaciente(id));
     }
 
-    // Buscar pacientes por nombre o apellido
-    public List<PacienteDTO> buscarPorNombre(String termino) {
-        List<Paciente> pacientes = pacienteRepository.findByNombrePacienteContainingIgnoreCaseOrApellidoPacienteContainingIgnoreCase(
-                termino, termino
-        );
-        return pacientes.stream()
-                .map(this::convertirADTO)
+    // Buscar pacientes por nombre o apellido (sin distinguir tildes ni mayúsculas) con el índice
+    // de trigramas; con aproximado = true tolera errores de tipeo y variantes de escritura.
+    // Los resultados vienen de mejor a peor coincidencia y paginados
+    @Transactional(readOnly = true)
+    public PaginaDTO<PacienteDTO> buscarPorNombre(String termino, boolean aproximado, String cursor, Integer tamanio) {
+        int tamanioPagina = tamanio != null && tamanio > 0
+                ? Math.min(tamanio, TAMANIO_PAGINA_MAXIMO)
+                : TAMANIO_PAGINA_POR_DEFECTO;
+        int desde = leerCursor(cursor);
+
+        List<Long> coincidencias = aproximado
+                ? indicePacientes.buscarAproximado(termino)
+                : indicePacientes.buscar(termino);
+        int hasta = Math.min(desde + tamanioPagina, coincidencias.size());
+        if (desde >= hasta) {
+            return new PaginaDTO<>(new ArrayList<>(), tamanioPagina, false, null);
+        }
+        List<Long> ids = coincidencias.subList(desde, hasta);
+
+        // El IN no respeta el orden: se reordena según el ranking del índice
+        Map<Long, PacienteResumen> pacientes = new HashMap<>();
+        for (PacienteResumen paciente : pacienteRepository.findResumenByIds(ids)) {
+            pacientes.put(paciente.idPaciente(), paciente);
+        }
+        Map<Long, Long> citasPorPaciente = aMapa(citaRepository.contarCitasPorPaciente(ids));
+        List<PacienteDTO> contenido = ids.stream()
+                .map(pacientes::get)
+                .filter(Objects::nonNull)
+                .map(p -> convertirADTO(p, citasPorPaciente.getOrDefault(p.idPaciente(), 0L)))
                 .collect(Collectors.toList());
+
+        boolean hayMas = hasta < coincidencias.size();
+        return new PaginaDTO<>(contenido, tamanioPagina, hayMas, hayMas ? String.valueOf(hasta) : null);
+    }
+
+    // Buscar pacientes registrados que podrían ser la misma persona (misma fecha de nacimiento,
+    // apellido que suena igual y nombre/teléfono parecidos), del más al menos parecido
+    @Transactional(readOnly = true)
+    public List<DuplicadoPacienteDTO> buscarDuplicados(CrearPacienteDTO dto) {
+        if (dto.getNombrePaciente() == null || dto.getApellidoPaciente() == null || dto.getFechaNacimiento() == null) {
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "Para buscar duplicados se requieren nombre, apellido y fecha de nacimiento");
+        }
+        return duplicadosDe(candidatosDuplicado(dto));
     }
 
-    // Crear un nuevo paciente
-    public PacienteDTO crear(CrearPacienteDTO dto) {
-        // Validar que el correo no esté duplicado
-        if (pacienteRepository.existsByCorreoPaciente(dto.getCorreoPaciente())) {
-            throw new RuntimeException("Ya existe un paciente con el correo: " + dto.getCorreoPaciente());
+    // Crear un nuevo paciente (con forzar = true se registra aunque se parezca a uno existente)
+    public PacienteDTO crear(CrearPacienteDTO dto, boolean forzar) {
+        // Validar que el correo no esté duplicado (el filtro evita la consulta si seguro no existe)
+        if (filtroCorreos.existe(FiltroCorreos.Tabla.PACIENTE, dto.getCorreoPaciente(), pacienteRepository::existsByCorreoPaciente)) {
+            throw new ConflictoException(CodigoError.CORREO_DUPLICADO, "Ya existe un paciente con el correo: " + dto.getCorreoPaciente());
+        }
+
+        // Validar que no sea un posible duplicado con otro correo (se revisa en memoria)
+        if (!forzar) {
+            List<DuplicadoPacienteDTO> duplicados = duplicadosDe(candidatosDuplicado(dto));
+            if (!duplicados.isEmpty()) {
+                throw new PacienteDuplicadoException(duplicados);
+            }
         }
 
         Paciente paciente = new Paciente();
@@ -59,14 +140,16 @@ public class PacienteService {
         paciente.setTelefonoPaciente(dto.getTelefonoPaciente());
         paciente.setCorreoPaciente(dto.getCorreoPaciente());
 
-        Paciente guardado = pacienteRepository.save(paciente);
-        return convertirADTO(guardado);
+        Paciente guardado = guardar(paciente);
+        indicePacientes.agregar(guardado);
+        filtroCorreos.agregar(FiltroCorreos.Tabla.PACIENTE, guardado.getCorreoPaciente());
+        return convertirADTO(guardado, 0L); // Un paciente nuevo todavía no tiene citas
     }
 
     // Actualizar un paciente
     public PacienteDTO actualizar(Long id, ActualizarPacienteDTO dto) {
         Paciente paciente = pacienteRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Paciente no encontrado con ID: " + id));
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.PACIENTE_NO_ENCONTRADO, "Paciente no encontrado con ID: " + id));
 
         // Actualizar solo los campos que vienen (no nulos)
         if (dto.getNombrePaciente() != null && !dto.getNombrePaciente().isEmpty()) {
@@ -86,53 +169,125 @@ public class PacienteService {
         }
 
         if (dto.getCorreoPaciente() != null && !dto.getCorreoPaciente().isEmpty()) {
-            // Validar que el nuevo correo no esté en uso por OTRO paciente
-            if (pacienteRepository.existsByCorreoPaciente(dto.getCorreoPaciente()) &&
-                    !paciente.getCorreoPaciente().equals(dto.getCorreoPaciente())) {
-                throw new RuntimeException("Ya existe un paciente con el correo: " + dto.getCorreoPaciente());
+            // Validar que el nuevo correo no esté en uso por OTRO paciente (solo si cambió)
+            if (!paciente.getCorreoPaciente().equals(dto.getCorreoPaciente()) &&
+                    filtroCorreos.existe(FiltroCorreos.Tabla.PACIENTE, dto.getCorreoPaciente(), pacienteRepository::existsByCorreoPaciente)) {
+                throw new ConflictoException(CodigoError.CORREO_DUPLICADO, "Ya existe un paciente con el correo: " + dto.getCorreoPaciente());
             }
             paciente.setCorreoPaciente(dto.getCorreoPaciente());
         }
 
-        Paciente actualizado = pacienteRepository.save(paciente);
-        return convertirADTO(actualizado);
+        Paciente actualizado = guardar(paciente);
+        indicePacientes.agregar(actualizado);
+        filtroCorreos.agregar(FiltroCorreos.Tabla.PACIENTE, actualizado.getCorreoPaciente());
+        return convertirADTO(actualizado, citaRepository.countByPacienteIdPaciente(id));
     }
 
     // Eliminar un paciente
     public void eliminar(Long id) {
         Paciente paciente = pacienteRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Paciente no encontrado con ID: " + id));
+                .orElseThrow(() -> new NoEncontradoException(CodigoError.PACIENTE_NO_ENCONTRADO, "Paciente no encontrado con ID: " + id));
 
         // Verificar que no tenga citas asociadas
         long citasAsociadas = citaRepository.countByPacienteIdPaciente(id);
         if (citasAsociadas > 0) {
-            throw new RuntimeException(
+            throw new ConflictoException(CodigoError.TIENE_REGISTROS_ASOCIADOS,
                     "No se puede eliminar el paciente porque tiene " + citasAsociadas + " citas asociadas"
             );
         }
 
         pacienteRepository.delete(paciente);
+        indicePacientes.quitar(id);
+    }
+
+    // Guardar un paciente: si el filtro de correos quedó desactualizado (por ejemplo, otra instancia de la API
+    // registró el correo) la consulta previa se omite y el correo repetido lo rechaza la llave única.
+    // Eso sigue siendo un CORREO_DUPLICADO, no un error de integridad genérico, y el filtro lo aprende
+    private Paciente guardar(Paciente paciente) {
+        try {
+            return pacienteRepository.save(paciente);
+        } catch (DataIntegrityViolationException e) {
+            if (LlavesUnicas.viola(e, LLAVE_CORREO)) {
+                filtroCorreos.agregar(FiltroCorreos.Tabla.PACIENTE, paciente.getCorreoPaciente());
+                throw new ConflictoException(CodigoError.CORREO_DUPLICADO, "Ya existe un paciente con el correo: " + paciente.getCorreoPaciente());
+            }
+            throw e;
+        }
+    }
+
+    // Método privado: convertir Entity a DTO (escrituras; misma conversión que las lecturas)
+    private PacienteDTO convertirADTO(Paciente paciente, long cantidadCitas) {
+        return convertirADTO(new PacienteResumen(paciente.getIdPaciente(), paciente.getNombrePaciente(),
+                paciente.getApellidoPaciente(), paciente.getFechaNacimiento(), paciente.getTelefonoPaciente(),
+                paciente.getCorreoPaciente()), cantidadCitas);
+    }
+
+    // Método privado: convertir una fila de PacienteResumen a DTO (la edad se calcula; la cantidad de citas la cuenta quien llama)
+    private PacienteDTO convertirADTO(PacienteResumen paciente, long cantidadCitas) {
+        return new PacienteDTO(
+                paciente.idPaciente(),
+                paciente.nombrePaciente(),
+                paciente.apellidoPaciente(),
+                paciente.fechaNacimiento(),
+                calcularEdad(paciente.fechaNacimiento()),
+                paciente.telefonoPaciente(),
+                paciente.correoPaciente(),
+                (int) cantidadCitas
+        );
+    }
+
+    // Método privado: los candidatos con los datos de cada paciente (una consulta), en el mismo orden
+    private List<DuplicadoPacienteDTO> duplicadosDe(List<IndicePacientes.Candidato> candidatos) {
+        if (candidatos.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, PacienteResumen> pacientes = new HashMap<>();
+        for (PacienteResumen paciente : pacienteRepository.findResumenByIds(
+                candidatos.stream().map(IndicePacientes.Candidato::idPaciente).toList())) {
+            pacientes.put(paciente.idPaciente(), paciente);
+        }
+        List<DuplicadoPacienteDTO> duplicados = new ArrayList<>();
+        for (IndicePacientes.Candidato candidato : candidatos) {
+            PacienteResumen paciente = pacientes.get(candidato.idPaciente());
+            if (paciente != null) {
+                duplicados.add(new DuplicadoPacienteDTO(paciente.idPaciente(), paciente.nombrePaciente(),
+                        paciente.apellidoPaciente(), paciente.fechaNacimiento(), paciente.telefonoPaciente(),
+                        paciente.correoPaciente(), candidato.similitud()));
+            }
+        }
+        return duplicados;
+    }
+
+    // Método privado: candidatos a duplicado del índice en memoria
+    private List<IndicePacientes.Candidato> candidatosDuplicado(CrearPacienteDTO dto) {
+        return indicePacientes.buscarDuplicados(dto.getNombrePaciente(), dto.getApellidoPaciente(),
+                dto.getFechaNacimiento(), dto.getTelefonoPaciente(), SIMILITUD_DUPLICADO);
     }
 
-    // Método privado: convertir Entity a DTO
-    private PacienteDTO convertirADTO(Paciente paciente) {
-        PacienteDTO dto = new PacienteDTO();
-        dto.setIdPaciente(paciente.getIdPaciente());
-        dto.setNombrePaciente(paciente.getNombrePaciente());
-        dto.setApellidoPaciente(paciente.getApellidoPaciente());
-        dto.setFechaNacimiento(paciente.getFechaNacimiento());
-        dto.setTelefonoPaciente(paciente.getTelefonoPaciente());
-        dto.setCorreoPaciente(paciente.getCorreoPaciente());
-
-        // CALCULAR la edad
-        int edad = calcularEdad(paciente.getFechaNacimiento());
-        dto.setEdad(edad);
-
-        // CALCULAR cantidad de citas
-        long cantidadCitas = citaRepository.countByPacienteIdPaciente(paciente.getIdPaciente());
-        dto.setCantidadCitas((int) cantidadCitas);
-
-        return dto;
+    // Método privado: pasar los conteos agrupados a un mapa ID → cantidad
+    private static Map<Long, Long> aMapa(List<ConteoPorId> conteos) {
+        Map<Long, Long> mapa = new HashMap<>();
+        for (ConteoPorId conteo : conteos) {
+            mapa.put(conteo.getId(), conteo.getCantidad());
+        }
+        return mapa;
+    }
+
+    // Método privado: el cursor de la búsqueda es la posición del siguiente resultado
+    private static int leerCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            int posicion = Integer.parseInt(cursor);
+            if (posicion < 0) {
+                throw new NumberFormatException();
+            }
+            return posicion;
+        } catch (NumberFormatException e) {
+            throw new SolicitudInvalidaException(CodigoError.PARAMETRO_INVALIDO, "Cursor de paginación inválido");
+        }
     }
 
     // Método privado: calcular edad a partir de fecha de nacimiento
@@ -102,6 +102,9 @@ INSERT INTO cita (fecha_cita, hora_cita, motivo_cita, estado_cita, id_paciente,
 ('2025-10-21', '08:00:00', 'Consulta general', 'CANCELADA', 3, 9, 9),
 ('2025-10-21', '09:00:00', 'Extracción dental', 'CANCELADA', 4, 10, 10);
 
+-- Marcar los horarios ocupados (las canceladas no ocupan horario)
+UPDATE cita SET slot_activo = IF(estado_cita <> 'CANCELADA', 1, NULL);
+
 -- Mensaje de confirmación
 SELECT 'Datos de prueba insertados exitosamente' AS Estado;
 SELECT COUNT(*) AS 'Total Especialidades' FROM especialidad;
@@ -12,10 +12,10 @@ CREATE TABLE IF NOT EXISTS medico (
     nombre_medico VARCHAR(100) NOT NULL,
     apellido_medico VARCHAR(100) NOT NULL,
     telefono_medico VARCHAR(15) NOT NULL,
-    correo_medico VARCHAR(100) NOT NULL UNIQUE,
+    correo_medico VARCHAR(100) NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    INDEX idx_correo_medico (correo_medico),
+    UNIQUE KEY uk_correo_medico (correo_medico),
     INDEX idx_nombre_medico (nombre_medico, apellido_medico)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -55,10 +55,10 @@ CREATE TABLE IF NOT EXISTS paciente (
     apellido_paciente VARCHAR(100) NOT NULL,
     fecha_nacimiento DATE NOT NULL,
     telefono_paciente VARCHAR(15) NOT NULL,
-    correo_paciente VARCHAR(100) NOT NULL UNIQUE,
+    correo_paciente VARCHAR(100) NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    INDEX idx_correo_paciente (correo_paciente),
+    UNIQUE KEY uk_correo_paciente (correo_paciente),
     INDEX idx_nombre_paciente (nombre_paciente, apellido_paciente)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -74,13 +74,25 @@ CREATE TABLE IF NOT EXISTS cita (
     id_paciente BIGINT NOT NULL,
     id_medico BIGINT NOT NULL,
     id_especialidad BIGINT NOT NULL,
+    -- 1 mientras la cita ocupa su horario, NULL si está CANCELADA (lo mantiene la entidad Cita)
+    slot_activo TINYINT(1) NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (id_paciente) REFERENCES paciente(id_paciente) ON DELETE RESTRICT,
     FOREIGN KEY (id_medico) REFERENCES medico(id_medico) ON DELETE RESTRICT,
     FOREIGN KEY (id_especialidad) REFERENCES especialidad(id_especialidad) ON DELETE RESTRICT,
-    INDEX idx_fecha_cita (fecha_cita),
+    INDEX idx_fecha_cita (fecha_cita, hora_cita),
     INDEX idx_estado_cita (estado_cita),
     INDEX idx_medico_fecha (id_medico, fecha_cita, hora_cita),
-    INDEX idx_paciente (id_paciente)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
\ No newline at end of file
+    INDEX idx_paciente (id_paciente, fecha_cita, hora_cita),
+    -- Evita la doble reserva aun con varias instancias de la API (los NULL no chocan)
+    UNIQUE KEY uk_cita_horario_activo (id_medico, fecha_cita, hora_cita, slot_activo)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Migración para bases existentes (ejecutar una sola vez):
+-- ALTER TABLE cita ADD COLUMN slot_activo TINYINT(1) NULL;
+-- UPDATE cita SET slot_activo = IF(estado_cita <> 'CANCELADA', 1, NULL);
+-- ALTER TABLE cita ADD UNIQUE KEY uk_cita_horario_activo (id_medico, fecha_cita, hora_cita, slot_activo);
+-- Índices para la paginación keyset de GET /api/citas (InnoDB agrega id_cita al final de cada índice):
+-- ALTER TABLE cita DROP INDEX idx_fecha_cita, ADD INDEX idx_fecha_cita (fecha_cita, hora_cita);
+-- ALTER TABLE cita DROP INDEX idx_paciente, ADD INDEX idx_paciente (id_paciente, fecha_cita, hora_cita);
\ No newline at end of file
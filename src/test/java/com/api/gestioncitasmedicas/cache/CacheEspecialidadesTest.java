@@ -0,0 +1,105 @@
+package com.api.gestioncitasmedicas.cache;
+
+import com.api.gestioncitasmedicas.dto.EstadisticasCacheDTO;
+import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheEspecialidadesTest {
+
+    @Mock
+    private EspecialidadRepository especialidadRepository;
+
+    @InjectMocks
+    private CacheEspecialidades cacheEspecialidades;
+
+    private Especialidad cardiologia;
+    private Especialidad pediatria;
+
+    @BeforeEach
+    void setUp() {
+        cardiologia = especialidad(1L, "Cardiología");
+        pediatria = especialidad(2L, "Pediatría");
+    }
+
+    private Especialidad especialidad(Long id, String nombre) {
+        Especialidad especialidad = new Especialidad();
+        especialidad.setIdEspecialidad(id);
+        especialidad.setNombreEspecialidad(nombre);
+        return especialidad;
+    }
+
+    @Test
+    void testLecturasSinConsultarLaBD() {
+        // ARRANGE
+        when(especialidadRepository.findAll()).thenReturn(List.of(pediatria, cardiologia));
+        cacheEspecialidades.precargar();
+
+        // ACT
+        boolean existe = cacheEspecialidades.existe(1L);
+        String porNombre = cacheEspecialidades.buscarPorNombre("PEDIATRÍA").orElseThrow().getNombreEspecialidad();
+        List<Especialidad> todas = cacheEspecialidades.todas();
+
+        // ASSERT
+        assertTrue(existe);
+        assertEquals("Pediatría", porNombre);
+        assertEquals(List.of(cardiologia, pediatria), todas);
+        verify(especialidadRepository, times(1)).findAll();
+        verifyNoMoreInteractions(especialidadRepository);
+    }
+
+    @Test
+    void testFalloConsultaLaBDYRecargaSiExiste() {
+        // ARRANGE
+        Especialidad nueva = especialidad(3L, "Dermatología");
+        when(especialidadRepository.findAll())
+                .thenReturn(List.of(cardiologia))
+                .thenReturn(List.of(cardiologia, nueva));
+        when(especialidadRepository.existsById(3L)).thenReturn(true);
+        when(especialidadRepository.existsById(9L)).thenReturn(false);
+
+        // ACT
+        assertEquals(nueva, cacheEspecialidades.buscarPorId(3L).orElseThrow());
+        assertTrue(cacheEspecialidades.buscarPorId(9L).isEmpty());
+        EstadisticasCacheDTO estadisticas = cacheEspecialidades.estadisticas();
+
+        // ASSERT
+        assertEquals(2, estadisticas.getEntradas());
+        assertEquals(0L, estadisticas.getAciertos());
+        assertEquals(2L, estadisticas.getFallos());
+        assertEquals(2L, estadisticas.getRecargas());
+        verify(especialidadRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testRecargarReflejaCambios() {
+        // ARRANGE
+        Especialidad renombrada = especialidad(1L, "Cardiología Avanzada");
+        when(especialidadRepository.findAll())
+                .thenReturn(List.of(cardiologia))
+                .thenReturn(List.of(renombrada));
+        cacheEspecialidades.precargar();
+
+        // ACT
+        cacheEspecialidades.recargar();
+
+        // ASSERT
+        assertTrue(cacheEspecialidades.buscarPorNombre("Cardiología").isEmpty());
+        assertEquals(renombrada, cacheEspecialidades.buscarPorId(1L).orElseThrow());
+        EstadisticasCacheDTO estadisticas = cacheEspecialidades.estadisticas();
+        assertEquals(1L, estadisticas.getAciertos());
+        assertEquals(1L, estadisticas.getFallos());
+        assertEquals(0.5, estadisticas.getTasaAciertos());
+    }
+}
@@ -0,0 +1,198 @@
+package com.api.gestioncitasmedicas.cache;
+
+import com.api.gestioncitasmedicas.dto.ActualizarMedicoDTO;
+import com.api.gestioncitasmedicas.dto.AsignarEspecialidadDTO;
+import com.api.gestioncitasmedicas.dto.CambiarEstadoCitaDTO;
+import com.api.gestioncitasmedicas.dto.EstadisticasCacheDTO;
+import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.entity.Medico;
+import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.MedicoRepository;
+import com.api.gestioncitasmedicas.service.MedicoEspecialidadService;
+import com.api.gestioncitasmedicas.service.MedicoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Caché de segundo nivel sobre una BD H2 propia con datos del generador: las cargas repetidas por ID
+// no van a la BD y las escrituras de MedicoService y MedicoEspecialidadService la invalidan
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache_hibernate;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "generador.semilla=11",
+        "generador.fecha-referencia=2030-01-09",
+        "generador.especialidades=5",
+        "generador.medicos=20",
+        "generador.pacientes=50",
+        "generador.citas=200"
+})
+@ActiveProfiles("generador")
+@AutoConfigureMockMvc
+class CacheHibernateTest {
+
+    @Autowired
+    private CacheHibernate cacheHibernate;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private EspecialidadRepository especialidadRepository;
+
+    @Autowired
+    private MedicoEspecialidadRepository medicoEspecialidadRepository;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private MedicoEspecialidadService medicoEspecialidadService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cacheHibernate.vaciar();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testSegundaLecturaDeMedicoSinConsultarLaBD() {
+        // ARRANGE
+        Long idMedico = idMedico(0);
+
+        // ACT
+        Medico primera = medicoRepository.findById(idMedico).orElseThrow();
+        Medico segunda = medicoRepository.findById(idMedico).orElseThrow();
+
+        // ASSERT
+        assertEquals(primera.getCorreoMedico(), segunda.getCorreoMedico());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("medico").getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("medico").getMissCount());
+    }
+
+    @Test
+    void testActualizarMedicoInvalidaLaCache() {
+        // ARRANGE
+        Long idMedico = idMedico(1);
+        medicoRepository.findById(idMedico).orElseThrow();
+        ActualizarMedicoDTO dto = new ActualizarMedicoDTO();
+        dto.setNombreMedico("Renombrado");
+
+        // ACT
+        medicoService.actualizar(idMedico, dto);
+        Medico releido = medicoRepository.findById(idMedico).orElseThrow();
+
+        // ASSERT
+        assertEquals("Renombrado", releido.getNombreMedico());
+    }
+
+    @Test
+    void testDesasignarInvalidaLaRelacionEnCache() {
+        // ARRANGE: una relación ya leída una vez (queda en la región medico_especialidad)
+        Map<String, Object> fila = jdbcTemplate.queryForMap(
+                "SELECT id_medico_especialidad, id_medico, id_especialidad FROM medico_especialidad " +
+                        "ORDER BY id_medico_especialidad LIMIT 1");
+        Long idRelacion = ((Number) fila.get("id_medico_especialidad")).longValue();
+        Long idMedico = ((Number) fila.get("id_medico")).longValue();
+        Long idEspecialidad = ((Number) fila.get("id_especialidad")).longValue();
+        medicoEspecialidadRepository.findById(idRelacion).orElseThrow();
+        assertTrue(medicoEspecialidadRepository.findById(idRelacion).isPresent());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("medico_especialidad").getHitCount());
+
+        // ACT
+        medicoEspecialidadService.desasignarEspecialidadDeMedico(idMedico, idEspecialidad);
+
+        // ASSERT: la caché no sigue sirviendo la relación borrada
+        assertTrue(medicoEspecialidadRepository.findById(idRelacion).isEmpty());
+
+        medicoEspecialidadService.asignarEspecialidadAMedico(new AsignarEspecialidadDTO(idMedico, idEspecialidad));
+    }
+
+    @Test
+    void testCambiarEstadoDeCitaLeeMedicoYEspecialidadDeLaCache() throws Exception {
+        // ARRANGE
+        Map<String, Object> cita = jdbcTemplate.queryForMap(
+                "SELECT id_cita, id_medico, id_especialidad FROM cita WHERE estado_cita IN ('PENDIENTE', 'CONFIRMADA') " +
+                        "ORDER BY id_cita LIMIT 1");
+        medicoRepository.findById(((Number) cita.get("id_medico")).longValue()).orElseThrow();
+        especialidadRepository.findById(((Number) cita.get("id_especialidad")).longValue()).orElseThrow();
+        statistics.clear();
+
+        // ACT
+        mockMvc.perform(patch("/api/citas/{id}/estado", cita.get("id_cita"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CambiarEstadoCitaDTO("CANCELADA"))))
+                .andExpect(status().isOk());
+
+        // ASSERT
+        assertEquals(0, statistics.getEntityStatistics(Medico.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(Especialidad.class.getName()).getLoadCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("medico").getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("especialidad").getHitCount());
+    }
+
+    @Test
+    void testEstadisticasPorRegion() {
+        // ARRANGE
+        Long idMedico = idMedico(2);
+        medicoRepository.findById(idMedico).orElseThrow();
+        medicoRepository.findById(idMedico).orElseThrow();
+
+        // ACT
+        List<EstadisticasCacheDTO> estadisticas = cacheHibernate.estadisticas();
+
+        // ASSERT
+        assertEquals(List.of("hibernate:medico", "hibernate:especialidad", "hibernate:medico_especialidad"),
+                estadisticas.stream().map(EstadisticasCacheDTO::getNombre).toList());
+        EstadisticasCacheDTO medicos = estadisticas.get(0);
+        assertEquals(1, medicos.getEntradas());
+        assertEquals(1, medicos.getAciertos());
+        assertEquals(1, medicos.getFallos());
+        assertEquals(0.5, medicos.getTasaAciertos());
+        // También en /actuator/prometheus
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", "medico").meter());
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    private Long idMedico(int posicion) {
+        return jdbcTemplate.queryForObject("SELECT id_medico FROM medico ORDER BY id_medico LIMIT 1 OFFSET ?",
+                Long.class, posicion);
+    }
+}
@@ -0,0 +1,69 @@
+package com.api.gestioncitasmedicas.concurrencia;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpStatus;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Servidor real (puerto aleatorio) con spring.threads.virtual.enabled=true, en una BD H2 propia
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:hilos_virtuales;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "permisos-bd.maximo=3"
+})
+class HilosVirtualesTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext contexto;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void testTomcatAtiendeLasPeticionesEnHilosVirtuales() {
+        // ACT
+        TomcatWebServer servidor = (TomcatWebServer) contexto.getWebServer();
+
+        // ASSERT
+        assertInstanceOf(VirtualThreadExecutor.class,
+                servidor.getTomcat().getConnector().getProtocolHandler().getExecutor());
+    }
+
+    @Test
+    void testPeticionesSimultaneasCompartenLosPermisosDeConexion() throws Exception {
+        // ARRANGE
+        PermisosConexiones permisos = dataSource.unwrap(PermisosConexiones.class);
+        assertEquals(3, permisos.getMaximo());
+
+        // ACT - Muchas más peticiones a la vez que permisos
+        List<Future<HttpStatus>> respuestas = new ArrayList<>();
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                respuestas.add(clientes.submit(() -> HttpStatus.valueOf(
+                        restTemplate.getForEntity("/api/citas?tamanio=5", String.class).getStatusCode().value())));
+            }
+        }
+
+        // ASSERT - Todas se atendieron y no quedó ningún permiso tomado
+        for (Future<HttpStatus> respuesta : respuestas) {
+            assertEquals(HttpStatus.OK, respuesta.get());
+        }
+        assertEquals(3, permisos.disponibles());
+    }
+}
@@ -0,0 +1,68 @@
+package com.api.gestioncitasmedicas.concurrencia;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermisosConexionesTest {
+
+    private JdbcDataSource h2;
+
+    @BeforeEach
+    void setUp() {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:permisos_conexiones;DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void testNoEntregaMasConexionesQueElMaximo() throws SQLException {
+        // ARRANGE
+        PermisosConexiones permisos = new PermisosConexiones(h2, 2, 50);
+        Connection primera = permisos.getConnection();
+        Connection segunda = permisos.getConnection();
+
+        // ACT & ASSERT - La tercera espera y falla; al cerrar una se puede tomar otra
+        assertEquals(0, permisos.disponibles());
+        assertThrows(SQLTransientConnectionException.class, permisos::getConnection);
+        primera.close();
+        try (Connection tercera = permisos.getConnection()) {
+            assertTrue(tercera.isValid(1));
+        }
+        segunda.close();
+        assertEquals(2, permisos.disponibles());
+    }
+
+    @Test
+    void testCerrarDosVecesDevuelveUnSoloPermiso() throws SQLException {
+        // ARRANGE
+        PermisosConexiones permisos = new PermisosConexiones(h2, 2, 50);
+        Connection conexion = permisos.getConnection();
+
+        // ACT
+        conexion.close();
+        conexion.close();
+
+        // ASSERT
+        assertEquals(2, permisos.disponibles());
+        assertTrue(conexion.isClosed());
+    }
+
+    @Test
+    void testDevuelveElPermisoSiNoSeObtieneLaConexion() {
+        // ARRANGE - IFEXISTS hace que H2 falle porque la base no existe
+        h2.setURL("jdbc:h2:mem:no_existe;IFEXISTS=TRUE");
+        PermisosConexiones permisos = new PermisosConexiones(h2, 1, 50);
+
+        // ACT
+        assertThrows(SQLException.class, permisos::getConnection);
+
+        // ASSERT
+        assertEquals(1, permisos.disponibles());
+    }
+}
@@ -0,0 +1,268 @@
+package com.api.gestioncitasmedicas.controller;
+
+import com.api.gestioncitasmedicas.dto.ActualizarCitaDTO;
+import com.api.gestioncitasmedicas.dto.ActualizarEspecialidadDTO;
+import com.api.gestioncitasmedicas.dto.ActualizarMedicoDTO;
+import com.api.gestioncitasmedicas.dto.ActualizarPacienteDTO;
+import com.api.gestioncitasmedicas.dto.AsignarEspecialidadDTO;
+import com.api.gestioncitasmedicas.dto.CambiarEstadoCitaDTO;
+import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.dto.CrearEspecialidadDTO;
+import com.api.gestioncitasmedicas.dto.CrearMedicoDTO;
+import com.api.gestioncitasmedicas.dto.CrearPacienteDTO;
+import com.api.gestioncitasmedicas.metricas.InspectorConsultas;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Presupuesto de consultas por endpoint: cada petición corre contra un conjunto de datos del
+// generador (perfil "generador", en una BD H2 propia) y no puede pasar de un máximo de
+// sentencias SQL ni de filas leídas. Un N+1 (por ejemplo, un convertirADTO que vuelva a cargar
+// relaciones perezosas por cada elemento) sube las sentencias de los listados y rompe el build.
+// Los máximos de filas dependen de los volúmenes de abajo; si se cambian hay que ajustarlos
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:presupuesto_consultas;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "inspeccion-consultas.contar-filas=true",
+        "generador.semilla=7",
+        "generador.fecha-referencia=2030-01-09",
+        "generador.especialidades=8",
+        "generador.medicos=30",
+        "generador.pacientes=200",
+        "generador.citas=1500",
+        "generador.filas-por-insert=100",
+        "generador.filas-por-transaccion=1000"
+})
+@ActiveProfiles("generador")
+@AutoConfigureMockMvc
+class PresupuestoConsultasTest {
+
+    private static final int ESPECIALIDADES = 8;
+    private static final int MEDICOS = 30;
+    private static final int PACIENTES = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InspectorConsultas inspectorConsultas;
+
+    @BeforeEach
+    void setUp() {
+        inspectorConsultas.limpiar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Ninguna petición debe haber repetido la misma sentencia hasta el umbral de N+1
+        inspectorConsultas.verificarSinNMasUno();
+    }
+
+    // ========== LISTADOS ==========
+
+    @Test
+    void testListarMedicos() throws Exception {
+        medir(get("/api/medicos"), 1, MEDICOS);
+    }
+
+    @Test
+    void testListarPacientes() throws Exception {
+        // Pacientes + una fila de conteo por paciente con citas
+        medir(get("/api/pacientes"), 2, 2L * PACIENTES);
+    }
+
+    @Test
+    void testListarEspecialidades() throws Exception {
+        medir(get("/api/especialidades"), 1, ESPECIALIDADES);
+    }
+
+    @Test
+    void testListarCitas() throws Exception {
+        // Una página lee una fila de más para saber si hay siguiente
+        medir(get("/api/citas"), 1, 51);
+    }
+
+    @Test
+    void testFiltrarCitasPorMedicoYEstado() throws Exception {
+        medir(get("/api/citas").param("medico", String.valueOf(idMedico())).param("estado", "COMPLETADA"), 1, 51);
+    }
+
+    @Test
+    void testSiguientePaginaDeCitas() throws Exception {
+        MvcResult primera = mockMvc.perform(get("/api/citas").param("tamanio", "20")).andReturn();
+        String cursor = objectMapper.readTree(primera.getResponse().getContentAsString()).get("siguienteCursor").asText();
+
+        medir(get("/api/citas").param("tamanio", "20").param("cursor", cursor), 1, 21);
+    }
+
+    @Test
+    void testDisponibilidad() throws Exception {
+        Map<String, Object> asignacion = asignacion();
+        medir(get("/api/citas/disponibilidad").param("especialidad", asignacion.get("id_especialidad").toString())
+                .param("desde", "2030-01-07"), 2, 85);
+    }
+
+    @Test
+    void testBuscarPacientes() throws Exception {
+        String apellido = jdbcTemplate.queryForObject(
+                "SELECT apellido_paciente FROM paciente ORDER BY id_paciente LIMIT 1", String.class);
+        medir(get("/api/pacientes/buscar").param("termino", apellido), 2, 2);
+        medir(get("/api/pacientes/buscar").param("termino", apellido).param("fuzzy", "true"), 2, 2);
+    }
+
+    // ========== POR ID ==========
+
+    @Test
+    void testObtenerPorId() throws Exception {
+        medir(get("/api/medicos/{id}", idMedico()), 1, 1);
+        medir(get("/api/medicos/{id}/especialidades", idMedico()), 1, 1);
+        medir(get("/api/pacientes/{id}", idPaciente()), 2, 2);
+        medir(get("/api/especialidades/{id}", idEspecialidad()), 1, 1);
+        medir(get("/api/citas/{id}", idCita()), 1, 1);
+    }
+
+    // ========== ESCRITURAS ==========
+
+    @Test
+    void testCicloDeUnaCita() throws Exception {
+        Map<String, Object> asignacion = asignacion();
+        CrearCitaDTO nueva = new CrearCitaDTO(idPaciente(), ((Number) asignacion.get("id_medico")).longValue(),
+                ((Number) asignacion.get("id_especialidad")).longValue(), diaLibre(), LocalTime.of(8, 0), "Control");
+
+        JsonNode creada = medir(post("/api/citas").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(nueva)), 3, 1);
+        long idCita = creada.get("idCita").asLong();
+
+        medir(put("/api/citas/{id}", idCita).contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ActualizarCitaDTO(null, LocalTime.of(9, 0), "Control anual"))),
+                5, 4);
+        medir(patch("/api/citas/{id}/estado", idCita).contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CambiarEstadoCitaDTO("CANCELADA"))), 5, 4);
+        medir(delete("/api/citas/{id}", idCita), 2, 1);
+    }
+
+    @Test
+    void testCicloDeUnMedico() throws Exception {
+        JsonNode creado = medir(post("/api/medicos").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new CrearMedicoDTO("Ana", "Presupuesto", "71234567", "ana.presupuesto@prueba.test"))),
+                1, 0);
+        long idMedico = creado.get("idMedico").asLong();
+
+        medir(put("/api/medicos/{id}", idMedico).contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ActualizarMedicoDTO("Ana María", null, null, null))),
+                2, 1);
+        medir(post("/api/medicos-especialidades").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AsignarEspecialidadDTO(idMedico, idEspecialidad()))),
+                4, 2);
+        medir(delete("/api/medicos-especialidades").param("idMedico", String.valueOf(idMedico))
+                .param("idEspecialidad", String.valueOf(idEspecialidad())), 3, 2);
+        medir(delete("/api/medicos/{id}", idMedico), 5, 2);
+    }
+
+    @Test
+    void testCicloDeUnPaciente() throws Exception {
+        JsonNode creado = medir(post("/api/pacientes").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CrearPacienteDTO("Beatriz", "Presupuesto",
+                        LocalDate.of(1990, 3, 14), "72345678", "beatriz.presupuesto@prueba.test"))),
+                1, 0);
+        long idPaciente = creado.get("idPaciente").asLong();
+
+        medir(put("/api/pacientes/{id}", idPaciente).contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ActualizarPacienteDTO(null, null, null, "72345679", null))),
+                3, 2);
+        medir(delete("/api/pacientes/{id}", idPaciente), 3, 2);
+    }
+
+    @Test
+    void testCicloDeUnaEspecialidad() throws Exception {
+        JsonNode creada = medir(post("/api/especialidades").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CrearEspecialidadDTO("Presupuestología", "Prueba"))),
+                2, ESPECIALIDADES + 1);
+        long idEspecialidad = creada.get("idEspecialidad").asLong();
+
+        medir(put("/api/especialidades/{id}", idEspecialidad).contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ActualizarEspecialidadDTO(null, "Prueba de presupuesto"))),
+                4, ESPECIALIDADES + 3);
+        medir(delete("/api/especialidades/{id}", idEspecialidad), 4, ESPECIALIDADES + 2);
+    }
+
+    // ========== MÉTODOS PRIVADOS ==========
+
+    // Ejecutar la petición (debe responder 2xx) y verificar sus sentencias y filas; devuelve el cuerpo
+    private JsonNode medir(MockHttpServletRequestBuilder peticion, int maximoSentencias, long maximoFilas)
+            throws Exception {
+        MvcResult resultado = mockMvc.perform(peticion).andReturn();
+        String descripcion = resultado.getRequest().getMethod() + " " + resultado.getRequest().getRequestURI();
+        String cuerpo = resultado.getResponse().getContentAsString();
+        assertTrue(resultado.getResponse().getStatus() < 300, descripcion + " -> " + resultado.getResponse().getStatus() + " " + cuerpo);
+
+        InspectorConsultas.Resumen resumen =
+                (InspectorConsultas.Resumen) resultado.getRequest().getAttribute(InspectorConsultas.ATRIBUTO_RESUMEN);
+        assertTrue(resumen.sentencias() <= maximoSentencias,
+                descripcion + ": " + resumen.sentencias() + " sentencias (máximo " + maximoSentencias + ")");
+        assertTrue(resumen.filas() <= maximoFilas,
+                descripcion + ": " + resumen.filas() + " filas leídas (máximo " + maximoFilas + ")");
+        return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(
+                resultado.getResponse().getContentType() == null ? MediaType.ALL_VALUE : resultado.getResponse().getContentType()))
+                ? objectMapper.readTree(cuerpo) : null;
+    }
+
+    private long idMedico() {
+        return jdbcTemplate.queryForObject("SELECT MIN(id_medico) FROM medico", Long.class);
+    }
+
+    private long idPaciente() {
+        return jdbcTemplate.queryForObject("SELECT MIN(id_paciente) FROM paciente", Long.class);
+    }
+
+    private long idEspecialidad() {
+        return jdbcTemplate.queryForObject("SELECT MIN(id_especialidad) FROM especialidad", Long.class);
+    }
+
+    private long idCita() {
+        return jdbcTemplate.queryForObject("SELECT MIN(id_cita) FROM cita", Long.class);
+    }
+
+    private Map<String, Object> asignacion() {
+        return jdbcTemplate.queryForMap(
+                "SELECT id_medico, id_especialidad FROM medico_especialidad ORDER BY id_medico_especialidad LIMIT 1");
+    }
+
+    // Primer día hábil después de la última cita generada (la agenda de cualquier médico está libre)
+    private LocalDate diaLibre() {
+        LocalDate dia = jdbcTemplate.queryForObject("SELECT MAX(fecha_cita) FROM cita", LocalDate.class).plusDays(1);
+        while (dia.getDayOfWeek() == DayOfWeek.SATURDAY || dia.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            dia = dia.plusDays(1);
+        }
+        return dia;
+    }
+}
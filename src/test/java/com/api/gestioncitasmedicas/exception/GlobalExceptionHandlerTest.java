@@ -0,0 +1,84 @@
+package com.api.gestioncitasmedicas.exception;
+
+import com.api.gestioncitasmedicas.dto.DuplicadoPacienteDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void testCadaTipoTieneSuEstadoYCodigo() {
+        // ACT
+        ResponseEntity<Map<String, Object>> noEncontrado = handler.handleNegocioException(
+                new NoEncontradoException(CodigoError.PACIENTE_NO_ENCONTRADO, "Paciente no encontrado con ID: 9"));
+        ResponseEntity<Map<String, Object>> conflicto = handler.handleNegocioException(
+                new ConflictoException(CodigoError.HORARIO_OCUPADO, "Horario ocupado"));
+        ResponseEntity<Map<String, Object>> regla = handler.handleNegocioException(
+                new ReglaNegocioException(CodigoError.DIA_NO_HABIL, "Fin de semana"));
+
+        // ASSERT
+        assertEquals(HttpStatus.NOT_FOUND, noEncontrado.getStatusCode());
+        assertEquals("PACIENTE_NO_ENCONTRADO", noEncontrado.getBody().get("code"));
+        assertEquals(404, noEncontrado.getBody().get("status"));
+        assertEquals("Paciente no encontrado con ID: 9", noEncontrado.getBody().get("message"));
+        assertEquals(HttpStatus.CONFLICT, conflicto.getStatusCode());
+        assertEquals("HORARIO_OCUPADO", conflicto.getBody().get("code"));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, regla.getStatusCode());
+    }
+
+    @Test
+    void testPacienteDuplicadoIncluyeLosCandidatos() {
+        // ARRANGE
+        DuplicadoPacienteDTO candidato = new DuplicadoPacienteDTO(5L, "Juan", "Pérez",
+                LocalDate.of(1990, 5, 15), "70001234", "juan.perez@email.com", 0.81);
+
+        // ACT
+        ResponseEntity<Map<String, Object>> respuesta = handler.handlePacienteDuplicado(
+                new PacienteDuplicadoException(List.of(candidato)));
+
+        // ASSERT
+        assertEquals(HttpStatus.CONFLICT, respuesta.getStatusCode());
+        assertEquals("POSIBLE_PACIENTE_DUPLICADO", respuesta.getBody().get("code"));
+        assertEquals(List.of(candidato), respuesta.getBody().get("candidatos"));
+    }
+
+    @Test
+    void testViolacionDeIntegridadConCodigo() {
+        // ACT
+        ResponseEntity<Map<String, Object>> respuesta = handler.handleDataIntegrityViolation(
+                new DataIntegrityViolationException("could not execute statement"));
+
+        // ASSERT
+        assertEquals(HttpStatus.CONFLICT, respuesta.getStatusCode());
+        assertEquals("INTEGRIDAD_DATOS", respuesta.getBody().get("code"));
+    }
+
+    @Test
+    void testRuntimeExceptionSinTipoSigueSiendo400() {
+        // ACT
+        ResponseEntity<Map<String, Object>> respuesta = handler.handleRuntimeException(new RuntimeException("Error"));
+
+        // ASSERT
+        assertEquals(HttpStatus.BAD_REQUEST, respuesta.getStatusCode());
+        assertFalse(respuesta.getBody().containsKey("code"));
+    }
+
+    @Test
+    void testExcepcionesDeNegocioSinStackTrace() {
+        // ACT
+        NegocioException ex = new ConflictoException(CodigoError.CORREO_DUPLICADO, "Duplicado");
+
+        // ASSERT
+        assertEquals(0, ex.getStackTrace().length);
+    }
+}
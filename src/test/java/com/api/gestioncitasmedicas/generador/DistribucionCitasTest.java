@@ -0,0 +1,97 @@
+package com.api.gestioncitasmedicas.generador;
+
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.service.CitaService;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistribucionCitasTest {
+
+    private final LocalDate referencia = LocalDate.of(2030, 1, 9); // Miércoles
+
+    @Test
+    void testMismaSemillaMismasCitas() {
+        // ARRANGE
+        DistribucionCitas primera = new DistribucionCitas(7, 50, 1000, 5000, referencia, 0.8);
+        DistribucionCitas segunda = new DistribucionCitas(7, 50, 1000, 5000, referencia, 0.8);
+        DistribucionCitas otraSemilla = new DistribucionCitas(8, 50, 1000, 5000, referencia, 0.8);
+
+        // ACT & ASSERT
+        boolean alMenosUnaDistinta = false;
+        for (int i = 0; i < 5000; i++) {
+            DistribucionCitas.CitaGenerada cita = primera.siguiente();
+            assertEquals(cita, segunda.siguiente());
+            alMenosUnaDistinta |= !cita.equals(otraSemilla.siguiente());
+        }
+        assertTrue(alMenosUnaDistinta);
+    }
+
+    @Test
+    void testNuncaRepiteHorarioNiUsaFinesDeSemana() {
+        // ARRANGE
+        DistribucionCitas distribucion = new DistribucionCitas(1, 10, 100, 3000, referencia, 0.8);
+        Set<LocalDate> dias = new HashSet<>(Arrays.asList(distribucion.dias()));
+        Set<String> ocupados = new HashSet<>();
+
+        // ACT & ASSERT
+        for (int i = 0; i < 3000; i++) {
+            DistribucionCitas.CitaGenerada cita = distribucion.siguiente();
+            assertTrue(ocupados.add(cita.medico() + "|" + cita.fecha() + "|" + cita.hora()), "Horario repetido: " + cita);
+            assertTrue(dias.contains(cita.fecha()));
+            assertNotEquals(DayOfWeek.SATURDAY, cita.fecha().getDayOfWeek());
+            assertNotEquals(DayOfWeek.SUNDAY, cita.fecha().getDayOfWeek());
+            assertTrue(CitaService.HORARIOS_VALIDOS.contains(cita.hora()));
+        }
+        assertFalse(dias.contains(referencia));
+    }
+
+    @Test
+    void testDemandaConcentradaEnMedicosPopularesYLunes() {
+        // ARRANGE
+        DistribucionCitas distribucion = new DistribucionCitas(3, 100, 1000, 20_000, referencia, 0.8);
+        int[] porMedico = new int[100];
+        int[] porDia = new int[8];
+
+        // ACT
+        for (int i = 0; i < 20_000; i++) {
+            DistribucionCitas.CitaGenerada cita = distribucion.siguiente();
+            porMedico[cita.medico()]++;
+            porDia[cita.fecha().getDayOfWeek().getValue()]++;
+        }
+
+        // ASSERT - Los 10 médicos populares quedan con la agenda llena; el resto, con lugar
+        int capacidadPorMedico = distribucion.dias().length * CitaService.HORARIOS_VALIDOS.size();
+        int populares = Arrays.stream(porMedico, 0, 10).sum();
+        int resto = Arrays.stream(porMedico, 10, 100).sum();
+        assertTrue(populares >= 10 * capacidadPorMedico * 0.95, "Citas de médicos populares: " + populares);
+        assertTrue(resto <= 90 * capacidadPorMedico * DistribucionCitas.OCUPACION_MAXIMA);
+        assertTrue(porDia[DayOfWeek.MONDAY.getValue()] > porDia[DayOfWeek.FRIDAY.getValue()]);
+    }
+
+    @Test
+    void testEstadosSegunFecha() {
+        // ARRANGE
+        DistribucionCitas distribucion = new DistribucionCitas(5, 20, 200, 4000, referencia, 0.5);
+        List<Cita.EstadoCita> pasado = List.of(
+                Cita.EstadoCita.COMPLETADA, Cita.EstadoCita.CANCELADA, Cita.EstadoCita.CONFIRMADA);
+        List<Cita.EstadoCita> futuro = List.of(
+                Cita.EstadoCita.PENDIENTE, Cita.EstadoCita.CONFIRMADA, Cita.EstadoCita.CANCELADA);
+        Set<Cita.EstadoCita> vistos = new HashSet<>();
+
+        // ACT & ASSERT
+        for (int i = 0; i < 4000; i++) {
+            DistribucionCitas.CitaGenerada cita = distribucion.siguiente();
+            vistos.add(cita.estado());
+            assertTrue((cita.fecha().isBefore(referencia) ? pasado : futuro).contains(cita.estado()), cita.toString());
+        }
+        assertEquals(Set.of(Cita.EstadoCita.values()), vistos);
+    }
+}
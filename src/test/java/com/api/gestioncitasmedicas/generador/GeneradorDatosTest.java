@@ -0,0 +1,94 @@
+package com.api.gestioncitasmedicas.generador;
+
+import com.api.gestioncitasmedicas.service.CitaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// El perfil "generador" inserta los datos al arrancar el contexto (sobre H2); las pruebas
+// revisan lo que quedó en las tablas
+@DataJpaTest(properties = {
+        "generador.semilla=11",
+        "generador.fecha-referencia=2030-01-09",
+        "generador.especialidades=5",
+        "generador.medicos=20",
+        "generador.pacientes=300",
+        "generador.citas=2000",
+        "generador.filas-por-insert=64",
+        "generador.filas-por-transaccion=500"
+})
+@ActiveProfiles("generador")
+@Import(GeneradorDatos.class)
+class GeneradorDatosTest {
+
+    private static final String DOMINIO = "%@s11.generado.test";
+
+    @Autowired
+    private GeneradorDatos generadorDatos;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testGeneraLosVolumenesPedidos() {
+        // ASSERT
+        assertEquals(20, contar("SELECT COUNT(*) FROM medico WHERE correo_medico LIKE ?", DOMINIO));
+        assertEquals(300, contar("SELECT COUNT(*) FROM paciente WHERE correo_paciente LIKE ?", DOMINIO));
+        assertEquals(2000, contar("SELECT COUNT(*) FROM cita"));
+        assertEquals(5, contar("SELECT COUNT(*) FROM especialidad"));
+        long asignaciones = contar("SELECT COUNT(*) FROM medico_especialidad");
+        assertTrue(asignaciones >= 20 && asignaciones <= 40);
+    }
+
+    @Test
+    void testCitasRespetanLasReglasDeAgenda() {
+        // ARRANGE
+        LocalDate referencia = LocalDate.of(2030, 1, 9);
+        List<Map<String, Object>> citas = jdbcTemplate.queryForList(
+                "SELECT fecha_cita, hora_cita, estado_cita, slot_activo FROM cita");
+
+        // ASSERT
+        for (Map<String, Object> cita : citas) {
+            LocalDate fecha = ((java.sql.Date) cita.get("fecha_cita")).toLocalDate();
+            String estado = (String) cita.get("estado_cita");
+            assertTrue(fecha.getDayOfWeek() != DayOfWeek.SATURDAY && fecha.getDayOfWeek() != DayOfWeek.SUNDAY);
+            assertTrue(CitaService.HORARIOS_VALIDOS.contains(((Time) cita.get("hora_cita")).toLocalTime()));
+            assertEquals(!estado.equals("CANCELADA"), cita.get("slot_activo") != null);
+            if (fecha.isBefore(referencia)) {
+                assertNotEquals("PENDIENTE", estado);
+            } else {
+                assertNotEquals("COMPLETADA", estado);
+            }
+        }
+
+        // Cada cita es de una especialidad que su médico tiene asignada
+        assertEquals(0, contar("SELECT COUNT(*) FROM cita c WHERE NOT EXISTS (SELECT 1 FROM medico_especialidad me " +
+                "WHERE me.id_medico = c.id_medico AND me.id_especialidad = c.id_especialidad)"));
+    }
+
+    @Test
+    void testNoVuelveAInsertarConLaMismaSemilla() {
+        // ACT
+        boolean generados = generadorDatos.generar();
+
+        // ASSERT
+        assertFalse(generados);
+        assertEquals(2000, contar("SELECT COUNT(*) FROM cita"));
+    }
+
+    private long contar(String sql, Object... parametros) {
+        Long cantidad = jdbcTemplate.queryForObject(sql, Long.class, parametros);
+        return cantidad != null ? cantidad : 0L;
+    }
+}
@@ -0,0 +1,57 @@
+package com.api.gestioncitasmedicas.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroBloomTest {
+
+    @Test
+    void testSinFalsosNegativos() {
+        // ARRANGE
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+
+        // ACT
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("paciente" + i + "@email.com");
+        }
+
+        // ASSERT
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.puedeContener("paciente" + i + "@email.com"));
+        }
+        assertEquals(10_000, filtro.elementos(), 100); // Aproximado: un falso positivo al agregar no suma
+    }
+
+    @Test
+    void testTasaFalsosPositivosCercaDeLaConfigurada() {
+        // ARRANGE
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("paciente" + i + "@email.com");
+        }
+
+        // ACT
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filtro.puedeContener("otro" + i + "@email.com")) {
+                falsosPositivos++;
+            }
+        }
+
+        // ASSERT
+        double observada = falsosPositivos / 100_000.0;
+        assertTrue(observada < 0.02, "Tasa observada: " + observada);
+        assertEquals(0.01, filtro.tasaFalsosPositivosEstimada(), 0.005);
+    }
+
+    @Test
+    void testVacioNoContieneNada() {
+        // ARRANGE
+        FiltroBloom filtro = new FiltroBloom(100, 0.01);
+
+        // ACT & ASSERT
+        assertFalse(filtro.puedeContener("juan.perez@email.com"));
+        assertEquals(0.0, filtro.tasaFalsosPositivosEstimada());
+    }
+}
@@ -0,0 +1,127 @@
+package com.api.gestioncitasmedicas.index;
+
+import com.api.gestioncitasmedicas.dto.EstadisticasFiltroDTO;
+import com.api.gestioncitasmedicas.repository.MedicoRepository;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FiltroCorreosTest {
+
+    @Mock
+    private MedicoRepository medicoRepository;
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @Mock
+    private Predicate<String> consultaBD;
+
+    @InjectMocks
+    private FiltroCorreos filtroCorreos;
+
+    private EstadisticasFiltroDTO estadisticas(String nombre) {
+        return filtroCorreos.estadisticas().stream()
+                .filter(e -> e.getNombre().equals(nombre))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void testSinCargarConsultaSiempreLaBD() {
+        // ARRANGE
+        when(consultaBD.test(anyString())).thenReturn(false);
+
+        // ACT
+        boolean existe = filtroCorreos.existe(FiltroCorreos.Tabla.PACIENTE, "juan.perez@email.com", consultaBD);
+
+        // ASSERT
+        assertFalse(existe);
+        verify(consultaBD, times(1)).test("juan.perez@email.com");
+        assertEquals(0, estadisticas("correos-paciente").getFalsosPositivos()); // Sin filtro no hay falsos positivos
+        verifyNoInteractions(pacienteRepository);
+    }
+
+    @Test
+    void testCorreoDescartadoNoConsultaLaBD() {
+        // ARRANGE
+        when(medicoRepository.findAllCorreos()).thenReturn(List.of("carlos.mendez@hospital.com"));
+        filtroCorreos.recargar(FiltroCorreos.Tabla.MEDICO);
+
+        // ACT
+        boolean existe = filtroCorreos.existe(FiltroCorreos.Tabla.MEDICO, "ana.lopez@hospital.com", consultaBD);
+
+        // ASSERT
+        assertFalse(existe);
+        verifyNoInteractions(consultaBD);
+        EstadisticasFiltroDTO medicos = estadisticas("correos-medico");
+        assertEquals(1, medicos.getConsultas());
+        assertEquals(1, medicos.getDescartados());
+        assertEquals(1, medicos.getElementos());
+    }
+
+    @Test
+    void testCorreoRegistradoSeVerificaEnLaBDSinDistinguirMayusculas() {
+        // ARRANGE
+        when(medicoRepository.findAllCorreos()).thenReturn(List.of("Carlos.Mendez@hospital.com"));
+        filtroCorreos.recargar(FiltroCorreos.Tabla.MEDICO);
+        when(consultaBD.test(anyString())).thenReturn(true);
+
+        // ACT
+        boolean existe = filtroCorreos.existe(FiltroCorreos.Tabla.MEDICO, " carlos.mendez@HOSPITAL.com", consultaBD);
+
+        // ASSERT
+        assertTrue(existe);
+        EstadisticasFiltroDTO medicos = estadisticas("correos-medico");
+        assertEquals(1, medicos.getVerificadosEnBD());
+        assertEquals(0, medicos.getFalsosPositivos());
+    }
+
+    @Test
+    void testCorreoEliminadoCuentaComoFalsoPositivoHastaRecargar() {
+        // ARRANGE
+        when(pacienteRepository.findAllCorreos())
+                .thenReturn(List.of("juan.perez@email.com"))
+                .thenReturn(List.of());
+        filtroCorreos.recargar(FiltroCorreos.Tabla.PACIENTE);
+        when(consultaBD.test(anyString())).thenReturn(false); // Ya no está en la BD
+
+        // ACT
+        boolean antes = filtroCorreos.existe(FiltroCorreos.Tabla.PACIENTE, "juan.perez@email.com", consultaBD);
+        filtroCorreos.recargar(FiltroCorreos.Tabla.PACIENTE);
+        boolean despues = filtroCorreos.existe(FiltroCorreos.Tabla.PACIENTE, "juan.perez@email.com", consultaBD);
+
+        // ASSERT
+        assertFalse(antes);
+        assertFalse(despues);
+        verify(consultaBD, times(1)).test(anyString());
+        EstadisticasFiltroDTO pacientes = estadisticas("correos-paciente");
+        assertEquals(1, pacientes.getFalsosPositivos());
+        assertEquals(0.5, pacientes.getTasaFalsosPositivosObservada());
+    }
+
+    @Test
+    void testAgregarHaceVisibleElCorreo() {
+        // ARRANGE
+        when(pacienteRepository.findAllCorreos()).thenReturn(List.of());
+        filtroCorreos.recargar(FiltroCorreos.Tabla.PACIENTE);
+
+        // ACT
+        filtroCorreos.agregar(FiltroCorreos.Tabla.PACIENTE, "maria.sanchez@email.com");
+
+        // ASSERT
+        assertTrue(filtroCorreos.puedeExistir(FiltroCorreos.Tabla.PACIENTE, "MARIA.SANCHEZ@email.com"));
+        assertTrue(filtroCorreos.puedeExistir(FiltroCorreos.Tabla.MEDICO, "otro@hospital.com")); // Sin cargar: se verifica en la BD
+    }
+}
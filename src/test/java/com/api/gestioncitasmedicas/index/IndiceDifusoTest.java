@@ -0,0 +1,91 @@
+package com.api.gestioncitasmedicas.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceDifusoTest {
+
+    private IndiceDifuso indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceDifuso();
+        indice.agregar(1, "Juan Hernández");
+        indice.agregar(2, "María Vásquez");
+        indice.agregar(3, "José González");
+        indice.agregar(4, "Juana Fernández");
+    }
+
+    @Test
+    void testClaveFonetica() {
+        assertEquals(ClaveFonetica.de("hernandez"), ClaveFonetica.de("ernandes"));
+        assertEquals(ClaveFonetica.de("vasquez"), ClaveFonetica.de("basques"));
+        assertEquals(ClaveFonetica.de("gonzalez"), ClaveFonetica.de("gonsales"));
+        assertEquals(ClaveFonetica.de("yolanda"), ClaveFonetica.de("llolanda"));
+        assertEquals(ClaveFonetica.de("guillermo"), ClaveFonetica.de("guiyermo"));
+        assertEquals(ClaveFonetica.de("gimena"), ClaveFonetica.de("jimena"));
+        assertNotEquals(ClaveFonetica.de("gomez"), ClaveFonetica.de("jomes"));
+    }
+
+    @Test
+    void testDistanciaLevenshtein() {
+        assertEquals(0, ArbolBK.distancia("perez", "perez", 2));
+        assertEquals(1, ArbolBK.distancia("perez", "peres", 2));
+        assertEquals(2, ArbolBK.distancia("hernandez", "ernandes", 2));
+        assertEquals(3, ArbolBK.distancia("juan", "fernandez", 2)); // Se corta al superar la máxima
+    }
+
+    @Test
+    void testArbolBKEncuentraTodasLasCercanas() {
+        ArbolBK arbol = new ArbolBK();
+        for (String palabra : List.of("perez", "peres", "pereira", "lopez", "lopes", "paz", "perez")) {
+            arbol.agregar(palabra);
+        }
+        List<String> encontradas = new ArrayList<>();
+        arbol.buscar("peres", 1, (palabra, distancia) -> encontradas.add(palabra + ":" + distancia));
+
+        assertEquals(6, arbol.tamanio());
+        assertEquals(2, encontradas.size());
+        assertTrue(encontradas.containsAll(List.of("perez:1", "peres:0")));
+    }
+
+    @Test
+    void testVariantesYErroresDeTipeo() {
+        assertArrayEquals(new int[]{1, 4}, indice.buscar("Ernandes")); // Fernández a distancia 2
+        assertArrayEquals(new int[]{2}, indice.buscar("basques"));
+        assertArrayEquals(new int[]{3}, indice.buscar("jose gonsales"));
+        assertArrayEquals(new int[]{3}, indice.buscar("gonzales"));
+        assertEquals(0, indice.buscar("rodriguez").length);
+    }
+
+    @Test
+    void testOrdenPorDistancia() {
+        // "hernandez" exacto en 1; "fernandez" a distancia 1 en 4
+        assertArrayEquals(new int[]{1, 4}, indice.buscar("hernandez"));
+        assertArrayEquals(new int[]{4, 1}, indice.buscar("juana fernandez"));
+    }
+
+    @Test
+    void testPalabrasCortasSinErrores() {
+        // Con 3 letras o menos no se toleran errores ("ana" no encuentra a "juan")
+        assertEquals(0, indice.buscar("jua").length);
+    }
+
+    @Test
+    void testActualizarYQuitar() {
+        indice.agregar(1, "Juan Pérez");
+        assertArrayEquals(new int[]{4}, indice.buscar("ernandes"));
+        assertArrayEquals(new int[]{1}, indice.buscar("peres"));
+
+        indice.quitar(1);
+        assertEquals(0, indice.buscar("perez").length);
+
+        indice.agregar(5, "Pedro Pérez");
+        assertArrayEquals(new int[]{5}, indice.buscar("perez"));
+    }
+}
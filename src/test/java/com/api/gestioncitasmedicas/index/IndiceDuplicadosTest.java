@@ -0,0 +1,71 @@
+package com.api.gestioncitasmedicas.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceDuplicadosTest {
+
+    private static final LocalDate FECHA = LocalDate.of(1985, 3, 15);
+
+    private IndiceDuplicados indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceDuplicados();
+        indice.agregar(1, "Juan", "Hernández López", FECHA, "70001234");
+        indice.agregar(2, "José", "Hernández", FECHA, "70001234");        // Hermano, mismo teléfono
+        indice.agregar(3, "Juan", "Hernández", FECHA.plusDays(1), "70001234"); // Otra fecha: otro bloque
+    }
+
+    @Test
+    void testMismaPersonaConVariantes() {
+        List<IndiceDuplicados.Candidato> candidatos =
+                indice.buscar("JUAN", "Ernandes Lopes", FECHA, "7000-1234", 0.75);
+
+        assertEquals(1, candidatos.size());
+        assertEquals(1, candidatos.get(0).id());
+        assertTrue(candidatos.get(0).similitud() >= 0.9);
+    }
+
+    @Test
+    void testMismoNombreSinTelefonoIgual() {
+        List<IndiceDuplicados.Candidato> candidatos = indice.buscar("Juan", "Hernández López", FECHA, "79999999", 0.75);
+
+        assertEquals(1, candidatos.size());
+        assertEquals(0.8, candidatos.get(0).similitud());
+    }
+
+    @Test
+    void testHermanosNoSonDuplicados() {
+        // Mismo apellido, fecha y teléfono, pero otro nombre
+        assertTrue(indice.buscar("Pedro", "Hernández", FECHA, "70001234", 0.75).isEmpty());
+    }
+
+    @Test
+    void testOtraFechaUOtroApellidoNoSeComparan() {
+        assertTrue(indice.buscar("Juan", "Hernández López", FECHA.minusYears(1), "70001234", 0.5).isEmpty());
+        assertTrue(indice.buscar("Juan", "Pérez", FECHA, "70001234", 0.5).isEmpty());
+    }
+
+    @Test
+    void testActualizarYQuitar() {
+        indice.agregar(1, "Juan", "Pérez", FECHA, "70001234");
+        assertEquals(1, indice.buscar("Juan", "Peres", FECHA, "70001234", 0.75).get(0).id());
+        assertTrue(indice.buscar("Juan", "Hernández López", FECHA, "70001234", 0.9).isEmpty());
+
+        indice.quitar(1);
+        assertTrue(indice.buscar("Juan", "Pérez", FECHA, "70001234", 0.5).isEmpty());
+    }
+
+    @Test
+    void testSimilitud() {
+        assertEquals(1.0, IndiceDuplicados.similitud("juan", "juan"));
+        assertEquals(0.95, IndiceDuplicados.similitud("hernandez", "ernandes"));
+        assertEquals(0.8, IndiceDuplicados.similitud("juan", "juana"), 0.0001); // 1 - 1/5
+    }
+}
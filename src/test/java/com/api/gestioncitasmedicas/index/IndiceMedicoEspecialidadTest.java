@@ -0,0 +1,120 @@
+package com.api.gestioncitasmedicas.index;
+
+import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
+import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceMedicoEspecialidadTest {
+
+    @Mock
+    private MedicoEspecialidadRepository medicoEspecialidadRepository;
+
+    @InjectMocks
+    private IndiceMedicoEspecialidad indice;
+
+    private List<MedicoEspecialidad> relaciones() {
+        return List.of(
+                new MedicoEspecialidad(1L, 1L, 1L, null),
+                new MedicoEspecialidad(2L, 1L, 9L, null),
+                new MedicoEspecialidad(3L, 4L, 9L, null)
+        );
+    }
+
+    @Test
+    void testCargaPerezosaAmbosSentidos() {
+        // ARRANGE
+        when(medicoEspecialidadRepository.findAll()).thenReturn(relaciones());
+
+        // ACT & ASSERT
+        assertEquals(List.of(1L, 9L), indice.especialidadesDe(1L));
+        assertEquals(List.of(1L, 4L), indice.medicosDe(9L));
+        assertTrue(indice.tieneEspecialidad(4L, 9L));
+        assertFalse(indice.tieneEspecialidad(4L, 1L));
+        assertTrue(indice.especialidadesDe(99L).isEmpty());
+        assertEquals(3, indice.tamanio());
+
+        verify(medicoEspecialidadRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testAgregarYQuitar() {
+        // ARRANGE
+        when(medicoEspecialidadRepository.findAll()).thenReturn(relaciones());
+        indice.recargar();
+
+        // ACT
+        indice.agregar(4L, 1L);
+        indice.quitar(1L, 9L);
+
+        // ASSERT
+        assertEquals(List.of(1L, 4L), indice.medicosDe(1L));
+        assertEquals(List.of(4L), indice.medicosDe(9L));
+        assertEquals(List.of(1L), indice.especialidadesDe(1L));
+    }
+
+    @Test
+    void testQuitarMedico() {
+        // ARRANGE
+        when(medicoEspecialidadRepository.findAll()).thenReturn(relaciones());
+        indice.recargar();
+
+        // ACT
+        indice.quitarMedico(1L);
+
+        // ASSERT
+        assertTrue(indice.especialidadesDe(1L).isEmpty());
+        assertTrue(indice.medicosDe(1L).isEmpty());
+        assertEquals(List.of(4L), indice.medicosDe(9L));
+    }
+
+    @Test
+    void testCambiosAntesDeCargarNoSeAplican() {
+        // ARRANGE
+        indice.agregar(5L, 2L);
+        when(medicoEspecialidadRepository.findAll()).thenReturn(Collections.emptyList());
+
+        // ACT & ASSERT (la carga lee la BD, que ya es la fuente de verdad)
+        assertFalse(indice.tieneEspecialidad(5L, 2L));
+        verify(medicoEspecialidadRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testRecargarNoExponeUnIndiceAMedioLlenar() throws Exception {
+        // ARRANGE
+        when(medicoEspecialidadRepository.findAll()).thenReturn(relaciones());
+        indice.recargar();
+        AtomicBoolean recargando = new AtomicBoolean(true);
+        AtomicInteger lecturasIncompletas = new AtomicInteger();
+        Thread lector = new Thread(() -> {
+            while (recargando.get()) {
+                if (!indice.tieneEspecialidad(1L, 9L) || indice.medicosDe(9L).size() != 2) {
+                    lecturasIncompletas.incrementAndGet();
+                }
+            }
+        });
+
+        // ACT
+        lector.start();
+        for (int i = 0; i < 2000; i++) {
+            indice.recargar();
+        }
+        recargando.set(false);
+        lector.join();
+
+        // ASSERT
+        assertEquals(0, lecturasIncompletas.get());
+    }
+}
@@ -0,0 +1,157 @@
+package com.api.gestioncitasmedicas.index;
+
+import com.api.gestioncitasmedicas.repository.CitaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndiceOcupacionTest {
+
+    @Mock
+    private CitaRepository citaRepository;
+
+    private final AtomicLong reloj = new AtomicLong();
+
+    private IndiceOcupacion indiceOcupacion;
+
+    private final LocalDate fecha = LocalDate.of(2030, 1, 7); // Lunes
+
+    @BeforeEach
+    void setUp() {
+        PropiedadesIndiceOcupacion propiedades = new PropiedadesIndiceOcupacion();
+        propiedades.setTtl(Duration.ofMinutes(5));
+        indiceOcupacion = new IndiceOcupacion(citaRepository, propiedades, reloj::get);
+    }
+
+    @Test
+    void testCargaPerezosaUnaSolaConsulta() {
+        // ARRANGE
+        when(citaRepository.findHorasOcupadas(1L, fecha))
+                .thenReturn(Arrays.asList(LocalTime.of(8, 0), LocalTime.of(16, 0)));
+
+        // ACT & ASSERT
+        assertTrue(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(8, 0)));
+        assertFalse(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(9, 0)));
+        assertTrue(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(16, 0)));
+        assertEquals(0b1000_0001, indiceOcupacion.mascara(1L, fecha));
+
+        verify(citaRepository, times(1)).findHorasOcupadas(1L, fecha);
+    }
+
+    @Test
+    void testOcuparYLiberar() {
+        // ARRANGE
+        when(citaRepository.findHorasOcupadas(1L, fecha)).thenReturn(Collections.emptyList());
+        assertFalse(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(10, 0)));
+
+        // ACT & ASSERT
+        indiceOcupacion.ocupar(1L, fecha, LocalTime.of(10, 0));
+        assertTrue(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(10, 0)));
+
+        indiceOcupacion.liberar(1L, fecha, LocalTime.of(10, 0));
+        assertFalse(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(10, 0)));
+
+        verify(citaRepository, times(1)).findHorasOcupadas(1L, fecha);
+    }
+
+    @Test
+    void testOcuparDiaNoCargadoNoConsultaBD() {
+        // ACT
+        indiceOcupacion.ocupar(2L, fecha, LocalTime.of(8, 0));
+
+        // ASSERT
+        assertEquals(0, indiceOcupacion.diasCargados());
+        verifyNoInteractions(citaRepository);
+    }
+
+    @Test
+    void testMedicosYFechasIndependientes() {
+        // ARRANGE
+        when(citaRepository.findHorasOcupadas(anyLong(), any(LocalDate.class))).thenReturn(Collections.emptyList());
+
+        // ACT
+        indiceOcupacion.mascara(1L, fecha);
+        indiceOcupacion.mascara(2L, fecha);
+        indiceOcupacion.mascara(1L, fecha.plusDays(1));
+        indiceOcupacion.ocupar(1L, fecha, LocalTime.of(8, 0));
+
+        // ASSERT
+        assertTrue(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(8, 0)));
+        assertFalse(indiceOcupacion.estaOcupado(2L, fecha, LocalTime.of(8, 0)));
+        assertFalse(indiceOcupacion.estaOcupado(1L, fecha.plusDays(1), LocalTime.of(8, 0)));
+        assertEquals(3, indiceOcupacion.diasCargados());
+    }
+
+    @Test
+    void testHorarioInvalido() {
+        // ACT & ASSERT
+        assertFalse(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(12, 0)));
+        assertEquals(-1, IndiceOcupacion.posicion(LocalTime.of(12, 0)));
+        verifyNoInteractions(citaRepository);
+    }
+
+    @Test
+    void testDiaVenceYSeReleeDeLaBD() {
+        // ARRANGE: otra instancia cancela la cita de las 08:00 después de la primera lectura
+        when(citaRepository.findHorasOcupadas(1L, fecha))
+                .thenReturn(List.of(LocalTime.of(8, 0)))
+                .thenReturn(Collections.emptyList());
+        assertTrue(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(8, 0)));
+
+        // ACT & ASSERT: antes del TTL sigue la copia en memoria (aunque esta instancia la modifique)
+        reloj.addAndGet(Duration.ofMinutes(4).toNanos());
+        indiceOcupacion.ocupar(1L, fecha, LocalTime.of(9, 0));
+        assertTrue(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(8, 0)));
+
+        // Al vencer se vuelve a leer (ocupar no renovó la vigencia)
+        reloj.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertFalse(indiceOcupacion.estaOcupado(1L, fecha, LocalTime.of(8, 0)));
+        verify(citaRepository, times(2)).findHorasOcupadas(1L, fecha);
+    }
+
+    @Test
+    void testDiasPasadosNoSeGuardan() {
+        // ARRANGE
+        LocalDate ayer = LocalDate.now().minusDays(1);
+        when(citaRepository.findHorasOcupadas(1L, ayer)).thenReturn(List.of(LocalTime.of(8, 0)));
+
+        // ACT
+        assertTrue(indiceOcupacion.estaOcupado(1L, ayer, LocalTime.of(8, 0)));
+
+        // ASSERT
+        assertEquals(0, indiceOcupacion.diasCargados());
+    }
+
+    @Test
+    void testLimpiarRelee() {
+        // ARRANGE
+        when(citaRepository.findHorasOcupadas(1L, fecha)).thenReturn(Collections.emptyList());
+        indiceOcupacion.mascara(1L, fecha);
+        indiceOcupacion.mascara(1L, fecha);
+
+        // ACT
+        indiceOcupacion.limpiar();
+        indiceOcupacion.mascara(1L, fecha);
+
+        // ASSERT
+        verify(citaRepository, times(2)).findHorasOcupadas(1L, fecha);
+        assertEquals(1L, indiceOcupacion.estadisticas().getAciertos());
+        assertEquals(2L, indiceOcupacion.estadisticas().getFallos());
+        assertEquals(1L, indiceOcupacion.estadisticas().getRecargas());
+    }
+}
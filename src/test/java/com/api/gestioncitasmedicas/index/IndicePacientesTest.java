@@ -0,0 +1,136 @@
+package com.api.gestioncitasmedicas.index;
+
+import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import com.api.gestioncitasmedicas.repository.projection.DatosBusquedaPaciente;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndicePacientesTest {
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @InjectMocks
+    private IndicePacientes indicePacientes;
+
+    private static final LocalDate FECHA = LocalDate.of(1985, 3, 15);
+
+    @Test
+    void testCargaPorBloques() {
+        // ARRANGE: un bloque lleno obliga a pedir el siguiente a partir del último ID
+        List<DatosBusquedaPaciente> primero = new ArrayList<>();
+        for (long id = 1; id <= IndicePacientes.TAMANIO_BLOQUE; id++) {
+            primero.add(nombre(id, "Paciente", "Número"));
+        }
+        when(pacienteRepository.findDatosBusquedaDespuesDe(eq(0L), any(Pageable.class))).thenReturn(primero);
+        when(pacienteRepository.findDatosBusquedaDespuesDe(eq((long) IndicePacientes.TAMANIO_BLOQUE), any(Pageable.class)))
+                .thenReturn(List.of(nombre(20_000L, "María", "Hernández")));
+
+        // ACT & ASSERT
+        assertEquals(List.of(20_000L), indicePacientes.buscar("hernandez"));
+        assertEquals(IndicePacientes.TAMANIO_BLOQUE + 1, indicePacientes.tamanio());
+        verify(pacienteRepository, times(2)).findDatosBusquedaDespuesDe(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void testMantenimientoSinTransaccion() {
+        // ARRANGE
+        when(pacienteRepository.findDatosBusquedaDespuesDe(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(nombre(1L, "Juan", "Pérez")));
+        indicePacientes.recargar();
+
+        // ACT
+        indicePacientes.agregar(paciente(2L, "Juana", "López"));
+        indicePacientes.agregar(paciente(1L, "Juan", "Gómez"));
+        indicePacientes.quitar(2L);
+
+        // ASSERT
+        assertEquals(List.of(1L), indicePacientes.buscar("juan"));
+        assertTrue(indicePacientes.buscar("perez").isEmpty());
+    }
+
+    @Test
+    void testCargarNuevosSoloLeeIdsMayores() {
+        // ARRANGE
+        when(pacienteRepository.findDatosBusquedaDespuesDe(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(nombre(5L, "Juan", "Pérez")));
+        when(pacienteRepository.findDatosBusquedaDespuesDe(eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(nombre(6L, "Ana", "Pérez")));
+        indicePacientes.recargar();
+
+        // ACT
+        indicePacientes.cargarNuevos();
+
+        // ASSERT
+        assertEquals(List.of(6L, 5L), indicePacientes.buscar("perez")); // "ana perez" es más corto
+    }
+
+    @Test
+    void testBuscarDuplicados() {
+        // ARRANGE
+        when(pacienteRepository.findDatosBusquedaDespuesDe(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(nombre(1L, "Juan", "Pérez"), nombre(2L, "Ana", "Pérez")));
+
+        // ACT
+        List<IndicePacientes.Candidato> candidatos =
+                indicePacientes.buscarDuplicados("Juan", "Peres", FECHA, "70001234", 0.75);
+
+        // ASSERT
+        assertEquals(1, candidatos.size());
+        assertEquals(1L, candidatos.get(0).idPaciente());
+    }
+
+    private static Paciente paciente(Long id, String nombre, String apellido) {
+        Paciente paciente = new Paciente();
+        paciente.setIdPaciente(id);
+        paciente.setNombrePaciente(nombre);
+        paciente.setApellidoPaciente(apellido);
+        paciente.setFechaNacimiento(FECHA);
+        paciente.setTelefonoPaciente("70001234");
+        return paciente;
+    }
+
+    private static DatosBusquedaPaciente nombre(Long id, String nombre, String apellido) {
+        return new DatosBusquedaPaciente() {
+            @Override
+            public Long getIdPaciente() {
+                return id;
+            }
+
+            @Override
+            public String getNombrePaciente() {
+                return nombre;
+            }
+
+            @Override
+            public String getApellidoPaciente() {
+                return apellido;
+            }
+
+            @Override
+            public LocalDate getFechaNacimiento() {
+                return FECHA;
+            }
+
+            @Override
+            public String getTelefonoPaciente() {
+                return "70001234";
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.api.gestioncitasmedicas.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceTrigramasTest {
+
+    private IndiceTrigramas indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceTrigramas();
+        indice.agregar(1, "Juan Pérez");
+        indice.agregar(2, "María Hernández");
+        indice.agregar(3, "Juana Núñez");
+        indice.agregar(4, "Ana Benjuanes");
+    }
+
+    @Test
+    void testNormalizar() {
+        assertEquals("maria jose nunez", TextoBusqueda.normalizar("  María-José  NÚÑEZ "));
+        assertEquals("", TextoBusqueda.normalizar(null));
+    }
+
+    @Test
+    void testSubcadenaSinTildesNiMayusculas() {
+        assertArrayEquals(new int[]{2}, indice.buscar("HERNANDEZ"));
+        assertArrayEquals(new int[]{2}, indice.buscar("nánd"));
+        assertArrayEquals(new int[]{3}, indice.buscar("nunez"));
+        assertEquals(0, indice.buscar("xyz").length);
+        assertEquals(0, indice.buscar("  ").length);
+    }
+
+    @Test
+    void testRankingPalabraPrefijoSubcadena() {
+        // "juan" es palabra completa en 1, prefijo en 3 y subcadena en 4
+        assertArrayEquals(new int[]{1, 3, 4}, indice.buscar("juan"));
+    }
+
+    @Test
+    void testTodasLasPalabrasDelTermino() {
+        assertArrayEquals(new int[]{1}, indice.buscar("juan perez"));
+        assertArrayEquals(new int[]{3}, indice.buscar("nunez juana"));
+        assertEquals(0, indice.buscar("juan hernandez").length);
+    }
+
+    @Test
+    void testTerminoCortoRevisaTodos() {
+        // Sin trigramas que consultar se verifica contra todos los textos
+        assertArrayEquals(new int[]{4, 1, 3, 2}, indice.buscar("an"));
+    }
+
+    @Test
+    void testActualizarYQuitar() {
+        indice.agregar(1, "Juan Gómez");
+        assertEquals(0, indice.buscar("perez").length);
+        assertArrayEquals(new int[]{1}, indice.buscar("gomez"));
+
+        indice.quitar(1);
+        indice.quitar(99);
+        assertArrayEquals(new int[]{3, 4}, indice.buscar("juan"));
+        assertEquals(3, indice.tamanio());
+    }
+}
@@ -0,0 +1,130 @@
+package com.api.gestioncitasmedicas.metricas;
+
+import com.api.gestioncitasmedicas.dto.InformeConsultasDTO;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sentencias reales contra H2 a través del DataSource envuelto por datasource-proxy
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class InspectorConsultasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InspectorConsultas inspectorConsultas;
+
+    @Autowired
+    private PropiedadesInspeccion propiedades;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    private long umbralLentaMs;
+
+    @BeforeEach
+    void setUp() {
+        umbralLentaMs = propiedades.getUmbralLentaMs();
+        inspectorConsultas.limpiar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        propiedades.setUmbralLentaMs(umbralLentaMs);
+        inspectorConsultas.limpiar();
+    }
+
+    @Test
+    void testAtribuyeLasSentenciasAlMetodoDelServicio() throws Exception {
+        // ACT
+        mockMvc.perform(get("/api/especialidades")).andExpect(status().isOk());
+
+        // ASSERT
+        InformeConsultasDTO informe = inspectorConsultas.informe();
+        assertTrue(informe.getOrigenes().stream()
+                .anyMatch(o -> o.getOrigen().equals("EspecialidadService.obtenerTodas") && o.getSentencias() >= 1),
+                informe.getOrigenes().toString());
+        inspectorConsultas.verificarSinNMasUno();
+    }
+
+    @Test
+    void testRegistraLasConsultasLentasConSusParametros() throws Exception {
+        // ARRANGE - Con umbral 0 toda sentencia cuenta como lenta
+        propiedades.setUmbralLentaMs(0);
+
+        // ACT
+        mockMvc.perform(get("/api/citas/987654")).andExpect(status().isNotFound());
+
+        // ASSERT
+        InformeConsultasDTO.ConsultaLentaDTO lenta = inspectorConsultas.informe().getLentas().get(0);
+        assertEquals("CitaService.obtenerPorId", lenta.getOrigen());
+        assertTrue(lenta.getSql().contains("?"));
+        assertEquals("[987654]", lenta.getParametros());
+    }
+
+    @Test
+    void testDetectaLaMismaSentenciaRepetidaEnUnaPeticion() {
+        // ARRANGE
+        inspectorConsultas.iniciar();
+
+        // ACT - Un findById por ID dentro de un ciclo: la forma clásica de un N+1
+        for (long id = 1; id <= propiedades.getUmbralRepeticiones(); id++) {
+            pacienteRepository.findById(id);
+        }
+        InspectorConsultas.Resumen resumen = inspectorConsultas.terminar("prueba");
+
+        // ASSERT
+        assertEquals(propiedades.getUmbralRepeticiones(), resumen.sentencias());
+        InformeConsultasDTO.SospechaNMasUnoDTO sospecha = inspectorConsultas.informe().getSospechasNMasUno().get(0);
+        assertEquals("prueba", sospecha.getUri());
+        assertEquals(propiedades.getUmbralRepeticiones(), sospecha.getRepeticiones());
+        assertEquals("InspectorConsultasTest.testDetectaLaMismaSentenciaRepetidaEnUnaPeticion", sospecha.getOrigen());
+        assertThrows(IllegalStateException.class, () -> inspectorConsultas.verificarSinNMasUno());
+    }
+
+    @Test
+    void testNoMarcaSentenciasDistintasNiPeticionesSinIniciar() {
+        // ACT - Sin iniciar() no hay petición que revisar
+        for (long id = 1; id <= propiedades.getUmbralRepeticiones(); id++) {
+            pacienteRepository.findById(id);
+        }
+
+        // ASSERT
+        assertEquals(new InspectorConsultas.Resumen(0, 0), inspectorConsultas.terminar("prueba"));
+        assertTrue(inspectorConsultas.informe().getSospechasNMasUno().isEmpty());
+    }
+
+    @Test
+    void testFormaIgnoraLiteralesYLargoDeListas() {
+        assertEquals(InspectorConsultas.forma("select * from cita where id_cita = 5 and motivo = 'a''b'"),
+                InspectorConsultas.forma("select *  from cita where id_cita = 77 and motivo = 'x'"));
+        assertEquals(InspectorConsultas.forma("select * from paciente where id in (?, ?, ?)"),
+                InspectorConsultas.forma("select * from paciente where id in (?)"));
+        assertNotEquals(InspectorConsultas.forma("select * from paciente where id = ?"),
+                InspectorConsultas.forma("select * from medico where id = ?"));
+    }
+
+    @Test
+    void testEndpointDeMantenimiento() throws Exception {
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/mantenimiento/consultas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.umbralRepeticiones").value(propiedades.getUmbralRepeticiones()))
+                .andExpect(jsonPath("$.lentas").isArray())
+                .andExpect(jsonPath("$.sospechasNMasUno").isArray());
+    }
+}
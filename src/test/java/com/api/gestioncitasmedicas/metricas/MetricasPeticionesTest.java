@@ -0,0 +1,56 @@
+package com.api.gestioncitasmedicas.metricas;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Hace peticiones reales (MockMvc) y revisa lo que publica /actuator/prometheus
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricasPeticionesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testPublicaLatenciaSentenciasYErroresPorEndpoint() throws Exception {
+        // ARRANGE
+        mockMvc.perform(get("/api/especialidades")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/citas/999999")).andExpect(status().isNotFound());
+
+        // ACT
+        String metricas = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // ASSERT - Latencia con percentiles por patrón de ruta
+        String latencia = linea(metricas, "http_server_requests_seconds{", "uri=\"/api/especialidades\"");
+        assertTrue(metricas.contains("quantile=\"0.5\"") && metricas.contains("quantile=\"0.999\""), latencia);
+        assertTrue(metricas.contains("http_server_requests_seconds_count{") && metricas.contains("uri=\"/api/citas/{id}\""));
+
+        // Sentencias SQL: GET /api/especialidades hace al menos una consulta
+        String sentencias = linea(metricas, "http_server_requests_sql_statements_sum{", "uri=\"/api/especialidades\"");
+        assertTrue(Double.parseDouble(sentencias.substring(sentencias.lastIndexOf(' ') + 1)) >= 1, sentencias);
+
+        // Errores por tipo de excepción y código
+        String errores = linea(metricas, "http_server_requests_errors_total{", "uri=\"/api/citas/{id}\"");
+        assertTrue(errores.contains("code=\"CITA_NO_ENCONTRADA\""), errores);
+        assertTrue(errores.contains("exception=\"NoEncontradoException\""), errores);
+        assertTrue(errores.contains("status=\"404\""), errores);
+    }
+
+    private static String linea(String metricas, String prefijo, String contiene) {
+        return metricas.lines()
+                .filter(l -> l.startsWith(prefijo) && l.contains(contiene))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No se encontró " + prefijo + " con " + contiene));
+    }
+}
@@ -0,0 +1,99 @@
+package com.api.gestioncitasmedicas.repository;
+
+import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.entity.Medico;
+import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.service.CitaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Pruebas contra H2 del INSERT por lotes con JDBC
+@DataJpaTest
+@Import(CitaJdbcRepository.class)
+class CitaJdbcRepositoryTest {
+
+    @Autowired
+    private CitaJdbcRepository citaJdbcRepository;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private EspecialidadRepository especialidadRepository;
+
+    private CrearCitaDTO[] prepararDatos(int cantidad) {
+        Paciente paciente = new Paciente();
+        paciente.setNombrePaciente("Juan");
+        paciente.setApellidoPaciente("Pérez");
+        paciente.setFechaNacimiento(LocalDate.of(1990, 5, 15));
+        paciente.setTelefonoPaciente("70001234");
+        paciente.setCorreoPaciente("juan.perez@email.com");
+        paciente = pacienteRepository.save(paciente);
+
+        Medico medico = new Medico();
+        medico.setNombreMedico("Carlos");
+        medico.setApellidoMedico("Rodríguez");
+        medico.setTelefonoMedico("77001234");
+        medico.setCorreoMedico("carlos.rodriguez@hospital.com");
+        medico = medicoRepository.save(medico);
+
+        Especialidad especialidad = new Especialidad();
+        especialidad.setNombreEspecialidad("Pediatría");
+        especialidad = especialidadRepository.save(especialidad);
+
+        CrearCitaDTO[] citas = new CrearCitaDTO[cantidad];
+        LocalDate fecha = LocalDate.of(2030, 1, 7);
+        for (int i = 0; i < cantidad; i++) {
+            citas[i] = new CrearCitaDTO(paciente.getIdPaciente(), medico.getIdMedico(), especialidad.getIdEspecialidad(),
+                    fecha.plusDays(i / 8), CitaService.HORARIOS_VALIDOS.get(i % 8), "Chequeo escolar " + i);
+        }
+        return citas;
+    }
+
+    @Test
+    void testInsertarPendientes_DevuelveIdsEnOrden() {
+        // ARRANGE: más filas que un batch para cubrir varios executeBatch
+        CrearCitaDTO[] citas = prepararDatos(1203);
+
+        // ACT
+        List<Long> ids = citaJdbcRepository.insertarPendientes(List.of(citas));
+
+        // ASSERT
+        assertEquals(1203, ids.size());
+        assertEquals(1203, citaRepository.count());
+        Cita primera = citaRepository.findById(ids.get(0)).orElseThrow();
+        Cita ultima = citaRepository.findById(ids.get(1202)).orElseThrow();
+        assertEquals("Chequeo escolar 0", primera.getMotivoCita());
+        assertEquals("Chequeo escolar 1202", ultima.getMotivoCita());
+        assertEquals(Cita.EstadoCita.PENDIENTE, ultima.getEstadoCita());
+        assertTrue(ultima.getSlotActivo());
+        assertNotNull(ultima.getCreatedAt());
+    }
+
+    @Test
+    void testInsertarPendientes_RespetaLaLlaveUnica() {
+        // ARRANGE
+        CrearCitaDTO[] citas = prepararDatos(1);
+        List<CrearCitaDTO> duplicadas = new ArrayList<>(List.of(citas[0], citas[0]));
+
+        // ACT & ASSERT
+        assertThrows(DataIntegrityViolationException.class, () -> citaJdbcRepository.insertarPendientes(duplicadas));
+    }
+}
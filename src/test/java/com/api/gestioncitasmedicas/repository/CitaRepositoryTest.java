@@ -0,0 +1,208 @@
+package com.api.gestioncitasmedicas.repository;
+
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.entity.Medico;
+import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.repository.projection.CitaResumen;
+import com.api.gestioncitasmedicas.repository.projection.ConteoPorId;
+import com.api.gestioncitasmedicas.repository.projection.DatosReserva;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Pruebas contra H2 de la llave única que impide la doble reserva, de la paginación keyset,
+// de los conteos agrupados y de la consulta de datos de una reserva
+@DataJpaTest
+class CitaRepositoryTest {
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Autowired
+    private MedicoRepository medicoRepository;
+
+    @Autowired
+    private EspecialidadRepository especialidadRepository;
+
+    private Paciente paciente;
+    private Medico medico;
+    private Especialidad especialidad;
+    private final LocalDate fecha = LocalDate.of(2030, 1, 7);
+    private final LocalTime hora = LocalTime.of(9, 0);
+
+    @BeforeEach
+    void setUp() {
+        paciente = new Paciente();
+        paciente.setNombrePaciente("Juan");
+        paciente.setApellidoPaciente("Pérez");
+        paciente.setFechaNacimiento(LocalDate.of(1990, 5, 15));
+        paciente.setTelefonoPaciente("70001234");
+        paciente.setCorreoPaciente("juan.perez@email.com");
+        paciente = pacienteRepository.save(paciente);
+
+        medico = new Medico();
+        medico.setNombreMedico("Carlos");
+        medico.setApellidoMedico("Rodríguez");
+        medico.setTelefonoMedico("77001234");
+        medico.setCorreoMedico("carlos.rodriguez@hospital.com");
+        medico = medicoRepository.save(medico);
+
+        especialidad = new Especialidad();
+        especialidad.setNombreEspecialidad("Cardiología");
+        especialidad = especialidadRepository.save(especialidad);
+    }
+
+    private Cita nuevaCita(Cita.EstadoCita estado) {
+        Cita cita = new Cita();
+        cita.setPaciente(paciente);
+        cita.setMedico(medico);
+        cita.setEspecialidad(especialidad);
+        cita.setFechaCita(fecha);
+        cita.setHoraCita(hora);
+        cita.setMotivoCita("Consulta");
+        cita.setEstadoCita(estado);
+        return cita;
+    }
+
+    @Test
+    void testDobleReservaRechazadaPorLaBD() {
+        citaRepository.saveAndFlush(nuevaCita(Cita.EstadoCita.PENDIENTE));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                citaRepository.saveAndFlush(nuevaCita(Cita.EstadoCita.PENDIENTE)));
+    }
+
+    @Test
+    void testCitaCanceladaLiberaElHorario() {
+        Cita cancelada = citaRepository.saveAndFlush(nuevaCita(Cita.EstadoCita.PENDIENTE));
+        cancelada.setEstadoCita(Cita.EstadoCita.CANCELADA);
+        citaRepository.saveAndFlush(cancelada);
+
+        Cita nueva = citaRepository.saveAndFlush(nuevaCita(Cita.EstadoCita.PENDIENTE));
+
+        assertNull(citaRepository.findById(cancelada.getIdCita()).orElseThrow().getSlotActivo());
+        assertTrue(nueva.getSlotActivo());
+        assertEquals(1, citaRepository.findHorasOcupadas(medico.getIdMedico(), fecha).size());
+    }
+
+    @Test
+    void testVariasCitasCanceladasEnElMismoHorario() {
+        citaRepository.saveAndFlush(nuevaCita(Cita.EstadoCita.CANCELADA));
+        citaRepository.saveAndFlush(nuevaCita(Cita.EstadoCita.CANCELADA));
+
+        assertEquals(2, citaRepository.count());
+        assertTrue(citaRepository.findHorasOcupadas(medico.getIdMedico(), fecha).isEmpty());
+    }
+
+    @Test
+    void testPaginacionKeysetRecorreTodasLasCitasSinRepetir() {
+        for (int dia = 0; dia < 3; dia++) {
+            for (LocalTime horaCita : List.of(LocalTime.of(8, 0), LocalTime.of(9, 0), LocalTime.of(10, 0))) {
+                Cita cita = nuevaCita(Cita.EstadoCita.PENDIENTE);
+                cita.setFechaCita(fecha.plusDays(dia));
+                cita.setHoraCita(horaCita);
+                citaRepository.save(cita);
+            }
+        }
+        citaRepository.flush();
+
+        List<Long> recorridas = new ArrayList<>();
+        CursorCita cursor = null;
+        List<CitaResumen> pagina;
+        do {
+            pagina = citaRepository.buscarPagina(medico.getIdMedico(), null, null, null, null, cursor, 4);
+            pagina.forEach(c -> recorridas.add(c.idCita()));
+            if (!pagina.isEmpty()) {
+                CitaResumen ultima = pagina.get(pagina.size() - 1);
+                cursor = new CursorCita(ultima.fechaCita(), ultima.horaCita(), ultima.idCita());
+            }
+        } while (pagina.size() == 4);
+
+        assertEquals(9, recorridas.size());
+        assertEquals(9, recorridas.stream().distinct().count());
+    }
+
+    @Test
+    void testBuscarPaginaCombinaFiltros() {
+        Cita dentro = citaRepository.save(nuevaCita(Cita.EstadoCita.PENDIENTE));
+        Cita cancelada = nuevaCita(Cita.EstadoCita.CANCELADA);
+        cancelada.setHoraCita(LocalTime.of(10, 0));
+        citaRepository.save(cancelada);
+        Cita fuera = nuevaCita(Cita.EstadoCita.PENDIENTE);
+        fuera.setFechaCita(fecha.plusDays(10));
+        citaRepository.saveAndFlush(fuera);
+
+        List<CitaResumen> resultado = citaRepository.buscarPagina(medico.getIdMedico(), paciente.getIdPaciente(),
+                Cita.EstadoCita.PENDIENTE, fecha, fecha.plusDays(1), null, 10);
+
+        assertEquals(1, resultado.size());
+        assertEquals(dentro.getIdCita(), resultado.get(0).idCita());
+        assertEquals("Pérez", resultado.get(0).apellidoPaciente());
+        assertEquals("Cardiología", resultado.get(0).nombreEspecialidad());
+    }
+
+    @Test
+    void testStreamResumenRecorreElRangoEnOrden() {
+        for (int dia = 2; dia >= 0; dia--) {
+            Cita cita = nuevaCita(Cita.EstadoCita.PENDIENTE);
+            cita.setFechaCita(fecha.plusDays(dia));
+            citaRepository.save(cita);
+        }
+        citaRepository.flush();
+
+        try (Stream<CitaResumen> todas = citaRepository.streamResumen(null, null)) {
+            List<LocalDate> fechas = todas.map(CitaResumen::fechaCita).toList();
+            assertEquals(List.of(fecha, fecha.plusDays(1), fecha.plusDays(2)), fechas);
+        }
+        try (Stream<CitaResumen> rango = citaRepository.streamResumen(fecha.plusDays(1), fecha.plusDays(1))) {
+            assertEquals(1, rango.count());
+        }
+    }
+
+    @Test
+    void testContarCitasPorPacienteAgrupa() {
+        for (int dia = 0; dia < 3; dia++) {
+            Cita cita = nuevaCita(Cita.EstadoCita.PENDIENTE);
+            cita.setFechaCita(fecha.plusDays(dia));
+            citaRepository.save(cita);
+        }
+        citaRepository.flush();
+
+        List<ConteoPorId> todos = citaRepository.contarCitasPorPaciente();
+        assertEquals(1, todos.size());
+        assertEquals(paciente.getIdPaciente(), todos.get(0).getId());
+        assertEquals(3L, todos.get(0).getCantidad());
+
+        assertEquals(3L, citaRepository.contarCitasPorPaciente(List.of(paciente.getIdPaciente())).get(0).getCantidad());
+        assertTrue(citaRepository.contarCitasPorPaciente(List.of(-1L)).isEmpty());
+    }
+
+    @Test
+    void testFindDatosReservaDistingueQuienFalta() {
+        DatosReserva datos = citaRepository.findDatosReserva(paciente.getIdPaciente(), medico.getIdMedico()).orElseThrow();
+        assertEquals("Pérez", datos.apellidoPaciente());
+        assertEquals("Carlos", datos.nombreMedico());
+
+        // Médico inexistente: la fila sigue, con el médico en nulo
+        DatosReserva sinMedico = citaRepository.findDatosReserva(paciente.getIdPaciente(), -1L).orElseThrow();
+        assertEquals(paciente.getIdPaciente(), sinMedico.idPaciente());
+        assertNull(sinMedico.idMedico());
+
+        // Paciente inexistente: sin fila
+        assertTrue(citaRepository.findDatosReserva(-1L, medico.getIdMedico()).isEmpty());
+    }
+}
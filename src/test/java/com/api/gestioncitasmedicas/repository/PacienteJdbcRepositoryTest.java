@@ -0,0 +1,41 @@
+package com.api.gestioncitasmedicas.repository;
+
+import com.api.gestioncitasmedicas.dto.CrearPacienteDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Pruebas contra H2 del INSERT por lotes de pacientes y de la consulta de correos existentes
+@DataJpaTest
+@Import(PacienteJdbcRepository.class)
+class PacienteJdbcRepositoryTest {
+
+    @Autowired
+    private PacienteJdbcRepository pacienteJdbcRepository;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Test
+    void testInsertarVariosLotes() {
+        List<CrearPacienteDTO> pacientes = new ArrayList<>();
+        for (int i = 0; i < 1203; i++) {
+            pacientes.add(new CrearPacienteDTO("Paciente", "Número " + i, LocalDate.of(1990, 1, 1),
+                    "70000000", "paciente" + i + "@email.com"));
+        }
+
+        int insertados = pacienteJdbcRepository.insertar(pacientes);
+
+        assertEquals(1203, insertados);
+        assertEquals(1203, pacienteRepository.count());
+        assertEquals(List.of("paciente7@email.com"),
+                pacienteRepository.findCorreosExistentes(List.of("paciente7@email.com", "nadie@email.com")));
+    }
+}
@@ -0,0 +1,130 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.SolicitudInvalidaException;
+import com.api.gestioncitasmedicas.repository.CitaRepository;
+import com.api.gestioncitasmedicas.repository.projection.CitaResumen;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CitaExportServiceTest {
+
+    @Mock
+    private CitaRepository citaRepository;
+
+    private CitaExportService citaExportService;
+    private final AtomicBoolean cerrado = new AtomicBoolean();
+    private final LocalDate desde = LocalDate.of(2025, 10, 1);
+    private final LocalDate hasta = LocalDate.of(2025, 10, 31);
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        citaExportService = new CitaExportService(citaRepository, objectMapper);
+    }
+
+    private CitaResumen resumen(Long id, String motivo) {
+        return new CitaResumen(id, LocalDate.of(2025, 10, 15), LocalTime.of(8, 0), motivo, Cita.EstadoCita.CONFIRMADA,
+                1L, "Juan", "Pérez", 2L, "Carlos", "Rodríguez", 3L, "Cardiología");
+    }
+
+    private Stream<CitaResumen> filas(CitaResumen... citas) {
+        return Stream.of(citas).onClose(() -> cerrado.set(true));
+    }
+
+    @Test
+    void testExportarCsvEscapaCampos() throws Exception {
+        // ARRANGE
+        when(citaRepository.streamResumen(desde, hasta))
+                .thenReturn(filas(resumen(1L, "Chequeo"), resumen(2L, "Dolor, \"fuerte\"\nen el pecho")));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // ACT
+        citaExportService.exportar(CitaExportService.Formato.CSV, desde, hasta, salida);
+
+        // ASSERT
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lineas.length);
+        assertTrue(lineas[0].startsWith("id_cita,fecha_cita,hora_cita"));
+        assertEquals("1,2025-10-15,08:00,CONFIRMADA,Chequeo,1,Juan Pérez,2,Dr. Carlos Rodríguez,3,Cardiología", lineas[1]);
+        assertTrue(lineas[2].contains(",\"Dolor, \"\"fuerte\"\"\nen el pecho\","));
+        assertTrue(cerrado.get());
+    }
+
+    @Test
+    void testExportarNdjsonUnaLineaPorCita() throws Exception {
+        // ARRANGE
+        when(citaRepository.streamResumen(null, null))
+                .thenReturn(filas(resumen(1L, "Chequeo"), resumen(2L, "Control"), resumen(3L, "Seguimiento")));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // ACT
+        citaExportService.exportar(CitaExportService.Formato.NDJSON, null, null, salida);
+
+        // ASSERT
+        String texto = salida.toString(StandardCharsets.UTF_8);
+        String[] lineas = texto.split("\n");
+        assertEquals(3, lineas.length);
+        assertTrue(texto.endsWith("\n"));
+        JsonNode primera = new ObjectMapper().readTree(lineas[0]);
+        assertEquals(1, primera.get("idCita").asInt());
+        assertEquals("2025-10-15", primera.get("fechaCita").asText());
+        assertEquals("Dr. Carlos Rodríguez", primera.get("medico").get("nombreCompleto").asText());
+        assertTrue(cerrado.get());
+    }
+
+    @Test
+    void testExportarSinCitas() throws Exception {
+        // ARRANGE
+        when(citaRepository.streamResumen(desde, hasta)).thenReturn(filas());
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // ACT
+        citaExportService.exportar(CitaExportService.Formato.NDJSON, desde, hasta, salida);
+
+        // ASSERT
+        assertEquals(0, salida.size());
+        assertTrue(cerrado.get());
+    }
+
+    @Test
+    void testFormatoInvalido() {
+        // ACT & ASSERT
+        SolicitudInvalidaException exception = assertThrows(SolicitudInvalidaException.class, () ->
+                CitaExportService.Formato.desde("xlsx"));
+
+        assertTrue(exception.getMessage().contains("Formato de exportación inválido"));
+        assertEquals(CodigoError.PARAMETRO_INVALIDO, exception.getCodigo());
+        assertEquals(CitaExportService.Formato.CSV, CitaExportService.Formato.desde("csv"));
+        assertEquals(CitaExportService.Formato.NDJSON, CitaExportService.Formato.desde(null));
+    }
+
+    @Test
+    void testRangoInvalido() {
+        // ACT & ASSERT
+        SolicitudInvalidaException exception = assertThrows(SolicitudInvalidaException.class, () ->
+                citaExportService.validarRango(hasta, desde));
+
+        assertEquals(CodigoError.PARAMETRO_INVALIDO, exception.getCodigo());
+        verifyNoInteractions(citaRepository);
+    }
+}
@@ -0,0 +1,318 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.dto.ResultadoLoteDTO;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.SolicitudInvalidaException;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
+import com.api.gestioncitasmedicas.index.IndiceOcupacion;
+import com.api.gestioncitasmedicas.repository.*;
+import com.api.gestioncitasmedicas.repository.projection.HorarioOcupado;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CitaLoteServiceTest {
+
+    @Mock
+    private CitaRepository citaRepository;
+
+    @Mock
+    private CitaJdbcRepository citaJdbcRepository;
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @Mock
+    private MedicoRepository medicoRepository;
+
+    @Mock
+    private EspecialidadRepository especialidadRepository;
+
+    @Mock
+    private IndiceMedicoEspecialidad indiceMedicoEspecialidad;
+
+    @Mock
+    private IndiceOcupacion indiceOcupacion;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BloqueosAgenda bloqueosAgenda;
+
+    private CitaLoteService citaLoteService;
+
+    private LocalDate lunes;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        bloqueosAgenda = spy(new BloqueosAgenda());
+        citaLoteService = new CitaLoteService(citaRepository, citaJdbcRepository, pacienteRepository,
+                medicoRepository, especialidadRepository, indiceMedicoEspecialidad, indiceOcupacion,
+                bloqueosAgenda, validator, new TransactionTemplate(transactionManager));
+
+        lunes = LocalDate.now().plusWeeks(1);
+        while (lunes.getDayOfWeek() != DayOfWeek.MONDAY) {
+            lunes = lunes.plusDays(1);
+        }
+    }
+
+    private CrearCitaDTO cita(Long idPaciente, Long idMedico, Long idEspecialidad, LocalDate fecha, LocalTime hora) {
+        return new CrearCitaDTO(idPaciente, idMedico, idEspecialidad, fecha, hora, "Jornada de vacunación");
+    }
+
+    private void existenTodos() {
+        when(pacienteRepository.findIdsExistentes(anyCollection())).thenReturn(List.of(1L, 2L));
+        when(medicoRepository.findIdsExistentes(anyCollection())).thenReturn(List.of(1L));
+        when(especialidadRepository.findIdsExistentes(anyCollection())).thenReturn(List.of(1L));
+        when(indiceMedicoEspecialidad.tieneEspecialidad(1L, 1L)).thenReturn(true);
+    }
+
+    @Test
+    void testCrearLote_Exitoso() {
+        // ARRANGE
+        existenTodos();
+        when(citaRepository.findHorariosOcupados(anyCollection(), eq(lunes), eq(lunes))).thenReturn(List.of());
+        when(citaJdbcRepository.insertarPendientes(anyList())).thenReturn(List.of(10L, 11L));
+
+        List<CrearCitaDTO> lote = List.of(
+                cita(1L, 1L, 1L, lunes, LocalTime.of(8, 0)),
+                cita(2L, 1L, 1L, lunes, LocalTime.of(9, 0))
+        );
+
+        // ACT
+        ResultadoLoteDTO resultado = citaLoteService.crearLote(lote);
+
+        // ASSERT
+        assertEquals(2, resultado.getCreadas());
+        assertEquals(0, resultado.getRechazadas());
+        assertEquals(10L, resultado.getResultados().get(0).getIdCita());
+        assertEquals(11L, resultado.getResultados().get(1).getIdCita());
+        verify(citaJdbcRepository, times(1)).insertarPendientes(anyList());
+        verify(indiceOcupacion, times(1)).ocupar(1L, lunes, LocalTime.of(8, 0));
+        verify(indiceOcupacion, times(1)).ocupar(1L, lunes, LocalTime.of(9, 0));
+    }
+
+    @Test
+    void testCrearLote_UnaConsultaPorTablaYPorTramoDeAgendas() {
+        // ARRANGE: 300 citas repartidas en 38 días (38 agendas del mismo médico = 3 tramos)
+        existenTodos();
+        when(citaRepository.findHorariosOcupados(anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of());
+        when(citaJdbcRepository.insertarPendientes(anyList())).thenAnswer(inv -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < inv.<List<?>>getArgument(0).size(); i++) {
+                ids.add((long) i + 1);
+            }
+            return ids;
+        });
+
+        List<CrearCitaDTO> lote = new ArrayList<>();
+        LocalDate fecha = lunes;
+        while (lote.size() < 300) {
+            if (fecha.getDayOfWeek() != DayOfWeek.SATURDAY && fecha.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                for (LocalTime hora : CitaService.HORARIOS_VALIDOS) {
+                    lote.add(cita(1L, 1L, 1L, fecha, hora));
+                }
+            }
+            fecha = fecha.plusDays(1);
+        }
+        lote = lote.subList(0, 300);
+
+        // ACT
+        ResultadoLoteDTO resultado = citaLoteService.crearLote(lote);
+
+        // ASSERT
+        assertEquals(300, resultado.getCreadas());
+        verify(pacienteRepository, times(1)).findIdsExistentes(anyCollection());
+        verify(medicoRepository, times(1)).findIdsExistentes(anyCollection());
+        verify(especialidadRepository, times(1)).findIdsExistentes(anyCollection());
+        verify(indiceMedicoEspecialidad, atLeastOnce()).tieneEspecialidad(1L, 1L);
+        verify(citaRepository, times(3)).findHorariosOcupados(anyCollection(), any(LocalDate.class), any(LocalDate.class));
+        verify(citaJdbcRepository, times(3)).insertarPendientes(anyList());
+
+        // Ningún tramo retiene más agendas que el máximo
+        ArgumentCaptor<Collection<BloqueosAgenda.Agenda>> tramos = ArgumentCaptor.captor();
+        verify(bloqueosAgenda, times(3)).ejecutarVarios(tramos.capture(), any());
+        assertTrue(tramos.getAllValues().stream().allMatch(tramo -> tramo.size() <= CitaLoteService.AGENDAS_POR_TRAMO));
+        assertEquals(38, tramos.getAllValues().stream().mapToInt(Collection::size).sum());
+    }
+
+    @Test
+    void testCrearLote_ErroresPorElemento() {
+        // ARRANGE
+        existenTodos();
+        HorarioOcupado ocupado = mock(HorarioOcupado.class);
+        when(ocupado.getIdMedico()).thenReturn(1L);
+        when(ocupado.getFechaCita()).thenReturn(lunes);
+        when(ocupado.getHoraCita()).thenReturn(LocalTime.of(8, 0));
+        when(citaRepository.findHorariosOcupados(anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(ocupado));
+        when(citaJdbcRepository.insertarPendientes(anyList())).thenReturn(List.of(20L));
+
+        List<CrearCitaDTO> lote = new ArrayList<>();
+        lote.add(cita(1L, 1L, 1L, lunes, LocalTime.of(8, 0)));              // 0: horario ya ocupado en BD
+        lote.add(cita(1L, 1L, 1L, lunes, LocalTime.of(10, 0)));             // 1: válida
+        lote.add(cita(2L, 1L, 1L, lunes, LocalTime.of(10, 0)));             // 2: choca con el elemento 1
+        lote.add(cita(1L, 1L, 1L, lunes.plusDays(5), LocalTime.of(9, 0)));  // 3: sábado
+        lote.add(cita(1L, 1L, 1L, lunes, LocalTime.of(12, 0)));             // 4: hora de almuerzo
+        lote.add(cita(99L, 1L, 1L, lunes, LocalTime.of(11, 0)));            // 5: paciente inexistente
+        lote.add(cita(1L, 1L, 2L, lunes, LocalTime.of(11, 0)));             // 6: especialidad inexistente
+        lote.add(cita(null, 1L, 1L, lunes, LocalTime.of(11, 0)));           // 7: falta el paciente
+        lote.add(null);                                                     // 8: vacío
+
+        // ACT
+        ResultadoLoteDTO resultado = citaLoteService.crearLote(lote);
+
+        // ASSERT
+        List<ResultadoLoteDTO.ItemDTO> items = resultado.getResultados();
+        assertEquals(9, resultado.getTotal());
+        assertEquals(1, resultado.getCreadas());
+        assertEquals(8, resultado.getRechazadas());
+        assertTrue(items.get(0).getError().contains("ya tiene una cita agendada"));
+        assertTrue(items.get(1).getCreada());
+        assertEquals(20L, items.get(1).getIdCita());
+        assertTrue(items.get(2).getError().contains("elemento 1"));
+        assertTrue(items.get(3).getError().contains("fines de semana"));
+        assertTrue(items.get(4).getError().contains("Horario no válido"));
+        assertTrue(items.get(4).getError().contains("almuerzo"));
+        assertTrue(items.get(5).getError().contains("Paciente no encontrado"));
+        assertTrue(items.get(6).getError().contains("Especialidad no encontrada"));
+        assertTrue(items.get(7).getError().contains("paciente es obligatorio"));
+        assertNotNull(items.get(8).getError());
+        assertEquals("HORARIO_OCUPADO", items.get(0).getCodigo());
+        assertNull(items.get(1).getCodigo());
+        assertEquals("HORARIO_OCUPADO", items.get(2).getCodigo());
+        assertEquals("DIA_NO_HABIL", items.get(3).getCodigo());
+        assertEquals("HORARIO_INVALIDO", items.get(4).getCodigo());
+        assertEquals("PACIENTE_NO_ENCONTRADO", items.get(5).getCodigo());
+        assertEquals("ESPECIALIDAD_NO_ENCONTRADA", items.get(6).getCodigo());
+        assertEquals("PARAMETRO_INVALIDO", items.get(7).getCodigo());
+        assertEquals("PARAMETRO_INVALIDO", items.get(8).getCodigo());
+    }
+
+    @Test
+    void testCrearLote_HorarioTomadoDespuesDeLaConsultaDeRango() {
+        // ARRANGE: "tabla" de horarios ocupados; otra instancia de la API reserva el lunes a las 08:00
+        // justo después de la consulta de rango, así que la llave única rechaza el primer batch
+        existenTodos();
+        List<HorarioOcupado> tabla = new ArrayList<>();
+        HorarioOcupado ajeno = mock(HorarioOcupado.class);
+        when(ajeno.getIdMedico()).thenReturn(1L);
+        when(ajeno.getFechaCita()).thenReturn(lunes);
+        when(ajeno.getHoraCita()).thenReturn(LocalTime.of(8, 0));
+        when(citaRepository.findHorariosOcupados(anyCollection(), eq(lunes), eq(lunes))).thenAnswer(inv -> {
+            List<HorarioOcupado> leidos = List.copyOf(tabla);
+            tabla.add(ajeno);
+            return leidos;
+        });
+        when(citaJdbcRepository.insertarPendientes(anyList()))
+                .thenThrow(new DuplicateKeyException("ConnectionCallback", new SQLException(
+                        "Unique index or primary key violation: \"PUBLIC.UK_CITA_HORARIO_ACTIVO_INDEX_1 ON PUBLIC.CITA\"", "23505")))
+                .thenReturn(List.of(31L));
+
+        List<CrearCitaDTO> lote = List.of(
+                cita(1L, 1L, 1L, lunes, LocalTime.of(8, 0)),
+                cita(2L, 1L, 1L, lunes, LocalTime.of(9, 0))
+        );
+
+        // ACT
+        ResultadoLoteDTO resultado = citaLoteService.crearLote(lote);
+
+        // ASSERT: solo pierde el elemento cuyo horario se tomó; el resto se reintenta y se crea
+        List<ResultadoLoteDTO.ItemDTO> items = resultado.getResultados();
+        assertEquals(1, resultado.getCreadas());
+        assertEquals("HORARIO_OCUPADO", items.get(0).getCodigo());
+        assertTrue(items.get(0).getError().contains("ya tiene una cita agendada"));
+        assertEquals(31L, items.get(1).getIdCita());
+        verify(citaRepository, times(2)).findHorariosOcupados(anyCollection(), eq(lunes), eq(lunes));
+        verify(citaJdbcRepository).insertarPendientes(List.of(lote.get(1)));
+        verify(indiceOcupacion, never()).ocupar(1L, lunes, LocalTime.of(8, 0));
+        verify(indiceOcupacion, times(1)).ocupar(1L, lunes, LocalTime.of(9, 0));
+    }
+
+    @Test
+    void testCrearLote_OtraViolacionDeIntegridadSePropaga() {
+        // ARRANGE
+        existenTodos();
+        when(citaRepository.findHorariosOcupados(anyCollection(), eq(lunes), eq(lunes))).thenReturn(List.of());
+        when(citaJdbcRepository.insertarPendientes(anyList()))
+                .thenThrow(new DataIntegrityViolationException("ConnectionCallback", new SQLException(
+                        "Referential integrity constraint violation: \"FK_CITA_PACIENTE\"", "23506")));
+
+        List<CrearCitaDTO> lote = List.of(cita(1L, 1L, 1L, lunes, LocalTime.of(8, 0)));
+
+        // ACT & ASSERT
+        assertThrows(DataIntegrityViolationException.class, () -> citaLoteService.crearLote(lote));
+        verify(citaJdbcRepository, times(1)).insertarPendientes(anyList());
+    }
+
+    @Test
+    void testCrearLote_MedicoSinEspecialidad() {
+        // ARRANGE
+        when(pacienteRepository.findIdsExistentes(anyCollection())).thenReturn(List.of(1L));
+        when(medicoRepository.findIdsExistentes(anyCollection())).thenReturn(List.of(1L));
+        when(especialidadRepository.findIdsExistentes(anyCollection())).thenReturn(List.of(3L));
+        when(indiceMedicoEspecialidad.tieneEspecialidad(1L, 3L)).thenReturn(false);
+
+        // ACT
+        ResultadoLoteDTO resultado = citaLoteService.crearLote(List.of(cita(1L, 1L, 3L, lunes, LocalTime.of(8, 0))));
+
+        // ASSERT
+        assertEquals(0, resultado.getCreadas());
+        assertTrue(resultado.getResultados().get(0).getError().contains("no tiene la especialidad"));
+        assertEquals("MEDICO_SIN_ESPECIALIDAD", resultado.getResultados().get(0).getCodigo());
+        verifyNoInteractions(citaJdbcRepository);
+    }
+
+    @Test
+    void testCrearLote_Vacio() {
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            citaLoteService.crearLote(List.of());
+        });
+
+        assertTrue(exception.getMessage().contains("no contiene citas"));
+        assertEquals(CodigoError.PARAMETRO_INVALIDO, assertInstanceOf(SolicitudInvalidaException.class, exception).getCodigo());
+    }
+
+    @Test
+    void testCrearLote_ExcedeElMaximo() {
+        // ARRANGE
+        List<CrearCitaDTO> lote = new ArrayList<>();
+        for (int i = 0; i <= CitaLoteService.MAXIMO_LOTE; i++) {
+            lote.add(cita(1L, 1L, 1L, lunes, LocalTime.of(8, 0)));
+        }
+
+        // ACT & ASSERT
+        SolicitudInvalidaException exception = assertThrows(SolicitudInvalidaException.class, () -> {
+            citaLoteService.crearLote(lote);
+        });
+
+        assertEquals(CodigoError.PARAMETRO_INVALIDO, exception.getCodigo());
+        verifyNoInteractions(pacienteRepository, citaJdbcRepository);
+    }
+}
@@ -0,0 +1,196 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
+import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.entity.Medico;
+import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
+import com.api.gestioncitasmedicas.index.IndiceOcupacion;
+import com.api.gestioncitasmedicas.index.PropiedadesIndiceOcupacion;
+import com.api.gestioncitasmedicas.repository.*;
+import com.api.gestioncitasmedicas.repository.projection.DatosReserva;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Prueba de estrés: muchos hilos intentan reservar los mismos horarios al mismo tiempo
+class CitaServiceConcurrenciaTest {
+
+    private static final int MEDICOS = 4;
+    private static final int HILOS = 32;
+
+    private CitaRepository citaRepository;
+    private BloqueosAgenda bloqueosAgenda;
+    private CitaService citaService;
+
+    // "Tabla" de citas guardadas por el repositorio simulado
+    private final Queue<Cita> guardadas = new ConcurrentLinkedQueue<>();
+    private final AtomicLong secuencia = new AtomicLong();
+
+    private LocalDate fecha;
+
+    @BeforeEach
+    void setUp() {
+        citaRepository = mock(CitaRepository.class);
+        MedicoRepository medicoRepository = mock(MedicoRepository.class);
+        PacienteRepository pacienteRepository = mock(PacienteRepository.class);
+        EspecialidadRepository especialidadRepository = mock(EspecialidadRepository.class);
+        IndiceMedicoEspecialidad indiceMedicoEspecialidad = mock(IndiceMedicoEspecialidad.class);
+
+        Paciente paciente = new Paciente();
+        paciente.setIdPaciente(1L);
+        paciente.setNombrePaciente("Juan");
+        paciente.setApellidoPaciente("Pérez");
+
+        Especialidad especialidad = new Especialidad();
+        especialidad.setIdEspecialidad(1L);
+        especialidad.setNombreEspecialidad("Cardiología");
+
+        when(pacienteRepository.getReferenceById(anyLong())).thenReturn(paciente);
+        when(especialidadRepository.findAll()).thenReturn(List.of(especialidad));
+        when(indiceMedicoEspecialidad.tieneEspecialidad(anyLong(), anyLong())).thenReturn(true);
+        when(citaRepository.findDatosReserva(anyLong(), anyLong())).thenAnswer(inv -> Optional.of(new DatosReserva(
+                1L, "Juan", "Pérez", inv.getArgument(1), "Médico", String.valueOf(inv.<Long>getArgument(1)))));
+        when(medicoRepository.getReferenceById(anyLong())).thenAnswer(inv -> {
+            Medico medico = new Medico();
+            medico.setIdMedico(inv.getArgument(0));
+            return medico;
+        });
+
+        // El índice se carga desde lo que ya se guardó
+        when(citaRepository.findHorasOcupadas(anyLong(), any(LocalDate.class))).thenAnswer(inv -> guardadas.stream()
+                .filter(c -> c.getMedico().getIdMedico().equals(inv.getArgument(0))
+                        && c.getFechaCita().equals(inv.getArgument(1)))
+                .map(Cita::getHoraCita)
+                .collect(Collectors.toList()));
+
+        // Un INSERT lento agranda la ventana de carrera entre verificar y guardar
+        when(citaRepository.save(any(Cita.class))).thenAnswer(inv -> {
+            Cita cita = inv.getArgument(0);
+            Thread.sleep(1);
+            cita.setIdCita(secuencia.incrementAndGet());
+            guardadas.add(cita);
+            return cita;
+        });
+
+        bloqueosAgenda = new BloqueosAgenda();
+        citaService = new CitaService(citaRepository, medicoRepository, pacienteRepository,
+                new CacheEspecialidades(especialidadRepository), indiceMedicoEspecialidad,
+                new IndiceOcupacion(citaRepository, new PropiedadesIndiceOcupacion()), bloqueosAgenda);
+
+        fecha = LocalDate.now().plusWeeks(1);
+        while (fecha.getDayOfWeek() != DayOfWeek.MONDAY) {
+            fecha = fecha.plusDays(1);
+        }
+    }
+
+    @Test
+    void testReservasSimultaneas_SinDobleReserva() throws Exception {
+        // ARRANGE: todos los hilos intentan todos los horarios de todos los médicos, en distinto orden
+        List<CrearCitaDTO> solicitudes = new ArrayList<>();
+        for (long idMedico = 1; idMedico <= MEDICOS; idMedico++) {
+            for (LocalTime hora : CitaService.HORARIOS_VALIDOS) {
+                solicitudes.add(new CrearCitaDTO(1L, idMedico, 1L, fecha, hora, "Prueba de concurrencia"));
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        AtomicInteger exitosas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int h = 0; h < HILOS; h++) {
+            List<CrearCitaDTO> orden = new ArrayList<>(solicitudes);
+            Collections.shuffle(orden, new Random(h));
+            tareas.add(executor.submit(() -> {
+                inicio.await();
+                for (CrearCitaDTO dto : orden) {
+                    try {
+                        citaService.crear(dto);
+                        exitosas.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertTrue(e.getMessage().contains("ya tiene una cita agendada"));
+                        rechazadas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // ACT
+        inicio.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // ASSERT: cada horario se reservó exactamente una vez
+        int totalHorarios = MEDICOS * CitaService.HORARIOS_VALIDOS.size();
+        assertEquals(totalHorarios, exitosas.get());
+        assertEquals(totalHorarios * (HILOS - 1), rechazadas.get());
+        assertEquals(totalHorarios, guardadas.size());
+
+        Map<String, Long> reservasPorHorario = guardadas.stream()
+                .collect(Collectors.groupingBy(
+                        c -> c.getMedico().getIdMedico() + "|" + c.getFechaCita() + "|" + c.getHoraCita(),
+                        Collectors.counting()));
+        assertEquals(totalHorarios, reservasPorHorario.size());
+        assertTrue(reservasPorHorario.values().stream().allMatch(n -> n == 1L));
+    }
+
+    @Test
+    void testMedicosDistintosNoSeBloqueanEntreSi() throws Exception {
+        // ARRANGE: buscar un segundo médico que caiga en otra franja de bloqueo
+        long otroMedico = 2;
+        while (BloqueosAgenda.franja(otroMedico, fecha) == BloqueosAgenda.franja(1L, fecha)) {
+            otroMedico++;
+        }
+        long idOtroMedico = otroMedico;
+
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // ACT: un hilo retiene la agenda del médico 1...
+        Future<?> retenido = executor.submit(() -> bloqueosAgenda.ejecutar(1L, fecha, () -> {
+            dentro.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(dentro.await(10, TimeUnit.SECONDS));
+
+        // ...y mientras tanto se puede reservar con otro médico sin esperar
+        citaService.crear(new CrearCitaDTO(1L, idOtroMedico, 1L, fecha, LocalTime.of(8, 0), "Sin esperar"));
+
+        // ASSERT
+        assertEquals(1, guardadas.size());
+        liberar.countDown();
+        retenido.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+}
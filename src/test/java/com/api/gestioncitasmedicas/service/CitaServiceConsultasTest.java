@@ -0,0 +1,163 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
+import com.api.gestioncitasmedicas.dto.CitaDTO;
+import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.dto.PaginaDTO;
+import com.api.gestioncitasmedicas.entity.Cita;
+import com.api.gestioncitasmedicas.entity.Especialidad;
+import com.api.gestioncitasmedicas.entity.Medico;
+import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
+import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
+import com.api.gestioncitasmedicas.index.IndiceOcupacion;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Verifica contra H2 que las lecturas de citas usan una sola sentencia SQL sin importar
+// cuántas filas devuelvan (antes cada cita disparaba SELECTs de paciente, médico y especialidad),
+// y cuántas sentencias cuesta reservar una cita
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({CitaService.class, IndiceOcupacion.class, BloqueosAgenda.class, CacheEspecialidades.class,
+        IndiceMedicoEspecialidad.class})
+class CitaServiceConsultasTest {
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private IndiceMedicoEspecialidad indiceMedicoEspecialidad;
+
+    private Statistics estadisticas;
+    private Especialidad especialidad;
+    private int creadas;
+
+    @BeforeEach
+    void setUp() {
+        estadisticas = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        especialidad = new Especialidad();
+        especialidad.setNombreEspecialidad("Medicina General");
+        entityManager.persist(especialidad);
+    }
+
+    // Crea citas con un paciente y un médico distintos cada una, para que un N+1 se note
+    private Long crearCitas(int cantidad) {
+        Long ultimoId = null;
+        for (int i = 0; i < cantidad; i++, creadas++) {
+            Paciente paciente = new Paciente();
+            paciente.setNombrePaciente("Paciente" + creadas);
+            paciente.setApellidoPaciente("Apellido" + creadas);
+            paciente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+            paciente.setTelefonoPaciente("70000000");
+            paciente.setCorreoPaciente("paciente" + creadas + "@email.com");
+            entityManager.persist(paciente);
+
+            Medico medico = new Medico();
+            medico.setNombreMedico("Medico" + creadas);
+            medico.setApellidoMedico("Apellido" + creadas);
+            medico.setTelefonoMedico("77000000");
+            medico.setCorreoMedico("medico" + creadas + "@hospital.com");
+            entityManager.persist(medico);
+
+            Cita cita = new Cita();
+            cita.setPaciente(paciente);
+            cita.setMedico(medico);
+            cita.setEspecialidad(especialidad);
+            cita.setFechaCita(LocalDate.of(2030, 1, 7));
+            cita.setHoraCita(LocalTime.of(9, 0));
+            cita.setMotivoCita("Consulta");
+            cita.setEstadoCita(Cita.EstadoCita.PENDIENTE);
+            entityManager.persist(cita);
+            ultimoId = cita.getIdCita();
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return ultimoId;
+    }
+
+    private long sentenciasDe(Runnable consulta) {
+        entityManager.clear();
+        estadisticas.clear();
+        consulta.run();
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    @Test
+    void testFiltrarUsaUnaSolaSentenciaSinImportarElTamanio() {
+        crearCitas(2);
+        long conPocas = sentenciasDe(() ->
+                assertEquals(2, citaService.filtrar(null, null, null, null, null, null, null).getContenido().size()));
+
+        crearCitas(30);
+        long conMuchas = sentenciasDe(() -> {
+            PaginaDTO<CitaDTO> pagina = citaService.filtrar(null, null, null, null, null, null, null);
+            assertEquals(32, pagina.getContenido().size());
+            assertTrue(pagina.getContenido().get(0).getMedico().getNombreCompleto().startsWith("Dr. "));
+        });
+
+        assertEquals(1, conPocas);
+        assertEquals(conPocas, conMuchas);
+    }
+
+    @Test
+    void testObtenerPorIdUsaUnaSolaSentencia() {
+        Long idCita = crearCitas(1);
+
+        long sentencias = sentenciasDe(() -> {
+            CitaDTO cita = citaService.obtenerPorId(idCita);
+            assertEquals("Paciente0 Apellido0", cita.getPaciente().getNombreCompleto());
+        });
+
+        assertEquals(1, sentencias);
+    }
+
+    @Test
+    void testCrearValidaConUnaSolaConsultaAntesDelInsert() {
+        crearCitas(1);
+        Paciente paciente = entityManager.createQuery("SELECT p FROM Paciente p", Paciente.class).getSingleResult();
+        Medico medico = entityManager.createQuery("SELECT m FROM Medico m", Medico.class).getSingleResult();
+        entityManager.persist(new MedicoEspecialidad(null, medico.getIdMedico(), especialidad.getIdEspecialidad(), null));
+        entityManager.flush();
+        indiceMedicoEspecialidad.recargar();
+
+        // La primera reserva carga la caché, el índice de especialidades y la ocupación del día
+        LocalDate martes = LocalDate.of(2030, 1, 8);
+        citaService.crear(new CrearCitaDTO(paciente.getIdPaciente(), medico.getIdMedico(),
+                especialidad.getIdEspecialidad(), martes, LocalTime.of(8, 0), "Primera"));
+
+        long sentencias = sentenciasDe(() -> {
+            CitaDTO cita = citaService.crear(new CrearCitaDTO(paciente.getIdPaciente(), medico.getIdMedico(),
+                    especialidad.getIdEspecialidad(), martes, LocalTime.of(9, 0), "Segunda"));
+            assertEquals("Dr. Medico0 Apellido0", cita.getMedico().getNombreCompleto());
+        });
+
+        assertEquals(2, sentencias); // SELECT de paciente y médico + INSERT (sin cargar entidades)
+    }
+
+    @Test
+    void testCrearRechazadaPorFechaOHorarioNoConsultaLaBD() {
+        long sentencias = sentenciasDe(() -> {
+            assertThrows(RuntimeException.class, () -> citaService.crear(new CrearCitaDTO(
+                    1L, 1L, 1L, LocalDate.of(2030, 1, 12), LocalTime.of(9, 0), "Sábado")));
+            assertThrows(RuntimeException.class, () -> citaService.crear(new CrearCitaDTO(
+                    1L, 1L, 1L, LocalDate.of(2030, 1, 8), LocalTime.of(12, 0), "Almuerzo")));
+        });
+
+        assertEquals(0, sentencias);
+    }
+}
@@ -1,23 +1,40 @@
 package com.api.gestioncitasmedicas.service;
 
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
 import com.api.gestioncitasmedicas.dto.ActualizarCitaDTO;
 import com.api.gestioncitasmedicas.dto.CitaDTO;
 import com.api.gestioncitasmedicas.dto.CrearCitaDTO;
+import com.api.gestioncitasmedicas.dto.HorarioDisponibleDTO;
+import com.api.gestioncitasmedicas.dto.PaginaDTO;
 import com.api.gestioncitasmedicas.entity.Cita;
 import com.api.gestioncitasmedicas.entity.Especialidad;
 import com.api.gestioncitasmedicas.entity.Medico;
 import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.ConflictoException;
+import com.api.gestioncitasmedicas.exception.NoEncontradoException;
+import com.api.gestioncitasmedicas.exception.ReglaNegocioException;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
+import com.api.gestioncitasmedicas.index.IndiceOcupacion;
 import com.api.gestioncitasmedicas.repository.*;
+import com.api.gestioncitasmedicas.repository.projection.CitaResumen;
+import com.api.gestioncitasmedicas.repository.projection.DatosReserva;
+import com.api.gestioncitasmedicas.repository.projection.HorarioOcupado;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -39,10 +56,16 @@ class CitaServiceTest {
     private PacienteRepository pacienteRepository;
 
     @Mock
-    private EspecialidadRepository especialidadRepository;
+    private CacheEspecialidades cacheEspecialidades;
 
     @Mock
-    private MedicoEspecialidadRepository medicoEspecialidadRepository;
+    private IndiceMedicoEspecialidad indiceMedicoEspecialidad;
+
+    @Mock
+    private IndiceOcupacion indiceOcupacion;
+
+    @Spy
+    private BloqueosAgenda bloqueosAgenda = new BloqueosAgenda();
 
     @InjectMocks
     private CitaService citaService;
@@ -99,6 +122,26 @@ class CitaServiceTest {
         actualizarDTO.setHoraCita(LocalTime.of(10, 0));
     }
 
+    // Método auxiliar para simular la fila unida que devuelven las consultas de lectura
+    private CitaResumen resumen(Cita c) {
+        return new CitaResumen(c.getIdCita(), c.getFechaCita(), c.getHoraCita(), c.getMotivoCita(), c.getEstadoCita(),
+                c.getPaciente().getIdPaciente(), c.getPaciente().getNombrePaciente(), c.getPaciente().getApellidoPaciente(),
+                c.getMedico().getIdMedico(), c.getMedico().getNombreMedico(), c.getMedico().getApellidoMedico(),
+                c.getEspecialidad().getIdEspecialidad(), c.getEspecialidad().getNombreEspecialidad());
+    }
+
+    // Método auxiliar para simular la fila de paciente y médico que se consulta al reservar
+    private DatosReserva datosReserva() {
+        return new DatosReserva(paciente.getIdPaciente(), paciente.getNombrePaciente(), paciente.getApellidoPaciente(),
+                medico.getIdMedico(), medico.getNombreMedico(), medico.getApellidoMedico());
+    }
+
+    // Método auxiliar para simular lo que Spring lanza cuando la BD rechaza un INSERT o UPDATE por una restricción
+    private DataIntegrityViolationException violacionDeIntegridad(String restriccion) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException("violación"), restriccion));
+    }
+
     // Método auxiliar para obtener el próximo lunes
     private LocalDate obtenerProximoLunes() {
         LocalDate hoy = LocalDate.now();
@@ -108,33 +151,10 @@ class CitaServiceTest {
         return hoy;
     }
 
-    @Test
-    void testObtenerTodas() {
-        // ARRANGE
-        Cita cita2 = new Cita();
-        cita2.setIdCita(2L);
-        cita2.setMedico(medico);
-        cita2.setPaciente(paciente);
-        cita2.setEspecialidad(especialidad);
-        cita2.setFechaCita(obtenerProximoLunes());
-        cita2.setHoraCita(LocalTime.of(10, 0));
-        cita2.setEstadoCita(Cita.EstadoCita.CONFIRMADA);
-
-        when(citaRepository.findAll()).thenReturn(Arrays.asList(cita, cita2));
-
-        // ACT
-        List<CitaDTO> resultado = citaService.obtenerTodas();
-
-        // ASSERT
-        assertNotNull(resultado);
-        assertEquals(2, resultado.size());
-        verify(citaRepository, times(1)).findAll();
-    }
-
     @Test
     void testObtenerPorId_Exitoso() {
         // ARRANGE
-        when(citaRepository.findById(1L)).thenReturn(Optional.of(cita));
+        when(citaRepository.findResumenById(1L)).thenReturn(Optional.of(resumen(cita)));
 
         // ACT
         CitaDTO resultado = citaService.obtenerPorId(1L);
@@ -143,13 +163,13 @@ class CitaServiceTest {
         assertNotNull(resultado);
         assertEquals(1L, resultado.getIdCita());
         assertEquals("PENDIENTE", resultado.getEstadoCita());
-        verify(citaRepository, times(1)).findById(1L);
+        verify(citaRepository, times(1)).findResumenById(1L);
     }
 
     @Test
     void testObtenerPorId_NoExiste() {
         // ARRANGE
-        when(citaRepository.findById(999L)).thenReturn(Optional.empty());
+        when(citaRepository.findResumenById(999L)).thenReturn(Optional.empty());
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -162,12 +182,11 @@ class CitaServiceTest {
     @Test
     void testCrear_Exitoso() {
         // ARRANGE
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
-        when(medicoRepository.findById(1L)).thenReturn(Optional.of(medico));
-        when(especialidadRepository.findById(1L)).thenReturn(Optional.of(especialidad));
-        when(medicoEspecialidadRepository.existsByIdMedicoAndIdEspecialidad(1L, 1L)).thenReturn(true);
-        when(citaRepository.findByMedicoAndFechaAndHora(anyLong(), any(LocalDate.class), any(LocalTime.class)))
-                .thenReturn(Optional.empty());
+        when(cacheEspecialidades.buscarPorId(1L)).thenReturn(Optional.of(especialidad));
+        when(citaRepository.findDatosReserva(1L, 1L)).thenReturn(Optional.of(datosReserva()));
+        when(indiceMedicoEspecialidad.tieneEspecialidad(1L, 1L)).thenReturn(true);
+        when(indiceOcupacion.estaOcupado(anyLong(), any(LocalDate.class), any(LocalTime.class)))
+                .thenReturn(false);
         when(citaRepository.save(any(Cita.class))).thenReturn(cita);
 
         // ACT
@@ -177,12 +196,19 @@ class CitaServiceTest {
         assertNotNull(resultado);
         assertEquals("PENDIENTE", resultado.getEstadoCita());
         verify(citaRepository, times(1)).save(any(Cita.class));
+        verify(indiceOcupacion, times(1)).ocupar(1L, crearDTO.getFechaCita(), crearDTO.getHoraCita());
+        verify(citaRepository, never()).findByMedicoAndFechaAndHora(anyLong(), any(LocalDate.class), any(LocalTime.class));
+        verify(pacienteRepository, never()).findById(anyLong()); // Solo referencias, sin cargar entidades
+        verify(medicoRepository, never()).findById(anyLong());
+        assertEquals("Juan Pérez", resultado.getPaciente().getNombreCompleto());
+        assertEquals("Dr. Carlos Rodríguez", resultado.getMedico().getNombreCompleto());
     }
 
     @Test
     void testCrear_PacienteNoExiste() {
         // ARRANGE
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.empty());
+        when(cacheEspecialidades.buscarPorId(1L)).thenReturn(Optional.of(especialidad));
+        when(citaRepository.findDatosReserva(1L, 1L)).thenReturn(Optional.empty());
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -190,14 +216,16 @@ class CitaServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Paciente no encontrado"));
+        assertEquals(CodigoError.PACIENTE_NO_ENCONTRADO, assertInstanceOf(NoEncontradoException.class, exception).getCodigo());
         verify(citaRepository, never()).save(any(Cita.class));
     }
 
     @Test
     void testCrear_MedicoNoExiste() {
         // ARRANGE
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
-        when(medicoRepository.findById(1L)).thenReturn(Optional.empty());
+        when(cacheEspecialidades.buscarPorId(1L)).thenReturn(Optional.of(especialidad));
+        when(citaRepository.findDatosReserva(1L, 1L))
+                .thenReturn(Optional.of(new DatosReserva(1L, "Juan", "Pérez", null, null, null)));
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -211,9 +239,7 @@ class CitaServiceTest {
     @Test
     void testCrear_EspecialidadNoExiste() {
         // ARRANGE
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
-        when(medicoRepository.findById(1L)).thenReturn(Optional.of(medico));
-        when(especialidadRepository.findById(1L)).thenReturn(Optional.empty());
+        when(cacheEspecialidades.buscarPorId(1L)).thenReturn(Optional.empty());
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -221,23 +247,22 @@ class CitaServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("Especialidad no encontrada"));
-        verify(citaRepository, never()).save(any(Cita.class));
+        verifyNoInteractions(citaRepository, pacienteRepository, medicoRepository);
     }
 
     @Test
     void testCrear_MedicoSinEspecialidad() {
         // ARRANGE
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
-        when(medicoRepository.findById(1L)).thenReturn(Optional.of(medico));
-        when(especialidadRepository.findById(1L)).thenReturn(Optional.of(especialidad));
-        when(medicoEspecialidadRepository.existsByIdMedicoAndIdEspecialidad(1L, 1L)).thenReturn(false);
+        when(cacheEspecialidades.buscarPorId(1L)).thenReturn(Optional.of(especialidad));
+        when(citaRepository.findDatosReserva(1L, 1L)).thenReturn(Optional.of(datosReserva()));
+        when(indiceMedicoEspecialidad.tieneEspecialidad(1L, 1L)).thenReturn(false);
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             citaService.crear(crearDTO);
         });
 
-        assertTrue(exception.getMessage().contains("no tiene la especialidad"));
+        assertTrue(exception.getMessage().contains("El médico Carlos Rodríguez no tiene la especialidad"));
         verify(citaRepository, never()).save(any(Cita.class));
     }
 
@@ -247,18 +272,15 @@ class CitaServiceTest {
         LocalDate sabado = obtenerProximoLunes().plusDays(5); // Próximo sábado
         crearDTO.setFechaCita(sabado);
 
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
-        when(medicoRepository.findById(1L)).thenReturn(Optional.of(medico));
-        when(especialidadRepository.findById(1L)).thenReturn(Optional.of(especialidad));
-        when(medicoEspecialidadRepository.existsByIdMedicoAndIdEspecialidad(1L, 1L)).thenReturn(true);
-
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             citaService.crear(crearDTO);
         });
 
         assertTrue(exception.getMessage().contains("fines de semana"));
-        verify(citaRepository, never()).save(any(Cita.class));
+        assertEquals(CodigoError.DIA_NO_HABIL, assertInstanceOf(ReglaNegocioException.class, exception).getCodigo());
+        assertSame(exception, assertThrows(RuntimeException.class, () -> citaService.crear(crearDTO))); // Instancia reutilizada
+        verifyNoInteractions(citaRepository, pacienteRepository, medicoRepository, cacheEspecialidades); // Sin consultas
     }
 
     @Test
@@ -267,18 +289,13 @@ class CitaServiceTest {
         LocalDate domingo = obtenerProximoLunes().plusDays(6); // Próximo domingo
         crearDTO.setFechaCita(domingo);
 
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
-        when(medicoRepository.findById(1L)).thenReturn(Optional.of(medico));
-        when(especialidadRepository.findById(1L)).thenReturn(Optional.of(especialidad));
-        when(medicoEspecialidadRepository.existsByIdMedicoAndIdEspecialidad(1L, 1L)).thenReturn(true);
-
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             citaService.crear(crearDTO);
         });
 
         assertTrue(exception.getMessage().contains("fines de semana"));
-        verify(citaRepository, never()).save(any(Cita.class));
+        verifyNoInteractions(citaRepository, pacienteRepository, medicoRepository, cacheEspecialidades); // Sin consultas
     }
 
     @Test
@@ -286,11 +303,6 @@ class CitaServiceTest {
         // ARRANGE
         crearDTO.setHoraCita(LocalTime.of(12, 0)); // Hora de almuerzo
 
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
-        when(medicoRepository.findById(1L)).thenReturn(Optional.of(medico));
-        when(especialidadRepository.findById(1L)).thenReturn(Optional.of(especialidad));
-        when(medicoEspecialidadRepository.existsByIdMedicoAndIdEspecialidad(1L, 1L)).thenReturn(true);
-
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             citaService.crear(crearDTO);
@@ -298,7 +310,7 @@ class CitaServiceTest {
 
         assertTrue(exception.getMessage().contains("Horario no válido"));
         assertTrue(exception.getMessage().contains("almuerzo"));
-        verify(citaRepository, never()).save(any(Cita.class));
+        verifyNoInteractions(citaRepository, pacienteRepository, medicoRepository, cacheEspecialidades); // Sin consultas
     }
 
     @Test
@@ -306,29 +318,23 @@ class CitaServiceTest {
         // ARRANGE
         crearDTO.setHoraCita(LocalTime.of(17, 0)); // Fuera de horario
 
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
-        when(medicoRepository.findById(1L)).thenReturn(Optional.of(medico));
-        when(especialidadRepository.findById(1L)).thenReturn(Optional.of(especialidad));
-        when(medicoEspecialidadRepository.existsByIdMedicoAndIdEspecialidad(1L, 1L)).thenReturn(true);
-
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             citaService.crear(crearDTO);
         });
 
         assertTrue(exception.getMessage().contains("Horario no válido"));
-        verify(citaRepository, never()).save(any(Cita.class));
+        verifyNoInteractions(citaRepository, pacienteRepository, medicoRepository, cacheEspecialidades); // Sin consultas
     }
 
     @Test
     void testCrear_MedicoNoDisponible() {
         // ARRANGE
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
-        when(medicoRepository.findById(1L)).thenReturn(Optional.of(medico));
-        when(especialidadRepository.findById(1L)).thenReturn(Optional.of(especialidad));
-        when(medicoEspecialidadRepository.existsByIdMedicoAndIdEspecialidad(1L, 1L)).thenReturn(true);
-        when(citaRepository.findByMedicoAndFechaAndHora(anyLong(), any(LocalDate.class), any(LocalTime.class)))
-                .thenReturn(Optional.of(cita)); // Ya hay una cita
+        when(cacheEspecialidades.buscarPorId(1L)).thenReturn(Optional.of(especialidad));
+        when(citaRepository.findDatosReserva(1L, 1L)).thenReturn(Optional.of(datosReserva()));
+        when(indiceMedicoEspecialidad.tieneEspecialidad(1L, 1L)).thenReturn(true);
+        when(indiceOcupacion.estaOcupado(anyLong(), any(LocalDate.class), any(LocalTime.class)))
+                .thenReturn(true); // Ya hay una cita
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -336,15 +342,68 @@ class CitaServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("ya tiene una cita agendada"));
+        assertEquals(CodigoError.HORARIO_OCUPADO, assertInstanceOf(ConflictoException.class, exception).getCodigo());
         verify(citaRepository, never()).save(any(Cita.class));
     }
 
+    @Test
+    void testCrear_HorarioTomadoPorOtraInstancia() {
+        // ARRANGE: el índice local lo ve libre, pero la llave única de la BD rechaza el INSERT
+        when(cacheEspecialidades.buscarPorId(1L)).thenReturn(Optional.of(especialidad));
+        when(citaRepository.findDatosReserva(1L, 1L)).thenReturn(Optional.of(datosReserva()));
+        when(indiceMedicoEspecialidad.tieneEspecialidad(1L, 1L)).thenReturn(true);
+        when(indiceOcupacion.estaOcupado(anyLong(), any(LocalDate.class), any(LocalTime.class)))
+                .thenReturn(false);
+        when(citaRepository.save(any(Cita.class)))
+                .thenThrow(violacionDeIntegridad("PUBLIC.UK_CITA_HORARIO_ACTIVO_INDEX_1"));
+
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            citaService.crear(crearDTO);
+        });
+
+        assertEquals(CodigoError.HORARIO_OCUPADO, assertInstanceOf(ConflictoException.class, exception).getCodigo());
+        verify(indiceOcupacion, never()).ocupar(anyLong(), any(LocalDate.class), any(LocalTime.class));
+    }
+
+    @Test
+    void testCrear_OtraViolacionDeIntegridadSePropaga() {
+        // ARRANGE
+        when(cacheEspecialidades.buscarPorId(1L)).thenReturn(Optional.of(especialidad));
+        when(citaRepository.findDatosReserva(1L, 1L)).thenReturn(Optional.of(datosReserva()));
+        when(indiceMedicoEspecialidad.tieneEspecialidad(1L, 1L)).thenReturn(true);
+        when(indiceOcupacion.estaOcupado(anyLong(), any(LocalDate.class), any(LocalTime.class)))
+                .thenReturn(false);
+        when(citaRepository.save(any(Cita.class))).thenThrow(violacionDeIntegridad("fk_cita_paciente"));
+
+        // ACT & ASSERT
+        assertThrows(DataIntegrityViolationException.class, () -> citaService.crear(crearDTO));
+    }
+
+    @Test
+    void testViolaLlaveDeHorario_DesdeJdbc() {
+        // ARRANGE: por JDBC directo Spring traduce el error del driver sin pasar por Hibernate
+        DataIntegrityViolationException h2 = new DuplicateKeyException("ConnectionCallback", new SQLException(
+                "Unique index or primary key violation: \"PUBLIC.UK_CITA_HORARIO_ACTIVO_INDEX_1 ON PUBLIC.CITA(ID_MEDICO)\"", "23505"));
+        DataIntegrityViolationException mysql = new DuplicateKeyException("ConnectionCallback", new SQLException(
+                "Duplicate entry '2-2030-01-07-08:00:00-1' for key 'cita.uk_cita_horario_activo'", "23000"));
+        DataIntegrityViolationException otra = new DataIntegrityViolationException("ConnectionCallback", new SQLException(
+                "Cannot add or update a child row: a foreign key constraint fails (fk_cita_paciente)", "23000"));
+
+        // ACT & ASSERT
+        assertTrue(CitaService.violaLlaveDeHorario(h2));
+        assertTrue(CitaService.violaLlaveDeHorario(mysql));
+        assertFalse(CitaService.violaLlaveDeHorario(otra));
+    }
+
     @Test
     void testActualizar_Exitoso() {
         // ARRANGE
+        LocalDate fechaOriginal = cita.getFechaCita();
+        LocalTime horaOriginal = cita.getHoraCita();
         when(citaRepository.findById(1L)).thenReturn(Optional.of(cita));
-        when(citaRepository.findByMedicoAndFechaAndHora(anyLong(), any(LocalDate.class), any(LocalTime.class)))
-                .thenReturn(Optional.empty());
+        when(indiceOcupacion.estaOcupado(anyLong(), any(LocalDate.class), any(LocalTime.class)))
+                .thenReturn(false);
         when(citaRepository.save(any(Cita.class))).thenReturn(cita);
 
         // ACT
@@ -353,6 +412,45 @@ class CitaServiceTest {
         // ASSERT
         assertNotNull(resultado);
         verify(citaRepository, times(1)).save(any(Cita.class));
+        verify(indiceOcupacion, times(1)).liberar(1L, fechaOriginal, horaOriginal);
+        verify(indiceOcupacion, times(1)).ocupar(1L, actualizarDTO.getFechaCita(), actualizarDTO.getHoraCita());
+    }
+
+    @Test
+    void testActualizar_MedicoNoDisponible() {
+        // ARRANGE
+        when(citaRepository.findById(1L)).thenReturn(Optional.of(cita));
+        when(indiceOcupacion.estaOcupado(1L, actualizarDTO.getFechaCita(), actualizarDTO.getHoraCita()))
+                .thenReturn(true);
+
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            citaService.actualizar(1L, actualizarDTO);
+        });
+
+        assertTrue(exception.getMessage().contains("ya tiene una cita"));
+        verify(citaRepository, never()).save(any(Cita.class));
+        verify(indiceOcupacion, never()).ocupar(anyLong(), any(LocalDate.class), any(LocalTime.class));
+    }
+
+    @Test
+    void testActualizar_HorarioTomadoPorOtraInstancia() {
+        // ARRANGE
+        LocalDate fechaOriginal = cita.getFechaCita();
+        LocalTime horaOriginal = cita.getHoraCita();
+        when(citaRepository.findById(1L)).thenReturn(Optional.of(cita));
+        when(indiceOcupacion.estaOcupado(anyLong(), any(LocalDate.class), any(LocalTime.class)))
+                .thenReturn(false);
+        when(citaRepository.save(any(Cita.class)))
+                .thenThrow(violacionDeIntegridad("cita.uk_cita_horario_activo"));
+
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            citaService.actualizar(1L, actualizarDTO);
+        });
+
+        assertEquals(CodigoError.HORARIO_OCUPADO, assertInstanceOf(ConflictoException.class, exception).getCodigo());
+        verify(indiceOcupacion, never()).liberar(1L, fechaOriginal, horaOriginal);
     }
 
     @Test
@@ -399,6 +497,19 @@ class CitaServiceTest {
         verify(citaRepository, times(1)).save(any(Cita.class));
     }
 
+    @Test
+    void testCambiarEstado_CancelarLiberaHorario() {
+        // ARRANGE
+        when(citaRepository.findById(1L)).thenReturn(Optional.of(cita));
+        when(citaRepository.save(any(Cita.class))).thenReturn(cita);
+
+        // ACT
+        citaService.cambiarEstado(1L, "CANCELADA");
+
+        // ASSERT
+        verify(indiceOcupacion, times(1)).liberar(1L, cita.getFechaCita(), cita.getHoraCita());
+    }
+
     @Test
     void testCambiarEstado_TransicionInvalida() {
         // ARRANGE
@@ -425,6 +536,7 @@ class CitaServiceTest {
 
         // ASSERT
         verify(citaRepository, times(1)).delete(any(Cita.class));
+        verify(indiceOcupacion, times(1)).liberar(1L, cita.getFechaCita(), cita.getHoraCita());
     }
 
     @Test
@@ -445,42 +557,205 @@ class CitaServiceTest {
     @Test
     void testFiltrarPorMedico() {
         // ARRANGE
-        when(citaRepository.findByMedicoIdMedico(1L)).thenReturn(Arrays.asList(cita));
+        when(citaRepository.buscarPagina(1L, null, null, null, null, null, 51)).thenReturn(List.of(resumen(cita)));
 
         // ACT
-        List<CitaDTO> resultado = citaService.filtrar(1L, null, null);
+        PaginaDTO<CitaDTO> resultado = citaService.filtrar(1L, null, null, null, null, null, null);
 
         // ASSERT
         assertNotNull(resultado);
-        assertEquals(1, resultado.size());
-        verify(citaRepository, times(1)).findByMedicoIdMedico(1L);
+        assertEquals(1, resultado.getContenido().size());
+        assertFalse(resultado.getHayMas());
+        assertNull(resultado.getSiguienteCursor());
+        verify(citaRepository, times(1)).buscarPagina(1L, null, null, null, null, null, 51);
     }
 
     @Test
     void testFiltrarPorPaciente() {
         // ARRANGE
-        when(citaRepository.findByPacienteIdPaciente(1L)).thenReturn(Arrays.asList(cita));
+        when(citaRepository.buscarPagina(null, 1L, null, null, null, null, 51)).thenReturn(List.of(resumen(cita)));
 
         // ACT
-        List<CitaDTO> resultado = citaService.filtrar(null, 1L, null);
+        PaginaDTO<CitaDTO> resultado = citaService.filtrar(null, 1L, null, null, null, null, null);
 
         // ASSERT
         assertNotNull(resultado);
-        assertEquals(1, resultado.size());
-        verify(citaRepository, times(1)).findByPacienteIdPaciente(1L);
+        assertEquals(1, resultado.getContenido().size());
+        verify(citaRepository, times(1)).buscarPagina(null, 1L, null, null, null, null, 51);
     }
 
     @Test
     void testFiltrarPorEstado() {
         // ARRANGE
-        when(citaRepository.findByEstadoCita(Cita.EstadoCita.PENDIENTE)).thenReturn(Arrays.asList(cita));
+        when(citaRepository.buscarPagina(null, null, Cita.EstadoCita.PENDIENTE, null, null, null, 51))
+                .thenReturn(List.of(resumen(cita)));
 
         // ACT
-        List<CitaDTO> resultado = citaService.filtrar(null, null, "PENDIENTE");
+        PaginaDTO<CitaDTO> resultado = citaService.filtrar(null, null, "pendiente", null, null, null, null);
 
         // ASSERT
         assertNotNull(resultado);
-        assertEquals(1, resultado.size());
-        verify(citaRepository, times(1)).findByEstadoCita(Cita.EstadoCita.PENDIENTE);
+        assertEquals(1, resultado.getContenido().size());
+        verify(citaRepository, times(1)).buscarPagina(null, null, Cita.EstadoCita.PENDIENTE, null, null, null, 51);
+    }
+
+    @Test
+    void testFiltrarCombinadoDevuelveCursorSiHayMas() {
+        // ARRANGE
+        LocalDate desde = LocalDate.of(2025, 11, 1);
+        LocalDate hasta = LocalDate.of(2025, 11, 30);
+        Cita cita2 = new Cita();
+        cita2.setIdCita(2L);
+        cita2.setFechaCita(cita.getFechaCita());
+        cita2.setHoraCita(LocalTime.of(10, 0));
+        cita2.setMotivoCita("Control");
+        cita2.setEstadoCita(Cita.EstadoCita.PENDIENTE);
+        cita2.setPaciente(paciente);
+        cita2.setMedico(medico);
+        cita2.setEspecialidad(especialidad);
+        when(citaRepository.buscarPagina(1L, 1L, Cita.EstadoCita.PENDIENTE, desde, hasta, null, 2))
+                .thenReturn(List.of(resumen(cita), resumen(cita2)));
+
+        // ACT
+        PaginaDTO<CitaDTO> resultado = citaService.filtrar(1L, 1L, "PENDIENTE", desde, hasta, null, 1);
+
+        // ASSERT
+        assertEquals(1, resultado.getContenido().size());
+        assertTrue(resultado.getHayMas());
+        CursorCita cursor = CursorCita.decodificar(resultado.getSiguienteCursor());
+        assertEquals(new CursorCita(cita.getFechaCita(), cita.getHoraCita(), cita.getIdCita()), cursor);
+    }
+
+    @Test
+    void testFiltrarContinuaDesdeElCursor() {
+        // ARRANGE
+        CursorCita cursor = new CursorCita(LocalDate.of(2025, 11, 3), LocalTime.of(9, 0), 7L);
+        when(citaRepository.buscarPagina(null, null, null, null, null, cursor, 51)).thenReturn(List.of());
+
+        // ACT
+        PaginaDTO<CitaDTO> resultado = citaService.filtrar(null, null, null, null, null, cursor.codificar(), null);
+
+        // ASSERT
+        assertTrue(resultado.getContenido().isEmpty());
+        assertFalse(resultado.getHayMas());
+        verify(citaRepository, times(1)).buscarPagina(null, null, null, null, null, cursor, 51);
+    }
+
+    @Test
+    void testFiltrarLimitaElTamanioDePagina() {
+        // ARRANGE
+        when(citaRepository.buscarPagina(any(), any(), any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        // ACT
+        PaginaDTO<CitaDTO> resultado = citaService.filtrar(null, null, null, null, null, null, 10_000);
+
+        // ASSERT
+        assertEquals(200, resultado.getTamanio());
+        verify(citaRepository, times(1)).buscarPagina(null, null, null, null, null, null, 201);
+    }
+
+    @Test
+    void testFiltrarConCursorInvalido() {
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                citaService.filtrar(null, null, null, null, null, "no-es-un-cursor", null));
+
+        assertEquals("Cursor de paginación inválido", exception.getMessage());
+        verifyNoInteractions(citaRepository);
+    }
+
+    @Test
+    void testFiltrarConEstadoInvalido() {
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                citaService.filtrar(null, null, "RESERVADA", null, null, null, null));
+
+        assertEquals("Estado inválido: RESERVADA", exception.getMessage());
+        verifyNoInteractions(citaRepository);
+    }
+
+    // Método auxiliar para simular un horario ocupado devuelto por la consulta de rango
+    private HorarioOcupado horarioOcupado(Long idMedico, LocalDate fecha, LocalTime hora) {
+        return new HorarioOcupado() {
+            public Long getIdMedico() { return idMedico; }
+            public LocalDate getFechaCita() { return fecha; }
+            public LocalTime getHoraCita() { return hora; }
+        };
+    }
+
+    @Test
+    void testBuscarDisponibilidad_OrdenCronologicoYMedicos() {
+        // ARRANGE
+        LocalDate lunes = obtenerProximoLunes().plusWeeks(1);
+        Medico medico2 = new Medico();
+        medico2.setIdMedico(2L);
+        medico2.setNombreMedico("María");
+        medico2.setApellidoMedico("González");
+
+        when(cacheEspecialidades.existe(1L)).thenReturn(true);
+        when(indiceMedicoEspecialidad.medicosDe(1L)).thenReturn(List.of(1L, 2L));
+        when(citaRepository.findHorariosOcupados(List.of(1L, 2L), lunes, lunes))
+                .thenReturn(List.of(horarioOcupado(1L, lunes, LocalTime.of(8, 0))));
+        when(medicoRepository.findAllById(List.of(1L, 2L))).thenReturn(Arrays.asList(medico, medico2));
+
+        // ACT
+        List<HorarioDisponibleDTO> resultado = citaService.buscarDisponibilidad(1L, lunes, lunes, 3);
+
+        // ASSERT
+        assertEquals(3, resultado.size());
+        assertEquals(2L, resultado.get(0).getIdMedico());
+        assertEquals(LocalTime.of(8, 0), resultado.get(0).getHoraCita());
+        assertEquals(1L, resultado.get(1).getIdMedico());
+        assertEquals(LocalTime.of(9, 0), resultado.get(1).getHoraCita());
+        assertEquals(2L, resultado.get(2).getIdMedico());
+        assertEquals(LocalTime.of(9, 0), resultado.get(2).getHoraCita());
+        assertEquals("Dr. Carlos Rodríguez", resultado.get(1).getNombreMedico());
+        verify(citaRepository, times(1)).findHorariosOcupados(anyCollection(), any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    void testBuscarDisponibilidad_SaltaFinesDeSemana() {
+        // ARRANGE
+        LocalDate sabado = obtenerProximoLunes().plusDays(5);
+        LocalDate lunesSiguiente = sabado.plusDays(2);
+
+        when(cacheEspecialidades.existe(1L)).thenReturn(true);
+        when(indiceMedicoEspecialidad.medicosDe(1L)).thenReturn(List.of(1L));
+        when(citaRepository.findHorariosOcupados(List.of(1L), sabado, lunesSiguiente)).thenReturn(List.of());
+        when(medicoRepository.findAllById(List.of(1L))).thenReturn(List.of(medico));
+
+        // ACT
+        List<HorarioDisponibleDTO> resultado = citaService.buscarDisponibilidad(1L, sabado, lunesSiguiente, 100);
+
+        // ASSERT
+        assertEquals(8, resultado.size());
+        assertTrue(resultado.stream().allMatch(h -> h.getFechaCita().equals(lunesSiguiente)));
+    }
+
+    @Test
+    void testBuscarDisponibilidad_EspecialidadNoExiste() {
+        // ARRANGE
+        when(cacheEspecialidades.existe(99L)).thenReturn(false);
+
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            citaService.buscarDisponibilidad(99L, null, null, null);
+        });
+
+        assertTrue(exception.getMessage().contains("Especialidad no encontrada"));
+        verify(citaRepository, never()).findHorariosOcupados(anyCollection(), any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    void testBuscarDisponibilidad_RangoInvalido() {
+        // ARRANGE
+        LocalDate lunes = obtenerProximoLunes().plusWeeks(1);
+
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            citaService.buscarDisponibilidad(1L, lunes, lunes.minusDays(1), null);
+        });
+
+        assertTrue(exception.getMessage().contains("no puede ser anterior"));
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,13 @@
 package com.api.gestioncitasmedicas.service;
 
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
 import com.api.gestioncitasmedicas.dto.ActualizarEspecialidadDTO;
 import com.api.gestioncitasmedicas.dto.CrearEspecialidadDTO;
 import com.api.gestioncitasmedicas.dto.EspecialidadDTO;
 import com.api.gestioncitasmedicas.entity.Especialidad;
-import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
 import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
 import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
+import com.api.gestioncitasmedicas.repository.projection.ConteoPorId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,7 +15,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +33,9 @@ class EspecialidadServiceTest {
     @Mock
     private MedicoEspecialidadRepository medicoEspecialidadRepository;
 
+    @Mock
+    private CacheEspecialidades cacheEspecialidades;
+
     @InjectMocks
     private EspecialidadService especialidadService;
 
@@ -68,8 +71,8 @@ class EspecialidadServiceTest {
         especialidad2.setDescripcion("Atención a niños");
 
         List<Especialidad> especialidades = Arrays.asList(especialidad, especialidad2);
-        when(especialidadRepository.findAll()).thenReturn(especialidades);
-        when(medicoEspecialidadRepository.findByIdEspecialidad(anyLong())).thenReturn(new ArrayList<>());
+        when(cacheEspecialidades.todas()).thenReturn(especialidades);
+        when(medicoEspecialidadRepository.contarMedicosPorEspecialidad()).thenReturn(List.of(conteo(1L, 3L)));
 
         // ACT
         List<EspecialidadDTO> resultado = especialidadService.obtenerTodas();
@@ -79,15 +82,20 @@ class EspecialidadServiceTest {
         assertEquals(2, resultado.size());
         assertEquals("Cardiología", resultado.get(0).getNombreEspecialidad());
         assertEquals("Pediatría", resultado.get(1).getNombreEspecialidad());
-        verify(especialidadRepository, times(1)).findAll();
+        assertEquals(3, resultado.get(0).getCantidadMedicos());
+        assertEquals(0, resultado.get(1).getCantidadMedicos());
+        verify(cacheEspecialidades, times(1)).todas();
+        verify(especialidadRepository, never()).findAll();
+        verify(medicoEspecialidadRepository, times(1)).contarMedicosPorEspecialidad();
+        verify(medicoEspecialidadRepository, never()).countByIdEspecialidad(anyLong());
     }
 
     @Test
     void testObtenerPorId_Exitoso() {
         // ARRANGE
         Long id = 1L;
-        when(especialidadRepository.findById(id)).thenReturn(Optional.of(especialidad));
-        when(medicoEspecialidadRepository.findByIdEspecialidad(id)).thenReturn(new ArrayList<>());
+        when(cacheEspecialidades.buscarPorId(id)).thenReturn(Optional.of(especialidad));
+        when(medicoEspecialidadRepository.countByIdEspecialidad(id)).thenReturn(2L);
 
         // ACT
         EspecialidadDTO resultado = especialidadService.obtenerPorId(id);
@@ -96,14 +104,15 @@ class EspecialidadServiceTest {
         assertNotNull(resultado);
         assertEquals(id, resultado.getIdEspecialidad());
         assertEquals("Cardiología", resultado.getNombreEspecialidad());
-        verify(especialidadRepository, times(1)).findById(id);
+        assertEquals(2, resultado.getCantidadMedicos());
+        verify(cacheEspecialidades, times(1)).buscarPorId(id);
     }
 
     @Test
     void testObtenerPorId_NoExiste() {
         // ARRANGE
         Long id = 999L;
-        when(especialidadRepository.findById(id)).thenReturn(Optional.empty());
+        when(cacheEspecialidades.buscarPorId(id)).thenReturn(Optional.empty());
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -111,15 +120,14 @@ class EspecialidadServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("no encontrada"));
-        verify(especialidadRepository, times(1)).findById(id);
+        verify(cacheEspecialidades, times(1)).buscarPorId(id);
     }
 
     @Test
     void testCrear_Exitoso() {
         // ARRANGE
-        when(especialidadRepository.existsByNombreEspecialidad(anyString())).thenReturn(false);
+        when(cacheEspecialidades.buscarPorNombre(anyString())).thenReturn(Optional.empty());
         when(especialidadRepository.save(any(Especialidad.class))).thenReturn(especialidad);
-        when(medicoEspecialidadRepository.findByIdEspecialidad(anyLong())).thenReturn(new ArrayList<>());
 
         // ACT
         EspecialidadDTO resultado = especialidadService.crear(crearDTO);
@@ -128,12 +136,15 @@ class EspecialidadServiceTest {
         assertNotNull(resultado);
         assertEquals("Cardiología", resultado.getNombreEspecialidad());
         verify(especialidadRepository, times(1)).save(any(Especialidad.class));
+        assertEquals(0, resultado.getCantidadMedicos());
+        verify(especialidadRepository, never()).existsByNombreEspecialidad(anyString());
+        verify(cacheEspecialidades, times(1)).recargar();
     }
 
     @Test
     void testCrear_NombreDuplicado() {
         // ARRANGE
-        when(especialidadRepository.existsByNombreEspecialidad(anyString())).thenReturn(true);
+        when(cacheEspecialidades.buscarPorNombre(anyString())).thenReturn(Optional.of(especialidad));
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -142,6 +153,7 @@ class EspecialidadServiceTest {
 
         assertTrue(exception.getMessage().contains("Ya existe una especialidad"));
         verify(especialidadRepository, never()).save(any(Especialidad.class));
+        verify(cacheEspecialidades, never()).recargar();
     }
 
     @Test
@@ -149,9 +161,9 @@ class EspecialidadServiceTest {
         // ARRANGE
         Long id = 1L;
         when(especialidadRepository.findById(id)).thenReturn(Optional.of(especialidad));
-        when(especialidadRepository.existsByNombreEspecialidad(anyString())).thenReturn(false);
+        when(cacheEspecialidades.buscarPorNombre(anyString())).thenReturn(Optional.empty());
         when(especialidadRepository.save(any(Especialidad.class))).thenReturn(especialidad);
-        when(medicoEspecialidadRepository.findByIdEspecialidad(anyLong())).thenReturn(new ArrayList<>());
+        when(medicoEspecialidadRepository.countByIdEspecialidad(id)).thenReturn(0L);
 
         // ACT
         EspecialidadDTO resultado = especialidadService.actualizar(id, actualizarDTO);
@@ -160,6 +172,7 @@ class EspecialidadServiceTest {
         assertNotNull(resultado);
         verify(especialidadRepository, times(1)).findById(id);
         verify(especialidadRepository, times(1)).save(any(Especialidad.class));
+        verify(cacheEspecialidades, times(1)).recargar();
     }
 
     @Test
@@ -167,7 +180,7 @@ class EspecialidadServiceTest {
         // ARRANGE
         Long id = 1L;
         when(especialidadRepository.findById(id)).thenReturn(Optional.of(especialidad));
-        when(medicoEspecialidadRepository.findByIdEspecialidad(id)).thenReturn(new ArrayList<>());
+        when(medicoEspecialidadRepository.countByIdEspecialidad(id)).thenReturn(0L);
         doNothing().when(especialidadRepository).delete(any(Especialidad.class));
 
         // ACT
@@ -176,16 +189,15 @@ class EspecialidadServiceTest {
         // ASSERT
         verify(especialidadRepository, times(1)).findById(id);
         verify(especialidadRepository, times(1)).delete(any(Especialidad.class));
+        verify(cacheEspecialidades, times(1)).recargar();
     }
 
     @Test
     void testEliminar_ConMedicosAsociados() {
         // ARRANGE
         Long id = 1L;
-        List<MedicoEspecialidad> medicosAsociados = Arrays.asList(new MedicoEspecialidad(), new MedicoEspecialidad());
-
         when(especialidadRepository.findById(id)).thenReturn(Optional.of(especialidad));
-        when(medicoEspecialidadRepository.findByIdEspecialidad(id)).thenReturn(medicosAsociados);
+        when(medicoEspecialidadRepository.countByIdEspecialidad(id)).thenReturn(2L);
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -195,5 +207,20 @@ class EspecialidadServiceTest {
         assertTrue(exception.getMessage().contains("tiene"));
         assertTrue(exception.getMessage().contains("médicos asociados"));
         verify(especialidadRepository, never()).delete(any(Especialidad.class));
+        verify(medicoEspecialidadRepository, never()).findByIdEspecialidad(anyLong());
+    }
+
+    private static ConteoPorId conteo(Long id, Long cantidad) {
+        return new ConteoPorId() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getCantidad() {
+                return cantidad;
+            }
+        };
     }
 }
\ No newline at end of file
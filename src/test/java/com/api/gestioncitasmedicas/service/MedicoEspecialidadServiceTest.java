@@ -2,6 +2,7 @@ package com.api.gestioncitasmedicas.service;
 
 import com.api.gestioncitasmedicas.dto.AsignarEspecialidadDTO;
 import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
 import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
 import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
 import com.api.gestioncitasmedicas.repository.MedicoRepository;
@@ -29,6 +30,9 @@ class MedicoEspecialidadServiceTest {
     @Mock
     private MedicoEspecialidadRepository medicoEspecialidadRepository;
 
+    @Mock
+    private IndiceMedicoEspecialidad indiceMedicoEspecialidad;
+
     @InjectMocks
     private MedicoEspecialidadService medicoEspecialidadService;
 
@@ -59,6 +63,7 @@ class MedicoEspecialidadServiceTest {
         verify(medicoEspecialidadRepository, times(1))
                 .existsByIdMedicoAndIdEspecialidad(1L, 1L);
         verify(medicoEspecialidadRepository, times(1)).save(any(MedicoEspecialidad.class));
+        verify(indiceMedicoEspecialidad, times(1)).agregar(1L, 1L);
     }
 
     @Test
@@ -125,6 +130,7 @@ class MedicoEspecialidadServiceTest {
                 .existsByIdMedicoAndIdEspecialidad(idMedico, idEspecialidad);
         verify(medicoEspecialidadRepository, times(1))
                 .deleteByIdMedicoAndIdEspecialidad(idMedico, idEspecialidad);
+        verify(indiceMedicoEspecialidad, times(1)).quitar(idMedico, idEspecialidad);
     }
 
     @Test
@@ -1,23 +1,32 @@
 package com.api.gestioncitasmedicas.service;
 
+import com.api.gestioncitasmedicas.cache.CacheEspecialidades;
 import com.api.gestioncitasmedicas.dto.ActualizarMedicoDTO;
 import com.api.gestioncitasmedicas.dto.CrearMedicoDTO;
 import com.api.gestioncitasmedicas.dto.MedicoDTO;
 import com.api.gestioncitasmedicas.entity.Especialidad;
 import com.api.gestioncitasmedicas.entity.Medico;
 import com.api.gestioncitasmedicas.entity.MedicoEspecialidad;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.ConflictoException;
+import com.api.gestioncitasmedicas.index.FiltroCorreos;
+import com.api.gestioncitasmedicas.index.IndiceMedicoEspecialidad;
 import com.api.gestioncitasmedicas.repository.CitaRepository;
-import com.api.gestioncitasmedicas.repository.EspecialidadRepository;
 import com.api.gestioncitasmedicas.repository.MedicoEspecialidadRepository;
 import com.api.gestioncitasmedicas.repository.MedicoRepository;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import com.api.gestioncitasmedicas.repository.projection.MedicoResumen;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
-import java.util.ArrayList;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -36,11 +45,18 @@ class MedicoServiceTest {
     private MedicoEspecialidadRepository medicoEspecialidadRepository;
 
     @Mock
-    private EspecialidadRepository especialidadRepository;
+    private CacheEspecialidades cacheEspecialidades;
+
+    @Mock
+    private IndiceMedicoEspecialidad indiceMedicoEspecialidad;
 
     @Mock
     private CitaRepository citaRepository;
 
+    // Sin cargar: todas las verificaciones de correo van al repositorio
+    @Spy
+    private FiltroCorreos filtroCorreos = new FiltroCorreos(mock(MedicoRepository.class), mock(PacienteRepository.class));
+
     @InjectMocks
     private MedicoService medicoService;
 
@@ -95,6 +111,11 @@ class MedicoServiceTest {
         actualizarDTO.setTelefonoMedico("77009999");
     }
 
+    private DataIntegrityViolationException violacionDeIntegridad(String restriccion) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException("violación"), restriccion));
+    }
+
     @Test
     void testObtenerTodos() {
         // ARRANGE
@@ -105,10 +126,9 @@ class MedicoServiceTest {
         medico2.setTelefonoMedico("77002222");
         medico2.setCorreoMedico("laura.garcia@hospital.com");
 
-        List<Medico> medicos = Arrays.asList(medico, medico2);
-        when(medicoRepository.findAll()).thenReturn(medicos);
-        when(medicoRepository.existsById(anyLong())).thenReturn(true);
-        when(medicoEspecialidadRepository.findByIdMedico(anyLong())).thenReturn(new ArrayList<>());
+        List<MedicoResumen> medicos = Arrays.asList(resumen(medico), resumen(medico2));
+        when(medicoRepository.findAllResumen()).thenReturn(medicos);
+        when(indiceMedicoEspecialidad.especialidadesDe(anyLong())).thenReturn(List.of());
 
         // ACT
         List<MedicoDTO> resultado = medicoService.obtenerTodos();
@@ -118,20 +138,20 @@ class MedicoServiceTest {
         assertEquals(2, resultado.size());
         assertEquals("Carlos", resultado.get(0).getNombreMedico());
         assertEquals("Laura", resultado.get(1).getNombreMedico());
-        verify(medicoRepository, times(1)).findAll();
+        verify(medicoRepository, times(1)).findAllResumen();
+        verify(medicoRepository, never()).findAll();
+        verify(medicoRepository, never()).existsById(anyLong());
     }
 
     @Test
     void testObtenerPorId_Exitoso() {
         // ARRANGE
         Long id = 1L;
-        List<MedicoEspecialidad> relaciones = Arrays.asList(medicoEspecialidad1, medicoEspecialidad2);
 
-        when(medicoRepository.findById(id)).thenReturn(Optional.of(medico));
-        when(medicoRepository.existsById(id)).thenReturn(true);
-        when(medicoEspecialidadRepository.findByIdMedico(id)).thenReturn(relaciones);
-        when(especialidadRepository.findById(1L)).thenReturn(Optional.of(especialidad1));
-        when(especialidadRepository.findById(2L)).thenReturn(Optional.of(especialidad2));
+        when(medicoRepository.findResumenById(id)).thenReturn(Optional.of(resumen(medico)));
+        when(indiceMedicoEspecialidad.especialidadesDe(id)).thenReturn(List.of(1L, 2L));
+        when(cacheEspecialidades.buscarPorId(1L)).thenReturn(Optional.of(especialidad1));
+        when(cacheEspecialidades.buscarPorId(2L)).thenReturn(Optional.of(especialidad2));
 
         // ACT
         MedicoDTO resultado = medicoService.obtenerPorId(id);
@@ -143,14 +163,14 @@ class MedicoServiceTest {
         assertEquals(2, resultado.getCantidadEspecialidades());
         assertTrue(resultado.getEspecialidades().contains("Cardiología"));
         assertTrue(resultado.getEspecialidades().contains("Medicina Interna"));
-        verify(medicoRepository, times(1)).findById(id);
+        verify(medicoRepository, times(1)).findResumenById(id);
     }
 
     @Test
     void testObtenerPorId_NoExiste() {
         // ARRANGE
         Long id = 999L;
-        when(medicoRepository.findById(id)).thenReturn(Optional.empty());
+        when(medicoRepository.findResumenById(id)).thenReturn(Optional.empty());
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -158,7 +178,7 @@ class MedicoServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("no encontrado"));
-        verify(medicoRepository, times(1)).findById(id);
+        verify(medicoRepository, times(1)).findResumenById(id);
     }
 
     @Test
@@ -166,8 +186,7 @@ class MedicoServiceTest {
         // ARRANGE
         when(medicoRepository.existsByCorreoMedico(anyString())).thenReturn(false);
         when(medicoRepository.save(any(Medico.class))).thenReturn(medico);
-        when(medicoRepository.existsById(anyLong())).thenReturn(true);
-        when(medicoEspecialidadRepository.findByIdMedico(anyLong())).thenReturn(new ArrayList<>());
+        when(indiceMedicoEspecialidad.especialidadesDe(anyLong())).thenReturn(List.of());
 
         // ACT
         MedicoDTO resultado = medicoService.crear(crearDTO);
@@ -178,6 +197,21 @@ class MedicoServiceTest {
         verify(medicoRepository, times(1)).save(any(Medico.class));
     }
 
+    @Test
+    void testCrear_FiltroDescartaCorreoSinConsultarBD() {
+        // ARRANGE
+        filtroCorreos.recargar(FiltroCorreos.Tabla.MEDICO); // Filtro cargado sin correos registrados
+        when(medicoRepository.save(any(Medico.class))).thenReturn(medico);
+        when(indiceMedicoEspecialidad.especialidadesDe(anyLong())).thenReturn(List.of());
+
+        // ACT
+        medicoService.crear(crearDTO);
+
+        // ASSERT
+        verify(medicoRepository, never()).existsByCorreoMedico(anyString());
+        assertTrue(filtroCorreos.puedeExistir(FiltroCorreos.Tabla.MEDICO, medico.getCorreoMedico()));
+    }
+
     @Test
     void testCrear_CorreoDuplicado() {
         // ARRANGE
@@ -192,14 +226,31 @@ class MedicoServiceTest {
         verify(medicoRepository, never()).save(any(Medico.class));
     }
 
+    @Test
+    void testCrear_FiltroDesactualizadoYLaLlaveRechazaElCorreo() {
+        // ARRANGE: MySQL con la llave creada por schema.sql antes de nombrarla
+        filtroCorreos.recargar(FiltroCorreos.Tabla.MEDICO);
+        when(medicoRepository.save(any(Medico.class)))
+                .thenThrow(violacionDeIntegridad("medico.correo_medico"));
+
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            medicoService.crear(crearDTO);
+        });
+
+        assertEquals(CodigoError.CORREO_DUPLICADO, assertInstanceOf(ConflictoException.class, exception).getCodigo());
+        assertTrue(exception.getMessage().contains("Ya existe un médico con el correo"));
+        verify(medicoRepository, never()).existsByCorreoMedico(anyString());
+        assertTrue(filtroCorreos.puedeExistir(FiltroCorreos.Tabla.MEDICO, crearDTO.getCorreoMedico()));
+    }
+
     @Test
     void testActualizar_Exitoso() {
         // ARRANGE
         Long id = 1L;
         when(medicoRepository.findById(id)).thenReturn(Optional.of(medico));
         when(medicoRepository.save(any(Medico.class))).thenReturn(medico);
-        when(medicoRepository.existsById(id)).thenReturn(true);
-        when(medicoEspecialidadRepository.findByIdMedico(anyLong())).thenReturn(new ArrayList<>());
+        when(indiceMedicoEspecialidad.especialidadesDe(anyLong())).thenReturn(List.of());
 
         // ACT
         MedicoDTO resultado = medicoService.actualizar(id, actualizarDTO);
@@ -245,6 +296,7 @@ class MedicoServiceTest {
         verify(citaRepository, times(1)).countByMedicoIdMedico(id);
         verify(medicoEspecialidadRepository, times(1)).deleteAllByIdMedico(id);
         verify(medicoRepository, times(1)).delete(any(Medico.class));
+        verify(indiceMedicoEspecialidad, times(1)).quitarMedico(id);
     }
 
     @Test
@@ -269,12 +321,11 @@ class MedicoServiceTest {
     void testObtenerEspecialidadesDeMedico_Exitoso() {
         // ARRANGE
         Long idMedico = 1L;
-        List<MedicoEspecialidad> relaciones = Arrays.asList(medicoEspecialidad1, medicoEspecialidad2);
 
         when(medicoRepository.existsById(idMedico)).thenReturn(true);
-        when(medicoEspecialidadRepository.findByIdMedico(idMedico)).thenReturn(relaciones);
-        when(especialidadRepository.findById(1L)).thenReturn(Optional.of(especialidad1));
-        when(especialidadRepository.findById(2L)).thenReturn(Optional.of(especialidad2));
+        when(indiceMedicoEspecialidad.especialidadesDe(idMedico)).thenReturn(List.of(1L, 2L));
+        when(cacheEspecialidades.buscarPorId(1L)).thenReturn(Optional.of(especialidad1));
+        when(cacheEspecialidades.buscarPorId(2L)).thenReturn(Optional.of(especialidad2));
 
         // ACT
         List<String> resultado = medicoService.obtenerEspecialidadesDeMedico(idMedico);
@@ -284,7 +335,7 @@ class MedicoServiceTest {
         assertEquals(2, resultado.size());
         assertTrue(resultado.contains("Cardiología"));
         assertTrue(resultado.contains("Medicina Interna"));
-        verify(medicoEspecialidadRepository, times(1)).findByIdMedico(idMedico);
+        verify(indiceMedicoEspecialidad, times(1)).especialidadesDe(idMedico);
     }
 
     @Test
@@ -299,7 +350,7 @@ class MedicoServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("no encontrado"));
-        verify(medicoEspecialidadRepository, never()).findByIdMedico(anyLong());
+        verify(indiceMedicoEspecialidad, never()).especialidadesDe(anyLong());
     }
 
     @Test
@@ -307,7 +358,7 @@ class MedicoServiceTest {
         // ARRANGE
         Long idMedico = 1L;
         when(medicoRepository.existsById(idMedico)).thenReturn(true);
-        when(medicoEspecialidadRepository.findByIdMedico(idMedico)).thenReturn(new ArrayList<>());
+        when(indiceMedicoEspecialidad.especialidadesDe(idMedico)).thenReturn(List.of());
 
         // ACT
         List<String> resultado = medicoService.obtenerEspecialidadesDeMedico(idMedico);
@@ -315,6 +366,11 @@ class MedicoServiceTest {
         // ASSERT
         assertNotNull(resultado);
         assertEquals(0, resultado.size());
-        verify(medicoEspecialidadRepository, times(1)).findByIdMedico(idMedico);
+        verify(indiceMedicoEspecialidad, times(1)).especialidadesDe(idMedico);
+    }
+
+    private static MedicoResumen resumen(Medico m) {
+        return new MedicoResumen(m.getIdMedico(), m.getNombreMedico(), m.getApellidoMedico(),
+                m.getTelefonoMedico(), m.getCorreoMedico());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,219 @@
+package com.api.gestioncitasmedicas.service;
+
+import com.api.gestioncitasmedicas.dto.CrearPacienteDTO;
+import com.api.gestioncitasmedicas.dto.ResultadoImportacionDTO;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.SolicitudInvalidaException;
+import com.api.gestioncitasmedicas.index.FiltroCorreos;
+import com.api.gestioncitasmedicas.index.IndicePacientes;
+import com.api.gestioncitasmedicas.repository.MedicoRepository;
+import com.api.gestioncitasmedicas.repository.PacienteJdbcRepository;
+import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PacienteImportServiceTest {
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @Mock
+    private PacienteJdbcRepository pacienteJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IndicePacientes indicePacientes;
+
+    private FiltroCorreos filtroCorreos;
+
+    private PacienteImportService pacienteImportService;
+
+    private static final String ENCABEZADO =
+            "nombre_paciente,apellido_paciente,fecha_nacimiento,telefono_paciente,correo_paciente\n";
+
+    @BeforeEach
+    void setUp() {
+        filtroCorreos = new FiltroCorreos(mock(MedicoRepository.class), pacienteRepository);
+        pacienteImportService = new PacienteImportService(pacienteRepository, pacienteJdbcRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), new TransactionTemplate(transactionManager),
+                indicePacientes, filtroCorreos);
+    }
+
+    private InputStream csv(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportar_Exitoso() {
+        // ARRANGE
+        when(pacienteRepository.findCorreosExistentes(anyCollection())).thenReturn(List.of());
+        when(pacienteJdbcRepository.insertar(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        // ACT
+        ResultadoImportacionDTO resultado = pacienteImportService.importar(csv(ENCABEZADO +
+                "Juan,Pérez,1985-03-15,70001234,juan.perez@email.com\r\n" +
+                "\"María José\",\"Sánchez, de López\",1990-07-22,70005678,maria.sanchez@email.com\n"));
+
+        // ASSERT
+        assertEquals(2, resultado.getTotal());
+        assertEquals(2, resultado.getImportados());
+        assertEquals(0, resultado.getRechazados());
+        assertTrue(resultado.getErrores().isEmpty());
+
+        ArgumentCaptor<List<CrearPacienteDTO>> filas = ArgumentCaptor.forClass(List.class);
+        verify(pacienteJdbcRepository, times(1)).insertar(filas.capture());
+        assertEquals("Sánchez, de López", filas.getValue().get(1).getApellidoPaciente());
+        verify(pacienteRepository, never()).existsByCorreoPaciente(anyString());
+        verify(indicePacientes, times(1)).cargarNuevos();
+    }
+
+    @Test
+    void testImportar_ErroresPorFila() {
+        // ARRANGE
+        when(pacienteRepository.findCorreosExistentes(anyCollection())).thenReturn(List.of("JUAN.PEREZ@email.com"));
+        when(pacienteJdbcRepository.insertar(anyList())).thenReturn(1);
+
+        // ACT
+        ResultadoImportacionDTO resultado = pacienteImportService.importar(csv(ENCABEZADO +
+                "Juan,Pérez,1985-03-15,70001234,juan.perez@email.com\n" +        // línea 2: ya registrado
+                "Ana,Reyes,15/01/1995,70003456,ana.reyes@email.com\n" +          // línea 3: fecha inválida
+                "Luis,Ortiz,1992-04-20,123,luis.ortiz@email.com\n" +             // línea 4: teléfono inválido
+                "Carmen,Silva,1975-12-05,70000123,carmen.silva@email.com\n" +    // línea 5: válida
+                "Carmen,Silva,1975-12-05,70000123,Carmen.Silva@email.com\n"));   // línea 6: repetida en el archivo
+
+        // ASSERT
+        assertEquals(5, resultado.getTotal());
+        assertEquals(1, resultado.getImportados());
+        assertEquals(4, resultado.getRechazados());
+        List<ResultadoImportacionDTO.ErrorFilaDTO> errores = resultado.getErrores();
+        assertEquals(3L, errores.get(0).getLinea());
+        assertTrue(errores.get(0).getError().contains("Fecha de nacimiento inválida"));
+        assertEquals(4L, errores.get(1).getLinea());
+        assertTrue(errores.get(1).getError().contains("8 dígitos"));
+        assertEquals(6L, errores.get(2).getLinea());
+        assertTrue(errores.get(2).getError().contains("línea 5"));
+        assertEquals(2L, errores.get(3).getLinea());
+        assertTrue(errores.get(3).getError().contains("Ya existe un paciente"));
+    }
+
+    @Test
+    void testImportar_ProcesaPorBloques() {
+        // ARRANGE
+        int filas = PacienteImportService.TAMANIO_BLOQUE * 2 + 10;
+        StringBuilder contenido = new StringBuilder(ENCABEZADO);
+        for (int i = 0; i < filas; i++) {
+            contenido.append("Paciente,Número ").append(i).append(",1990-01-01,70000000,p").append(i).append("@email.com\n");
+        }
+        when(pacienteRepository.findCorreosExistentes(anyCollection())).thenReturn(List.of());
+        when(pacienteJdbcRepository.insertar(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        // ACT
+        ResultadoImportacionDTO resultado = pacienteImportService.importar(csv(contenido.toString()));
+
+        // ASSERT
+        assertEquals(filas, resultado.getImportados());
+        verify(pacienteRepository, times(3)).findCorreosExistentes(anyCollection());
+        verify(pacienteJdbcRepository, times(3)).insertar(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportar_FiltroSoloConsultaPosiblesExistentes() {
+        // ARRANGE
+        when(pacienteRepository.findAllCorreos()).thenReturn(List.of("juan.perez@email.com"));
+        filtroCorreos.recargar(FiltroCorreos.Tabla.PACIENTE);
+        when(pacienteRepository.findCorreosExistentes(anyCollection())).thenReturn(List.of("juan.perez@email.com"));
+        when(pacienteJdbcRepository.insertar(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        // ACT
+        ResultadoImportacionDTO resultado = pacienteImportService.importar(csv(ENCABEZADO +
+                "Juan,Pérez,1985-03-15,70001234,juan.perez@email.com\n" +
+                "Carmen,Silva,1975-12-05,70000123,carmen.silva@email.com\n"));
+
+        // ASSERT
+        assertEquals(1, resultado.getImportados());
+        ArgumentCaptor<Collection<String>> consultados = ArgumentCaptor.forClass(Collection.class);
+        verify(pacienteRepository, times(1)).findCorreosExistentes(consultados.capture());
+        assertEquals(Set.of("juan.perez@email.com"), Set.copyOf(consultados.getValue()));
+        assertTrue(filtroCorreos.puedeExistir(FiltroCorreos.Tabla.PACIENTE, "carmen.silva@email.com"));
+    }
+
+    @Test
+    void testImportar_BloqueSinPosiblesExistentesNoConsultaCorreos() {
+        // ARRANGE
+        when(pacienteRepository.findAllCorreos()).thenReturn(List.of());
+        filtroCorreos.recargar(FiltroCorreos.Tabla.PACIENTE);
+        when(pacienteJdbcRepository.insertar(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        // ACT
+        ResultadoImportacionDTO resultado = pacienteImportService.importar(csv(ENCABEZADO +
+                "Carmen,Silva,1975-12-05,70000123,carmen.silva@email.com\n"));
+
+        // ASSERT
+        assertEquals(1, resultado.getImportados());
+        verify(pacienteRepository, never()).findCorreosExistentes(anyCollection());
+    }
+
+    @Test
+    void testImportar_FaltaColumna() {
+        // ACT & ASSERT
+        SolicitudInvalidaException exception = assertThrows(SolicitudInvalidaException.class, () ->
+                pacienteImportService.importar(csv("nombre,apellido,telefono,correo\nJuan,Pérez,70001234,j@email.com\n")));
+
+        assertTrue(exception.getMessage().contains("fecha_nacimiento"));
+        assertEquals(CodigoError.PARAMETRO_INVALIDO, exception.getCodigo());
+        verifyNoInteractions(pacienteJdbcRepository);
+    }
+
+    @Test
+    void testImportar_ArchivoVacio() {
+        // ACT & ASSERT
+        SolicitudInvalidaException exception = assertThrows(SolicitudInvalidaException.class, () ->
+                pacienteImportService.importar(csv("")));
+
+        assertEquals("El archivo CSV está vacío", exception.getMessage());
+        assertEquals(CodigoError.PARAMETRO_INVALIDO, exception.getCodigo());
+    }
+
+    @Test
+    void testImportar_ErrorDeLecturaConservaLaCausa() {
+        // ARRANGE
+        IOException falla = new IOException("Conexión reiniciada");
+        InputStream archivo = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw falla;
+            }
+        };
+
+        // ACT & ASSERT
+        SolicitudInvalidaException exception = assertThrows(SolicitudInvalidaException.class, () ->
+                pacienteImportService.importar(archivo));
+
+        assertEquals(CodigoError.PARAMETRO_INVALIDO, exception.getCodigo());
+        assertSame(falla, exception.getCause());
+    }
+}
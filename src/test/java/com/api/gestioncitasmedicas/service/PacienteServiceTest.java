@@ -2,17 +2,31 @@ package com.api.gestioncitasmedicas.service;
 
 import com.api.gestioncitasmedicas.dto.ActualizarPacienteDTO;
 import com.api.gestioncitasmedicas.dto.CrearPacienteDTO;
+import com.api.gestioncitasmedicas.dto.DuplicadoPacienteDTO;
 import com.api.gestioncitasmedicas.dto.PacienteDTO;
+import com.api.gestioncitasmedicas.dto.PaginaDTO;
 import com.api.gestioncitasmedicas.entity.Paciente;
+import com.api.gestioncitasmedicas.exception.CodigoError;
+import com.api.gestioncitasmedicas.exception.ConflictoException;
+import com.api.gestioncitasmedicas.exception.PacienteDuplicadoException;
+import com.api.gestioncitasmedicas.index.FiltroCorreos;
+import com.api.gestioncitasmedicas.index.IndicePacientes;
 import com.api.gestioncitasmedicas.repository.CitaRepository;
+import com.api.gestioncitasmedicas.repository.MedicoRepository;
 import com.api.gestioncitasmedicas.repository.PacienteRepository;
+import com.api.gestioncitasmedicas.repository.projection.ConteoPorId;
+import com.api.gestioncitasmedicas.repository.projection.PacienteResumen;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -31,6 +45,13 @@ class PacienteServiceTest {
     @Mock
     private CitaRepository citaRepository;
 
+    @Mock
+    private IndicePacientes indicePacientes;
+
+    // Sin cargar: todas las verificaciones de correo van al repositorio
+    @Spy
+    private FiltroCorreos filtroCorreos = new FiltroCorreos(mock(MedicoRepository.class), mock(PacienteRepository.class));
+
     @InjectMocks
     private PacienteService pacienteService;
 
@@ -63,6 +84,11 @@ class PacienteServiceTest {
         actualizarDTO.setTelefonoPaciente("77009999");
     }
 
+    private DataIntegrityViolationException violacionDeIntegridad(String restriccion) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException("violación"), restriccion));
+    }
+
     @Test
     void testObtenerTodos() {
         // ARRANGE
@@ -74,9 +100,9 @@ class PacienteServiceTest {
         paciente2.setTelefonoPaciente("77002222");
         paciente2.setCorreoPaciente("ana.martinez@email.com");
 
-        List<Paciente> pacientes = Arrays.asList(paciente, paciente2);
-        when(pacienteRepository.findAll()).thenReturn(pacientes);
-        when(citaRepository.countByPacienteIdPaciente(anyLong())).thenReturn(0L);
+        List<PacienteResumen> pacientes = Arrays.asList(resumen(paciente), resumen(paciente2));
+        when(pacienteRepository.findAllResumen()).thenReturn(pacientes);
+        when(citaRepository.contarCitasPorPaciente()).thenReturn(List.of(conteo(2L, 4L)));
 
         // ACT
         List<PacienteDTO> resultado = pacienteService.obtenerTodos();
@@ -88,14 +114,19 @@ class PacienteServiceTest {
         assertEquals("Ana", resultado.get(1).getNombrePaciente());
         assertEquals(25, resultado.get(0).getEdad()); // Verifica cálculo de edad
         assertEquals(35, resultado.get(1).getEdad());
-        verify(pacienteRepository, times(1)).findAll();
+        assertEquals(0, resultado.get(0).getCantidadCitas());
+        assertEquals(4, resultado.get(1).getCantidadCitas());
+        verify(pacienteRepository, times(1)).findAllResumen();
+        verify(pacienteRepository, never()).findAll();
+        verify(citaRepository, times(1)).contarCitasPorPaciente();
+        verify(citaRepository, never()).countByPacienteIdPaciente(anyLong());
     }
 
     @Test
     void testObtenerPorId_Exitoso() {
         // ARRANGE
         Long id = 1L;
-        when(pacienteRepository.findById(id)).thenReturn(Optional.of(paciente));
+        when(pacienteRepository.findResumenById(id)).thenReturn(Optional.of(resumen(paciente)));
         when(citaRepository.countByPacienteIdPaciente(id)).thenReturn(3L);
 
         // ACT
@@ -108,14 +139,15 @@ class PacienteServiceTest {
         assertEquals("Pérez", resultado.getApellidoPaciente());
         assertEquals(25, resultado.getEdad());
         assertEquals(3, resultado.getCantidadCitas());
-        verify(pacienteRepository, times(1)).findById(id);
+        verify(pacienteRepository, times(1)).findResumenById(id);
+        verify(pacienteRepository, never()).findById(anyLong());
     }
 
     @Test
     void testObtenerPorId_NoExiste() {
         // ARRANGE
         Long id = 999L;
-        when(pacienteRepository.findById(id)).thenReturn(Optional.empty());
+        when(pacienteRepository.findResumenById(id)).thenReturn(Optional.empty());
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -123,26 +155,80 @@ class PacienteServiceTest {
         });
 
         assertTrue(exception.getMessage().contains("no encontrado"));
-        verify(pacienteRepository, times(1)).findById(id);
+        verify(pacienteRepository, times(1)).findResumenById(id);
     }
 
     @Test
-    void testBuscarPorNombre() {
+    void testBuscarPorNombre_OrdenDelIndiceYPaginacion() {
         // ARRANGE
-        String termino = "Juan";
-        when(pacienteRepository.findByNombrePacienteContainingIgnoreCaseOrApellidoPacienteContainingIgnoreCase(
-                termino, termino)).thenReturn(Arrays.asList(paciente));
-        when(citaRepository.countByPacienteIdPaciente(anyLong())).thenReturn(0L);
+        Paciente paciente2 = new Paciente();
+        paciente2.setIdPaciente(2L);
+        paciente2.setNombrePaciente("Juana");
+        paciente2.setApellidoPaciente("López");
+        paciente2.setFechaNacimiento(LocalDate.now().minusYears(30));
+
+        when(indicePacientes.buscar("juan")).thenReturn(List.of(1L, 2L, 3L));
+        // La BD devuelve los pacientes en otro orden: se respeta el del índice
+        when(pacienteRepository.findResumenByIds(List.of(1L, 2L))).thenReturn(Arrays.asList(resumen(paciente2), resumen(paciente)));
+        when(citaRepository.contarCitasPorPaciente(List.of(1L, 2L))).thenReturn(List.of(conteo(1L, 2L)));
 
         // ACT
-        List<PacienteDTO> resultado = pacienteService.buscarPorNombre(termino);
+        PaginaDTO<PacienteDTO> resultado = pacienteService.buscarPorNombre("juan", false, null, 2);
 
         // ASSERT
-        assertNotNull(resultado);
-        assertEquals(1, resultado.size());
-        assertEquals("Juan", resultado.get(0).getNombrePaciente());
-        verify(pacienteRepository, times(1))
-                .findByNombrePacienteContainingIgnoreCaseOrApellidoPacienteContainingIgnoreCase(termino, termino);
+        assertEquals(2, resultado.getContenido().size());
+        assertEquals("Juan", resultado.getContenido().get(0).getNombrePaciente());
+        assertEquals("Juana", resultado.getContenido().get(1).getNombrePaciente());
+        assertEquals(2, resultado.getContenido().get(0).getCantidadCitas());
+        assertEquals(0, resultado.getContenido().get(1).getCantidadCitas());
+        assertTrue(resultado.getHayMas());
+        assertEquals("2", resultado.getSiguienteCursor());
+        verify(pacienteRepository, never())
+                .findByNombrePacienteContainingIgnoreCaseOrApellidoPacienteContainingIgnoreCase(anyString(), anyString());
+        verify(citaRepository, never()).countByPacienteIdPaciente(anyLong());
+    }
+
+    @Test
+    void testBuscarPorNombre_UltimaPagina() {
+        // ARRANGE
+        when(indicePacientes.buscar("juan")).thenReturn(List.of(1L, 2L, 3L));
+        when(pacienteRepository.findResumenByIds(List.of(3L))).thenReturn(List.of());
+        when(citaRepository.contarCitasPorPaciente(List.of(3L))).thenReturn(List.of());
+
+        // ACT
+        PaginaDTO<PacienteDTO> resultado = pacienteService.buscarPorNombre("juan", false, "2", 2);
+
+        // ASSERT
+        assertTrue(resultado.getContenido().isEmpty()); // Eliminado entre la búsqueda y la lectura
+        assertFalse(resultado.getHayMas());
+        assertNull(resultado.getSiguienteCursor());
+    }
+
+    @Test
+    void testBuscarPorNombre_Aproximado() {
+        // ARRANGE
+        when(indicePacientes.buscarAproximado("Ernandes")).thenReturn(List.of(1L));
+        when(pacienteRepository.findResumenByIds(List.of(1L))).thenReturn(List.of(resumen(paciente)));
+        when(citaRepository.contarCitasPorPaciente(List.of(1L))).thenReturn(List.of());
+
+        // ACT
+        PaginaDTO<PacienteDTO> resultado = pacienteService.buscarPorNombre("Ernandes", true, null, null);
+
+        // ASSERT
+        assertEquals(1, resultado.getContenido().size());
+        assertEquals(50, resultado.getTamanio());
+        verify(indicePacientes, never()).buscar(anyString());
+    }
+
+    @Test
+    void testBuscarPorNombre_CursorInvalido() {
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            pacienteService.buscarPorNombre("juan", false, "abc", null);
+        });
+
+        assertTrue(exception.getMessage().contains("Cursor"));
+        verify(indicePacientes, never()).buscar(anyString());
     }
 
     @Test
@@ -150,14 +236,16 @@ class PacienteServiceTest {
         // ARRANGE
         when(pacienteRepository.existsByCorreoPaciente(anyString())).thenReturn(false);
         when(pacienteRepository.save(any(Paciente.class))).thenReturn(paciente);
-        when(citaRepository.countByPacienteIdPaciente(anyLong())).thenReturn(0L);
 
         // ACT
-        PacienteDTO resultado = pacienteService.crear(crearDTO);
+        PacienteDTO resultado = pacienteService.crear(crearDTO, false);
 
         // ASSERT
         assertNotNull(resultado);
         assertEquals("Juan", resultado.getNombrePaciente());
+        assertEquals(0, resultado.getCantidadCitas());
+        verify(citaRepository, never()).countByPacienteIdPaciente(anyLong());
+        verify(indicePacientes, times(1)).agregar(paciente);
         verify(pacienteRepository, times(1)).save(any(Paciente.class));
     }
 
@@ -168,20 +256,112 @@ class PacienteServiceTest {
 
         // ACT & ASSERT
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            pacienteService.crear(crearDTO);
+            pacienteService.crear(crearDTO, false);
         });
 
         assertTrue(exception.getMessage().contains("Ya existe un paciente con el correo"));
         verify(pacienteRepository, never()).save(any(Paciente.class));
     }
 
+    @Test
+    void testCrear_FiltroDesactualizadoYLaLlaveRechazaElCorreo() {
+        // ARRANGE: el filtro no conoce el correo (lo registró otra instancia), así que no se consulta la BD
+        filtroCorreos.recargar(FiltroCorreos.Tabla.PACIENTE);
+        when(pacienteRepository.save(any(Paciente.class)))
+                .thenThrow(violacionDeIntegridad("PUBLIC.UK_CORREO_PACIENTE_INDEX_5"));
+
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            pacienteService.crear(crearDTO, false);
+        });
+
+        assertEquals(CodigoError.CORREO_DUPLICADO, assertInstanceOf(ConflictoException.class, exception).getCodigo());
+        assertTrue(exception.getMessage().contains("Ya existe un paciente con el correo"));
+        verify(pacienteRepository, never()).existsByCorreoPaciente(anyString());
+        verify(indicePacientes, never()).agregar(any(Paciente.class));
+        assertTrue(filtroCorreos.puedeExistir(FiltroCorreos.Tabla.PACIENTE, crearDTO.getCorreoPaciente()));
+    }
+
+    @Test
+    void testCrear_OtraViolacionDeIntegridadSePropaga() {
+        // ARRANGE
+        when(pacienteRepository.existsByCorreoPaciente(anyString())).thenReturn(false);
+        when(pacienteRepository.save(any(Paciente.class))).thenThrow(violacionDeIntegridad("PUBLIC.CONSTRAINT_8"));
+
+        // ACT & ASSERT
+        assertThrows(DataIntegrityViolationException.class, () -> pacienteService.crear(crearDTO, false));
+    }
+
+    @Test
+    void testCrear_PosibleDuplicado() {
+        // ARRANGE
+        when(pacienteRepository.existsByCorreoPaciente(anyString())).thenReturn(false);
+        when(indicePacientes.buscarDuplicados(anyString(), anyString(), any(LocalDate.class), anyString(), anyDouble()))
+                .thenReturn(List.of(new IndicePacientes.Candidato(1L, 0.95)));
+        when(pacienteRepository.findResumenByIds(List.of(1L))).thenReturn(List.of(resumen(paciente)));
+
+        // ACT & ASSERT
+        PacienteDuplicadoException exception = assertThrows(PacienteDuplicadoException.class, () -> {
+            pacienteService.crear(crearDTO, false);
+        });
+
+        assertTrue(exception.getMessage().contains("Posible paciente duplicado"));
+        assertEquals(CodigoError.POSIBLE_PACIENTE_DUPLICADO, exception.getCodigo());
+        assertEquals(1, exception.getCandidatos().size());
+        assertEquals(1L, exception.getCandidatos().get(0).getIdPaciente());
+        assertEquals(0.95, exception.getCandidatos().get(0).getSimilitud());
+        verify(pacienteRepository, never()).save(any(Paciente.class));
+    }
+
+    @Test
+    void testCrear_ForzarIgnoraDuplicados() {
+        // ARRANGE
+        when(pacienteRepository.existsByCorreoPaciente(anyString())).thenReturn(false);
+        when(pacienteRepository.save(any(Paciente.class))).thenReturn(paciente);
+
+        // ACT
+        PacienteDTO resultado = pacienteService.crear(crearDTO, true);
+
+        // ASSERT
+        assertNotNull(resultado);
+        verify(indicePacientes, never()).buscarDuplicados(any(), any(), any(), any(), anyDouble());
+    }
+
+    @Test
+    void testBuscarDuplicados() {
+        // ARRANGE
+        when(indicePacientes.buscarDuplicados(crearDTO.getNombrePaciente(), crearDTO.getApellidoPaciente(),
+                crearDTO.getFechaNacimiento(), crearDTO.getTelefonoPaciente(), PacienteService.SIMILITUD_DUPLICADO))
+                .thenReturn(List.of(new IndicePacientes.Candidato(1L, 0.8)));
+        when(pacienteRepository.findResumenByIds(List.of(1L))).thenReturn(List.of(resumen(paciente)));
+
+        // ACT
+        List<DuplicadoPacienteDTO> resultado = pacienteService.buscarDuplicados(crearDTO);
+
+        // ASSERT
+        assertEquals(1, resultado.size());
+        assertEquals(1L, resultado.get(0).getIdPaciente());
+        assertEquals("Pérez", resultado.get(0).getApellidoPaciente());
+        assertEquals(0.8, resultado.get(0).getSimilitud());
+    }
+
+    @Test
+    void testBuscarDuplicados_SinFechaNacimiento() {
+        // ARRANGE
+        crearDTO.setFechaNacimiento(null);
+
+        // ACT & ASSERT
+        assertThrows(RuntimeException.class, () -> pacienteService.buscarDuplicados(crearDTO));
+        verify(pacienteRepository, never()).findResumenByIds(any());
+    }
+
     @Test
     void testActualizar_Exitoso() {
         // ARRANGE
         Long id = 1L;
         when(pacienteRepository.findById(id)).thenReturn(Optional.of(paciente));
         when(pacienteRepository.save(any(Paciente.class))).thenReturn(paciente);
-        when(citaRepository.countByPacienteIdPaciente(anyLong())).thenReturn(0L);
+        when(citaRepository.countByPacienteIdPaciente(id)).thenReturn(0L);
 
         // ACT
         PacienteDTO resultado = pacienteService.actualizar(id, actualizarDTO);
@@ -210,6 +390,26 @@ class PacienteServiceTest {
         verify(pacienteRepository, never()).save(any(Paciente.class));
     }
 
+    @Test
+    void testActualizar_FiltroDesactualizadoYLaLlaveRechazaElCorreo() {
+        // ARRANGE
+        Long id = 1L;
+        actualizarDTO.setCorreoPaciente("otro@email.com");
+        filtroCorreos.recargar(FiltroCorreos.Tabla.PACIENTE);
+        when(pacienteRepository.findById(id)).thenReturn(Optional.of(paciente));
+        when(pacienteRepository.save(any(Paciente.class)))
+                .thenThrow(violacionDeIntegridad("paciente.uk_correo_paciente"));
+
+        // ACT & ASSERT
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            pacienteService.actualizar(id, actualizarDTO);
+        });
+
+        assertEquals(CodigoError.CORREO_DUPLICADO, assertInstanceOf(ConflictoException.class, exception).getCodigo());
+        assertTrue(exception.getMessage().contains("otro@email.com"));
+        assertTrue(filtroCorreos.puedeExistir(FiltroCorreos.Tabla.PACIENTE, "otro@email.com"));
+    }
+
     @Test
     void testEliminar_Exitoso() {
         // ARRANGE
@@ -225,6 +425,7 @@ class PacienteServiceTest {
         verify(pacienteRepository, times(1)).findById(id);
         verify(citaRepository, times(1)).countByPacienteIdPaciente(id);
         verify(pacienteRepository, times(1)).delete(any(Paciente.class));
+        verify(indicePacientes, times(1)).quitar(id);
     }
 
     @Test
@@ -250,7 +451,7 @@ class PacienteServiceTest {
         LocalDate fechaNacimiento = LocalDate.of(2000, 1, 1);
         paciente.setFechaNacimiento(fechaNacimiento);
 
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
+        when(pacienteRepository.findResumenById(1L)).thenReturn(Optional.of(resumen(paciente)));
         when(citaRepository.countByPacienteIdPaciente(anyLong())).thenReturn(0L);
 
         // ACT
@@ -266,7 +467,7 @@ class PacienteServiceTest {
         // ARRANGE
         paciente.setFechaNacimiento(null);
 
-        when(pacienteRepository.findById(1L)).thenReturn(Optional.of(paciente));
+        when(pacienteRepository.findResumenById(1L)).thenReturn(Optional.of(resumen(paciente)));
         when(citaRepository.countByPacienteIdPaciente(anyLong())).thenReturn(0L);
 
         // ACT
@@ -275,4 +476,23 @@ class PacienteServiceTest {
         // ASSERT
         assertEquals(0, resultado.getEdad());
     }
+
+    private static PacienteResumen resumen(Paciente p) {
+        return new PacienteResumen(p.getIdPaciente(), p.getNombrePaciente(), p.getApellidoPaciente(),
+                p.getFechaNacimiento(), p.getTelefonoPaciente(), p.getCorreoPaciente());
+    }
+
+    private static ConteoPorId conteo(Long id, Long cantidad) {
+        return new ConteoPorId() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getCantidad() {
+                return cantidad;
+            }
+        };
+    }
 }
\ No newline at end of file